@@ -7,8 +7,14 @@ import android.test.RenamingDelegatingContext;
 import org.wordpress.android.TestUtils;
 import org.wordpress.android.datasets.CommentTable;
 import org.wordpress.android.models.Comment;
+import org.wordpress.android.models.CommentList;
+import org.wordpress.android.models.CommentStatus;
+
+import java.util.Locale;
 
 public class CommentTableTest extends InstrumentationTestCase {
+    private static final int LOCAL_BLOG_ID = 99;
+
     protected Context mTargetContext;
     protected Context mTestContext;
 
@@ -37,6 +43,67 @@ public class CommentTableTest extends InstrumentationTestCase {
         createAndGetComment(1024 * 1024 * 2);
     }
 
+    public void testGetCommentsAPageAtATime() {
+        TestUtils.loadDBFromDump(mTargetContext, mTestContext, "taliwutt-blogs-sample.sql");
+        CommentTable.saveComments(LOCAL_BLOG_ID, newComments(5));
+
+        CommentList firstPage = CommentTable.getCommentsForBlogWithFilter(LOCAL_BLOG_ID, CommentStatus.UNKNOWN,
+                null, null, 2);
+        assertEquals(2, firstPage.size());
+        assertEquals(5, firstPage.get(0).commentID);
+        assertEquals(4, firstPage.get(1).commentID);
+
+        CommentList nextPage = CommentTable.getCommentsForBlogWithFilter(LOCAL_BLOG_ID, CommentStatus.UNKNOWN,
+                null, firstPage.get(1), 0);
+        assertEquals(3, nextPage.size());
+        assertEquals(3, nextPage.get(0).commentID);
+        assertEquals(1, nextPage.get(2).commentID);
+
+        CommentList pending = CommentTable.getCommentsForBlogWithFilter(LOCAL_BLOG_ID, CommentStatus.UNAPPROVED,
+                null, null, 0);
+        assertEquals(2, pending.size());
+        assertEquals(2, CommentTable.getUnmoderatedCommentCount(LOCAL_BLOG_ID));
+    }
+
+    public void testSearchComments() {
+        TestUtils.loadDBFromDump(mTargetContext, mTestContext, "taliwutt-blogs-sample.sql");
+        CommentTable.saveComments(LOCAL_BLOG_ID, newComments(5));
+
+        CommentList found = CommentTable.getCommentsForBlogWithFilter(LOCAL_BLOG_ID, CommentStatus.UNKNOWN,
+                "Author3", null, 0);
+        assertEquals(1, found.size());
+        assertEquals(3, found.get(0).commentID);
+
+        // saving a comment again updates its indexed text
+        Comment edited = found.get(0);
+        edited.setCommentText("Rewritten");
+        CommentTable.updateComment(LOCAL_BLOG_ID, edited);
+        assertEquals(-1, CommentTable.getCommentsForBlogWithFilter(LOCAL_BLOG_ID, CommentStatus.UNKNOWN,
+                "text", null, 0).indexOfCommentId(3));
+        assertEquals(1, CommentTable.getCommentsForBlogWithFilter(LOCAL_BLOG_ID, CommentStatus.UNKNOWN,
+                "rewr", null, 0).size());
+    }
+
+    /*
+     * returns comments with ids 1 to count, published a minute apart, every other one held for moderation
+     */
+    private static CommentList newComments(int count) {
+        CommentList comments = new CommentList();
+        for (int id = 1; id <= count; id++) {
+            comments.add(new Comment(1,
+                    id,
+                    "author" + id,
+                    String.format(Locale.US, "2016-01-01T10:%02d:00+00:00", id),
+                    "comment text " + id,
+                    id % 2 == 0 ? "hold" : "approve",
+                    "title",
+                    "http://example.com",
+                    "author@example.com",
+                    ""));
+        }
+        return comments;
+    }
+
     private void createAndGetComment(int commentLength) {
         // Load a sample DB and inject it into WordPress.wpdb
         TestUtils.loadDBFromDump(mTargetContext, mTestContext, "taliwutt-blogs-sample.sql");
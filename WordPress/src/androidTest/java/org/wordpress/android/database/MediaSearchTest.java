@@ -0,0 +1,87 @@
+package org.wordpress.android.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import org.wordpress.android.TestUtils;
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.helpers.MediaFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that the full-text index of the media library follows the media table through its triggers.
+ */
+public class MediaSearchTest extends InstrumentationTestCase {
+    private static final String BLOG_ID = "1";
+
+    protected Context mTargetContext;
+    protected Context mTestContext;
+
+    @Override
+    protected void setUp() throws Exception {
+        mTargetContext = new RenamingDelegatingContext(getInstrumentation().getTargetContext(), "test_");
+        mTestContext = getInstrumentation().getContext();
+        TestUtils.clearApplicationState(mTargetContext);
+        TestUtils.loadDBFromDump(mTargetContext, mTestContext, "empty_tables.sql");
+        super.setUp();
+
+        WordPress.wpDB.saveMediaFile(newMediaFile("1", "Sunset at the beach", "", "img_001.jpg", 3000));
+        WordPress.wpDB.saveMediaFile(newMediaFile("2", "Hike", "Mountain sunrise", "img_002.jpg", 2000));
+        WordPress.wpDB.saveMediaFile(newMediaFile("3", "Game", "", "beach-volleyball.jpg", 1000));
+    }
+
+    public void testInsertedMediaIsFound() {
+        // title matches come first
+        assertSearchResults("sun", "1", "2");
+        assertSearchResults("BEACH", "1", "3");
+        assertSearchResults("sunset beach", "1");
+        assertSearchResults("volley", "3");
+        assertSearchResults("missing");
+    }
+
+    public void testUpdatedMediaIsFound() {
+        WordPress.wpDB.saveMediaFile(newMediaFile("1", "Evening", "", "img_001.jpg", 3000));
+
+        assertSearchResults("sunset");
+        assertSearchResults("evening", "1");
+        assertSearchResults("beach", "3");
+    }
+
+    public void testDeletedMediaIsNotFound() {
+        WordPress.wpDB.deleteMediaFile(BLOG_ID, "2");
+
+        assertSearchResults("mountain");
+        assertSearchResults("sun", "1");
+        assertSearchResults("", "1", "3");
+    }
+
+    private MediaFile newMediaFile(String mediaId, String title, String caption, String fileName, long dateCreated) {
+        MediaFile mediaFile = new MediaFile();
+        mediaFile.setBlogId(BLOG_ID);
+        mediaFile.setMediaId(mediaId);
+        mediaFile.setTitle(title);
+        mediaFile.setCaption(caption);
+        mediaFile.setFileName(fileName);
+        mediaFile.setFilePath("/sdcard/" + fileName);
+        mediaFile.setDateCreatedGMT(dateCreated);
+        return mediaFile;
+    }
+
+    private void assertSearchResults(String searchTerm, String... mediaIds) {
+        List<String> results = new ArrayList<>();
+        Cursor cursor = WordPress.wpDB.getMediaFilesForBlog(BLOG_ID, searchTerm);
+        try {
+            while (cursor.moveToNext()) {
+                results.add(cursor.getString(cursor.getColumnIndex("mediaId")));
+            }
+        } finally {
+            cursor.close();
+        }
+        assertEquals("results of \"" + searchTerm + "\"", Arrays.asList(mediaIds), results);
+    }
+}
@@ -0,0 +1,116 @@
+package org.wordpress.android.database;
+
+import android.test.InstrumentationTestCase;
+
+import org.wordpress.android.datasets.ReaderCommentTable;
+import org.wordpress.android.models.ReaderComment;
+import org.wordpress.android.models.ReaderCommentList;
+import org.wordpress.android.models.ReaderPost;
+
+public class ReaderCommentTableTest extends InstrumentationTestCase {
+    private static final long BLOG_ID = 987654321;
+    private static final long POST_ID = 123456789;
+
+    private ReaderPost mPost;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPost = new ReaderPost();
+        mPost.blogId = BLOG_ID;
+        mPost.postId = POST_ID;
+        ReaderCommentTable.purgeCommentsForPost(BLOG_ID, POST_ID);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ReaderCommentTable.purgeCommentsForPost(BLOG_ID, POST_ID);
+        super.tearDown();
+    }
+
+    public void testRepliesFollowTheirParents() {
+        addThread();
+
+        // siblings are sorted by timestamp, the orphan and its reply come last
+        assertThread(new long[]{2, 1, 4, 5, 3, 6, 7},
+                     new int[] {0, 0, 1, 2, 1, 1, 2});
+    }
+
+    public void testRepliesStoredBeforeTheirParent() {
+        ReaderCommentList comments = new ReaderCommentList();
+        comments.add(newComment(5, 4, 400));
+        ReaderCommentTable.addOrUpdateComments(comments);
+        assertThread(new long[]{5},
+                     new int[] {1});
+
+        // once the parent is stored the reply is no longer an orphan
+        comments.clear();
+        comments.add(newComment(4, 0, 200));
+        ReaderCommentTable.addOrUpdateComments(comments);
+        assertThread(new long[]{4, 5},
+                     new int[] {0, 1});
+    }
+
+    public void testDeletedParentMakesOrphans() {
+        addThread();
+
+        ReaderCommentTable.deleteComment(mPost, 4);
+
+        // the reply to the deleted comment becomes an orphan, sorted with the other one by timestamp
+        assertThread(new long[]{2, 1, 3, 6, 7, 5},
+                     new int[] {0, 0, 1, 1, 2, 1});
+    }
+
+    public void testParentCycle() {
+        ReaderCommentList comments = new ReaderCommentList();
+        comments.add(newComment(10, 11, 100));
+        comments.add(newComment(11, 10, 200));
+        comments.add(newComment(12, 0, 300));
+        ReaderCommentTable.addOrUpdateComments(comments);
+
+        // the cycle is broken by making one of its comments an orphan, with the other one as its reply
+        ReaderCommentList thread = ReaderCommentTable.getCommentsForPost(mPost);
+        assertEquals(3, thread.size());
+        assertEquals(12, thread.get(0).commentId);
+        assertEquals(0, thread.get(0).level);
+        assertEquals(1, thread.get(1).level);
+        assertEquals(2, thread.get(2).level);
+        assertEquals(thread.get(1).commentId, thread.get(2).parentId);
+    }
+
+    /*
+     * adds two top level comments with nested replies, and an orphan with a reply
+     */
+    private void addThread() {
+        ReaderCommentList comments = new ReaderCommentList();
+        comments.add(newComment(1, 0, 100));
+        comments.add(newComment(2, 0, 50));
+        comments.add(newComment(3, 1, 300));
+        comments.add(newComment(4, 1, 200));
+        comments.add(newComment(5, 4, 400));
+        comments.add(newComment(6, 999, 10));
+        comments.add(newComment(7, 6, 20));
+        ReaderCommentTable.addOrUpdateComments(comments);
+    }
+
+    private ReaderComment newComment(long commentId, long parentId, long timestamp) {
+        ReaderComment comment = new ReaderComment();
+        comment.blogId = BLOG_ID;
+        comment.postId = POST_ID;
+        comment.commentId = commentId;
+        comment.parentId = parentId;
+        comment.timestamp = timestamp;
+        comment.pageNumber = 1;
+        comment.setText("Comment " + commentId);
+        return comment;
+    }
+
+    private void assertThread(long[] commentIds, int[] levels) {
+        ReaderCommentList thread = ReaderCommentTable.getCommentsForPost(mPost);
+        assertEquals(commentIds.length, thread.size());
+        for (int i = 0; i < commentIds.length; i++) {
+            assertEquals("comment at " + i, commentIds[i], thread.get(i).commentId);
+            assertEquals("level of comment " + commentIds[i], levels[i], thread.get(i).level);
+        }
+    }
+}
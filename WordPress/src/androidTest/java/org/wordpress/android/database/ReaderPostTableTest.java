@@ -0,0 +1,106 @@
+package org.wordpress.android.database;
+
+import android.content.ContentValues;
+import android.test.InstrumentationTestCase;
+
+import org.wordpress.android.datasets.ReaderDatabase;
+import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
+import org.wordpress.android.ui.reader.models.ReaderPostChanges;
+
+public class ReaderPostTableTest extends InstrumentationTestCase {
+    private static final long BLOG_ID = 987654321;
+    private static final String TAMPERED_TITLE = "tampered";
+
+    private final ReaderTag mTag = new ReaderTag("test-tag", "test-tag", "test-tag", null, ReaderTagType.DEFAULT);
+    private final ReaderTag mOtherTag = new ReaderTag("other-tag", "other-tag", "other-tag", null, ReaderTagType.DEFAULT);
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        deletePosts();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        deletePosts();
+        super.tearDown();
+    }
+
+    public void testUnchangedPostIsNotRewritten() {
+        ReaderPostList posts = newPosts(1, 2);
+        ReaderPostTable.addOrUpdatePosts(mTag, posts);
+        tamperTitle(1);
+
+        ReaderPostChanges changes = ReaderPostTable.getPostChanges(mTag, posts);
+        assertEquals(UpdateResult.UNCHANGED, changes.getUpdateResult());
+        ReaderPostTable.addOrUpdatePosts(mTag, posts, changes);
+
+        assertEquals(TAMPERED_TITLE, ReaderPostTable.getPostTitle(BLOG_ID, 1));
+    }
+
+    public void testOnlyChangedPostIsRewritten() {
+        ReaderPostList posts = newPosts(1, 2);
+        ReaderPostTable.addOrUpdatePosts(mTag, posts);
+        tamperTitle(1);
+        tamperTitle(2);
+
+        // a column other than the ones that usually change
+        posts.get(1).setBlogName("renamed blog");
+        ReaderPostChanges changes = ReaderPostTable.getPostChanges(mTag, posts);
+        assertEquals(UpdateResult.CHANGED, changes.getUpdateResult());
+        ReaderPostTable.addOrUpdatePosts(mTag, posts, changes);
+
+        assertEquals(TAMPERED_TITLE, ReaderPostTable.getPostTitle(BLOG_ID, 1));
+        assertEquals("Post 2", ReaderPostTable.getPostTitle(BLOG_ID, 2));
+    }
+
+    public void testUnchangedPostGetsMissingTag() {
+        ReaderPostList posts = newPosts(1, 2);
+        ReaderPostTable.addOrUpdatePosts(mTag, posts);
+        tamperTitle(1);
+
+        ReaderPostChanges changes = ReaderPostTable.getPostChanges(mOtherTag, posts);
+        assertEquals(UpdateResult.HAS_NEW, changes.getUpdateResult());
+        assertFalse(changes.isChanged(posts.get(0)));
+        ReaderPostTable.addOrUpdatePosts(mOtherTag, posts, changes);
+
+        assertEquals(2, ReaderPostTable.getNumPostsWithTag(mOtherTag));
+        assertEquals(TAMPERED_TITLE, ReaderPostTable.getPostTitle(BLOG_ID, 1));
+    }
+
+    private ReaderPostList newPosts(long... postIds) {
+        ReaderPostList posts = new ReaderPostList();
+        for (long postId : postIds) {
+            ReaderPost post = new ReaderPost();
+            post.blogId = BLOG_ID;
+            post.postId = postId;
+            post.sortIndex = postId;
+            post.setPseudoId("test-" + postId);
+            post.setTitle("Post " + postId);
+            post.setText("Text of post " + postId);
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    /*
+     * overwrites the stored title without updating the content hash getPostChanges() compares
+     */
+    private void tamperTitle(long postId) {
+        ContentValues values = new ContentValues();
+        values.put("title", TAMPERED_TITLE);
+        ReaderDatabase.getWritableDb().update("tbl_posts", values, "blog_id=? AND post_id=?",
+                new String[]{Long.toString(BLOG_ID), Long.toString(postId)});
+    }
+
+    private void deletePosts() {
+        ReaderPostTable.deletePostsWithTag(mTag);
+        ReaderPostTable.deletePostsWithTag(mOtherTag);
+        ReaderPostTable.deletePostsInBlog(BLOG_ID);
+    }
+}
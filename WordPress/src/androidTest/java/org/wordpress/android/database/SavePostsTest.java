@@ -0,0 +1,112 @@
+package org.wordpress.android.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.test.RenamingDelegatingContext;
+
+import org.wordpress.android.TestUtils;
+import org.wordpress.android.WordPress;
+import org.wordpress.android.models.PostsListPost;
+import org.xmlrpc.android.XMLRPCClient;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that WordPressDB.savePosts skips the posts which haven't changed since they were last saved: the stored
+ * title of every post is overwritten behind savePosts' back, so it's only restored for the posts savePosts writes.
+ */
+public class SavePostsTest extends InstrumentationTestCase {
+    private static final String RECENT_POSTS_FIXTURE = "default-metaWeblog.getRecentPosts.xml";
+    private static final String TAMPERED_TITLE = "tampered";
+    private static final String EDITED_TITLE = "edited";
+    private static final int COPIES = 5;
+    private static final int LOCAL_BLOG_ID = 1;
+
+    protected Context mTargetContext;
+    protected Context mTestContext;
+
+    @Override
+    protected void setUp() throws Exception {
+        mTargetContext = new RenamingDelegatingContext(getInstrumentation().getTargetContext(), "test_");
+        mTestContext = getInstrumentation().getContext();
+        TestUtils.clearApplicationState(mTargetContext);
+        TestUtils.loadDBFromDump(mTargetContext, mTestContext, "empty_tables.sql");
+        super.setUp();
+    }
+
+    public void testUnchangedPostsAreSkipped() throws Exception {
+        List<Map<String, Object>> posts = loadPosts();
+        WordPress.wpDB.savePosts(posts, LOCAL_BLOG_ID, false, false);
+        assertEquals(posts.size(), countPostsWithTitle(null));
+
+        tamperTitles();
+        WordPress.wpDB.savePosts(posts, LOCAL_BLOG_ID, false, false);
+        assertEquals(posts.size(), countPostsWithTitle(TAMPERED_TITLE));
+    }
+
+    public void testChangedPostsAreWritten() throws Exception {
+        List<Map<String, Object>> posts = loadPosts();
+        WordPress.wpDB.savePosts(posts, LOCAL_BLOG_ID, false, false);
+
+        tamperTitles();
+        posts.get(0).put("title", EDITED_TITLE);
+        WordPress.wpDB.savePosts(posts, LOCAL_BLOG_ID, false, false);
+
+        assertEquals(posts.size() - 1, countPostsWithTitle(TAMPERED_TITLE));
+        assertEquals(1, countPostsWithTitle(EDITED_TITLE));
+    }
+
+    /*
+     * overwrites the stored titles without updating the hash savePosts compares
+     */
+    private void tamperTitles() {
+        ContentValues values = new ContentValues();
+        values.put("title", TAMPERED_TITLE);
+        WordPress.wpDB.getDatabase().update("posts", values, "blogID=?",
+                new String[]{Integer.toString(LOCAL_BLOG_ID)});
+    }
+
+    /*
+     * returns the number of stored posts with the passed title, or of all stored posts if title is null
+     */
+    private int countPostsWithTitle(String title) {
+        int count = 0;
+        for (PostsListPost post : WordPress.wpDB.getPostsListPosts(LOCAL_BLOG_ID, false)) {
+            if (title == null || title.equals(post.getTitle())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * returns COPIES copies of the fixture posts, each with its own post id
+     */
+    private List<Map<String, Object>> loadPosts() throws Exception {
+        InputStream is = mTestContext.getAssets().open(RECENT_POSTS_FIXTURE);
+        Object[] fixturePosts;
+        try {
+            fixturePosts = (Object[]) XMLRPCClient.parseXMLRPCResponse(is, null);
+        } finally {
+            is.close();
+        }
+
+        List<Map<String, Object>> posts = new ArrayList<>();
+        for (int copy = 0; copy < COPIES; copy++) {
+            for (Object fixturePost : fixturePosts) {
+                Map<String, Object> post = new HashMap<>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) fixturePost).entrySet()) {
+                    post.put(entry.getKey().toString(), entry.getValue());
+                }
+                post.put("postid", post.get("postid") + "-" + copy);
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+}
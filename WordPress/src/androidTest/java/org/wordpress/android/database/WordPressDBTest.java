@@ -4,6 +4,14 @@ import android.content.Context;
 import android.test.InstrumentationTestCase;
 import android.test.RenamingDelegatingContext;
 
+import org.wordpress.android.TestUtils;
+import org.wordpress.android.WordPress;
+import org.wordpress.android.models.Blog;
+import org.wordpress.android.models.BlogSummary;
+
+import java.util.List;
+import java.util.Map;
+
 public class WordPressDBTest extends InstrumentationTestCase {
     protected Context testContext;
     protected Context targetContext;
@@ -14,4 +22,30 @@ public class WordPressDBTest extends InstrumentationTestCase {
         targetContext = new RenamingDelegatingContext(getInstrumentation().getTargetContext(), "test_");
         testContext = getInstrumentation().getContext();
     }
+
+    public void testBlogSummariesFollowChanges() {
+        TestUtils.loadDBFromDump(targetContext, testContext, "taliwutt-blogs-sample.sql");
+
+        List<Map<String, Object>> blogs = WordPress.wpDB.getBlogsBy(null, null);
+        List<BlogSummary> summaries = WordPress.wpDB.getBlogSummaries();
+        assertEquals(blogs.size(), summaries.size());
+        for (int i = 1; i < summaries.size(); i++) {
+            assertTrue(summaries.get(i - 1).getBlogNameOrHomeURL()
+                    .compareToIgnoreCase(summaries.get(i).getBlogNameOrHomeURL()) <= 0);
+        }
+        assertEquals(WordPress.wpDB.getNumVisibleBlogs(), WordPress.wpDB.getVisibleBlogs().size());
+
+        // the cached summaries are dropped when a blog is added
+        Blog blog = new Blog("http://example.com/xmlrpc.php", "user", "password");
+        blog.setBlogName("AAA first blog");
+        blog.setHomeURL("http://example.com/");
+        WordPress.wpDB.addBlog(blog);
+        summaries = WordPress.wpDB.getBlogSummaries();
+        assertEquals(blogs.size() + 1, summaries.size());
+        assertEquals("AAA first blog", summaries.get(0).getBlogNameOrHomeURL());
+        assertEquals("example.com", summaries.get(0).getHomeURLOrHostName());
+        assertTrue(summaries.get(0).matches("first"));
+        assertTrue(summaries.get(0).matches("example"));
+        assertFalse(summaries.get(0).matches("missing"));
+    }
 }
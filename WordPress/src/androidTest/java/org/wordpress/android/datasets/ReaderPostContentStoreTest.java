@@ -0,0 +1,77 @@
+package org.wordpress.android.datasets;
+
+import android.test.InstrumentationTestCase;
+
+import org.wordpress.android.models.ReaderPost;
+
+public class ReaderPostContentStoreTest extends InstrumentationTestCase {
+    private static final long BLOG_ID = 987654321;
+    private static final long POST_ID = 123456789;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ReaderDatabase.reset();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ReaderDatabase.reset();
+        super.tearDown();
+    }
+
+    public void testCommittedTextIsStored() {
+        ReaderPostTable.addOrUpdatePost(newPost("Committed text"));
+
+        assertEquals("Committed text", ReaderPostTable.getPostText(BLOG_ID, POST_ID));
+    }
+
+    public void testRolledBackTextIsDeleted() {
+        final ReaderPost post = newPost("Rolled back text");
+        try {
+            ReaderDatabase.getWriter().executeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    ReaderPostTable.addOrUpdatePost(post);
+                    throw new IllegalStateException("failing write");
+                }
+            });
+            fail("the write should have failed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertFalse(ReaderPostTable.postExists(BLOG_ID, POST_ID));
+        assertEquals(0, ReaderPostContentStore.getSize(post.getPseudoId()));
+        assertEquals(0, ReaderPostContentStore.purge(ReaderDatabase.getWritableDb()));
+    }
+
+    public void testRolledBackTextLeavesStoredTextAlone() {
+        ReaderPostTable.addOrUpdatePost(newPost("Committed text"));
+        final ReaderPost post = newPost("Rolled back text");
+        try {
+            ReaderDatabase.getWriter().executeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    ReaderPostTable.addOrUpdatePost(post);
+                    throw new IllegalStateException("failing write");
+                }
+            });
+            fail("the write should have failed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertEquals("Committed text", ReaderPostTable.getPostText(BLOG_ID, POST_ID));
+    }
+
+    private ReaderPost newPost(String text) {
+        ReaderPost post = new ReaderPost();
+        post.blogId = BLOG_ID;
+        post.postId = POST_ID;
+        post.setPseudoId("test-" + POST_ID);
+        post.setTitle("Post " + POST_ID);
+        post.setText(text);
+        return post;
+    }
+}
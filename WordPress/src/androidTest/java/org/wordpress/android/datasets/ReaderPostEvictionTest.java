@@ -0,0 +1,129 @@
+package org.wordpress.android.datasets;
+
+import android.test.InstrumentationTestCase;
+
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.models.ReaderPostList;
+import org.wordpress.android.models.ReaderTag;
+import org.wordpress.android.models.ReaderTagType;
+
+import java.util.Arrays;
+
+public class ReaderPostEvictionTest extends InstrumentationTestCase {
+    private static final long BLOG_ID = 987654321;
+
+    // sort_index is a score for search results, so it mustn't affect the order posts are evicted in
+    private static final long POST_PUBLISHED_FIRST = 1;     // published first, has the highest sort_index
+    private static final long POST_PUBLISHED_LATER = 2;
+    private static final long POST_VIEWED = 3;              // published before the others but viewed since
+    private static final long POST_LIKED = 4;               // published before the others but liked
+
+    private final ReaderTag mTag = new ReaderTag("test-tag", "test-tag", "test-tag", null, ReaderTagType.DEFAULT);
+    private ReaderPostList mPosts;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ReaderDatabase.reset();
+        ReaderTagTable.addOrUpdateTag(mTag);
+
+        mPosts = new ReaderPostList();
+        mPosts.add(newPost(POST_PUBLISHED_FIRST, "2015-01-01T00:00:00+00:00", 100000));
+        mPosts.add(newPost(POST_PUBLISHED_LATER, "2015-01-03T00:00:00+00:00", 2));
+        mPosts.add(newPost(POST_VIEWED, "2014-06-01T00:00:00+00:00", 3));
+        ReaderPost likedPost = newPost(POST_LIKED, "2014-01-01T00:00:00+00:00", 4);
+        likedPost.isLikedByCurrentUser = true;
+        mPosts.add(likedPost);
+        ReaderPostTable.addOrUpdatePosts(mTag, mPosts);
+
+        // queued on the writer, so it's done before anything the tests run on the writer
+        ReaderPostTable.setPostViewed(BLOG_ID, POST_VIEWED);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ReaderDatabase.reset();
+        super.tearDown();
+    }
+
+    public void testPurgeEvictsLeastRecentlyUsedPosts() {
+        // the first post to be evicted doesn't free enough space, the second one does
+        final long budget = getTotalSize() - getSize(POST_PUBLISHED_FIRST) - getSize(POST_PUBLISHED_LATER) / 2;
+        ReaderDatabase.getWriter().executeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                ReaderPostTable.purge(ReaderDatabase.getWritableDb(), budget);
+            }
+        });
+
+        assertSurvivors(POST_VIEWED, POST_LIKED);
+    }
+
+    public void testEvictionReportsReclaimedBytes() {
+        final long budget = getTotalSize() - getSize(POST_PUBLISHED_FIRST) - 1;
+        final ReaderPostTable.Eviction[] eviction = new ReaderPostTable.Eviction[1];
+        ReaderDatabase.getWriter().executeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                eviction[0] = ReaderPostTable.evictPostsOverBudget(ReaderDatabase.getWritableDb(), budget);
+            }
+        });
+
+        assertEquals(2, eviction[0].numPosts);
+        assertEquals(getSize(POST_PUBLISHED_FIRST) + getSize(POST_PUBLISHED_LATER), eviction[0].numBytes);
+        assertSurvivors(POST_VIEWED, POST_LIKED);
+    }
+
+    public void testLikedPostsAreNeverEvicted() {
+        ReaderDatabase.getWriter().executeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                ReaderPostTable.purge(ReaderDatabase.getWritableDb(), 0);
+            }
+        });
+
+        assertSurvivors(POST_LIKED);
+    }
+
+    private ReaderPost newPost(long postId, String published, double sortIndex) {
+        ReaderPost post = new ReaderPost();
+        post.blogId = BLOG_ID;
+        post.postId = postId;
+        post.sortIndex = sortIndex;
+        post.setPseudoId("test-" + postId);
+        post.setPublished(published);
+        // titles of different lengths so every post has a different size
+        char[] title = new char[1000 * (int) postId];
+        Arrays.fill(title, 'x');
+        post.setTitle(new String(title));
+        post.setText("Text of post " + postId);
+        return post;
+    }
+
+    /*
+     * the number of bytes the post counts for in the cache - its title and the file holding its text
+     */
+    private long getSize(long postId) {
+        for (ReaderPost post : mPosts) {
+            if (post.postId == postId) {
+                return post.getTitle().length() + ReaderPostContentStore.getSize(post.getPseudoId());
+            }
+        }
+        return 0;
+    }
+
+    private long getTotalSize() {
+        long totalSize = 0;
+        for (ReaderPost post : mPosts) {
+            totalSize += getSize(post.postId);
+        }
+        return totalSize;
+    }
+
+    private void assertSurvivors(long... postIds) {
+        assertEquals(postIds.length, ReaderPostTable.getNumPostsInBlog(BLOG_ID));
+        for (long postId : postIds) {
+            assertTrue("post " + postId + " was evicted", ReaderPostTable.postExists(BLOG_ID, postId));
+        }
+    }
+}
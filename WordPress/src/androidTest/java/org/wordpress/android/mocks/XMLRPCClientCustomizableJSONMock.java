@@ -6,11 +6,14 @@ import com.google.gson.reflect.TypeToken;
 import org.wordpress.android.TestUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
+import org.xmlpull.v1.XmlPullParserException;
 import org.xmlrpc.android.LoggedInputStream;
+import org.xmlrpc.android.XMLRPCArrayVisitor;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
 import org.xmlrpc.android.XMLRPCCallback;
 import org.xmlrpc.android.XMLRPCException;
+import org.xmlrpc.android.XMLRPCMulticall;
 
-import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.URI;
@@ -73,15 +76,26 @@ public class XMLRPCClientCustomizableJSONMock extends XMLRPCClientCustomizableMo
         return null;
     }
 
-    public Object call(String method, Object[] params, File tempFile) throws XMLRPCException {
-        return null;
+    public int callStreaming(String method, Object[] params, XMLRPCArrayVisitor visitor) throws XMLRPCException {
+        Object[] result = (Object[]) call(method, params);
+        if (result == null) {
+            return 0;
+        }
+        for (int i = 0; i < result.length; i++) {
+            visitor.onArrayElement(i, result[i]);
+        }
+        return result.length;
+    }
+
+    public Object[] callMulticall(XMLRPCMulticall multicall) throws XMLRPCException, IOException, XmlPullParserException {
+        return multicall.callSequentially(this);
     }
 
     public long callAsync(XMLRPCCallback listener, String methodName, Object[] params) {
         return 0;
     }
 
-    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, File tempFile) {
+    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, Priority priority) {
         return 0;
     }
 
@@ -4,12 +4,14 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlrpc.android.LoggedInputStream;
+import org.xmlrpc.android.XMLRPCArrayVisitor;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
 import org.xmlrpc.android.XMLRPCCallback;
 import org.xmlrpc.android.XMLRPCClient;
 import org.xmlrpc.android.XMLRPCException;
 import org.xmlrpc.android.XMLRPCFault;
+import org.xmlrpc.android.XMLRPCMulticall;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
@@ -29,13 +31,14 @@ public class XMLRPCClientCustomizableXMLMock extends XMLRPCClientCustomizableMoc
     public void setAuthorizationHeader(String authToken) {
     }
 
-    private Object readFile(String method, String prefix) throws IOException, XMLRPCException, XmlPullParserException {
+    private Object readFile(String method, String prefix, XMLRPCArrayVisitor visitor) throws IOException,
+            XMLRPCException, XmlPullParserException {
         // method example: wp.getUsersBlogs
         // Filename: default-wp.getUsersBlogs.xml
         String filename = prefix + "-" + method + ".xml";
         try {
             mLoggedInputStream = new LoggedInputStream(mContext.getAssets().open(filename));
-            return XMLRPCClient.parseXMLRPCResponse(mLoggedInputStream, null);
+            return XMLRPCClient.parseXMLRPCResponse(mLoggedInputStream, null, visitor);
         } catch (FileNotFoundException e) {
             AppLog.e(T.TESTS, "file not found: " + filename);
         }
@@ -43,9 +46,20 @@ public class XMLRPCClientCustomizableXMLMock extends XMLRPCClientCustomizableMoc
     }
 
     public Object call(String method, Object[] params) throws XMLRPCException, IOException, XmlPullParserException {
+        return call(method, params, null);
+    }
+
+    public int callStreaming(String method, Object[] params, XMLRPCArrayVisitor visitor) throws XMLRPCException,
+            IOException, XmlPullParserException {
+        Object count = call(method, params, visitor);
+        return count == null ? 0 : (Integer) count;
+    }
+
+    private Object call(String method, Object[] params, XMLRPCArrayVisitor visitor) throws XMLRPCException,
+            IOException, XmlPullParserException {
         mLoggedInputStream = null;
         try {
-            mXmlRpcClient.preparePostMethod(method, params, null);
+            mXmlRpcClient.preparePostMethod(method, params);
         } catch (IOException e) {
             // unexpected error, test must fail
             throw new XMLRPCException("preparePostMethod failed");
@@ -56,11 +70,11 @@ public class XMLRPCClientCustomizableXMLMock extends XMLRPCClientCustomizableMoc
             throw new XMLRPCFault("code 403", 403);
         }
 
-        Object retValue = readFile(method, mPrefix);
+        Object retValue = readFile(method, mPrefix, visitor);
         if (retValue == null) {
             // failback to default
             AppLog.w(T.TESTS, "failback to default");
-            retValue = readFile(method, "default");
+            retValue = readFile(method, "default", visitor);
         }
         return retValue;
     }
@@ -69,15 +83,15 @@ public class XMLRPCClientCustomizableXMLMock extends XMLRPCClientCustomizableMoc
         return null;
     }
 
-    public Object call(String method, Object[] params, File tempFile) throws XMLRPCException {
-        return null;
+    public Object[] callMulticall(XMLRPCMulticall multicall) throws XMLRPCException, IOException, XmlPullParserException {
+        return multicall.callSequentially(this);
     }
 
     public long callAsync(XMLRPCCallback listener, String methodName, Object[] params) {
         return 0;
     }
 
-    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, File tempFile) {
+    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, Priority priority) {
         return 0;
     }
 
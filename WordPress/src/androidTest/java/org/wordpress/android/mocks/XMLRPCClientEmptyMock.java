@@ -1,10 +1,12 @@
 package org.wordpress.android.mocks;
 
+import org.xmlrpc.android.XMLRPCArrayVisitor;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
 import org.xmlrpc.android.XMLRPCCallback;
 import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCException;
+import org.xmlrpc.android.XMLRPCMulticall;
 
-import java.io.File;
 import java.net.URI;
 
 public class XMLRPCClientEmptyMock implements XMLRPCClientInterface {
@@ -25,7 +27,11 @@ public class XMLRPCClientEmptyMock implements XMLRPCClientInterface {
         return null;
     }
 
-    public Object call(String method, Object[] params, File tempFile) throws XMLRPCException {
+    public int callStreaming(String method, Object[] params, XMLRPCArrayVisitor visitor) throws XMLRPCException {
+        return 0;
+    }
+
+    public Object[] callMulticall(XMLRPCMulticall multicall) throws XMLRPCException {
         return null;
     }
 
@@ -33,7 +39,7 @@ public class XMLRPCClientEmptyMock implements XMLRPCClientInterface {
         return 0;
     }
 
-    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, File tempFile) {
+    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, Priority priority) {
         return 0;
     }
 
@@ -6,6 +6,10 @@ import android.test.InstrumentationTestCase;
 import android.test.RenamingDelegatingContext;
 
 import org.wordpress.android.TestUtils;
+import org.wordpress.android.WordPress;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class CategoryNodeInstrumentationTest extends InstrumentationTestCase {
     protected Context testContext;
@@ -26,6 +30,30 @@ public class CategoryNodeInstrumentationTest extends InstrumentationTestCase {
         CategoryNode node = CategoryNode.createCategoryTreeFromDB(1);
     }
 
+    public void testSortedCategoriesFollowChanges() {
+        TestUtils.loadDBFromDump(targetContext, testContext, "empty_tables.sql");
+        List<CategoryNode> categories = new ArrayList<CategoryNode>();
+        categories.add(new CategoryNode(3, 1, "child"));
+        categories.add(new CategoryNode(1, 0, "Parent"));
+        categories.add(new CategoryNode(2, 0, "another"));
+        WordPress.wpDB.replaceCategories(1, categories);
+
+        ArrayList<CategoryNode> sorted = CategoryNode.getSortedListOfCategories(1);
+        assertEquals(3, sorted.size());
+        assertEquals("another", sorted.get(0).getName());
+        assertEquals("Parent", sorted.get(1).getName());
+        assertEquals("child", sorted.get(2).getName());
+        assertEquals(2, sorted.get(2).getLevel());
+        assertEquals(3, WordPress.wpDB.getCategoryId(1, "child"));
+        assertEquals(1, WordPress.wpDB.getCategoryParentId(1, "child"));
+
+        // the cached categories are dropped when a category is added
+        WordPress.wpDB.insertCategory(1, 4, 2, "added");
+        assertEquals(4, CategoryNode.getSortedListOfCategories(1).size());
+        assertEquals(4, WordPress.wpDB.getCategoryId(1, "added"));
+        assertEquals(0, WordPress.wpDB.getCategoryId(1, "missing"));
+    }
+
     public void tearDown() throws Exception {
         targetContext = null;
         testContext = null;
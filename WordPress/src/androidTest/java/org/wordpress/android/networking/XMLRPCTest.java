@@ -3,10 +3,13 @@ package org.wordpress.android.networking;
 import org.wordpress.android.DefaultMocksInstrumentationTestCase;
 import org.wordpress.android.mocks.XMLRPCFactoryTest;
 import org.xmlrpc.android.ApiHelper.Method;
+import org.xmlrpc.android.XMLRPCArrayVisitor;
 import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCFactory;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 public class XMLRPCTest extends DefaultMocksInstrumentationTestCase {
     public void testNumberExceptionWithInvalidDouble() throws Exception {
@@ -32,4 +35,25 @@ public class XMLRPCTest extends DefaultMocksInstrumentationTestCase {
         }
         assertTrue("invalid double format should trigger a NumberException", false);
     }
+
+    public void testStreamingCallVisitsEveryArrayElement() throws Exception {
+        XMLRPCClientInterface xmlrpcClientInterface = XMLRPCFactory.instantiate(URI.create("http://test.com/ast"), "",
+                "");
+        Object[] posts = (Object[]) xmlrpcClientInterface.call("metaWeblog.getRecentPosts", null);
+
+        final List<Object> visitedPosts = new ArrayList<>();
+        int count = xmlrpcClientInterface.callStreaming("metaWeblog.getRecentPosts", null, new XMLRPCArrayVisitor() {
+            @Override
+            public void onArrayElement(int index, Object element) {
+                assertEquals(visitedPosts.size(), index);
+                visitedPosts.add(element);
+            }
+        });
+
+        assertEquals(posts.length, count);
+        assertEquals(posts.length, visitedPosts.size());
+        for (int i = 0; i < posts.length; i++) {
+            assertEquals(posts[i], visitedPosts.get(i));
+        }
+    }
 }
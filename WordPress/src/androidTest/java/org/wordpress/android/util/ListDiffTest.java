@@ -0,0 +1,123 @@
+package org.wordpress.android.util;
+
+import android.support.v7.widget.RecyclerView;
+import android.test.InstrumentationTestCase;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ListDiffTest extends InstrumentationTestCase {
+    // items are identified by their first letter, the rest is their content
+    private static final ListDiff.ItemCallback<String> CALLBACK = new ListDiff.ItemCallback<String>() {
+        @Override
+        public Object getKey(String item) {
+            return item.substring(0, 1);
+        }
+
+        @Override
+        public boolean isSameContent(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    public void testSameList() {
+        ListDiff diff = ListDiff.calculate(list("a", "b", "c"), list("a", "b", "c"), CALLBACK);
+        assertTrue(diff.isEmpty());
+    }
+
+    public void testInsertRemoveMoveAndChange() {
+        List<String> oldList = list("a", "b", "c", "d", "e");
+        List<String> newList = list("x", "y", "a", "d", "c2", "e", "z");
+        ListDiff diff = ListDiff.calculate(oldList, newList, CALLBACK);
+        assertFalse(diff.isEmpty());
+
+        RecordingAdapter adapter = new RecordingAdapter(oldList);
+        diff.dispatchUpdatesTo(adapter, 0);
+        assertFalse(adapter.mIsFullChange);
+        assertEquals(list("+", "+", "a", "d", "c*", "e", "+"), adapter.mItems);
+    }
+
+    public void testPositionOffset() {
+        List<String> oldList = list("a", "b");
+        ListDiff diff = ListDiff.calculate(oldList, list("b2"), CALLBACK);
+
+        // the adapter shows a header before the list
+        RecordingAdapter adapter = new RecordingAdapter(list("header", "a", "b"));
+        diff.dispatchUpdatesTo(adapter, 1);
+        assertEquals(list("header", "b*"), adapter.mItems);
+    }
+
+    public void testDuplicateKeysDispatchFullChange() {
+        List<String> oldList = list("a", "b");
+        ListDiff diff = ListDiff.calculate(oldList, list("a", "a2"), CALLBACK);
+        assertFalse(diff.isEmpty());
+
+        RecordingAdapter adapter = new RecordingAdapter(oldList);
+        diff.dispatchUpdatesTo(adapter, 0);
+        assertTrue(adapter.mIsFullChange);
+    }
+
+    private static List<String> list(String... items) {
+        return new ArrayList<>(Arrays.asList(items));
+    }
+
+    /*
+     * applies the notifications to a copy of the list, inserted items are shown as "+" and changed ones get a "*"
+     */
+    private static class RecordingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final List<String> mItems;
+        private boolean mIsFullChange;
+
+        RecordingAdapter(List<String> items) {
+            mItems = new ArrayList<>(items);
+            registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onChanged() {
+                    mIsFullChange = true;
+                }
+
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount) {
+                    for (int i = positionStart; i < positionStart + itemCount; i++) {
+                        mItems.set(i, mItems.get(i).substring(0, 1) + "*");
+                    }
+                }
+
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    for (int i = 0; i < itemCount; i++) {
+                        mItems.add(positionStart, "+");
+                    }
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    for (int i = 0; i < itemCount; i++) {
+                        mItems.remove(positionStart);
+                    }
+                }
+
+                @Override
+                public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                    mItems.add(toPosition, mItems.remove(fromPosition));
+                }
+            });
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return null;
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItems.size();
+        }
+    }
+}
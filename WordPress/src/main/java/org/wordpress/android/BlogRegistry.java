@@ -0,0 +1,89 @@
+package org.wordpress.android;
+
+import org.wordpress.android.models.Blog;
+import org.wordpress.android.models.BlogSummary;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory copy of the blogs stored in WordPressDB, keyed by local id, so blog lookups don't query the database
+ * and decrypt passwords every time.
+ *
+ * The maps are copied on write and published through volatile fields, reads don't lock. Every change to the blogs
+ * table must call {@link #clear()}, values loaded before a clear are dropped instead of being cached. Callers get
+ * their own copy of each blog since Blog is mutable. The blog summaries are immutable, so their list is shared.
+ *
+ * The database uses write-ahead logging, so readers on other connections see the last committed blogs while a
+ * transaction is open: changes made in a transaction must clear again once it's committed.
+ */
+final class BlogRegistry {
+    private volatile Map<Integer, Blog> mBlogs = Collections.emptyMap();
+    // remote ids of the visible blogs, null until loaded
+    private volatile Set<Integer> mVisibleRemoteBlogIds;
+    // summaries of all the blogs sorted by name, null until loaded
+    private volatile List<BlogSummary> mBlogSummaries;
+    private long mGeneration;
+
+    /**
+     * Returns a copy of the cached blog, or null if it isn't cached
+     */
+    Blog get(int localId) {
+        Blog blog = mBlogs.get(localId);
+        return blog != null ? new Blog(blog) : null;
+    }
+
+    /**
+     * Returns the visible remote blog ids, or null if they aren't cached
+     */
+    Set<Integer> getVisibleRemoteBlogIds() {
+        return mVisibleRemoteBlogIds;
+    }
+
+    /**
+     * Returns the summaries of all the blogs sorted by name, or null if they aren't cached
+     */
+    List<BlogSummary> getBlogSummaries() {
+        return mBlogSummaries;
+    }
+
+    /**
+     * Must be called before reading the database, and the value passed to the put methods
+     */
+    synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    synchronized void put(Blog blog, long generation) {
+        if (generation != mGeneration) {
+            return;
+        }
+        Map<Integer, Blog> blogs = new HashMap<>(mBlogs);
+        blogs.put(blog.getLocalTableBlogId(), new Blog(blog));
+        mBlogs = Collections.unmodifiableMap(blogs);
+    }
+
+    synchronized void putVisibleRemoteBlogIds(Set<Integer> remoteBlogIds, long generation) {
+        if (generation != mGeneration) {
+            return;
+        }
+        mVisibleRemoteBlogIds = Collections.unmodifiableSet(remoteBlogIds);
+    }
+
+    synchronized void putBlogSummaries(List<BlogSummary> blogSummaries, long generation) {
+        if (generation != mGeneration) {
+            return;
+        }
+        mBlogSummaries = Collections.unmodifiableList(blogSummaries);
+    }
+
+    synchronized void clear() {
+        mGeneration++;
+        mBlogs = Collections.emptyMap();
+        mVisibleRemoteBlogIds = null;
+        mBlogSummaries = null;
+    }
+}
@@ -0,0 +1,69 @@
+package org.wordpress.android;
+
+import org.wordpress.android.models.CategoryNode;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the categories stored in WordPressDB for each blog, so opening the category picker or looking
+ * up the id of a category doesn't query the database again.
+ *
+ * Each blog's categories are an immutable snapshot read with a single query, holding the category names, their ids
+ * and parent ids, and the categories sorted as they're shown in the tree. Every change to a blog's categories must
+ * call {@link #invalidate(int)} once committed, snapshots loaded before it are dropped instead of being cached.
+ */
+final class CategoryRegistry {
+    private final Map<Integer, BlogCategories> mCategories = new HashMap<>();
+    private long mGeneration;
+
+    static final class BlogCategories {
+        // names in the order they were stored, with ids and parent ids of the first category of each name
+        final List<String> mNames;
+        final Map<String, Integer> mIds;
+        final Map<String, Integer> mParentIds;
+        // pre-order traversal of the tree, never handed out since CategoryNode is mutable
+        final List<CategoryNode> mSortedCategories;
+
+        BlogCategories(List<String> names, Map<String, Integer> ids, Map<String, Integer> parentIds,
+                       List<CategoryNode> sortedCategories) {
+            mNames = Collections.unmodifiableList(names);
+            mIds = Collections.unmodifiableMap(ids);
+            mParentIds = Collections.unmodifiableMap(parentIds);
+            mSortedCategories = Collections.unmodifiableList(sortedCategories);
+        }
+    }
+
+    /**
+     * Returns the cached categories of the blog, or null if they aren't cached
+     */
+    synchronized BlogCategories get(int blogId) {
+        return mCategories.get(blogId);
+    }
+
+    /**
+     * Must be called before reading the database, and the value passed to put()
+     */
+    synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    synchronized void put(int blogId, BlogCategories categories, long generation) {
+        if (generation != mGeneration) {
+            return;
+        }
+        mCategories.put(blogId, categories);
+    }
+
+    synchronized void invalidate(int blogId) {
+        mGeneration++;
+        mCategories.remove(blogId);
+    }
+
+    synchronized void clear() {
+        mGeneration++;
+        mCategories.clear();
+    }
+}
@@ -73,6 +73,8 @@ import org.wordpress.android.util.WPActivityUtils;
 import org.wordpress.passcodelock.AbstractAppLock;
 import org.wordpress.passcodelock.AppLockManager;
 import org.xmlrpc.android.ApiHelper;
+import org.xmlrpc.android.XMLRPCCallExecutor;
+import org.xmlrpc.android.XMLRPCConnectionPool;
 
 import java.io.File;
 import java.io.IOException;
@@ -513,6 +515,14 @@ public class WordPress extends MultiDexApplication {
         }
     }
 
+    @SuppressWarnings("unused")
+    public void onEvent(CoreEvents.BlogListChanged event) {
+        // blogs may have been changed in bulk, drop the in-memory copies right away on the posting thread
+        if (wpDB != null) {
+            wpDB.invalidateBlogCache();
+        }
+    }
+
     @SuppressWarnings("unused")
     public void onEventMainThread(UserSignedOutCompletely event) {
         try {
@@ -812,6 +822,8 @@ public class WordPress extends MultiDexApplication {
                     AnalyticsTracker.track(AnalyticsTracker.Stat.APPLICATION_CLOSED, properties);
                     AnalyticsTracker.endSession(false);
                     ConnectionChangeReceiver.setEnabled(WordPress.this, false);
+                    XMLRPCConnectionPool.logStats();
+                    XMLRPCCallExecutor.logStats();
                 }
             };
 
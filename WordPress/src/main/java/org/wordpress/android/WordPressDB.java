@@ -8,6 +8,7 @@ import android.database.Cursor;
 import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
 import android.util.Base64;
@@ -16,11 +17,15 @@ import org.apache.commons.lang.ArrayUtils;
 import org.json.JSONArray;
 import org.wordpress.android.datasets.AccountTable;
 import org.wordpress.android.datasets.CommentTable;
+import org.wordpress.android.datasets.DatabaseWriter;
 import org.wordpress.android.datasets.PeopleTable;
+import org.wordpress.android.datasets.QueryProfiler;
 import org.wordpress.android.datasets.SiteSettingsTable;
 import org.wordpress.android.datasets.SuggestionTable;
 import org.wordpress.android.models.Account;
 import org.wordpress.android.models.Blog;
+import org.wordpress.android.models.BlogSummary;
+import org.wordpress.android.models.CategoryNode;
 import org.wordpress.android.models.MediaUploadState;
 import org.wordpress.android.models.Post;
 import org.wordpress.android.models.PostLocation;
@@ -30,9 +35,11 @@ import org.wordpress.android.models.Theme;
 import org.wordpress.android.ui.media.services.MediaEvents.MediaChanged;
 import org.wordpress.android.ui.posts.EditPostActivity;
 import org.wordpress.android.ui.prefs.AppPrefs;
+import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.BlogUtils;
+import org.wordpress.android.util.FnvHash;
 import org.wordpress.android.util.LanguageUtils;
 import org.wordpress.android.util.MapUtils;
 import org.wordpress.android.util.ShortcodeUtils;
@@ -40,6 +47,7 @@ import org.wordpress.android.util.SqlUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.WPUrlUtils;
 import org.wordpress.android.util.helpers.MediaFile;
+import org.xmlrpc.android.XMLRPCChunkedUpload;
 
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -48,8 +56,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -85,8 +95,11 @@ public class WordPressDB {
     public static final String COLUMN_NAME_DATE_CREATED_GMT      = "date_created_gmt";
     public static final String COLUMN_NAME_VIDEO_PRESS_SHORTCODE = "videoPressShortcode";
     public static final String COLUMN_NAME_UPLOAD_STATE          = "uploadState";
+    public static final String COLUMN_NAME_UPLOAD_ID             = "uploadId";
+    public static final String COLUMN_NAME_UPLOAD_FILE_PATH      = "uploadFilePath";
+    public static final String COLUMN_NAME_UPLOADED_BYTES        = "uploadedBytes";
 
-    private static final int DATABASE_VERSION = 47;
+    private static final int DATABASE_VERSION = 52;
 
     private static final String CREATE_TABLE_BLOGS = "create table if not exists accounts (id integer primary key autoincrement, "
             + "url text, blogName text, username text, password text, imagePlacement text, centerThumbnail boolean, fullSizeImage boolean, maxImageWidth text, maxImageWidthId integer);";
@@ -134,6 +147,30 @@ public class WordPressDB {
 
     private static final String POSTS_TABLE = "posts";
 
+    // columns read by the post list, the cursor indexes below must match their order
+    private static final String[] POSTS_LIST_COLUMNS = {"id", "blogID", "title", "list_excerpt", "list_image_url",
+            "post_status", "date_created_gmt", "wp_post_thumbnail", "localDraft", "isLocalChange"};
+    private static final int POSTS_LIST_COL_ID = 0;
+    private static final int POSTS_LIST_COL_BLOG_ID = 1;
+    private static final int POSTS_LIST_COL_TITLE = 2;
+    private static final int POSTS_LIST_COL_EXCERPT = 3;
+    private static final int POSTS_LIST_COL_IMAGE_URL = 4;
+    private static final int POSTS_LIST_COL_STATUS = 5;
+    private static final int POSTS_LIST_COL_DATE_CREATED_GMT = 6;
+    private static final int POSTS_LIST_COL_FEATURED_IMAGE_ID = 7;
+    private static final int POSTS_LIST_COL_LOCAL_DRAFT = 8;
+    private static final int POSTS_LIST_COL_LOCAL_CHANGE = 9;
+
+    // columns written by savePosts, in the order they're bound to its statements and hashed
+    private static final String[] SAVE_POSTS_COLUMNS = {"blogID", "postid", "title", "dateCreated",
+            "date_created_gmt", "description", "link", "permaLink", "categories", "custom_fields", "longitude",
+            "latitude", "mt_excerpt", "mt_text_more", "mt_allow_comments", "mt_allow_pings", "wp_slug", "wp_password",
+            "wp_author_id", "wp_author_display_name", "wp_post_thumbnail", "post_status", "userid", "isPage"};
+    private static final String[] SAVE_POSTS_POST_COLUMNS = {"mt_keywords", "wp_post_format"};
+    private static final String[] SAVE_POSTS_PAGE_COLUMNS = {"wp_page_parent_id", "wp_page_parent_title"};
+    // written after the columns above, but not part of the hash since they're derived from them
+    private static final String[] SAVE_POSTS_DERIVED_COLUMNS = {"list_excerpt", "list_image_url", "content_hash"};
+
     private static final String THEMES_TABLE = "themes";
     private static final String CREATE_TABLE_THEMES = "create table if not exists themes ("
             + COLUMN_NAME_ID + " integer primary key autoincrement, "
@@ -195,6 +232,34 @@ public class WordPressDB {
     private static final String ADD_POST_ID_INDEX = "CREATE INDEX idx_posts_post_id ON posts(postid);";
     private static final String ADD_BLOG_ID_INDEX = "CREATE INDEX idx_posts_blog_id ON posts(blogID);";
 
+    // add the columns shown in the post list, derived from the content at write time
+    private static final String ADD_POST_LIST_EXCERPT = "alter table posts add list_excerpt text default '';";
+    private static final String ADD_POST_LIST_IMAGE_URL = "alter table posts add list_image_url text default '';";
+    // the post list is sorted by this index, null dates would break its keyset paging
+    private static final String SET_POST_MISSING_DATES = "update posts set date_created_gmt=0 where date_created_gmt is null;";
+    private static final String ADD_POST_LIST_INDEX =
+            "CREATE INDEX idx_posts_list ON posts(blogID, isPage, localDraft, date_created_gmt, id);";
+
+    // hash of the post fields last received from the server, 0 if unknown or changed locally since
+    private static final String ADD_POST_CONTENT_HASH = "alter table posts add content_hash integer default 0;";
+
+    // full-text index of the media library, using the media table as its content and kept in sync by triggers
+    private static final String MEDIA_FTS_TABLE = "media_fts";
+    private static final String CREATE_MEDIA_FTS_TABLE = "CREATE VIRTUAL TABLE " + MEDIA_FTS_TABLE
+            + " USING fts4(content=\"media\", title, caption, description, fileName";
+    private static final String[] CREATE_MEDIA_FTS_TRIGGERS = {
+            "CREATE TRIGGER media_fts_before_update BEFORE UPDATE OF title, caption, description, fileName ON media"
+                    + " BEGIN DELETE FROM " + MEDIA_FTS_TABLE + " WHERE docid=old.id; END;",
+            "CREATE TRIGGER media_fts_before_delete BEFORE DELETE ON media"
+                    + " BEGIN DELETE FROM " + MEDIA_FTS_TABLE + " WHERE docid=old.id; END;",
+            "CREATE TRIGGER media_fts_after_update AFTER UPDATE OF title, caption, description, fileName ON media"
+                    + " BEGIN INSERT INTO " + MEDIA_FTS_TABLE + "(docid, title, caption, description, fileName)"
+                    + " VALUES(new.id, new.title, new.caption, new.description, new.fileName); END;",
+            "CREATE TRIGGER media_fts_after_insert AFTER INSERT ON media"
+                    + " BEGIN INSERT INTO " + MEDIA_FTS_TABLE + "(docid, title, caption, description, fileName)"
+                    + " VALUES(new.id, new.title, new.caption, new.description, new.fileName); END;"
+    };
+
     //add boolean to track if featured image should be included in the post content
     private static final String ADD_FEATURED_IN_POST = "alter table media add isFeaturedInPost boolean default false;";
 
@@ -218,6 +283,11 @@ public class WordPressDB {
     private static final String ADD_MEDIA_UPLOAD_STATE = "alter table media add uploadState default '';";
     private static final String ADD_MEDIA_VIDEOPRESS_SHORTCODE = "alter table media add videoPressShortcode text default '';";
 
+    // add chunked upload progress to media
+    private static final String ADD_MEDIA_UPLOAD_ID = "alter table media add uploadId text default '';";
+    private static final String ADD_MEDIA_UPLOAD_FILE_PATH = "alter table media add uploadFilePath text default '';";
+    private static final String ADD_MEDIA_UPLOADED_BYTES = "alter table media add uploadedBytes integer default 0;";
+
     // add hidden flag to blog settings (accounts)
     private static final String ADD_BLOGS_HIDDEN_FLAG = "alter table accounts add isHidden boolean default 0;";
 
@@ -237,13 +307,20 @@ public class WordPressDB {
     private static final String DROP_TABLE_PREFIX = "DROP TABLE IF EXISTS ";
 
     private SQLiteDatabase db;
+    private final DatabaseWriter writer;
+    private final BlogRegistry blogRegistry = new BlogRegistry();
+    private final CategoryRegistry categoryRegistry = new CategoryRegistry();
+    private static String sJetpackWithoutCredentialsArgs;
 
     protected static final String PASSWORD_SECRET = BuildConfig.DB_SECRET;
     private Context context;
 
     public WordPressDB(Context ctx) {
         this.context = ctx;
-        db = ctx.openOrCreateDatabase(DATABASE_NAME, 0, null);
+        // write-ahead logging lets the lists be read while a sync writes
+        db = ctx.openOrCreateDatabase(DATABASE_NAME, Context.MODE_ENABLE_WRITE_AHEAD_LOGGING,
+                QueryProfiler.getCursorFactory());
+        writer = new DatabaseWriter(DATABASE_NAME, db);
 
         // Create tables if they don't exist
         db.execSQL(CREATE_TABLE_BLOGS);
@@ -424,10 +501,72 @@ public class WordPressDB {
                 AppPrefs.setVisualEditorAvailable(true);
                 AppPrefs.setVisualEditorEnabled(true);
                 currentVersion++;
+            case 47:
+                db.execSQL(ADD_MEDIA_UPLOAD_ID);
+                db.execSQL(ADD_MEDIA_UPLOAD_FILE_PATH);
+                db.execSQL(ADD_MEDIA_UPLOADED_BYTES);
+                currentVersion++;
+            case 48:
+                db.execSQL(ADD_POST_LIST_EXCERPT);
+                db.execSQL(ADD_POST_LIST_IMAGE_URL);
+                db.execSQL(SET_POST_MISSING_DATES);
+                db.execSQL(ADD_POST_LIST_INDEX);
+                updatePostListColumns();
+                currentVersion++;
+            case 49:
+                db.execSQL(ADD_POST_CONTENT_HASH);
+                currentVersion++;
+            case 50:
+                createMediaSearchIndex();
+                currentVersion++;
+            case 51:
+                // the comment search index is created with the comments table, fill it with the existing comments
+                CommentTable.rebuildSearchIndex(db);
+                currentVersion++;
         }
         db.setVersion(DATABASE_VERSION);
     }
 
+    /*
+     * creates the full-text index of the media library and fills it with the existing media
+     */
+    private void createMediaSearchIndex() {
+        try {
+            // unicode61 folds the case of non-ASCII letters too, but needs SQLite 3.7.13
+            db.execSQL(CREATE_MEDIA_FTS_TABLE + ", tokenize=unicode61);");
+        } catch (SQLiteException e) {
+            AppLog.w(T.DB, "unicode61 tokenizer not available, media search will fold ASCII letters only");
+            db.execSQL(CREATE_MEDIA_FTS_TABLE + ");");
+        }
+        for (String trigger : CREATE_MEDIA_FTS_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+        db.execSQL("INSERT INTO " + MEDIA_FTS_TABLE + "(" + MEDIA_FTS_TABLE + ") VALUES('rebuild');");
+    }
+
+    /*
+     * fills the post list columns of the existing posts
+     */
+    private void updatePostListColumns() {
+        Cursor c = db.rawQuery("SELECT id, description, mt_excerpt FROM " + POSTS_TABLE, null);
+        db.beginTransaction();
+        try {
+            while (c.moveToNext()) {
+                ContentValues values = new ContentValues();
+                values.put("description", c.getString(1));
+                values.put("mt_excerpt", c.getString(2));
+                putPostListColumns(values);
+                values.remove("description");
+                values.remove("mt_excerpt");
+                db.update(POSTS_TABLE, values, "id=?", new String[]{Long.toString(c.getLong(0))});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            SqlUtils.closeCursor(c);
+        }
+    }
+
     private void updateDotcomFlag() {
         // Loop over all .com blogs in the app and check that are really hosted on wpcom
         List<Map<String, Object>> allBlogs = getBlogsBy("dotcomFlag=1", null, 0, false);
@@ -440,6 +579,7 @@ public class WordPressDB {
                     ContentValues values = new ContentValues();
                     values.put("dotcomFlag", false); // Mark as .org blog
                     db.update(BLOGS_TABLE, values, "id=" + blogID, null);
+                    blogRegistry.clear();
                 }
             }
         }
@@ -489,6 +629,10 @@ public class WordPressDB {
         return db;
     }
 
+    public DatabaseWriter getWriter() {
+        return writer;
+    }
+
     public static void deleteDatabase(Context ctx) {
         ctx.deleteDatabase(DATABASE_NAME);
     }
@@ -535,7 +679,9 @@ public class WordPressDB {
         values.put("isAdmin", blog.isAdmin());
         values.put("isHidden", blog.isHidden());
         values.put("capabilities", blog.getCapabilities());
-        return db.insert(BLOGS_TABLE, null, values) > -1;
+        boolean result = db.insert(BLOGS_TABLE, null, values) > -1;
+        blogRegistry.clear();
+        return result;
     }
 
     public List<Integer> getAllBlogsIDs() {
@@ -560,13 +706,11 @@ public class WordPressDB {
     public List<Map<String, Object>> getBlogsBy(String byString, String[] extraFields,
                                                 int limit, boolean hideJetpackWithoutCredentials) {
         if (db == null) {
-            return new Vector<>();
+            return new ArrayList<>();
         }
 
         if (hideJetpackWithoutCredentials) {
-            // Hide Jetpack blogs that were added in FetchBlogListWPCom
-            // They will have a false dotcomFlag and an empty (but encrypted) password
-            String hideJetpackArgs = String.format("NOT(dotcomFlag=0 AND password='%s')", encryptPassword(""));
+            String hideJetpackArgs = "NOT(" + getJetpackWithoutCredentialsArgs() + ")";
             if (TextUtils.isEmpty(byString)) {
                 byString = hideJetpackArgs;
             } else {
@@ -586,7 +730,7 @@ public class WordPressDB {
         Cursor c = db.query(BLOGS_TABLE, allFields, byString, null, null, null, null, limitStr);
         int numRows = c.getCount();
         c.moveToFirst();
-        List<Map<String, Object>> blogs = new Vector<>();
+        List<Map<String, Object>> blogs = new ArrayList<>(numRows);
         for (int i = 0; i < numRows; i++) {
             int id = c.getInt(0);
             String blogName = c.getString(1);
@@ -615,8 +759,76 @@ public class WordPressDB {
         return blogs;
     }
 
+    /*
+     * Jetpack blogs that were added in FetchBlogListWPCom have a false dotcomFlag and an empty (but encrypted)
+     * password. Encrypting sets up a DES key and cipher, so the empty password is only encrypted once.
+     */
+    private static String getJetpackWithoutCredentialsArgs() {
+        if (sJetpackWithoutCredentialsArgs == null) {
+            sJetpackWithoutCredentialsArgs = "dotcomFlag=0 AND password="
+                    + DatabaseUtils.sqlEscapeString(encryptPassword(""));
+        }
+        return sJetpackWithoutCredentialsArgs;
+    }
+
+    /**
+     * Returns the summaries of all the blogs sorted by name, without the Jetpack blogs that have no credentials.
+     * The list is read once and kept in memory until the blogs change, it can't be modified.
+     */
+    public List<BlogSummary> getBlogSummaries() {
+        List<BlogSummary> blogSummaries = blogRegistry.getBlogSummaries();
+        if (blogSummaries != null) {
+            return blogSummaries;
+        }
+        if (db == null) {
+            return Collections.emptyList();
+        }
+
+        long generation = blogRegistry.getGeneration();
+        blogSummaries = new ArrayList<>();
+        Cursor c = db.rawQuery("SELECT id, blogId, blogName, username, url, homeURL, isHidden, dotcomFlag FROM "
+                + BLOGS_TABLE + " WHERE id > 0 AND NOT(" + getJetpackWithoutCredentialsArgs() + ")", null);
+        try {
+            while (c.moveToNext()) {
+                blogSummaries.add(new BlogSummary(c.getInt(0), c.getInt(1), c.getString(2), c.getString(3),
+                        c.getString(4), c.getString(5), c.getInt(6) != 0, c.getInt(7) != 0));
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+        Collections.sort(blogSummaries, new Comparator<BlogSummary>() {
+            @Override
+            public int compare(BlogSummary lhs, BlogSummary rhs) {
+                return lhs.getBlogNameOrHomeURL().compareToIgnoreCase(rhs.getBlogNameOrHomeURL());
+            }
+        });
+
+        blogRegistry.putBlogSummaries(blogSummaries, generation);
+        return Collections.unmodifiableList(blogSummaries);
+    }
+
+    /*
+     * returns the visible (or all) blogs from the cached summaries, as the maps returned by getBlogsBy()
+     */
+    private List<Map<String, Object>> getBlogMapsFromSummaries(boolean visibleOnly, boolean dotcomOnly) {
+        List<Map<String, Object>> blogs = new ArrayList<>();
+        for (BlogSummary blogSummary : getBlogSummaries()) {
+            if ((visibleOnly && blogSummary.isHidden()) || (dotcomOnly && !blogSummary.isDotcom())) {
+                continue;
+            }
+            Map<String, Object> blogMap = new HashMap<>();
+            blogMap.put("id", blogSummary.getLocalTableBlogId());
+            blogMap.put("blogName", blogSummary.getBlogName());
+            blogMap.put("username", blogSummary.getUsername());
+            blogMap.put("blogId", blogSummary.getRemoteBlogId());
+            blogMap.put("url", blogSummary.getUrl());
+            blogs.add(blogMap);
+        }
+        return blogs;
+    }
+
     public List<Map<String, Object>> getVisibleBlogs() {
-        return getBlogsBy("isHidden = 0", null);
+        return getBlogMapsFromSummaries(true, false);
     }
 
     public int getFirstVisibleBlogId() {
@@ -628,7 +840,7 @@ public class WordPressDB {
     }
 
     public List<Map<String, Object>> getVisibleDotComBlogs() {
-        return getBlogsBy("isHidden = 0 AND dotcomFlag = 1", null);
+        return getBlogMapsFromSummaries(true, true);
     }
 
     public int getNumVisibleBlogs() {
@@ -659,6 +871,7 @@ public class WordPressDB {
         jetPackValues.put("dotcom_username", "");
         jetPackValues.put("dotcom_password", "");
         db.update(BLOGS_TABLE, jetPackValues, null, null);
+        blogRegistry.clear();
 
         // Lastly we'll remove the preference that previously stored the WP.com password
         if (this.context != null) {
@@ -670,25 +883,61 @@ public class WordPressDB {
     }
 
     public List<Map<String, Object>> getAllBlogs() {
-        return getBlogsBy(null, null);
+        return getBlogMapsFromSummaries(false, false);
     }
 
     public int setAllDotComBlogsVisibility(boolean visible) {
         ContentValues values = new ContentValues();
         values.put("isHidden", !visible);
-        return db.update(BLOGS_TABLE, values, "dotcomFlag=1", null);
+        int result = db.update(BLOGS_TABLE, values, "dotcomFlag=1", null);
+        blogRegistry.clear();
+        return result;
     }
 
     public int setDotComBlogsVisibility(int id, boolean visible) {
         ContentValues values = new ContentValues();
         values.put("isHidden", !visible);
-        return db.update(BLOGS_TABLE, values, "dotcomFlag=1 AND id=" + id, null);
+        int result = db.update(BLOGS_TABLE, values, "dotcomFlag=1 AND id=" + id, null);
+        blogRegistry.clear();
+        return result;
+    }
+
+    /*
+     * makes all dotcom blogs visible except the passed ones
+     */
+    public void setHiddenDotComBlogs(List<Integer> hiddenLocalIds) {
+        db.beginTransaction();
+        try {
+            setAllDotComBlogsVisibility(true);
+            for (int localId : hiddenLocalIds) {
+                setDotComBlogsVisibility(localId, false);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            // readers on other connections may have cached the blogs before the commit
+            blogRegistry.clear();
+        }
     }
 
     public boolean isDotComBlogVisible(int blogId) {
-        String[] args = {Integer.toString(blogId)};
-        return SqlUtils.boolForQuery(db, "SELECT 1 FROM " + BLOGS_TABLE +
-                " WHERE isHidden = 0 AND blogId=?", args);
+        Set<Integer> visibleRemoteBlogIds = blogRegistry.getVisibleRemoteBlogIds();
+        if (visibleRemoteBlogIds == null) {
+            long generation = blogRegistry.getGeneration();
+            visibleRemoteBlogIds = new HashSet<>();
+            Cursor c = db.rawQuery("SELECT DISTINCT blogId FROM " + BLOGS_TABLE + " WHERE isHidden = 0", null);
+            try {
+                while (c.moveToNext()) {
+                    visibleRemoteBlogIds.add(c.getInt(0));
+                }
+            } finally {
+                SqlUtils.closeCursor(c);
+            }
+            if (!db.inTransaction()) {
+                blogRegistry.putVisibleRemoteBlogIds(visibleRemoteBlogIds, generation);
+            }
+        }
+        return visibleRemoteBlogIds.contains(blogId);
     }
 
     public boolean isBlogInDatabase(int blogId, String xmlRpcUrl) {
@@ -743,6 +992,7 @@ public class WordPressDB {
         }
         boolean returnValue = db.update(BLOGS_TABLE, values, "id=" + blog.getLocalTableBlogId(),
                 null) > 0;
+        blogRegistry.clear();
         if (blog.isDotcomFlag()) {
             returnValue = updateWPComCredentials(blog.getUsername(), blog.getPassword());
         }
@@ -757,12 +1007,15 @@ public class WordPressDB {
         ContentValues userPass = new ContentValues();
         userPass.put("username", username);
         userPass.put("password", encryptPassword(password));
-        return db.update(BLOGS_TABLE, userPass, "username=\""
+        boolean result = db.update(BLOGS_TABLE, userPass, "username=\""
                 + username + "\" AND dotcomFlag=1", null) > 0;
+        blogRegistry.clear();
+        return result;
     }
 
     public boolean deleteBlog(Context ctx, int id) {
         int rowsAffected = db.delete(BLOGS_TABLE, "id=?", new String[]{Integer.toString(id)});
+        blogRegistry.clear();
         deleteQuickPressShortcutsForLocalTableBlogId(ctx, id);
         deleteAllPostsForLocalTableBlogId(id);
         PeopleTable.deletePeopleForLocalBlogId(id);
@@ -781,10 +1034,11 @@ public class WordPressDB {
         // H4ck alert: We need to delete the Jetpack sites that were added in the initial
         // WP.com get blogs call. These sites will not have the dotcomFlag set and will
         // have an empty password.
-        String args = String.format("dotcomFlag=1 OR (dotcomFlag=0 AND password='%s')", encryptPassword(""));
+        String args = "dotcomFlag=1 OR (" + getJetpackWithoutCredentialsArgs() + ")";
 
         // Delete blogs
         int rowsAffected = db.delete(BLOGS_TABLE, args, null);
+        blogRegistry.clear();
         return (rowsAffected > 0);
     }
 
@@ -793,10 +1047,12 @@ public class WordPressDB {
      */
     public void dangerouslyDeleteAllContent() {
         db.delete(BLOGS_TABLE, null, null);
+        blogRegistry.clear();
         db.delete(POSTS_TABLE, null, null);
         db.delete(MEDIA_TABLE, null, null);
         db.delete(CATEGORIES_TABLE, null, null);
-        db.delete(CommentTable.COMMENTS_TABLE, null, null);
+        categoryRegistry.clear();
+        CommentTable.deleteAllComments(db);
     }
 
     public boolean hasDotOrgBlogForUsernameAndUrl(String username, String url) {
@@ -826,6 +1082,27 @@ public class WordPressDB {
      * @return a new Blog instance or null if the localId was not found
      */
     public Blog instantiateBlogByLocalId(int localId) {
+        Blog blog = blogRegistry.get(localId);
+        if (blog != null) {
+            return blog;
+        }
+        long generation = blogRegistry.getGeneration();
+        blog = loadBlogByLocalId(localId);
+        // don't cache values that could be rolled back
+        if (blog != null && !db.inTransaction()) {
+            blogRegistry.put(blog, generation);
+        }
+        return blog;
+    }
+
+    /**
+     * Drop the blogs cached in memory, must be called if the blogs table is changed without using this class
+     */
+    public void invalidateBlogCache() {
+        blogRegistry.clear();
+    }
+
+    private Blog loadBlogByLocalId(int localId) {
         String[] fields =
                 new String[]{"url", "blogName", "username", "password", "httpuser", "httppassword", "imagePlacement",
                              "centerThumbnail", "fullSizeImage", "maxImageWidth", "maxImageWidthId",
@@ -1041,152 +1318,353 @@ public class WordPressDB {
     }
 
     /*
-     * returns true if the post matching the passed local blog ID and remote post ID
-     * has local changes
+     * state of a post already in the db, as needed by savePosts
      */
-    private boolean postHasLocalChanges(int localBlogId, String remotePostId) {
-        if (TextUtils.isEmpty(remotePostId)) {
-            return false;
+    private static class SavedPostState {
+        private final boolean mIsPage;
+        private final boolean mHasLocalChanges;
+        private final long mContentHash;
+
+        SavedPostState(boolean isPage, boolean hasLocalChanges, long contentHash) {
+            mIsPage = isPage;
+            mHasLocalChanges = hasLocalChanges;
+            mContentHash = contentHash;
         }
-        String[] args = {String.valueOf(localBlogId), remotePostId};
-        String sql = "SELECT 1 FROM " + POSTS_TABLE + " WHERE blogID=? AND postid=? AND isLocalChange=1";
-        return SqlUtils.boolForQuery(db, sql, args);
+    }
+
+    /*
+     * returns the state of the posts and pages of the passed blog which have a remote post id, keyed by that id
+     */
+    private Map<String, SavedPostState> getSavedPostStates(int localBlogId) {
+        Map<String, SavedPostState> states = new HashMap<>();
+        String[] args = {String.valueOf(localBlogId)};
+        Cursor c = db.rawQuery("SELECT postid, isPage, isLocalChange, content_hash FROM " + POSTS_TABLE
+                + " WHERE blogID=? AND postid IS NOT NULL AND postid<>''", args);
+        try {
+            while (c.moveToNext()) {
+                String postId = c.getString(0);
+                boolean hasLocalChanges = SqlUtils.sqlToBool(c.getInt(2));
+                SavedPostState duplicate = states.get(postId);
+                if (duplicate != null) {
+                    // remote ids should be unique, if they're not never skip the update of these rows
+                    hasLocalChanges |= duplicate.mHasLocalChanges;
+                    states.put(postId, new SavedPostState(duplicate.mIsPage, hasLocalChanges, 0));
+                } else {
+                    states.put(postId, new SavedPostState(SqlUtils.sqlToBool(c.getInt(1)), hasLocalChanges,
+                            c.getLong(3)));
+                }
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+        return states;
     }
 
     /**
      * Saves a list of posts to the db
+     *
+     * Existing posts are read once for the whole list, posts unchanged since they were last saved are skipped
+     * by comparing a hash of their fields, and the others are written with precompiled statements.
+     *
      * @param postsList: list of post objects
      * @param localBlogId: the posts table blog id
      * @param isPage: boolean to save as pages
      * @param overwriteLocalChanges boolean which determines whether to overwrite posts with local changes
      */
-    public void savePosts(List<?> postsList, int localBlogId, boolean isPage, boolean overwriteLocalChanges) {
-        if (postsList != null && postsList.size() != 0) {
-            db.beginTransaction();
-            try {
-                for (Object post : postsList) {
-                    ContentValues values = new ContentValues();
+    public void savePosts(final List<?> postsList, final int localBlogId, final boolean isPage,
+                          final boolean overwriteLocalChanges) {
+        if (postsList == null || postsList.size() == 0) {
+            return;
+        }
+        writer.executeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                doSavePosts(postsList, localBlogId, isPage, overwriteLocalChanges);
+            }
+        });
+    }
 
-                    // Sanity checks
-                    if (!(post instanceof Map)) {
-                        continue;
-                    }
-                    Map<?, ?> postMap = (Map<?, ?>) post;
-                    String postID = MapUtils.getMapStr(postMap, (isPage) ? "page_id" : "postid");
-                    if (TextUtils.isEmpty(postID)) {
-                        // If we don't have a post or page ID, move on
-                        continue;
-                    }
+    private void doSavePosts(List<?> postsList, int localBlogId, boolean isPage,
+                                        boolean overwriteLocalChanges) {
 
-                    values.put("blogID", localBlogId);
-                    values.put("postid", postID);
-                    values.put("title", MapUtils.getMapStr(postMap, "title"));
-                    Date dateCreated = MapUtils.getMapDate(postMap, "dateCreated");
-                    if (dateCreated != null) {
-                        values.put("dateCreated", dateCreated.getTime());
-                    } else {
-                        Date now = new Date();
-                        values.put("dateCreated", now.getTime());
-                    }
+        String[] columns = (String[]) ArrayUtils.addAll(SAVE_POSTS_COLUMNS,
+                isPage ? SAVE_POSTS_PAGE_COLUMNS : SAVE_POSTS_POST_COLUMNS);
+        int numInserted = 0;
+        int numUpdated = 0;
+        int numUnchanged = 0;
 
-                    Date dateCreatedGmt = MapUtils.getMapDate(postMap, "date_created_gmt");
-                    if (dateCreatedGmt != null) {
-                        values.put("date_created_gmt", dateCreatedGmt.getTime());
-                    } else {
-                        dateCreatedGmt = new Date((Long) values.get("dateCreated"));
-                        values.put("date_created_gmt", dateCreatedGmt.getTime() + (dateCreatedGmt.getTimezoneOffset() * 60000));
-                    }
+        db.beginTransaction();
+        SQLiteStatement insertStmt = null;
+        SQLiteStatement updateStmt = null;
+        try {
+            Map<String, SavedPostState> savedPosts = getSavedPostStates(localBlogId);
+            insertStmt = db.compileStatement(getInsertPostSql(columns));
+            updateStmt = db.compileStatement(getUpdatePostSql(columns, overwriteLocalChanges));
+
+            for (Object post : postsList) {
+                // Sanity checks
+                if (!(post instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> postMap = (Map<?, ?>) post;
+                String postID = MapUtils.getMapStr(postMap, (isPage) ? "page_id" : "postid");
+                if (TextUtils.isEmpty(postID)) {
+                    // If we don't have a post or page ID, move on
+                    continue;
+                }
 
-                    values.put("description", MapUtils.getMapStr(postMap, "description"));
-                    values.put("link", MapUtils.getMapStr(postMap, "link"));
-                    values.put("permaLink", MapUtils.getMapStr(postMap, "permaLink"));
+                ContentValues values = getPostMapValues(postMap, localBlogId, postID, isPage);
+                long contentHash = getPostValuesHash(values, columns);
+
+                SQLiteStatement stmt;
+                SavedPostState savedPost = savedPosts.get(postID);
+                if (savedPost != null && savedPost.mHasLocalChanges && !overwriteLocalChanges) {
+                    continue;
+                } else if (savedPost == null || savedPost.mIsPage != isPage) {
+                    stmt = insertStmt;
+                    numInserted++;
+                } else if (savedPost.mContentHash == contentHash && !savedPost.mHasLocalChanges) {
+                    numUnchanged++;
+                    continue;
+                } else {
+                    stmt = updateStmt;
+                    numUpdated++;
+                }
 
-                    Object[] postCategories = (Object[]) postMap.get("categories");
-                    JSONArray jsonCategoriesArray = new JSONArray();
-                    if (postCategories != null) {
-                        for (Object postCategory : postCategories) {
-                            jsonCategoriesArray.put(postCategory.toString());
-                        }
-                    }
-                    values.put("categories", jsonCategoriesArray.toString());
-
-                    Object[] custom_fields = (Object[]) postMap.get("custom_fields");
-                    JSONArray jsonCustomFieldsArray = new JSONArray();
-                    if (custom_fields != null) {
-                        for (Object custom_field : custom_fields) {
-                            jsonCustomFieldsArray.put(custom_field.toString());
-                            // Update geo_long and geo_lat from custom fields
-                            if (!(custom_field instanceof Map))
-                                continue;
-                            Map<?, ?> customField = (Map<?, ?>) custom_field;
-                            if (customField.get("key") != null && customField.get("value") != null) {
-                                if (customField.get("key").equals("geo_longitude"))
-                                    values.put("longitude", customField.get("value").toString());
-                                if (customField.get("key").equals("geo_latitude"))
-                                    values.put("latitude", customField.get("value").toString());
-                            }
-                        }
-                    }
-                    values.put("custom_fields", jsonCustomFieldsArray.toString());
-
-                    values.put("mt_excerpt", MapUtils.getMapStr(postMap, (isPage) ? "excerpt" : "mt_excerpt"));
-                    values.put("mt_text_more", MapUtils.getMapStr(postMap, (isPage) ? "text_more" : "mt_text_more"));
-                    values.put("mt_allow_comments", MapUtils.getMapInt(postMap, "mt_allow_comments", 0));
-                    values.put("mt_allow_pings", MapUtils.getMapInt(postMap, "mt_allow_pings", 0));
-                    values.put("wp_slug", MapUtils.getMapStr(postMap, "wp_slug"));
-                    values.put("wp_password", MapUtils.getMapStr(postMap, "wp_password"));
-                    values.put("wp_author_id", MapUtils.getMapStr(postMap, "wp_author_id"));
-                    values.put("wp_author_display_name", MapUtils.getMapStr(postMap, "wp_author_display_name"));
-                    values.put("wp_post_thumbnail", MapUtils.getMapInt(postMap, "wp_post_thumbnail"));
-                    values.put("post_status", MapUtils.getMapStr(postMap, (isPage) ? "page_status" : "post_status"));
-                    values.put("userid", MapUtils.getMapStr(postMap, "userid"));
-
-                    if (isPage) {
-                        values.put("isPage", true);
-                        values.put("wp_page_parent_id", MapUtils.getMapStr(postMap, "wp_page_parent_id"));
-                        values.put("wp_page_parent_title", MapUtils.getMapStr(postMap, "wp_page_parent_title"));
-                    } else {
-                        values.put("mt_keywords", MapUtils.getMapStr(postMap, "mt_keywords"));
-                        values.put("wp_post_format", MapUtils.getMapStr(postMap, "wp_post_format"));
-                    }
+                // the list columns are derived from the content, only compute them for the posts being written
+                putPostListColumns(values);
+                values.put("content_hash", contentHash);
 
-                    if (overwriteLocalChanges) {
-                        values.put("isLocalChange", false);
-                    }
+                stmt.clearBindings();
+                int index = bindPostValues(stmt, values, columns, 1);
+                index = bindPostValues(stmt, values, SAVE_POSTS_DERIVED_COLUMNS, index);
+                if (stmt == insertStmt) {
+                    stmt.executeInsert();
+                } else {
+                    stmt.bindLong(index++, localBlogId);
+                    stmt.bindString(index++, postID);
+                    stmt.bindLong(index, SqlUtils.boolToSql(isPage));
+                    stmt.executeUpdateDelete();
+                }
+                savedPosts.put(postID, new SavedPostState(isPage, false, contentHash));
+            }
 
-                    String whereClause = "blogID=? AND postID=? AND isPage=?";
-                    if (!overwriteLocalChanges) {
-                        whereClause += " AND NOT isLocalChange=1";
-                    }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            SqlUtils.closeStatement(insertStmt);
+            SqlUtils.closeStatement(updateStmt);
+        }
 
-                    String[] args = {String.valueOf(localBlogId), postID, String.valueOf(SqlUtils.boolToSql(isPage))};
-                    int updateResult = db.update(POSTS_TABLE, values, whereClause, args);
+        AppLog.d(T.POSTS, "savePosts > inserted " + numInserted + ", updated " + numUpdated
+                + ", unchanged " + numUnchanged);
+    }
 
-                    // only perform insert if update didn't match any rows, and only then if we're
-                    // overwriting local changes or local changes for this post don't exist
-                    if (updateResult == 0 && (overwriteLocalChanges || !postHasLocalChanges(localBlogId, postID))) {
-                        db.insert(POSTS_TABLE, null, values);
-                    }
-                }
+    private static String getInsertPostSql(String[] columns) {
+        String[] allColumns = (String[]) ArrayUtils.addAll(columns, SAVE_POSTS_DERIVED_COLUMNS);
+        StringBuilder sql = new StringBuilder("INSERT INTO " + POSTS_TABLE + " (");
+        StringBuilder params = new StringBuilder();
+        for (int i = 0; i < allColumns.length; i++) {
+            sql.append(i > 0 ? "," : "").append(allColumns[i]);
+            params.append(i > 0 ? ",?" : "?");
+        }
+        return sql.append(") VALUES (").append(params).append(")").toString();
+    }
 
-                db.setTransactionSuccessful();
-            } finally {
-                db.endTransaction();
+    private static String getUpdatePostSql(String[] columns, boolean overwriteLocalChanges) {
+        String[] allColumns = (String[]) ArrayUtils.addAll(columns, SAVE_POSTS_DERIVED_COLUMNS);
+        StringBuilder sql = new StringBuilder("UPDATE " + POSTS_TABLE + " SET ");
+        for (int i = 0; i < allColumns.length; i++) {
+            String column = allColumns[i];
+            sql.append(i > 0 ? "," : "").append(column);
+            if (column.equals("longitude") || column.equals("latitude")) {
+                // the location is only updated when the custom fields have one
+                sql.append("=COALESCE(?,").append(column).append(")");
+            } else {
+                sql.append("=?");
             }
         }
+        if (overwriteLocalChanges) {
+            sql.append(",isLocalChange=0");
+        }
+        sql.append(" WHERE blogID=? AND postid=? AND isPage=?");
+        if (!overwriteLocalChanges) {
+            sql.append(" AND NOT isLocalChange=1");
+        }
+        return sql.toString();
+    }
+
+    /*
+     * binds the values of the passed columns starting at the passed index, returns the index following them
+     */
+    private static int bindPostValues(SQLiteStatement stmt, ContentValues values, String[] columns, int index) {
+        for (String column : columns) {
+            Object value = values.get(column);
+            if (value == null) {
+                stmt.bindNull(index);
+            } else if (value instanceof Boolean) {
+                stmt.bindLong(index, SqlUtils.boolToSql((Boolean) value));
+            } else if (value instanceof Number) {
+                stmt.bindLong(index, ((Number) value).longValue());
+            } else {
+                stmt.bindString(index, value.toString());
+            }
+            index++;
+        }
+        return index;
+    }
+
+    /*
+     * hash of the values of the passed columns, never 0 since that means the hash is unknown
+     */
+    private static long getPostValuesHash(ContentValues values, String[] columns) {
+        FnvHash hash = new FnvHash();
+        for (String column : columns) {
+            Object value = values.get(column);
+            // distinguish null from empty strings
+            hash.add(value != null);
+            hash.add(value != null ? value.toString() : "");
+        }
+        return hash.getValue() != 0 ? hash.getValue() : 1;
+    }
+
+    /*
+     * returns the values stored for a post received from metaWeblog.getRecentPosts or wp.getPages
+     */
+    private static ContentValues getPostMapValues(Map<?, ?> postMap, int localBlogId, String postID,
+                                                  boolean isPage) {
+        ContentValues values = new ContentValues();
+        values.put("blogID", localBlogId);
+        values.put("postid", postID);
+        values.put("title", MapUtils.getMapStr(postMap, "title"));
+        Date dateCreated = MapUtils.getMapDate(postMap, "dateCreated");
+        if (dateCreated != null) {
+            values.put("dateCreated", dateCreated.getTime());
+        } else {
+            Date now = new Date();
+            values.put("dateCreated", now.getTime());
+        }
+
+        Date dateCreatedGmt = MapUtils.getMapDate(postMap, "date_created_gmt");
+        if (dateCreatedGmt != null) {
+            values.put("date_created_gmt", dateCreatedGmt.getTime());
+        } else {
+            dateCreatedGmt = new Date((Long) values.get("dateCreated"));
+            values.put("date_created_gmt", dateCreatedGmt.getTime() + (dateCreatedGmt.getTimezoneOffset() * 60000));
+        }
+
+        values.put("description", MapUtils.getMapStr(postMap, "description"));
+        values.put("link", MapUtils.getMapStr(postMap, "link"));
+        values.put("permaLink", MapUtils.getMapStr(postMap, "permaLink"));
+
+        Object[] postCategories = (Object[]) postMap.get("categories");
+        JSONArray jsonCategoriesArray = new JSONArray();
+        if (postCategories != null) {
+            for (Object postCategory : postCategories) {
+                jsonCategoriesArray.put(postCategory.toString());
+            }
+        }
+        values.put("categories", jsonCategoriesArray.toString());
+
+        Object[] custom_fields = (Object[]) postMap.get("custom_fields");
+        JSONArray jsonCustomFieldsArray = new JSONArray();
+        if (custom_fields != null) {
+            for (Object custom_field : custom_fields) {
+                jsonCustomFieldsArray.put(custom_field.toString());
+                // Update geo_long and geo_lat from custom fields
+                if (!(custom_field instanceof Map))
+                    continue;
+                Map<?, ?> customField = (Map<?, ?>) custom_field;
+                if (customField.get("key") != null && customField.get("value") != null) {
+                    if (customField.get("key").equals("geo_longitude"))
+                        values.put("longitude", customField.get("value").toString());
+                    if (customField.get("key").equals("geo_latitude"))
+                        values.put("latitude", customField.get("value").toString());
+                }
+            }
+        }
+        values.put("custom_fields", jsonCustomFieldsArray.toString());
+
+        values.put("mt_excerpt", MapUtils.getMapStr(postMap, (isPage) ? "excerpt" : "mt_excerpt"));
+        values.put("mt_text_more", MapUtils.getMapStr(postMap, (isPage) ? "text_more" : "mt_text_more"));
+        values.put("mt_allow_comments", MapUtils.getMapInt(postMap, "mt_allow_comments", 0));
+        values.put("mt_allow_pings", MapUtils.getMapInt(postMap, "mt_allow_pings", 0));
+        values.put("wp_slug", MapUtils.getMapStr(postMap, "wp_slug"));
+        values.put("wp_password", MapUtils.getMapStr(postMap, "wp_password"));
+        values.put("wp_author_id", MapUtils.getMapStr(postMap, "wp_author_id"));
+        values.put("wp_author_display_name", MapUtils.getMapStr(postMap, "wp_author_display_name"));
+        values.put("wp_post_thumbnail", MapUtils.getMapInt(postMap, "wp_post_thumbnail"));
+        values.put("post_status", MapUtils.getMapStr(postMap, (isPage) ? "page_status" : "post_status"));
+        values.put("userid", MapUtils.getMapStr(postMap, "userid"));
+        values.put("isPage", isPage);
+
+        if (isPage) {
+            values.put("wp_page_parent_id", MapUtils.getMapStr(postMap, "wp_page_parent_id"));
+            values.put("wp_page_parent_title", MapUtils.getMapStr(postMap, "wp_page_parent_title"));
+        } else {
+            values.put("mt_keywords", MapUtils.getMapStr(postMap, "mt_keywords"));
+            values.put("wp_post_format", MapUtils.getMapStr(postMap, "wp_post_format"));
+        }
+        return values;
+    }
+
+    /*
+     * sets the post list columns derived from the description and excerpt in the passed values
+     */
+    private static void putPostListColumns(ContentValues values) {
+        String description = values.getAsString("description");
+        values.put("list_excerpt", PostsListPost.makeListExcerpt(values.getAsString("mt_excerpt"), description));
+        String imageUrl = new ReaderImageScanner(description, false).getLargestImage();
+        values.put("list_image_url", StringUtils.notNullStr(imageUrl));
     }
 
     /*
      * returns list of posts for use in the post list fragment
      */
     public PostsListPostList getPostsListPosts(int localBlogId, boolean loadPages) {
+        return getPostsListPosts(localBlogId, loadPages, null, 0);
+    }
+
+    /*
+     * returns a page of posts for use in the post list fragment, starting after the passed post (or from the
+     * start if it's null) - pass zero as the limit to return all the remaining posts
+     */
+    public PostsListPostList getPostsListPosts(int localBlogId, boolean loadPages, PostsListPost afterPost,
+                                               int limit) {
         PostsListPostList listPosts = new PostsListPostList();
 
-        String[] args = {Integer.toString(localBlogId), Integer.toString(loadPages ? 1 : 0)};
-        Cursor c = db.query(POSTS_TABLE, null, "blogID=? AND isPage=?", args, null, null, "localDraft DESC, date_created_gmt DESC");
+        String where = "blogID=? AND isPage=?";
+        List<String> args = new ArrayList<>();
+        args.add(Integer.toString(localBlogId));
+        args.add(Integer.toString(loadPages ? 1 : 0));
+        if (afterPost != null) {
+            // keyset paging on the sort order, which is unique thanks to the id
+            where += " AND (localDraft < ? OR (localDraft = ? AND (date_created_gmt < ?"
+                    + " OR (date_created_gmt = ? AND id < ?))))";
+            String localDraft = Long.toString(SqlUtils.boolToSql(afterPost.isLocalDraft()));
+            String dateCreatedGmt = Long.toString(afterPost.getDateCreatedGmt());
+            args.add(localDraft);
+            args.add(localDraft);
+            args.add(dateCreatedGmt);
+            args.add(dateCreatedGmt);
+            args.add(Long.toString(afterPost.getPostId()));
+        }
+
+        Cursor c = db.query(POSTS_TABLE, POSTS_LIST_COLUMNS, where, args.toArray(new String[args.size()]), null, null,
+                "localDraft DESC, date_created_gmt DESC, id DESC", limit > 0 ? Integer.toString(limit) : null);
         try {
             while (c.moveToNext()) {
-                listPosts.add(new PostsListPost(getPostFromCursor(c)));
+                listPosts.add(new PostsListPost(
+                        c.getLong(POSTS_LIST_COL_ID),
+                        c.getLong(POSTS_LIST_COL_BLOG_ID),
+                        StringUtils.unescapeHTML(c.getString(POSTS_LIST_COL_TITLE)),
+                        c.getString(POSTS_LIST_COL_EXCERPT),
+                        c.getString(POSTS_LIST_COL_IMAGE_URL),
+                        c.getString(POSTS_LIST_COL_STATUS),
+                        c.getLong(POSTS_LIST_COL_DATE_CREATED_GMT),
+                        c.getLong(POSTS_LIST_COL_FEATURED_IMAGE_ID),
+                        SqlUtils.sqlToBool(c.getInt(POSTS_LIST_COL_LOCAL_DRAFT)),
+                        SqlUtils.sqlToBool(c.getInt(POSTS_LIST_COL_LOCAL_CHANGE))));
             }
             return listPosts;
         } finally {
@@ -1263,6 +1741,7 @@ public class WordPressDB {
             values.put("isLocalChange", post.isLocalChange());
             values.put("mt_excerpt", post.getPostExcerpt());
             values.put("wp_post_thumbnail", post.getFeaturedImageId());
+            putPostListColumns(values);
 
             result = db.insert(POSTS_TABLE, null, values);
 
@@ -1299,6 +1778,9 @@ public class WordPressDB {
             values.put("isLocalChange", post.isLocalChange());
             values.put("mt_excerpt", post.getPostExcerpt());
             values.put("wp_post_thumbnail", post.getFeaturedImageId());
+            putPostListColumns(values);
+            // the post may no longer match what the server sent, so savePosts mustn't skip it
+            values.put("content_hash", 0);
 
             putPostLocation(post, values);
 
@@ -1332,6 +1814,37 @@ public class WordPressDB {
         db.delete(POSTS_TABLE, "blogID=? AND isPage=? AND localDraft=0 AND isLocalChange=0", args);
     }
 
+    /**
+     * Delete the uploaded posts whose remote id isn't in the passed set, used once a full refresh from the
+     * server has been saved
+     */
+    public void deleteUploadedPostsNotIn(final int blogID, final boolean isPage, final Set<String> remotePostIds) {
+        writer.executeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                doDeleteUploadedPostsNotIn(blogID, isPage, remotePostIds);
+            }
+        });
+    }
+
+    private void doDeleteUploadedPostsNotIn(int blogID, boolean isPage, Set<String> remotePostIds) {
+        String[] args = {String.valueOf(blogID), isPage ? "1" : "0"};
+        Cursor c = db.rawQuery("SELECT id, postid FROM " + POSTS_TABLE
+                + " WHERE blogID=? AND isPage=? AND localDraft=0 AND isLocalChange=0", args);
+        db.beginTransaction();
+        try {
+            while (c.moveToNext()) {
+                if (!remotePostIds.contains(c.getString(1))) {
+                    db.delete(POSTS_TABLE, "id=?", new String[]{Long.toString(c.getLong(0))});
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            SqlUtils.closeCursor(c);
+        }
+    }
+
     public Post getPostForLocalTablePostId(long localTablePostId) {
         Cursor c = db.query(POSTS_TABLE, null, "id=?", new String[]{String.valueOf(localTablePostId)}, null, null, null);
         try {
@@ -1356,61 +1869,104 @@ public class WordPressDB {
         synchronized (this) {
             returnValue = db.insert(CATEGORIES_TABLE, null, values) > 0;
         }
+        categoryRegistry.invalidate(id);
 
         return (returnValue);
     }
 
-    public List<String> loadCategories(int id) {
-        Cursor c = db.query(CATEGORIES_TABLE, new String[] { "id", "wp_id",
-                "category_name" }, "blog_id=" + Integer.toString(id), null, null, null, null);
-        int numRows = c.getCount();
-        c.moveToFirst();
-        List<String> returnVector = new Vector<String>();
-        for (int i = 0; i < numRows; ++i) {
-            String category_name = c.getString(2);
-            if (category_name != null) {
-                returnVector.add(category_name);
+    /*
+     * replaces the categories of the blog with the passed ones, which only need their id, parent id and name
+     */
+    public void replaceCategories(int id, List<CategoryNode> categories) {
+        db.beginTransaction();
+        try {
+            clearCategories(id);
+            for (CategoryNode category : categories) {
+                insertCategory(id, category.getCategoryId(), category.getParentId(), category.getName());
             }
-            c.moveToNext();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
-        c.close();
+        // the categories loaded while the transaction was open are the previous ones
+        categoryRegistry.invalidate(id);
+    }
 
-        return returnVector;
+    public List<String> loadCategories(int id) {
+        return new ArrayList<>(getBlogCategories(id).mNames);
     }
 
     public int getCategoryId(int id, String category) {
-        Cursor c = db.query(CATEGORIES_TABLE, new String[] { "wp_id" },
-                "category_name=? AND blog_id=?", new String[] {category, String.valueOf(id)},
-                null, null, null);
-        if (c.getCount() == 0)
-            return 0;
-        c.moveToFirst();
-        int categoryID = 0;
-        categoryID = c.getInt(0);
+        Integer categoryId = getBlogCategories(id).mIds.get(category);
+        return categoryId != null ? categoryId : 0;
+    }
 
-        c.close();
+    public int getCategoryParentId(int id, String category) {
+        Integer parentId = getBlogCategories(id).mParentIds.get(category);
+        return parentId != null ? parentId : -1;
+    }
 
-        return categoryID;
+    /**
+     * Returns the categories of the blog in the order they're shown in the tree, each with its level set. The
+     * nodes are copies the caller can change.
+     */
+    public ArrayList<CategoryNode> getSortedCategories(int id) {
+        List<CategoryNode> sortedCategories = getBlogCategories(id).mSortedCategories;
+        ArrayList<CategoryNode> categories = new ArrayList<>(sortedCategories.size());
+        for (CategoryNode category : sortedCategories) {
+            categories.add(new CategoryNode(category));
+        }
+        return categories;
     }
 
-    public int getCategoryParentId(int id, String category) {
-        Cursor c = db.query(CATEGORIES_TABLE, new String[] { "parent_id" },
-                "category_name=? AND blog_id=?", new String[] {category, String.valueOf(id)},
-                null, null, null);
-        if (c.getCount() == 0)
-            return -1;
-        c.moveToFirst();
-        int categoryParentID = c.getInt(0);
+    /*
+     * returns the cached categories of the blog, reading them with a single query if they aren't cached
+     */
+    private CategoryRegistry.BlogCategories getBlogCategories(int id) {
+        CategoryRegistry.BlogCategories categories = categoryRegistry.get(id);
+        if (categories != null) {
+            return categories;
+        }
+
+        long generation = categoryRegistry.getGeneration();
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        Map<String, Integer> parentIds = new HashMap<>();
+        Cursor c = db.query(CATEGORIES_TABLE, new String[] { "wp_id", "parent_id", "category_name" },
+                "blog_id=?", new String[] { Integer.toString(id) }, null, null, "id");
+        try {
+            while (c.moveToNext()) {
+                String name = c.getString(2);
+                if (name == null) {
+                    continue;
+                }
+                names.add(name);
+                // categories are looked up by name, the first one of each name wins
+                if (!ids.containsKey(name)) {
+                    ids.put(name, c.getInt(0));
+                    parentIds.put(name, c.getInt(1));
+                }
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
 
-        c.close();
+        List<CategoryNode> nodes = new ArrayList<>(names.size());
+        for (String name : names) {
+            nodes.add(new CategoryNode(ids.get(name), parentIds.get(name), name));
+        }
+        List<CategoryNode> sortedCategories = CategoryNode.getSortedListOfCategoriesFromRoot(
+                CategoryNode.createCategoryTree(nodes));
 
-        return categoryParentID;
+        categories = new CategoryRegistry.BlogCategories(names, ids, parentIds, sortedCategories);
+        categoryRegistry.put(id, categories, generation);
+        return categories;
     }
 
     public void clearCategories(int id) {
         // clear out the table since we are refreshing the whole enchilada
         db.delete(CATEGORIES_TABLE, "blog_id=" + id, null);
-
+        categoryRegistry.invalidate(id);
     }
 
     public boolean addQuickPressShortcut(int blogId, String name) {
@@ -1545,25 +2101,11 @@ public class WordPressDB {
             c.moveToNext();
         }
         c.close();
+        blogRegistry.clear();
     }
 
     public int getUnmoderatedCommentCount(int blogID) {
-        int commentCount = 0;
-
-        Cursor c = db
-                .rawQuery(
-                        "select count(*) from comments where blogID=? AND status='hold'",
-                        new String[]{String.valueOf(blogID)});
-        int numRows = c.getCount();
-        c.moveToFirst();
-
-        if (numRows > 0) {
-            commentCount = c.getInt(0);
-        }
-
-        c.close();
-
-        return commentCount;
+        return CommentTable.getUnmoderatedCommentCount(blogID);
     }
 
     public void saveMediaFile(MediaFile mf) {
@@ -1631,13 +2173,45 @@ public class WordPressDB {
                 + "(uploadState IS NULL OR uploadState IN ('uploaded', 'queued', 'failed', 'uploading')) ORDER BY (uploadState=?) DESC, date_created_gmt DESC", new String[] { blogId, "uploading" });
     }
 
-    /** For a given blogId, get all the media files with searchTerm **/
+    /**
+     * For a given blogId, get all the media files whose title, caption, description or file name have words starting
+     * with the words of searchTerm. Files matching on their title come first.
+     **/
     public Cursor getMediaFilesForBlog(String blogId, String searchTerm) {
-        // Currently on WordPress.com, the media search engine only searches the title.
-        // We'll match this.
-
+        String sql = "SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> ''"
+                + " AND (uploadState IS NULL OR uploadState ='uploaded')";
         String term = searchTerm.toLowerCase(LanguageUtils.getCurrentDeviceLanguage(WordPress.getContext()));
-        return db.rawQuery("SELECT id as _id, * FROM " + MEDIA_TABLE + " WHERE blogId=? AND mediaId <> '' AND title LIKE ? AND (uploadState IS NULL OR uploadState ='uploaded') ORDER BY (uploadState=?) DESC, date_created_gmt DESC", new String[]{blogId, "%" + term + "%", "uploading"});
+        String matchQuery = getPrefixMatchQuery(term, null);
+        if (matchQuery == null) {
+            return db.rawQuery(sql + " ORDER BY date_created_gmt DESC", new String[]{blogId});
+        }
+
+        String matching = "SELECT docid FROM " + MEDIA_FTS_TABLE + " WHERE " + MEDIA_FTS_TABLE + " MATCH ?";
+        return db.rawQuery(sql + " AND id IN (" + matching + ")"
+                        + " ORDER BY id IN (" + matching + ") DESC, date_created_gmt DESC",
+                new String[]{blogId, matchQuery, getPrefixMatchQuery(term, COLUMN_NAME_TITLE)});
+    }
+
+    /**
+     * Returns the full-text query matching words starting with each word of the passed term, in the passed column or
+     * in all of them if it's null - returns null if the term has no words
+     */
+    public static String getPrefixMatchQuery(String term, String column) {
+        StringBuilder query = new StringBuilder();
+        // only keep letters and digits, which also drops the operators of the query syntax
+        for (String word : term.split("[^\\p{L}\\p{N}]+")) {
+            // uppercase AND, OR, NOT and NEAR are operators, words are lowercased anyway
+            if (word.length() > 0) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                if (column != null) {
+                    query.append(column).append(':');
+                }
+                query.append(word.toLowerCase(Locale.ROOT)).append('*');
+            }
+        }
+        return query.length() > 0 ? query.toString() : null;
     }
 
     /** For a given blogId, get the media file with the given media_id **/
@@ -1797,6 +2371,46 @@ public class WordPressDB {
         }
     }
 
+    /**
+     * Returns the progress of the interrupted chunked upload of a file for a media row, or null if there's none
+     */
+    public XMLRPCChunkedUpload.Progress getMediaChunkedUploadProgress(int id, String filePath) {
+        Cursor c = db.rawQuery("SELECT uploadId, uploadedBytes FROM " + MEDIA_TABLE
+                + " WHERE id=? AND uploadFilePath=? AND uploadId <> ''",
+                new String[]{Integer.toString(id), StringUtils.notNullStr(filePath)});
+        try {
+            if (c.moveToFirst()) {
+                return new XMLRPCChunkedUpload.Progress(c.getString(0), c.getLong(1));
+            }
+            return null;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
+    /**
+     * Save the chunked upload progress of a file for a media row, a null uploadId clears it
+     */
+    public void updateMediaChunkedUploadProgress(int id, String filePath, String uploadId, long uploadedBytes) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_NAME_UPLOAD_ID, StringUtils.notNullStr(uploadId));
+        values.put(COLUMN_NAME_UPLOAD_FILE_PATH, uploadId != null ? StringUtils.notNullStr(filePath) : "");
+        values.put(COLUMN_NAME_UPLOADED_BYTES, uploadId != null ? uploadedBytes : 0);
+        db.update(MEDIA_TABLE, values, "id=?", new String[]{Integer.toString(id)});
+    }
+
+    /**
+     * Clear the chunked upload progress of a media row once the upload has ended, the upload state of the row is
+     * left to the service which owns it
+     */
+    public void clearMediaChunkedUploadProgress(int id) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_NAME_UPLOAD_ID, "");
+        values.put(COLUMN_NAME_UPLOAD_FILE_PATH, "");
+        values.put(COLUMN_NAME_UPLOADED_BYTES, 0);
+        db.update(MEDIA_TABLE, values, "id=?", new String[]{Integer.toString(id)});
+    }
+
     public void updateMediaLocalToRemoteId(String blogId, String localMediaId, String remoteMediaId) {
         ContentValues values = new ContentValues();
         values.put("mediaId", remoteMediaId);
@@ -1867,17 +2481,39 @@ public class WordPressDB {
         }
     }
 
+    // upload states of the media files marked by setMediaFilesMarkedForDeleted(), one for each state they had
+    // before so clearMediaFilesMarkedForDeleted() can restore it - kept apart from 'deleted', which is also set
+    // by MediaDeleteService
+    private static final String MEDIA_STATE_SYNC_MISSING = "sync_missing";
+    private static final String MEDIA_STATE_SYNC_MISSING_UPLOADED = "sync_missing_uploaded";
+
     /** Mark media files as deleted without actually deleting them **/
     public void setMediaFilesMarkedForDeleted(String blogId) {
         // This is for syncing our files to the server:
-        // when we pull from the server, everything that is still 'deleted'
+        // when we pull from the server, everything that is still marked
         // was not downloaded from the server and can be removed via deleteFilesMarkedForDeleted()
-        updateMediaUploadState(blogId, null, MediaUploadState.DELETED);
+        ContentValues values = new ContentValues();
+        values.put("uploadState", MEDIA_STATE_SYNC_MISSING);
+        db.update(MEDIA_TABLE, values, "blogId=? AND uploadState IS NULL", new String[]{blogId});
+        values.put("uploadState", MEDIA_STATE_SYNC_MISSING_UPLOADED);
+        db.update(MEDIA_TABLE, values, "blogId=? AND uploadState=?",
+                new String[]{blogId, MediaUploadState.UPLOADED.toString()});
+    }
+
+    /** Revert setMediaFilesMarkedForDeleted(), used when a sync fails before completion **/
+    public void clearMediaFilesMarkedForDeleted(String blogId) {
+        ContentValues values = new ContentValues();
+        values.putNull("uploadState");
+        db.update(MEDIA_TABLE, values, "blogId=? AND uploadState=?", new String[]{blogId, MEDIA_STATE_SYNC_MISSING});
+        values.put("uploadState", MediaUploadState.UPLOADED.toString());
+        db.update(MEDIA_TABLE, values, "blogId=? AND uploadState=?",
+                new String[]{blogId, MEDIA_STATE_SYNC_MISSING_UPLOADED});
     }
 
-    /** Delete files marked as deleted **/
+    /** Delete files marked as deleted, and those marked by a sync which weren't downloaded again **/
     public void deleteFilesMarkedForDeleted(String blogId) {
-        db.delete(MEDIA_TABLE, "blogId=? AND uploadState=?", new String[]{blogId, "deleted"});
+        db.delete(MEDIA_TABLE, "blogId=? AND uploadState IN (?,?,?)",
+                new String[]{blogId, "deleted", MEDIA_STATE_SYNC_MISSING, MEDIA_STATE_SYNC_MISSING_UPLOADED});
     }
 
     /** Get a media file scheduled for delete for a given blogId **/
@@ -0,0 +1,110 @@
+package org.wordpress.android.datasets;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory number of comments per status for each blog in CommentTable, so moderation badges don't count rows
+ * every time they're shown. A blog's counts are loaded with a single query the first time they're needed, then kept
+ * up to date by the CommentTable write paths.
+ *
+ * Writes which know the previous status of the comments they change call beginChange() before touching the
+ * database and endChange() once their transaction has ended, the counts are adjusted if they were the only change in
+ * progress and dropped otherwise. The lock of this object is never held while the database is used. Other writes drop
+ * the counts of the blog once their change is committed. Counts loaded while a change was in progress are dropped
+ * instead of being cached.
+ */
+final class CommentCounts {
+    // blog id > status > number of comments, only holds the blogs whose counts are loaded
+    private final Map<Integer, Map<String, Integer>> mCounts = new HashMap<>();
+    private long mGeneration;
+    private int mNumPendingChanges;
+
+    /**
+     * Returns the number of comments with any of the passed statuses, or -1 if the blog's counts aren't loaded
+     */
+    synchronized int get(int localBlogId, String... statuses) {
+        Map<String, Integer> blogCounts = mCounts.get(localBlogId);
+        if (blogCounts == null) {
+            return -1;
+        }
+        int count = 0;
+        for (String status : statuses) {
+            Integer statusCount = blogCounts.get(status);
+            if (statusCount != null) {
+                count += statusCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Must be called before reading the counts from the database, and the value passed to put()
+     */
+    synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    synchronized void put(int localBlogId, Map<String, Integer> blogCounts, long generation) {
+        if (generation != mGeneration || mNumPendingChanges > 0) {
+            return;
+        }
+        mCounts.put(localBlogId, new HashMap<>(blogCounts));
+    }
+
+    /**
+     * Must be called before a write which adjusts the counts starts, and followed by endChange()
+     */
+    synchronized void beginChange() {
+        mGeneration++;
+        mNumPendingChanges++;
+    }
+
+    /**
+     * Moves comments from their old status to newStatus once the write started by beginChange() has ended, an old
+     * status is null for an added comment and newStatus is null for deleted ones. oldStatuses is null if the write
+     * wasn't committed, and the blog's counts are dropped when another write is still in progress since the order
+     * of the changes isn't known.
+     */
+    synchronized void endChange(int localBlogId, List<String> oldStatuses, String newStatus) {
+        mGeneration++;
+        mNumPendingChanges--;
+        if (oldStatuses == null || mNumPendingChanges > 0) {
+            mCounts.remove(localBlogId);
+            return;
+        }
+        for (String oldStatus : oldStatuses) {
+            change(localBlogId, oldStatus, newStatus);
+        }
+    }
+
+    private void change(int localBlogId, String oldStatus, String newStatus) {
+        Map<String, Integer> blogCounts = mCounts.get(localBlogId);
+        if (blogCounts == null || (oldStatus != null && oldStatus.equals(newStatus))) {
+            return;
+        }
+        if (oldStatus != null) {
+            Integer count = blogCounts.get(oldStatus);
+            if (count == null || count <= 1) {
+                blogCounts.remove(oldStatus);
+            } else {
+                blogCounts.put(oldStatus, count - 1);
+            }
+        }
+        if (newStatus != null) {
+            Integer count = blogCounts.get(newStatus);
+            blogCounts.put(newStatus, count == null ? 1 : count + 1);
+        }
+    }
+
+    synchronized void invalidate(int localBlogId) {
+        mGeneration++;
+        mCounts.remove(localBlogId);
+    }
+
+    synchronized void clear() {
+        mGeneration++;
+        mCounts.clear();
+    }
+}
@@ -12,9 +12,15 @@ import org.wordpress.android.models.Comment;
 import org.wordpress.android.models.CommentList;
 import org.wordpress.android.models.CommentStatus;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.LanguageUtils;
 import org.wordpress.android.util.SqlUtils;
 import org.wordpress.android.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * replaces the comments table used in versions prior to 2.6.1, which didn't use a primary key
  * and missed a few important fields
@@ -22,6 +28,30 @@ import org.wordpress.android.util.StringUtils;
 public class CommentTable {
     public static final String COMMENTS_TABLE = "comments";
 
+    // full-text index of the comment authors and text, using the comments table as its content and kept in sync by
+    // triggers - comments are never written with INSERT OR REPLACE so their rowid doesn't change under the index
+    private static final String COMMENTS_FTS_TABLE = "comments_fts";
+    private static final String CREATE_COMMENTS_FTS_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS " + COMMENTS_FTS_TABLE
+            + " USING fts4(content=\"" + COMMENTS_TABLE + "\", author_name, comment";
+    private static final String INDEXED_COLUMNS_CHANGED =
+            " WHEN old.author_name IS NOT new.author_name OR old.comment IS NOT new.comment";
+    private static final String[] CREATE_COMMENTS_FTS_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS comments_fts_before_update BEFORE UPDATE OF author_name, comment ON "
+                    + COMMENTS_TABLE + INDEXED_COLUMNS_CHANGED
+                    + " BEGIN DELETE FROM " + COMMENTS_FTS_TABLE + " WHERE docid=old.rowid; END;",
+            "CREATE TRIGGER IF NOT EXISTS comments_fts_before_delete BEFORE DELETE ON " + COMMENTS_TABLE
+                    + " BEGIN DELETE FROM " + COMMENTS_FTS_TABLE + " WHERE docid=old.rowid; END;",
+            "CREATE TRIGGER IF NOT EXISTS comments_fts_after_update AFTER UPDATE OF author_name, comment ON "
+                    + COMMENTS_TABLE + INDEXED_COLUMNS_CHANGED
+                    + " BEGIN INSERT INTO " + COMMENTS_FTS_TABLE + "(docid, author_name, comment)"
+                    + " VALUES(new.rowid, new.author_name, new.comment); END;",
+            "CREATE TRIGGER IF NOT EXISTS comments_fts_after_insert AFTER INSERT ON " + COMMENTS_TABLE
+                    + " BEGIN INSERT INTO " + COMMENTS_FTS_TABLE + "(docid, author_name, comment)"
+                    + " VALUES(new.rowid, new.author_name, new.comment); END;"
+    };
+
+    private static final CommentCounts sCounts = new CommentCounts();
+
     public static void createTables(SQLiteDatabase db) {
         db.execSQL("CREATE TABLE IF NOT EXISTS " + COMMENTS_TABLE + " ("
                  + "    blog_id             INTEGER DEFAULT 0,"
@@ -37,9 +67,35 @@ public class CommentTable {
                  + "    profile_image_url   TEXT,"
                  + "    PRIMARY KEY (blog_id, post_id, comment_id)"
                  + " );");
+        // the comment list is read a page at a time in this order
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_comments_published ON " + COMMENTS_TABLE
+                 + " (blog_id, published, comment_id)");
+        createSearchIndex(db);
+    }
+
+    private static void createSearchIndex(SQLiteDatabase db) {
+        try {
+            // unicode61 folds the case of non-ASCII letters too, but needs SQLite 3.7.13
+            db.execSQL(CREATE_COMMENTS_FTS_TABLE + ", tokenize=unicode61);");
+        } catch (SQLiteException e) {
+            AppLog.w(AppLog.T.COMMENTS, "unicode61 tokenizer not available, comment search will fold ASCII letters only");
+            db.execSQL(CREATE_COMMENTS_FTS_TABLE + ");");
+        }
+        for (String trigger : CREATE_COMMENTS_FTS_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    /**
+     * fills the comment search index with the existing comments, only needed when the index is added to an
+     * existing comments table
+     */
+    public static void rebuildSearchIndex(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + COMMENTS_FTS_TABLE + "(" + COMMENTS_FTS_TABLE + ") VALUES('rebuild');");
     }
 
     private static void dropTables(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS " + COMMENTS_FTS_TABLE);
         db.execSQL("DROP TABLE IF EXISTS " + COMMENTS_TABLE);
     }
 
@@ -47,6 +103,7 @@ public class CommentTable {
         AppLog.i(AppLog.T.COMMENTS, "resetting comment table");
         dropTables(db);
         createTables(db);
+        sCounts.clear();
     }
 
     private static SQLiteDatabase getReadableDb() {
@@ -78,6 +135,9 @@ public class CommentTable {
             numDeleted += db.delete(COMMENTS_TABLE, sql, null);
         }
 
+        if (numDeleted > 0) {
+            sCounts.clear();
+        }
         return numDeleted;
     }
 
@@ -103,7 +163,28 @@ public class CommentTable {
         values.put("published",         comment.getPublished());
         values.put("profile_image_url", comment.getProfileImageUrl());
 
-        getWritableDb().insertWithOnConflict(COMMENTS_TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        SQLiteDatabase db = getWritableDb();
+        String[] args = {Integer.toString(localBlogId),
+                         Long.toString(comment.postID),
+                         Long.toString(comment.commentID)};
+        List<String> oldStatuses = new ArrayList<>();
+        boolean isCommitted = false;
+        // the previous status is read in the same transaction so it's still current when the comment is written
+        db.beginTransaction();
+        sCounts.beginChange();
+        try {
+            String oldStatus = getCommentStatus(db, localBlogId, comment.commentID);
+            // update rather than replace an existing comment so its rowid, used by the search index, is kept
+            if (db.update(COMMENTS_TABLE, values, "blog_id=? AND post_id=? AND comment_id=?", args) > 0
+                    || db.insert(COMMENTS_TABLE, null, values) != -1) {
+                oldStatuses.add(oldStatus);
+            }
+            db.setTransactionSuccessful();
+            isCommitted = true;
+        } finally {
+            db.endTransaction();
+            applyCountChanges(localBlogId, isCommitted, oldStatuses, StringUtils.notNullStr(comment.getStatus()));
+        }
     }
 
     /**
@@ -156,29 +237,60 @@ public class CommentTable {
      * @return list of comments for this blog
      */
     public static CommentList getCommentsForBlogWithFilter(int localBlogId, CommentStatus filter) {
-        CommentList comments = new CommentList();
-        Cursor c;
+        return getCommentsForBlogWithFilter(localBlogId, filter, null, null, 0);
+    }
 
-        //aggregating 'all' to include approved and unapproved comments
-        if (CommentStatus.UNKNOWN.equals(filter)){
-            //we need to get the filter values for both XMLrpc and REST api as in the case of a migration where existing
-            // data is present on a device, we still need to be able to filter both values
-            String[] args = {Integer.toString(localBlogId),
-                    CommentStatus.toString(CommentStatus.APPROVED),
-                    CommentStatus.toString(CommentStatus.UNAPPROVED),
-                    CommentStatus.toRESTString(CommentStatus.APPROVED),
-                    CommentStatus.toRESTString(CommentStatus.UNAPPROVED)};
-            c = getReadableDb().rawQuery(
-                    "SELECT * FROM " + COMMENTS_TABLE + " WHERE blog_id=? AND (status=? OR status=? OR status=? OR status=?)  ORDER BY published DESC", args);
+    /**
+     * get a page of comments for a blog that have a specific status, newest first
+     * @param localBlogId - unique id in account table for this blog
+     * @param filter - status to filter comments by
+     * @param searchTerm - only return comments whose author or text have words starting with the words of this
+     *                   term, pass null to return all comments
+     * @param afterComment - return the comments after this one, pass null to start from the newest comment
+     * @param limit - maximum number of comments to return, pass zero to return all the remaining comments
+     * @return list of comments for this blog
+     */
+    public static CommentList getCommentsForBlogWithFilter(int localBlogId, CommentStatus filter, String searchTerm,
+                                                           Comment afterComment, int limit) {
+        CommentList comments = new CommentList();
 
+        StringBuilder where = new StringBuilder("blog_id=?");
+        List<String> args = new ArrayList<>();
+        args.add(Integer.toString(localBlogId));
+
+        //we need to get the filter values for both XMLrpc and REST api as in the case of a migration where existing
+        // data is present on a device, we still need to be able to filter both values
+        if (CommentStatus.UNKNOWN.equals(filter)) {
+            //aggregating 'all' to include approved and unapproved comments
+            where.append(" AND status IN (?,?,?,?)");
+            args.add(CommentStatus.toString(CommentStatus.APPROVED));
+            args.add(CommentStatus.toString(CommentStatus.UNAPPROVED));
+            args.add(CommentStatus.toRESTString(CommentStatus.APPROVED));
+            args.add(CommentStatus.toRESTString(CommentStatus.UNAPPROVED));
         } else {
-            //we need to get the filter values for both XMLrpc and REST api as in the case of a migration where existing
-            // data is present on a device, we still need to be able to filter both values
-            String[] args = {Integer.toString(localBlogId), CommentStatus.toString(filter), CommentStatus.toRESTString(filter)};
-            c = getReadableDb().rawQuery(
-                    "SELECT * FROM " + COMMENTS_TABLE + " WHERE blog_id=? AND (status=? OR status=?)  ORDER BY published DESC", args);
+            where.append(" AND status IN (?,?)");
+            args.add(CommentStatus.toString(filter));
+            args.add(CommentStatus.toRESTString(filter));
+        }
+
+        String matchQuery = (searchTerm != null ? getSearchMatchQuery(searchTerm) : null);
+        if (matchQuery != null) {
+            where.append(" AND rowid IN (SELECT docid FROM " + COMMENTS_FTS_TABLE + " WHERE " + COMMENTS_FTS_TABLE
+                    + " MATCH ?)");
+            args.add(matchQuery);
+        }
+
+        if (afterComment != null) {
+            // keyset paging on the sort order, which is unique thanks to the comment id
+            where.append(" AND (published < ? OR (published = ? AND comment_id < ?))");
+            args.add(afterComment.getPublished());
+            args.add(afterComment.getPublished());
+            args.add(Long.toString(afterComment.commentID));
         }
 
+        Cursor c = getReadableDb().query(COMMENTS_TABLE, null, where.toString(), args.toArray(new String[args.size()]),
+                null, null, "published DESC, comment_id DESC", limit > 0 ? Integer.toString(limit) : null);
+
         try {
             while (c.moveToNext()) {
                 Comment comment = getCommentFromCursor(c);
@@ -191,13 +303,23 @@ public class CommentTable {
         }
     }
 
+    /*
+     * returns the full-text query for the passed search term, null if it has no words
+     */
+    private static String getSearchMatchQuery(String searchTerm) {
+        String term = searchTerm.toLowerCase(LanguageUtils.getCurrentDeviceLanguage(WordPress.getContext()));
+        return WordPressDB.getPrefixMatchQuery(term, null);
+    }
+
     /**
      * delete all comments for a blog
      * @param localBlogId - unique id in account table for this blog
      * @return number of comments deleted
      */
     public static int deleteCommentsForBlog(int localBlogId) {
-        return getWritableDb().delete(COMMENTS_TABLE, "blog_id=?", new String[]{Integer.toString(localBlogId)});
+        int numDeleted = getWritableDb().delete(COMMENTS_TABLE, "blog_id=?", new String[]{Integer.toString(localBlogId)});
+        sCounts.invalidate(localBlogId);
+        return numDeleted;
     }
 
     /**
@@ -207,6 +329,12 @@ public class CommentTable {
      * @return number of comments deleted
      */
     public static int deleteCommentsForBlogWithFilter(int localBlogId, CommentStatus filter) {
+        int numDeleted = doDeleteCommentsForBlogWithFilter(localBlogId, filter);
+        sCounts.invalidate(localBlogId);
+        return numDeleted;
+    }
+
+    private static int doDeleteCommentsForBlogWithFilter(int localBlogId, CommentStatus filter) {
         if (CommentStatus.UNKNOWN.equals(filter)){
             //we need to get the filter values for both XMLrpc and REST api as in the case of a migration where existing
             // data is present on a device, we still need to be able to filter both values
@@ -235,7 +363,7 @@ public class CommentTable {
         if (comments == null || comments.size() == 0)
             return false;
 
-        final String sql = " INSERT OR REPLACE INTO " + COMMENTS_TABLE + "("
+        final String insertSql = " INSERT INTO " + COMMENTS_TABLE + "("
                          + " blog_id,"          // 1
                          + " post_id,"          // 2
                          + " comment_id,"       // 3
@@ -248,25 +376,30 @@ public class CommentTable {
                          + " post_title,"       // 10
                          + " profile_image_url" // 11
                          + " ) VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11)";
+        // existing comments are updated rather than replaced so their rowid, used by the search index, is kept
+        final String updateSql = " UPDATE " + COMMENTS_TABLE + " SET"
+                         + " comment=?4,"
+                         + " published=?5,"
+                         + " status=?6,"
+                         + " author_name=?7,"
+                         + " author_url=?8,"
+                         + " author_email=?9,"
+                         + " post_title=?10,"
+                         + " profile_image_url=?11"
+                         + " WHERE blog_id=?1 AND post_id=?2 AND comment_id=?3";
 
         SQLiteDatabase db = getWritableDb();
-        SQLiteStatement stmt = db.compileStatement(sql);
+        SQLiteStatement insertStmt = db.compileStatement(insertSql);
+        SQLiteStatement updateStmt = db.compileStatement(updateSql);
         db.beginTransaction();
         try {
             try {
                 for (Comment comment: comments) {
-                    stmt.bindLong  ( 1, localBlogId);
-                    stmt.bindLong  ( 2, comment.postID);
-                    stmt.bindLong  ( 3, comment.commentID);
-                    stmt.bindString( 4, SqlUtils.maxSQLiteText(comment.getCommentText()));
-                    stmt.bindString( 5, comment.getPublished());
-                    stmt.bindString( 6, comment.getStatus());
-                    stmt.bindString( 7, comment.getAuthorName());
-                    stmt.bindString( 8, comment.getAuthorUrl());
-                    stmt.bindString( 9, comment.getAuthorEmail());
-                    stmt.bindString(10, comment.getPostTitle());
-                    stmt.bindString(11, comment.getProfileImageUrl());
-                    stmt.execute();
+                    bindComment(updateStmt, localBlogId, comment);
+                    if (updateStmt.executeUpdateDelete() == 0) {
+                        bindComment(insertStmt, localBlogId, comment);
+                        insertStmt.execute();
+                    }
                 }
 
                 db.setTransactionSuccessful();
@@ -277,10 +410,27 @@ public class CommentTable {
             }
         } finally {
             db.endTransaction();
-            SqlUtils.closeStatement(stmt);
+            SqlUtils.closeStatement(insertStmt);
+            SqlUtils.closeStatement(updateStmt);
+            // the previous status of the replaced comments isn't known, recount the blog when next needed
+            sCounts.invalidate(localBlogId);
         }
     }
 
+    private static void bindComment(SQLiteStatement stmt, int localBlogId, Comment comment) {
+        stmt.bindLong  ( 1, localBlogId);
+        stmt.bindLong  ( 2, comment.postID);
+        stmt.bindLong  ( 3, comment.commentID);
+        stmt.bindString( 4, SqlUtils.maxSQLiteText(comment.getCommentText()));
+        stmt.bindString( 5, comment.getPublished());
+        stmt.bindString( 6, comment.getStatus());
+        stmt.bindString( 7, comment.getAuthorName());
+        stmt.bindString( 8, comment.getAuthorUrl());
+        stmt.bindString( 9, comment.getAuthorEmail());
+        stmt.bindString(10, comment.getPostTitle());
+        stmt.bindString(11, comment.getProfileImageUrl());
+    }
+
     /**
      * updates the passed comment
      * @param localBlogId - unique id in account table for this blog
@@ -298,11 +448,38 @@ public class CommentTable {
      * @param newStatus - status to change to
      */
     public static void updateCommentStatus(int localBlogId, long commentId, String newStatus) {
+        SQLiteDatabase db = getWritableDb();
+        List<String> oldStatuses = new ArrayList<>();
+        boolean isCommitted = false;
+        db.beginTransaction();
+        sCounts.beginChange();
+        try {
+            String oldStatus = doUpdateCommentStatus(db, localBlogId, commentId, newStatus);
+            if (oldStatus != null) {
+                oldStatuses.add(oldStatus);
+            }
+            db.setTransactionSuccessful();
+            isCommitted = true;
+        } finally {
+            db.endTransaction();
+            applyCountChanges(localBlogId, isCommitted, oldStatuses, StringUtils.notNullStr(newStatus));
+        }
+    }
+
+    /*
+     * returns the previous status of the comment, or null if it doesn't exist
+     */
+    private static String doUpdateCommentStatus(SQLiteDatabase db, int localBlogId, long commentId, String newStatus) {
+        String oldStatus = getCommentStatus(db, localBlogId, commentId);
+        if (oldStatus == null) {
+            return null;
+        }
         ContentValues values = new ContentValues();
         values.put("status", newStatus);
         String[] args = {Integer.toString(localBlogId),
                          Long.toString(commentId)};
-        getWritableDb().update(COMMENTS_TABLE, values, "blog_id=? AND comment_id=?", args);
+        db.update(COMMENTS_TABLE, values, "blog_id=? AND comment_id=?", args);
+        return oldStatus;
     }
 
     /**
@@ -314,14 +491,23 @@ public class CommentTable {
     public static void updateCommentsStatus(int localBlogId, final CommentList comments, String newStatus) {
         if (comments == null || comments.size() == 0)
             return;
-        getWritableDb().beginTransaction();
+        SQLiteDatabase db = getWritableDb();
+        List<String> oldStatuses = new ArrayList<>();
+        boolean isCommitted = false;
+        db.beginTransaction();
+        sCounts.beginChange();
         try {
             for (Comment comment: comments) {
-                updateCommentStatus(localBlogId, comment.commentID, newStatus);
+                String oldStatus = doUpdateCommentStatus(db, localBlogId, comment.commentID, newStatus);
+                if (oldStatus != null) {
+                    oldStatuses.add(oldStatus);
+                }
             }
-            getWritableDb().setTransactionSuccessful();
+            db.setTransactionSuccessful();
+            isCommitted = true;
         } finally {
-            getWritableDb().endTransaction();
+            db.endTransaction();
+            applyCountChanges(localBlogId, isCommitted, oldStatuses, StringUtils.notNullStr(newStatus));
         }
     }
 
@@ -347,10 +533,37 @@ public class CommentTable {
      * @return true if comment deleted, false otherwise
      */
     public static boolean deleteComment(int localBlogId, long commentId) {
+        SQLiteDatabase db = getWritableDb();
+        List<String> oldStatuses = new ArrayList<>();
+        boolean isCommitted = false;
+        db.beginTransaction();
+        sCounts.beginChange();
+        try {
+            String oldStatus = doDeleteComment(db, localBlogId, commentId);
+            if (oldStatus != null) {
+                oldStatuses.add(oldStatus);
+            }
+            db.setTransactionSuccessful();
+            isCommitted = true;
+        } finally {
+            db.endTransaction();
+            applyCountChanges(localBlogId, isCommitted, oldStatuses, null);
+        }
+        return (oldStatuses.size() > 0);
+    }
+
+    /*
+     * returns the status of the deleted comment, or null if it didn't exist
+     */
+    private static String doDeleteComment(SQLiteDatabase db, int localBlogId, long commentId) {
+        String oldStatus = getCommentStatus(db, localBlogId, commentId);
+        if (oldStatus == null) {
+            return null;
+        }
         String[] args = {Integer.toString(localBlogId),
                          Long.toString(commentId)};
-        int count = getWritableDb().delete(COMMENTS_TABLE, "blog_id=? AND comment_id=?", args);
-        return (count > 0);
+        int count = db.delete(COMMENTS_TABLE, "blog_id=? AND comment_id=?", args);
+        return (count > 0 ? oldStatus : null);
     }
 
     /**
@@ -361,15 +574,76 @@ public class CommentTable {
     public static void deleteComments(int localBlogId, final CommentList comments) {
         if (comments == null || comments.size() == 0)
             return;
-        getWritableDb().beginTransaction();
+        SQLiteDatabase db = getWritableDb();
+        List<String> oldStatuses = new ArrayList<>();
+        boolean isCommitted = false;
+        db.beginTransaction();
+        sCounts.beginChange();
         try {
             for (Comment comment: comments) {
-                deleteComment(localBlogId, comment.commentID);
+                String oldStatus = doDeleteComment(db, localBlogId, comment.commentID);
+                if (oldStatus != null) {
+                    oldStatuses.add(oldStatus);
+                }
             }
-            getWritableDb().setTransactionSuccessful();
+            db.setTransactionSuccessful();
+            isCommitted = true;
+        } finally {
+            db.endTransaction();
+            applyCountChanges(localBlogId, isCommitted, oldStatuses, null);
+        }
+    }
+
+    /*
+     * ends the count change started before the transaction which moved comments to newStatus (null when deleted),
+     * must be called once the transaction has ended
+     */
+    private static void applyCountChanges(int localBlogId, boolean isCommitted, List<String> oldStatuses,
+                                          String newStatus) {
+        // the counts are dropped when rolled back, or nested in a transaction which may still be
+        boolean isApplied = isCommitted && !getWritableDb().inTransaction();
+        sCounts.endChange(localBlogId, isApplied ? oldStatuses : null, newStatus);
+    }
+
+    /*
+     * returns the status of the comment, or null if it doesn't exist
+     */
+    private static String getCommentStatus(SQLiteDatabase db, int localBlogId, long commentId) {
+        String[] args = {Integer.toString(localBlogId), Long.toString(commentId)};
+        Cursor c = db.rawQuery("SELECT IFNULL(status, '') FROM " + COMMENTS_TABLE
+                + " WHERE blog_id=? AND comment_id=? LIMIT 1", args);
+        try {
+            return c.moveToFirst() ? c.getString(0) : null;
         } finally {
-            getWritableDb().endTransaction();
+            SqlUtils.closeCursor(c);
+        }
+    }
+
+    /**
+     * returns the number of comments for a specific blog with the passed status, served from memory once the blog's
+     * comments have been counted
+     * @param localBlogId - unique id in account table for this blog
+     * @param status - status to count, matching both its XMLRPC and REST values
+     */
+    public static int getCommentCount(int localBlogId, CommentStatus status) {
+        String[] statuses = {CommentStatus.toString(status), CommentStatus.toRESTString(status)};
+        int count = sCounts.get(localBlogId, statuses);
+        if (count == -1) {
+            loadCommentCounts(localBlogId);
+            count = sCounts.get(localBlogId, statuses);
+        }
+        if (count == -1) {
+            // the comments changed while they were counted
+            count = 0;
+            Map<String, Integer> blogCounts = queryCommentCounts(localBlogId);
+            for (String countedStatus : statuses) {
+                Integer statusCount = blogCounts.get(countedStatus);
+                if (statusCount != null) {
+                    count += statusCount;
+                }
+            }
         }
+        return count;
     }
 
     /**
@@ -377,9 +651,30 @@ public class CommentTable {
      * @param localBlogId - unique id in account table for this blog
      */
     public static int getUnmoderatedCommentCount(int localBlogId) {
-        String sql = "SELECT COUNT(*) FROM " + COMMENTS_TABLE + " WHERE blog_id=? AND status=?";
-        String[] args = {Integer.toString(localBlogId), "hold"};
-        return SqlUtils.intForQuery(getReadableDb(), sql, args);
+        return getCommentCount(localBlogId, CommentStatus.UNAPPROVED);
+    }
+
+    private static void loadCommentCounts(int localBlogId) {
+        long generation = sCounts.getGeneration();
+        sCounts.put(localBlogId, queryCommentCounts(localBlogId), generation);
+    }
+
+    /*
+     * returns the number of comments per status for the blog
+     */
+    private static Map<String, Integer> queryCommentCounts(int localBlogId) {
+        Map<String, Integer> blogCounts = new HashMap<>();
+        String[] args = {Integer.toString(localBlogId)};
+        Cursor c = getReadableDb().rawQuery("SELECT IFNULL(status, ''), COUNT(*) FROM " + COMMENTS_TABLE
+                + " WHERE blog_id=? GROUP BY 1", args);
+        try {
+            while (c.moveToNext()) {
+                blogCounts.put(c.getString(0), c.getInt(1));
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+        return blogCounts;
     }
 
     private static Comment getCommentFromCursor(Cursor c) {
@@ -409,11 +704,23 @@ public class CommentTable {
     }
 
 
+    /**
+     * delete the comments of every blog
+     */
+    public static void deleteAllComments(SQLiteDatabase db) {
+        db.delete(COMMENTS_TABLE, null, null);
+        sCounts.clear();
+    }
+
     /**
      * Delete big comments (Maximum 512 * 1024 = 524288) (fix #2855)
      * @return number of deleted comments
      */
     public static int deleteBigComments(SQLiteDatabase db) {
-        return db.delete(COMMENTS_TABLE, "LENGTH(comment) >= 524288", null);
+        int numDeleted = db.delete(COMMENTS_TABLE, "LENGTH(comment) >= 524288", null);
+        if (numDeleted > 0) {
+            sCounts.clear();
+        }
+        return numDeleted;
     }
 }
@@ -0,0 +1,302 @@
+package org.wordpress.android.datasets;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer thread for a database opened with write-ahead logging. Writes queued while another batch runs are
+ * coalesced into a single transaction, so concurrent syncs don't each pay for a commit, and readers on other
+ * connections are never blocked by them.
+ *
+ * If a write throws, its batch is rolled back and each write of the batch runs again in its own transaction, so a
+ * failing write doesn't drop the others. Writes must throw to fail: a nested transaction ended without being marked
+ * successful rolls back the whole batch. Work outside the database which must follow the batch, such as files, is
+ * registered with {@link #afterTransaction(Runnable, Runnable)}.
+ *
+ * Queue latency and transaction times are recorded per database, use {@link #logStats()} to add them to the AppLog.
+ */
+public class DatabaseWriter {
+    private static final int MAX_BATCH_SIZE = 50;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ConcurrentMap<String, WriterStats> sStats = new ConcurrentHashMap<>();
+
+    private final String mName;
+    private final SQLiteDatabase mDb;
+    private final WriterStats mStats;
+    private final ConcurrentLinkedQueue<QueuedWrite> mQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mIsDrainScheduled = new AtomicBoolean();
+    private final ThreadPoolExecutor mExecutor;
+    private volatile Thread mWriterThread;
+    // run once the current batch is committed or rolled back, only used on the writer thread
+    private final List<Runnable> mCommitActions = new ArrayList<>();
+    private final List<Runnable> mRollbackActions = new ArrayList<>();
+
+    private static class QueuedWrite {
+        private final Runnable mWrite;
+        private final long mQueuedTime = SystemClock.elapsedRealtime();
+        private final CountDownLatch mDone = new CountDownLatch(1);
+        private RuntimeException mError;
+
+        QueuedWrite(Runnable write) {
+            mWrite = write;
+        }
+    }
+
+    public DatabaseWriter(final String name, SQLiteDatabase db) {
+        mName = name;
+        mDb = db;
+        mStats = getStats(name);
+        // a single thread, stopped when idle
+        mExecutor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        return new Thread(runnable, "db-writer-" + name);
+                    }
+                });
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a write, it runs in the background
+     */
+    public void execute(Runnable write) {
+        enqueue(new QueuedWrite(write));
+    }
+
+    /**
+     * Queue a write and wait until it's committed, exceptions thrown by the write are rethrown here. Runs the write
+     * right away when called from the writer thread or from a thread already in a transaction, since waiting for the
+     * writer would deadlock.
+     */
+    public void executeAndWait(Runnable write) {
+        if (Thread.currentThread() == mWriterThread || mDb.inTransaction()) {
+            write.run();
+            return;
+        }
+
+        QueuedWrite queuedWrite = new QueuedWrite(write);
+        enqueue(queuedWrite);
+        boolean isInterrupted = false;
+        while (true) {
+            try {
+                queuedWrite.mDone.await();
+                break;
+            } catch (InterruptedException e) {
+                // the write can't be cancelled, keep waiting so the caller can rely on it
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (queuedWrite.mError != null) {
+            throw queuedWrite.mError;
+        }
+    }
+
+    /**
+     * Called from a write, runs onCommit once the transaction of its batch is committed or onRollback once it's rolled
+     * back - either may be null. A write which ran outside the writer thread is in a transaction of its caller, which
+     * this can't follow, so onCommit runs right away.
+     */
+    public void afterTransaction(Runnable onCommit, Runnable onRollback) {
+        if (Thread.currentThread() != mWriterThread) {
+            if (onCommit != null) {
+                onCommit.run();
+            }
+            return;
+        }
+        if (onCommit != null) {
+            mCommitActions.add(onCommit);
+        }
+        if (onRollback != null) {
+            mRollbackActions.add(onRollback);
+        }
+    }
+
+    private void enqueue(QueuedWrite write) {
+        mQueue.add(write);
+        if (mIsDrainScheduled.compareAndSet(false, true)) {
+            mExecutor.execute(mDrainQueue);
+        }
+    }
+
+    private final Runnable mDrainQueue = new Runnable() {
+        @Override
+        public void run() {
+            mWriterThread = Thread.currentThread();
+            try {
+                while (true) {
+                    List<QueuedWrite> batch = new ArrayList<>();
+                    QueuedWrite write;
+                    while (batch.size() < MAX_BATCH_SIZE && (write = mQueue.poll()) != null) {
+                        batch.add(write);
+                    }
+                    if (!batch.isEmpty()) {
+                        writeBatch(batch);
+                    } else {
+                        // stop unless a write was queued after the poll and its drain wasn't scheduled
+                        mIsDrainScheduled.set(false);
+                        if (mQueue.isEmpty() || !mIsDrainScheduled.compareAndSet(false, true)) {
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                mWriterThread = null;
+            }
+        }
+    };
+
+    private void writeBatch(List<QueuedWrite> batch) {
+        long startTime = SystemClock.elapsedRealtime();
+        for (QueuedWrite write : batch) {
+            mStats.mQueueLatencyMs.record(startTime - write.mQueuedTime);
+        }
+
+        if (!runInTransaction(batch) && batch.size() > 1) {
+            AppLog.w(T.DB, mName + " > write failed, running the " + batch.size() + " writes of its batch one by one");
+            mStats.mRetriedBatchCount.incrementAndGet();
+            for (QueuedWrite write : batch) {
+                runInTransaction(Collections.singletonList(write));
+            }
+        }
+
+        mStats.mBatchSize.record(batch.size());
+        mStats.mTransactionMs.record(SystemClock.elapsedRealtime() - startTime);
+        for (QueuedWrite write : batch) {
+            if (write.mError != null) {
+                mStats.mFailedWriteCount.incrementAndGet();
+                AppLog.e(T.DB, mName + " > write failed", write.mError);
+            }
+            write.mDone.countDown();
+        }
+    }
+
+    /*
+     * runs the writes in a single transaction, returns false and rolls back if one of them failed
+     */
+    private boolean runInTransaction(List<QueuedWrite> writes) {
+        boolean isSuccessful = false;
+        mDb.beginTransactionNonExclusive();
+        try {
+            for (QueuedWrite write : writes) {
+                write.mError = null;
+                try {
+                    write.mWrite.run();
+                } catch (RuntimeException e) {
+                    write.mError = e;
+                    return false;
+                }
+            }
+            mDb.setTransactionSuccessful();
+            isSuccessful = true;
+            return true;
+        } finally {
+            boolean isCommitted = false;
+            try {
+                mDb.endTransaction();
+                isCommitted = isSuccessful;
+            } finally {
+                runTransactionActions(isCommitted);
+            }
+        }
+    }
+
+    private void runTransactionActions(boolean isCommitted) {
+        List<Runnable> actions = new ArrayList<>(isCommitted ? mCommitActions : mRollbackActions);
+        mCommitActions.clear();
+        mRollbackActions.clear();
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                AppLog.e(T.DB, mName + " > action after " + (isCommitted ? "commit" : "rollback") + " failed", e);
+            }
+        }
+    }
+
+    private static WriterStats getStats(String name) {
+        WriterStats stats = sStats.get(name);
+        if (stats == null) {
+            WriterStats newStats = new WriterStats();
+            stats = sStats.putIfAbsent(name, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    public static void logStats() {
+        if (sStats.isEmpty()) {
+            AppLog.i(T.DB, "Database writer stats: no writes recorded");
+            return;
+        }
+        AppLog.i(T.DB, "Database writer stats: writes, batches (avg/max size), queue latency avg/max ms, "
+                + "transaction avg/max ms, failed writes, retried batches");
+        for (String name : sStats.keySet()) {
+            AppLog.i(T.DB, name + ": " + sStats.get(name));
+        }
+    }
+
+    private static class WriterStats {
+        private final Counter mQueueLatencyMs = new Counter();
+        private final Counter mBatchSize = new Counter();
+        private final Counter mTransactionMs = new Counter();
+        private final AtomicLong mFailedWriteCount = new AtomicLong();
+        private final AtomicLong mRetriedBatchCount = new AtomicLong();
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d writes, %d batches (%d/%d), queue %d/%d ms, transaction %d/%d ms, "
+                            + "%d failed, %d retried", mQueueLatencyMs.mCount.get(), mBatchSize.mCount.get(),
+                    mBatchSize.getMean(), mBatchSize.mMax.get(), mQueueLatencyMs.getMean(),
+                    mQueueLatencyMs.mMax.get(), mTransactionMs.getMean(), mTransactionMs.mMax.get(),
+                    mFailedWriteCount.get(), mRetriedBatchCount.get());
+        }
+    }
+
+    /*
+     * lock-free count, sum and max of recorded values
+     */
+    private static class Counter {
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mSum = new AtomicLong();
+        private final AtomicLong mMax = new AtomicLong();
+
+        void record(long value) {
+            mCount.incrementAndGet();
+            mSum.addAndGet(value);
+            long max;
+            while (value > (max = mMax.get()) && !mMax.compareAndSet(max, value)) {
+                // retry
+            }
+        }
+
+        long getMean() {
+            long count = mCount.get();
+            return count == 0 ? 0 : mSum.get() / count;
+        }
+    }
+}
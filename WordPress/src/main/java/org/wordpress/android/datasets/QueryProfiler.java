@@ -0,0 +1,254 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteQuery;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.wordpress.android.util.SqlUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * Opt-in profiler for the queries run on the app databases, which are opened with its cursor factory.
+ *
+ * When enabled, each query is timed until its first window of rows is filled (the first getCount(), which runs the
+ * query), and the first execution of each statement runs EXPLAIN QUERY PLAN to flag full table scans and temporary
+ * sorts. Statements are keyed by their SQL with literals replaced by "?", so queries built by concatenating ids are
+ * grouped. Android doesn't report the number of rows scanned, the number of rows returned is recorded instead.
+ *
+ * Use {@link #logReport()} to add the statements ranked by total time to the AppLog.
+ */
+public class QueryProfiler {
+    private static final String QUERY_PREFIX = "SQLiteQuery: ";
+    private static final int MAX_REPORTED_STATEMENTS = 30;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    private static final ConcurrentMap<String, StatementStats> sStats = new ConcurrentHashMap<>();
+    private static volatile boolean sIsEnabled;
+    // set while the profiler runs its own EXPLAIN queries
+    private static final ThreadLocal<Boolean> sIsExplaining = new ThreadLocal<>();
+
+    private static final SQLiteDatabase.CursorFactory sCursorFactory = new SQLiteDatabase.CursorFactory() {
+        @Override
+        public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver driver, String editTable, SQLiteQuery query) {
+            if (!sIsEnabled || sIsExplaining.get() != null) {
+                return new SQLiteCursor(driver, editTable, query);
+            }
+            return new ProfiledCursor(driver, editTable, query, getStatementStats(db, query));
+        }
+    };
+
+    private QueryProfiler() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Factory to pass when opening a database so its queries can be profiled
+     */
+    public static SQLiteDatabase.CursorFactory getCursorFactory() {
+        return sCursorFactory;
+    }
+
+    public static boolean isEnabled() {
+        return sIsEnabled;
+    }
+
+    public static void setEnabled(boolean isEnabled) {
+        sIsEnabled = isEnabled;
+    }
+
+    public static void reset() {
+        sStats.clear();
+    }
+
+    /*
+     * returns the sql with string and number literals replaced by "?"
+     */
+    static String normalizeSql(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return normalized.replaceAll("\\s+", " ").trim();
+    }
+
+    private static StatementStats getStatementStats(SQLiteDatabase db, SQLiteQuery query) {
+        String sql = query.toString();
+        if (sql.startsWith(QUERY_PREFIX)) {
+            sql = sql.substring(QUERY_PREFIX.length());
+        }
+        String dbName = new File(db.getPath()).getName();
+        String normalizedSql = normalizeSql(sql);
+        String key = dbName + " " + normalizedSql;
+
+        StatementStats stats = sStats.get(key);
+        if (stats == null) {
+            StatementStats newStats = new StatementStats(dbName, normalizedSql);
+            stats = sStats.putIfAbsent(key, newStats);
+            if (stats == null) {
+                stats = newStats;
+                stats.mPlan = explain(db, sql);
+                if (stats.hasFullScan()) {
+                    AppLog.w(T.DB, "Query profiler > full scan: " + stats.mSql + " " + stats.mPlan);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /*
+     * returns the details of the query plan, parameters are left unbound since the plan doesn't depend on them
+     */
+    private static String explain(SQLiteDatabase db, String sql) {
+        sIsExplaining.set(true);
+        Cursor c = null;
+        try {
+            c = db.rawQuery("EXPLAIN QUERY PLAN " + sql, null);
+            int detailColumn = c.getColumnIndex("detail");
+            StringBuilder plan = new StringBuilder();
+            while (c.moveToNext()) {
+                if (plan.length() > 0) {
+                    plan.append("; ");
+                }
+                plan.append(c.getString(detailColumn));
+            }
+            return plan.toString();
+        } catch (SQLiteException e) {
+            return "no plan: " + e.getMessage();
+        } finally {
+            SqlUtils.closeCursor(c);
+            sIsExplaining.remove();
+        }
+    }
+
+    public static void logReport() {
+        List<StatementStats> allStats = new ArrayList<>(sStats.values());
+        if (allStats.isEmpty()) {
+            AppLog.i(T.DB, "Query profiler: no queries recorded" + (sIsEnabled ? "" : ", it isn't enabled"));
+            return;
+        }
+        Collections.sort(allStats, new Comparator<StatementStats>() {
+            @Override
+            public int compare(StatementStats lhs, StatementStats rhs) {
+                long lhsTime = lhs.mTotalTimeUs.get();
+                long rhsTime = rhs.mTotalTimeUs.get();
+                return lhsTime > rhsTime ? -1 : (lhsTime == rhsTime ? 0 : 1);
+            }
+        });
+        AppLog.i(T.DB, "Query profiler: calls, total ms, p50/p90/max us, avg rows, plan - sorted by total time");
+        for (int i = 0; i < Math.min(allStats.size(), MAX_REPORTED_STATEMENTS); i++) {
+            AppLog.i(T.DB, allStats.get(i).toString());
+        }
+    }
+
+    private static class StatementStats {
+        private static final int BUCKET_COUNT = 40;
+
+        private final String mDbName;
+        private final String mSql;
+        private volatile String mPlan;
+        // power of two buckets of the time in microseconds
+        private final AtomicLongArray mTimeBuckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mTotalTimeUs = new AtomicLong();
+        private final AtomicLong mMaxTimeUs = new AtomicLong();
+        private final AtomicLong mTotalRows = new AtomicLong();
+
+        StatementStats(String dbName, String sql) {
+            mDbName = dbName;
+            mSql = sql;
+        }
+
+        void record(long timeUs, int numRows) {
+            mTimeBuckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(timeUs), BUCKET_COUNT - 1));
+            mCount.incrementAndGet();
+            mTotalTimeUs.addAndGet(timeUs);
+            mTotalRows.addAndGet(numRows);
+            long max;
+            while (timeUs > (max = mMaxTimeUs.get()) && !mMaxTimeUs.compareAndSet(max, timeUs)) {
+                // retry
+            }
+        }
+
+        /*
+         * upper bound of the bucket holding the percentile
+         */
+        long getPercentileUs(double percentile) {
+            long rank = (long) Math.ceil(percentile * mCount.get());
+            long cumulativeCount = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                cumulativeCount += mTimeBuckets.get(i);
+                if (cumulativeCount >= rank) {
+                    return Math.min(i == 0 ? 0 : (1L << i) - 1, mMaxTimeUs.get());
+                }
+            }
+            return mMaxTimeUs.get();
+        }
+
+        /*
+         * true if the plan scans a table without an index, or sorts the rows in a temporary b-tree
+         */
+        boolean hasFullScan() {
+            String plan = mPlan;
+            if (plan == null) {
+                return false;
+            }
+            for (String step : plan.split("; ")) {
+                // "SCAN TABLE x" in older SQLite versions, "SCAN x" in newer ones
+                if ((step.startsWith("SCAN ") && !step.contains(" USING ")) || step.contains("TEMP B-TREE")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            long count = mCount.get();
+            return String.format(Locale.US, "%s %s%s: %d calls, %d ms, %d/%d/%d us, %d rows, %s", mDbName,
+                    hasFullScan() ? "[SCAN] " : "", mSql, count, mTotalTimeUs.get() / 1000,
+                    getPercentileUs(0.5), getPercentileUs(0.9), mMaxTimeUs.get(),
+                    count == 0 ? 0 : mTotalRows.get() / count, mPlan);
+        }
+    }
+
+    /*
+     * cursor which records the time taken to run its query, which happens when its row count is first needed
+     */
+    private static class ProfiledCursor extends SQLiteCursor {
+        private final StatementStats mStats;
+        private boolean mIsRecorded;
+
+        ProfiledCursor(SQLiteCursorDriver driver, String editTable, SQLiteQuery query, StatementStats stats) {
+            super(driver, editTable, query);
+            mStats = stats;
+        }
+
+        @Override
+        public int getCount() {
+            if (mIsRecorded) {
+                return super.getCount();
+            }
+            mIsRecorded = true;
+            long startTime = System.nanoTime();
+            int count = super.getCount();
+            mStats.record((System.nanoTime() - startTime) / 1000, count);
+            return count;
+        }
+    }
+}
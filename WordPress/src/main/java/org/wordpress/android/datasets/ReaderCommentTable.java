@@ -8,8 +8,17 @@ import android.database.sqlite.SQLiteStatement;
 import org.wordpress.android.models.ReaderComment;
 import org.wordpress.android.models.ReaderCommentList;
 import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * stores comments on reader posts
  */
@@ -51,8 +60,11 @@ public class ReaderCommentTable {
                 + " num_likes           INTEGER DEFAULT 0,"
                 + " is_liked            INTEGER DEFAULT 0,"
                 + " page_number         INTEGER DEFAULT 0,"
+                + " thread_path         TEXT DEFAULT '',"
+                + " thread_level        INTEGER DEFAULT 0,"
                 + " PRIMARY KEY (blog_id, post_id, comment_id))");
         db.execSQL("CREATE INDEX idx_page_number ON tbl_comments(page_number)");
+        db.execSQL("CREATE INDEX idx_comments_thread_path ON tbl_comments(blog_id, post_id, thread_path)");
     }
 
     protected static void dropTables(SQLiteDatabase db) {
@@ -124,13 +136,18 @@ public class ReaderCommentTable {
         return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(), "SELECT count(*) FROM tbl_comments WHERE blog_id=? AND post_id=?", args);
     }
 
+    /*
+     * returns the comments on the passed post in threaded order - child comments follow their
+     * parents, and each comment's level is set to its indentation level
+     */
     public static ReaderCommentList getCommentsForPost(ReaderPost post) {
         if (post == null) {
             return new ReaderCommentList();
         }
 
         String[] args = {Long.toString(post.blogId), Long.toString(post.postId)};
-        Cursor c = ReaderDatabase.getReadableDb().rawQuery("SELECT * FROM tbl_comments WHERE blog_id=? AND post_id=? ORDER BY timestamp", args);
+        Cursor c = ReaderDatabase.getReadableDb().rawQuery(
+                "SELECT * FROM tbl_comments WHERE blog_id=? AND post_id=? ORDER BY thread_path", args);
         try {
             ReaderCommentList comments = new ReaderCommentList();
             if (c.moveToFirst()) {
@@ -185,6 +202,14 @@ public class ReaderCommentTable {
                 stmt.execute();
             }
 
+            // thread the comments of each post the passed comments belong to
+            Set<ReaderBlogIdPostId> postIds = new HashSet<>();
+            for (ReaderComment comment: comments) {
+                if (postIds.add(new ReaderBlogIdPostId(comment.blogId, comment.postId))) {
+                    updateThreadsForPost(db, comment.blogId, comment.postId);
+                }
+            }
+
             db.setTransactionSuccessful();
 
         } finally {
@@ -212,7 +237,109 @@ public class ReaderCommentTable {
             return;
         }
         String[] args = {Long.toString(post.blogId), Long.toString(post.postId), Long.toString(commentId)};
-        ReaderDatabase.getWritableDb().delete("tbl_comments", "blog_id=? AND post_id=? AND comment_id=?", args);
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        db.beginTransaction();
+        try {
+            if (db.delete("tbl_comments", "blog_id=? AND post_id=? AND comment_id=?", args) > 0) {
+                // replies to the deleted comment are now orphans
+                updateThreadsForPost(db, post.blogId, post.postId);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /*
+     * each comment's thread_path is the path of its parent followed by its own segment, which
+     * sorts siblings by timestamp, so ordering the comments on a post by thread_path places
+     * child comments under their parents. thread_level is the comment's indentation level.
+     * orphans (comments whose parent isn't stored) are indented one level and sorted after
+     * all other comments, along with their replies
+     */
+    private static final String ORPHAN_PATH_PREFIX = "~";
+
+    /*
+     * recomputes the thread_path and thread_level of the comments on the passed post, updating
+     * the comments whose position in the thread has changed - this reads only the ids and the
+     * timestamp of each comment and takes linear time, so it's done whenever comments are stored
+     * rather than when they're displayed. must be called inside a transaction
+     */
+    private static void updateThreadsForPost(SQLiteDatabase db, long blogId, long postId) {
+        String[] args = {Long.toString(blogId), Long.toString(postId)};
+        Map<Long, Long> parentIds = new HashMap<>();
+        Map<Long, Long> timestamps = new HashMap<>();
+        Map<Long, String> oldPaths = new HashMap<>();
+        Map<Long, Integer> oldLevels = new HashMap<>();
+        Cursor c = db.rawQuery(
+                "SELECT comment_id, parent_id, timestamp, thread_path, thread_level"
+                + " FROM tbl_comments WHERE blog_id=? AND post_id=?", args);
+        try {
+            while (c.moveToNext()) {
+                long commentId = c.getLong(0);
+                parentIds.put(commentId, c.getLong(1));
+                timestamps.put(commentId, c.getLong(2));
+                oldPaths.put(commentId, c.getString(3));
+                oldLevels.put(commentId, c.getInt(4));
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+
+        Map<Long, String> paths = new HashMap<>(parentIds.size() * 2);
+        Map<Long, Integer> levels = new HashMap<>(parentIds.size() * 2);
+        List<Long> chain = new ArrayList<>();
+        for (Long commentId: parentIds.keySet()) {
+            // walk up to the first comment whose path is known, or to the top of the thread
+            chain.clear();
+            Long id = commentId;
+            while (!paths.containsKey(id)) {
+                chain.add(id);
+                long parentId = parentIds.get(id);
+                if (parentId == 0 || !parentIds.containsKey(parentId) || chain.contains(parentId)) {
+                    break;
+                }
+                id = parentId;
+            }
+
+            // then assign the paths back down the chain
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                long chainId = chain.get(i);
+                String segment = String.format(Locale.US, "%016x%016x", timestamps.get(chainId), chainId);
+                long parentId = parentIds.get(chainId);
+                if (parentId == 0) {
+                    paths.put(chainId, segment);
+                    levels.put(chainId, 0);
+                } else if (paths.containsKey(parentId)) {
+                    paths.put(chainId, paths.get(parentId) + segment);
+                    levels.put(chainId, levels.get(parentId) + 1);
+                } else {
+                    paths.put(chainId, ORPHAN_PATH_PREFIX + segment);
+                    levels.put(chainId, 1);
+                }
+            }
+        }
+
+        SQLiteStatement stmt = db.compileStatement(
+                "UPDATE tbl_comments SET thread_path=?1, thread_level=?2"
+                + " WHERE blog_id=?3 AND post_id=?4 AND comment_id=?5");
+        try {
+            for (Map.Entry<Long, String> entry: paths.entrySet()) {
+                long commentId = entry.getKey();
+                int level = levels.get(commentId);
+                if (entry.getValue().equals(oldPaths.get(commentId)) && level == oldLevels.get(commentId)) {
+                    continue;
+                }
+                stmt.bindString(1, entry.getValue());
+                stmt.bindLong  (2, level);
+                stmt.bindLong  (3, blogId);
+                stmt.bindLong  (4, postId);
+                stmt.bindLong  (5, commentId);
+                stmt.execute();
+            }
+        } finally {
+            SqlUtils.closeStatement(stmt);
+        }
     }
 
     /*
@@ -330,6 +457,7 @@ public class ReaderCommentTable {
         comment.numLikes = c.getInt(c.getColumnIndex("num_likes"));
         comment.isLikedByCurrentUser = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_liked")));
         comment.pageNumber = c.getInt(c.getColumnIndex("page_number"));
+        comment.level = c.getInt(c.getColumnIndex("thread_level"));
 
         return comment;
     }
@@ -19,7 +19,7 @@ import java.io.OutputStream;
  */
 public class ReaderDatabase extends SQLiteOpenHelper {
     protected static final String DB_NAME = "wpreader.db";
-    private static final int DB_VERSION = 120;
+    private static final int DB_VERSION = 124;
 
     /*
      * version history
@@ -72,12 +72,17 @@ public class ReaderDatabase extends SQLiteOpenHelper {
      *  118 - renamed tbl_search_history to tbl_search_suggestions
      *  119 - renamed tbl_posts.timestamp to sort_index
      *  120 - added "format" to tbl_posts
+     *  121 - added "content_hash" to tbl_posts
+     *  122 - moved post text from tbl_posts.text to ReaderPostContentStore
+     *  123 - added "last_viewed" to tbl_posts
+     *  124 - added "thread_path" and "thread_level" to tbl_comments
      */
 
     /*
 	 *  database singleton
 	 */
     private static ReaderDatabase mReaderDb;
+    private static DatabaseWriter mWriter;
     private final static Object mDbLock = new Object();
     public static ReaderDatabase getDatabase() {
         if (mReaderDb == null) {
@@ -92,6 +97,18 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         return mReaderDb;
     }
 
+    /*
+     * writer thread for long writes such as saving a page of posts
+     */
+    public static DatabaseWriter getWriter() {
+        synchronized (mDbLock) {
+            if (mWriter == null) {
+                mWriter = new DatabaseWriter(DB_NAME, getWritableDb());
+            }
+            return mWriter;
+        }
+    }
+
     public static SQLiteDatabase getReadableDb() {
         return getDatabase().getReadableDatabase();
     }
@@ -116,7 +133,9 @@ public class ReaderDatabase extends SQLiteOpenHelper {
     }
 
     public ReaderDatabase(Context context) {
-        super(context, DB_NAME, null, DB_VERSION);
+        super(context, DB_NAME, QueryProfiler.getCursorFactory(), DB_VERSION);
+        // write-ahead logging lets the reader lists be read while posts are being saved
+        setWriteAheadLoggingEnabled(true);
     }
 
     @Override
@@ -173,6 +192,7 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         } finally {
             db.endTransaction();
         }
+        ReaderPostContentStore.reset();
     }
 
     /*
@@ -210,15 +230,28 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         } finally {
             db.endTransaction();
         }
+
+        // delete the text of posts which no longer exist - done once the writer has committed the
+        // deletions (and regardless of whether any were purged above) since posts are also deleted
+        // outside of purge()
+        getWriter().afterTransaction(new Runnable() {
+            @Override
+            public void run() {
+                int numContentPurged = ReaderPostContentStore.purge(getWritableDb());
+                if (numContentPurged > 0) {
+                    AppLog.i(T.READER, String.format("%d post texts purged", numContentPurged));
+                }
+            }
+        }, null);
     }
 
     public static void purgeAsync() {
-        new Thread() {
+        getWriter().execute(new Runnable() {
             @Override
             public void run() {
                 purge();
             }
-        }.start();
+        });
     }
 
     /*
@@ -0,0 +1,267 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.SqlUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * stores the text of reader posts outside of tbl_posts, as one deflated file per post named after
+ * its pseudo_id - this keeps the rows of tbl_posts small, and since the text is never read through
+ * a CursorWindow it doesn't need to be truncated to stay under the CursorWindow's 2MB row limit.
+ * files are written on the ReaderDatabase writer thread under a temporary name, and only replace the
+ * post's text once the transaction which stored the post is committed. files whose post no longer
+ * exists in tbl_posts are deleted when the database is purged
+ */
+class ReaderPostContentStore {
+    private static final String DIR_NAME = "reader_posts";
+    private static final String FILE_PREFIX = "post-";
+    private static final String FILE_SUFFIX = ".z";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAX_FILE_NAME_LEN = 200;
+    private static final String CHARSET = "UTF-8";
+
+    // file names of the texts written but not yet committed
+    private static final Set<String> sPendingFileNames =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private static File getDirectory() {
+        return new File(WordPress.getContext().getFilesDir(), DIR_NAME);
+    }
+
+    /*
+     * returns the name of the file holding the text of the post with the passed pseudo_id, or null
+     * if the pseudo_id can't be used as a file name
+     */
+    private static String getFileName(String pseudoId) {
+        if (TextUtils.isEmpty(pseudoId)) {
+            return null;
+        }
+        try {
+            String fileName = FILE_PREFIX + URLEncoder.encode(pseudoId, CHARSET) + FILE_SUFFIX;
+            return (fileName.length() <= MAX_FILE_NAME_LEN ? fileName : null);
+        } catch (UnsupportedEncodingException e) {
+            return null;
+        }
+    }
+
+    /*
+     * compresses the text of a post into a temporary file, returns false if it couldn't be written -
+     * the file replaces the post's text when commit() is called once the post is committed, so
+     * readers never see a partial file and a rolled back post doesn't leave its text behind
+     */
+    static boolean write(String pseudoId, String text) {
+        String fileName = getFileName(pseudoId);
+        if (fileName == null) {
+            return false;
+        }
+
+        File dir = getDirectory();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            AppLog.w(AppLog.T.READER, "reader post content > unable to create directory");
+            return false;
+        }
+
+        File tempFile = new File(dir, fileName + TEMP_SUFFIX);
+        OutputStream output = null;
+        try {
+            output = new DeflaterOutputStream(new FileOutputStream(tempFile));
+            output.write(text.getBytes(CHARSET));
+            output.close();
+            output = null;
+            sPendingFileNames.add(fileName);
+            return true;
+        } catch (IOException e) {
+            AppLog.e(AppLog.T.READER, "reader post content > unable to write " + fileName, e);
+        } finally {
+            closeQuietly(output);
+        }
+        //noinspection ResultOfMethodCallIgnored
+        tempFile.delete();
+        return false;
+    }
+
+    /*
+     * makes the texts written for the passed pseudo_ids the stored ones - called once the transaction
+     * which stored their posts has been committed
+     */
+    static void commit(Collection<String> pseudoIds) {
+        File dir = getDirectory();
+        for (String pseudoId : pseudoIds) {
+            String fileName = getFileName(pseudoId);
+            // the text may have been committed already if the post was written twice in the transaction
+            if (fileName != null && sPendingFileNames.remove(fileName)) {
+                File tempFile = new File(dir, fileName + TEMP_SUFFIX);
+                if (!tempFile.renameTo(new File(dir, fileName))) {
+                    AppLog.w(AppLog.T.READER, "reader post content > unable to rename " + tempFile.getName());
+                    //noinspection ResultOfMethodCallIgnored
+                    tempFile.delete();
+                }
+            }
+        }
+    }
+
+    /*
+     * deletes the texts written for the passed pseudo_ids - called when the transaction which stored
+     * their posts has been rolled back, so the stored texts are left as they were
+     */
+    static void discard(Collection<String> pseudoIds) {
+        File dir = getDirectory();
+        for (String pseudoId : pseudoIds) {
+            String fileName = getFileName(pseudoId);
+            if (fileName != null && sPendingFileNames.remove(fileName)) {
+                //noinspection ResultOfMethodCallIgnored
+                new File(dir, fileName + TEMP_SUFFIX).delete();
+            }
+        }
+    }
+
+    /*
+     * returns the text of the post with the passed pseudo_id, or an empty string if it isn't stored
+     */
+    static String read(String pseudoId) {
+        String fileName = getFileName(pseudoId);
+        if (fileName == null) {
+            return "";
+        }
+
+        File file = new File(getDirectory(), fileName);
+        if (!file.exists()) {
+            return "";
+        }
+
+        InputStream input = null;
+        try {
+            input = new InflaterInputStream(new BufferedInputStream(new FileInputStream(file)));
+            // compressed html usually expands to several times its size on disk
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(file.length() * 4, 1024 * 1024));
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = input.read(buffer)) > 0) {
+                bytes.write(buffer, 0, length);
+            }
+            return bytes.toString(CHARSET);
+        } catch (IOException e) {
+            AppLog.e(AppLog.T.READER, "reader post content > unable to read " + fileName, e);
+            return "";
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /*
+     * deletes the files of posts that no longer exist in tbl_posts, along with any temporary files
+     * left by an interrupted write - must be called on the writer thread after the transaction
+     * which deleted the posts has been committed, returns the number of files deleted. texts
+     * waiting for their transaction to commit are kept
+     */
+    static int purge(SQLiteDatabase db) {
+        File[] files = getDirectory().listFiles();
+        if (files == null || files.length == 0) {
+            return 0;
+        }
+
+        Set<String> fileNames = getFileNamesOfPosts(db);
+        for (String pendingFileName : sPendingFileNames) {
+            fileNames.add(pendingFileName + TEMP_SUFFIX);
+        }
+        int numDeleted = 0;
+        for (File file : files) {
+            if (!fileNames.contains(file.getName()) && file.delete()) {
+                numDeleted++;
+            }
+        }
+        return numDeleted;
+    }
+
+    /*
+     * returns the size on disk of the text of the post with the passed pseudo_id
+     */
+    static long getSize(String pseudoId) {
+        String fileName = getFileName(pseudoId);
+        return (fileName != null ? new File(getDirectory(), fileName).length() : 0);
+    }
+
+    /*
+     * returns the size on disk of the text of all posts in tbl_posts - files which are waiting
+     * to be purged aren't counted
+     */
+    static long getTotalSize(SQLiteDatabase db) {
+        File[] files = getDirectory().listFiles();
+        if (files == null || files.length == 0) {
+            return 0;
+        }
+
+        Set<String> fileNames = getFileNamesOfPosts(db);
+        long totalSize = 0;
+        for (File file : files) {
+            if (fileNames.contains(file.getName())) {
+                totalSize += file.length();
+            }
+        }
+        return totalSize;
+    }
+
+    private static Set<String> getFileNamesOfPosts(SQLiteDatabase db) {
+        Set<String> fileNames = new HashSet<>();
+        Cursor c = db.rawQuery("SELECT pseudo_id FROM tbl_posts", null);
+        try {
+            while (c.moveToNext()) {
+                String fileName = getFileName(c.getString(0));
+                if (fileName != null) {
+                    fileNames.add(fileName);
+                }
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+        return fileNames;
+    }
+
+    /*
+     * deletes the text of all posts - called when the reader database is reset
+     */
+    static void reset() {
+        sPendingFileNames.clear();
+        File[] files = getDirectory().listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // nop
+            }
+        }
+    }
+}
@@ -4,26 +4,36 @@ import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTag;
-import org.wordpress.android.models.ReaderTagList;
 import org.wordpress.android.models.ReaderTagType;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
+import org.wordpress.android.ui.reader.models.ReaderPostChanges;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.CrashlyticsUtils;
+import org.wordpress.android.util.FnvHash;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * tbl_posts contains all reader posts
  * tbl_post_tags stores the association between posts and tags (posts can exist in more than one tag)
- *
+ * the text of each post is stored by ReaderPostContentStore rather than in tbl_posts.text, which
+ * only holds the text of posts that couldn't be stored there
  */
 public class ReaderPostTable {
     private static final String COLUMN_NAMES =
@@ -143,6 +153,8 @@ public class ReaderPostTable {
                 + " discover_json       TEXT,"
                 + "	xpost_post_id		INTEGER DEFAULT 0,"
                 + " xpost_blog_id       INTEGER DEFAULT 0,"
+                + " content_hash        INTEGER DEFAULT 0,"
+                + " last_viewed         INTEGER DEFAULT 0,"
                 + " PRIMARY KEY (post_id, blog_id)"
                 + ")");
         db.execSQL("CREATE INDEX idx_posts_sort_index ON tbl_posts(sort_index)");
@@ -174,36 +186,58 @@ public class ReaderPostTable {
      * only called from ReaderDatabase.purge() which already creates a transaction
      */
     protected static int purge(SQLiteDatabase db) {
+        return purge(db, ReaderConstants.READER_MAX_CACHE_BYTES);
+    }
+    static int purge(SQLiteDatabase db, long maxCacheBytes) {
         // delete posts in tbl_post_tags attached to tags that no longer exist
         int numDeleted = db.delete("tbl_post_tags", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
 
         // delete excess posts on a per-tag basis
-        ReaderTagList tags = ReaderTagTable.getAllTags();
-        for (ReaderTag tag: tags) {
-            numDeleted += purgePostsForTag(db, tag);
-        }
+        numDeleted += purgeExcessPostsInTags(db);
 
         // delete search results
         numDeleted += purgeSearchResults(db);
 
         // delete posts in tbl_posts that no longer exist in tbl_post_tags
-        numDeleted += db.delete("tbl_posts", "pseudo_id NOT IN (SELECT DISTINCT pseudo_id FROM tbl_post_tags)", null);
+        numDeleted += db.delete("tbl_posts",
+                "NOT EXISTS (SELECT 1 FROM tbl_post_tags"
+                + " WHERE tbl_post_tags.post_id = tbl_posts.post_id"
+                + " AND tbl_post_tags.blog_id = tbl_posts.blog_id)",
+                null);
+
+        // evict the least recently used posts if the cache is still over budget
+        numDeleted += evictPostsOverBudget(db, maxCacheBytes).numPosts;
 
         return numDeleted;
     }
 
     /*
-     * purge excess posts in the passed tag
+     * purge excess posts in tags which have more posts than can be displayed - the tags are found
+     * with a single grouped query rather than counting the posts in every tag
      */
     private static final int MAX_POSTS_PER_TAG = ReaderConstants.READER_MAX_POSTS_TO_DISPLAY;
-    private static int purgePostsForTag(SQLiteDatabase db, ReaderTag tag) {
-        int numPosts = getNumPostsWithTag(tag);
-        if (numPosts <= MAX_POSTS_PER_TAG) {
-            return 0;
+    private static int purgeExcessPostsInTags(SQLiteDatabase db) {
+        Cursor c = db.rawQuery(
+                "SELECT tag_name, tag_type, count(*) FROM tbl_post_tags"
+                + " GROUP BY tag_name, tag_type"
+                + " HAVING count(*) > " + MAX_POSTS_PER_TAG,
+                null);
+        int numDeleted = 0;
+        try {
+            while (c.moveToNext()) {
+                numDeleted += purgePostsForTag(db, c.getString(0), c.getInt(1), c.getInt(2) - MAX_POSTS_PER_TAG);
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
         }
+        return numDeleted;
+    }
 
-        int numToPurge = numPosts - MAX_POSTS_PER_TAG;
-        String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt()), Integer.toString(numToPurge)};
+    /*
+     * purge the passed number of the oldest posts in the passed tag
+     */
+    private static int purgePostsForTag(SQLiteDatabase db, String tagSlug, int tagType, int numToPurge) {
+        String[] args = {tagSlug, Integer.toString(tagType), Integer.toString(numToPurge)};
         String where = "pseudo_id IN ("
                 + "  SELECT tbl_posts.pseudo_id FROM tbl_posts, tbl_post_tags"
                 + "  WHERE tbl_posts.pseudo_id = tbl_post_tags.pseudo_id"
@@ -213,10 +247,83 @@ public class ReaderPostTable {
                 + "  LIMIT ?"
                 + ")";
         int numDeleted = db.delete("tbl_post_tags", where, args);
-        AppLog.d(AppLog.T.READER, String.format("reader post table > purged %d posts in tag %s", numDeleted, tag.getTagNameForLog()));
+        AppLog.d(AppLog.T.READER, String.format("reader post table > purged %d posts in tag %s", numDeleted, tagSlug));
         return numDeleted;
     }
 
+    /*
+     * approximate number of bytes taken by the text of a post and its comments, which make up
+     * nearly all of the space used by the reader cache - the post's text is counted separately
+     * since it's stored by ReaderPostContentStore
+     */
+    private static final String POST_SIZE_EXPRESSION =
+            "length(tbl_posts.title) + length(tbl_posts.excerpt) + length(tbl_posts.text)"
+          + " + length(tbl_posts.attachments_json) + length(tbl_posts.discover_json)"
+          + " + IFNULL((SELECT sum(length(tbl_comments.text)) FROM tbl_comments"
+          + "   WHERE tbl_comments.blog_id = tbl_posts.blog_id"
+          + "   AND tbl_comments.post_id = tbl_posts.post_id), 0)";
+
+    /*
+     * when the post was last viewed, or when it was published if it hasn't been viewed - sort_index
+     * isn't used since it's a score rather than a timestamp for search results
+     */
+    private static final String POST_RECENCY_EXPRESSION =
+            "CASE WHEN tbl_posts.last_viewed > 0 THEN tbl_posts.last_viewed"
+          + " ELSE IFNULL(CAST(strftime('%s', tbl_posts.published) AS INTEGER), 0) END";
+
+    /*
+     * posts evicted by evictPostsOverBudget() and the number of bytes they took up
+     */
+    static class Eviction {
+        final int numPosts;
+        final long numBytes;
+
+        Eviction(int numPosts, long numBytes) {
+            this.numPosts = numPosts;
+            this.numBytes = numBytes;
+        }
+    }
+
+    /*
+     * evicts the least recently used posts until the cache fits the passed byte budget - a post's
+     * recency is when it was last viewed, falling back to when it was published, so older posts
+     * the user has read recently outlive newer ones nobody opened. posts the user has liked are
+     * never evicted. at most MAX_POSTS_TO_EVICT posts are evicted by each purge so it stays short,
+     * any excess is evicted by the next one. comments, likes and text files of evicted posts are
+     * removed by the rest of ReaderDatabase.purge()
+     */
+    private static final int MAX_POSTS_TO_EVICT = 100;
+    static Eviction evictPostsOverBudget(SQLiteDatabase db, long maxBytes) {
+        long totalBytes = ReaderPostContentStore.getTotalSize(db)
+                + SqlUtils.longForQuery(db, "SELECT IFNULL(sum(" + POST_SIZE_EXPRESSION + "), 0) FROM tbl_posts", null);
+        if (totalBytes <= maxBytes) {
+            return new Eviction(0, 0);
+        }
+
+        String sql = "SELECT blog_id, post_id, pseudo_id, " + POST_SIZE_EXPRESSION + " FROM tbl_posts"
+                   + " WHERE is_liked = 0"
+                   + " ORDER BY " + POST_RECENCY_EXPRESSION
+                   + " LIMIT " + MAX_POSTS_TO_EVICT;
+        Cursor c = db.rawQuery(sql, null);
+        int numEvicted = 0;
+        long numBytesReclaimed = 0;
+        try {
+            while (totalBytes - numBytesReclaimed > maxBytes && c.moveToNext()) {
+                String[] args = {c.getString(0), c.getString(1)};
+                db.delete("tbl_post_tags", "blog_id=? AND post_id=?", args);
+                db.delete("tbl_posts", "blog_id=? AND post_id=?", args);
+                numBytesReclaimed += c.getLong(3) + ReaderPostContentStore.getSize(c.getString(2));
+                numEvicted++;
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+
+        AppLog.i(AppLog.T.READER, String.format("reader post table > evicted %d posts, reclaimed %d of %d bytes",
+                numEvicted, numBytesReclaimed, totalBytes));
+        return new Eviction(numEvicted, numBytesReclaimed);
+    }
+
     /*
      * purge all posts that were retained from previous searches
      */
@@ -288,9 +395,33 @@ public class ReaderPostTable {
 
     public static String getPostText(long blogId, long postId) {
         String[] args = {Long.toString(blogId), Long.toString(postId)};
-        return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(),
-                "SELECT text FROM tbl_posts WHERE blog_id=? AND post_id=?",
+        Cursor c = ReaderDatabase.getReadableDb().rawQuery(
+                "SELECT text, pseudo_id FROM tbl_posts WHERE blog_id=? AND post_id=?",
                 args);
+        try {
+            if (!c.moveToFirst()) {
+                return "";
+            }
+            return getTextFromCursor(c, 0, 1);
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
+    /*
+     * records that the user has just viewed the passed post, so it's among the last to be evicted
+     * when the reader cache is over budget
+     */
+    public static void setPostViewed(final long blogId, final long postId) {
+        ReaderDatabase.getWriter().execute(new Runnable() {
+            @Override
+            public void run() {
+                ContentValues values = new ContentValues();
+                values.put("last_viewed", System.currentTimeMillis() / 1000);
+                String[] args = {Long.toString(blogId), Long.toString(postId)};
+                ReaderDatabase.getWritableDb().update("tbl_posts", values, "blog_id=? AND post_id=?", args);
+            }
+        });
     }
 
     public static boolean postExists(long blogId, long postId) {
@@ -301,36 +432,123 @@ public class ReaderPostTable {
     }
 
     /*
-     * returns whether any of the passed posts are new or changed - used after posts are retrieved
+     * compares the passed posts with the stored ones in a single query - used after posts are retrieved to
+     * tell which are new or changed, so only those are written. The stored content hash covers every column
+     * addOrUpdatePosts() writes, so it's all that needs comparing. Stored posts which don't have the passed
+     * tag are new to that tag.
      */
-    public static ReaderActions.UpdateResult comparePosts(ReaderPostList posts) {
+    public static ReaderPostChanges getPostChanges(ReaderTag tag, ReaderPostList posts) {
+        Set<ReaderBlogIdPostId> existingPosts = new HashSet<>();
+        Set<ReaderBlogIdPostId> changedPosts = new HashSet<>();
         if (posts == null || posts.size() == 0) {
-            return ReaderActions.UpdateResult.UNCHANGED;
+            return new ReaderPostChanges(ReaderActions.UpdateResult.UNCHANGED, existingPosts, changedPosts);
         }
 
-        boolean hasChanges = false;
+        Map<ReaderBlogIdPostId, ReaderPost> serverPosts = new HashMap<>();
+        StringBuilder postIds = new StringBuilder();
         for (ReaderPost post: posts) {
-            ReaderPost existingPost = getPost(post.blogId, post.postId, true);
-            if (existingPost == null) {
-                return ReaderActions.UpdateResult.HAS_NEW;
-            } else if (!hasChanges && !post.isSamePost(existingPost)) {
-                hasChanges = true;
+            serverPosts.put(new ReaderBlogIdPostId(post.blogId, post.postId), post);
+            if (postIds.length() > 0) {
+                postIds.append(",");
+            }
+            postIds.append(post.postId);
+        }
+
+        // both lookups use the primary keys, which start with post_id
+        String sql = "SELECT tbl_posts.blog_id, tbl_posts.post_id, tbl_posts.content_hash";
+        String[] args = null;
+        if (tag != null) {
+            sql += ", tbl_post_tags.post_id IS NOT NULL FROM tbl_posts"
+                    + " LEFT JOIN tbl_post_tags ON tbl_post_tags.post_id = tbl_posts.post_id"
+                    + " AND tbl_post_tags.blog_id = tbl_posts.blog_id"
+                    + " AND tbl_post_tags.tag_name=? AND tbl_post_tags.tag_type=?";
+            args = new String[]{tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+        } else {
+            sql += ", 1 FROM tbl_posts";
+        }
+        sql += " WHERE tbl_posts.post_id IN (" + postIds + ")";
+
+        boolean hasNew = false;
+        Cursor c = ReaderDatabase.getReadableDb().rawQuery(sql, args);
+        try {
+            while (c.moveToNext()) {
+                ReaderBlogIdPostId ids = new ReaderBlogIdPostId(c.getLong(0), c.getLong(1));
+                ReaderPost post = serverPosts.get(ids);
+                if (post == null) {
+                    continue;
+                }
+                existingPosts.add(ids);
+                if (getContentHash(post) != c.getLong(2)) {
+                    changedPosts.add(ids);
+                }
+                if (c.getInt(3) == 0) {
+                    hasNew = true;
+                }
+            }
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+
+        for (ReaderBlogIdPostId ids: serverPosts.keySet()) {
+            if (!existingPosts.contains(ids)) {
+                changedPosts.add(ids);
+                hasNew = true;
             }
         }
 
-        return (hasChanges ? ReaderActions.UpdateResult.CHANGED : ReaderActions.UpdateResult.UNCHANGED);
+        ReaderActions.UpdateResult result;
+        if (hasNew) {
+            result = ReaderActions.UpdateResult.HAS_NEW;
+        } else if (!changedPosts.isEmpty()) {
+            result = ReaderActions.UpdateResult.CHANGED;
+        } else {
+            result = ReaderActions.UpdateResult.UNCHANGED;
+        }
+        return new ReaderPostChanges(result, existingPosts, changedPosts);
     }
 
     /*
-     * returns true if any posts in the passed list exist in this list
+     * hash of every value addOrUpdatePosts() writes to the post's row, stored so changes can be detected
+     * without reading the row back
      */
-    public static boolean hasOverlap(ReaderPostList posts) {
-        for (ReaderPost post: posts) {
-            if (postExists(post.blogId, post.postId)) {
-                return true;
-            }
-        }
-        return false;
+    private static long getContentHash(ReaderPost post) {
+        return new FnvHash()
+                .add(post.feedId)
+                .add(post.feedItemId)
+                .add(post.getPseudoId())
+                .add(post.getAuthorName())
+                .add(post.getAuthorFirstName())
+                .add(post.authorId)
+                .add(post.getTitle())
+                .add(post.getText())
+                .add(post.getExcerpt())
+                .add(post.getFormat())
+                .add(post.getUrl())
+                .add(post.getShortUrl())
+                .add(post.getBlogUrl())
+                .add(post.getBlogName())
+                .add(post.getFeaturedImage())
+                .add(post.getFeaturedVideo())
+                .add(post.getPostAvatar())
+                .add(post.sortIndex)
+                .add(post.getPublished())
+                .add(post.numReplies)
+                .add(post.numLikes)
+                .add(post.isLikedByCurrentUser)
+                .add(post.isFollowedByCurrentUser)
+                .add(post.isCommentsOpen)
+                .add(post.isExternal)
+                .add(post.isPrivate)
+                .add(post.isVideoPress)
+                .add(post.isJetpack)
+                .add(post.getPrimaryTag())
+                .add(post.getSecondaryTag())
+                .add(post.getAttachmentsJson())
+                .add(post.getDiscoverJson())
+                .add(post.wordCount)
+                .add(post.xpostPostId)
+                .add(post.xpostBlogId)
+                .getValue();
     }
 
     /*
@@ -596,7 +814,8 @@ public class ReaderPostTable {
      * Android's CursorWindow has a max size of 2MB per row which can be exceeded
      * with a very large text column, causing an IllegalStateException when the
      * row is read - prevent this by limiting the amount of text that's stored in
-     * the text column - note that this situation very rarely occurs
+     * the text column - note that this is only used when the text couldn't be
+     * stored by ReaderPostContentStore, so this situation very rarely occurs
      * https://github.com/android/platform_frameworks_base/blob/b77bc869241644a662f7e615b0b00ecb5aee373d/core/res/res/values/config.xml#L1268
      * https://github.com/android/platform_frameworks_base/blob/3bdbf644d61f46b531838558fabbd5b990fc4913/core/java/android/database/CursorWindow.java#L103
      */
@@ -618,23 +837,53 @@ public class ReaderPostTable {
         }
     }
 
-    public static void addOrUpdatePosts(final ReaderTag tag, ReaderPostList posts) {
+    public static void addOrUpdatePosts(final ReaderTag tag, final ReaderPostList posts) {
+        addOrUpdatePosts(tag, posts, null);
+    }
+
+    /*
+     * same as above, but only writes the rows of the posts the passed changes (from getPostChanges)
+     * found to be new or changed - the rest only get their tag row, if it's missing
+     */
+    public static void addOrUpdatePosts(final ReaderTag tag,
+                                        final ReaderPostList posts,
+                                        final ReaderPostChanges changes) {
         if (posts == null || posts.size() == 0) {
             return;
         }
+        ReaderDatabase.getWriter().executeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                doAddOrUpdatePosts(tag, posts, changes);
+            }
+        });
+    }
 
+    private static void doAddOrUpdatePosts(ReaderTag tag, ReaderPostList posts, ReaderPostChanges changes) {
         SQLiteDatabase db = ReaderDatabase.getWritableDb();
         SQLiteStatement stmtPosts = db.compileStatement(
                 "INSERT OR REPLACE INTO tbl_posts ("
                 + COLUMN_NAMES
-                + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11,?12,?13,?14,?15,?16,?17,?18,?19,?20,?21,?22,?23,?24,?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37)");
+                + ",content_hash,last_viewed"
+                + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11,?12,?13,?14,?15,?16,?17,?18,?19,?20,?21,?22,?23,?24,?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37,?38,"
+                // keep when the post was last viewed, since replacing the row would reset it
+                + "IFNULL((SELECT last_viewed FROM tbl_posts WHERE post_id=?1 AND blog_id=?2), 0))");
         SQLiteStatement stmtTags = db.compileStatement(
                 "INSERT OR REPLACE INTO tbl_post_tags (post_id, blog_id, feed_id, pseudo_id, tag_name, tag_type) VALUES (?1,?2,?3,?4,?5,?6)");
+        // the tag row of an unchanged post is left alone so its gap marker survives
+        SQLiteStatement stmtMissingTags = db.compileStatement(
+                "INSERT OR IGNORE INTO tbl_post_tags (post_id, blog_id, feed_id, pseudo_id, tag_name, tag_type) VALUES (?1,?2,?3,?4,?5,?6)");
+        // pseudo_ids of the posts whose text was written, it replaces their stored text once committed
+        final List<String> textPseudoIds = new ArrayList<>();
+        boolean isWritten = false;
 
         db.beginTransaction();
         try {
             // first insert into tbl_posts
             for (ReaderPost post: posts) {
+                if (changes != null && !changes.isChanged(post)) {
+                    continue;
+                }
                 stmtPosts.bindLong  (1,  post.postId);
                 stmtPosts.bindLong  (2,  post.blogId);
                 stmtPosts.bindLong  (3,  post.feedId);
@@ -644,7 +893,12 @@ public class ReaderPostTable {
                 stmtPosts.bindString(7,  post.getAuthorFirstName());
                 stmtPosts.bindLong  (8,  post.authorId);
                 stmtPosts.bindString(9,  post.getTitle());
-                stmtPosts.bindString(10, maxText(post));
+                // text is only stored in the row if it couldn't be stored out of line
+                boolean isTextStored = ReaderPostContentStore.write(post.getPseudoId(), post.getText());
+                if (isTextStored) {
+                    textPseudoIds.add(post.getPseudoId());
+                }
+                stmtPosts.bindString(10, isTextStored ? "" : maxText(post));
                 stmtPosts.bindString(11, post.getExcerpt());
                 stmtPosts.bindString(12, post.getFormat());
                 stmtPosts.bindString(13, post.getUrl());
@@ -672,6 +926,7 @@ public class ReaderPostTable {
                 stmtPosts.bindLong  (35, post.wordCount);
                 stmtPosts.bindLong  (36, post.xpostPostId);
                 stmtPosts.bindLong  (37, post.xpostBlogId);
+                stmtPosts.bindLong  (38, getContentHash(post));
                 stmtPosts.execute();
             }
 
@@ -680,22 +935,40 @@ public class ReaderPostTable {
                 String tagName = tag.getTagSlug();
                 int tagType = tag.tagType.toInt();
                 for (ReaderPost post: posts) {
-                    stmtTags.bindLong  (1, post.postId);
-                    stmtTags.bindLong  (2, post.blogId);
-                    stmtTags.bindLong  (3, post.feedId);
-                    stmtTags.bindString(4, post.getPseudoId());
-                    stmtTags.bindString(5, tagName);
-                    stmtTags.bindLong  (6, tagType);
-                    stmtTags.execute();
+                    SQLiteStatement stmt = (changes == null || changes.isChanged(post) ? stmtTags : stmtMissingTags);
+                    stmt.bindLong  (1, post.postId);
+                    stmt.bindLong  (2, post.blogId);
+                    stmt.bindLong  (3, post.feedId);
+                    stmt.bindString(4, post.getPseudoId());
+                    stmt.bindString(5, tagName);
+                    stmt.bindLong  (6, tagType);
+                    stmt.execute();
                 }
             }
 
             db.setTransactionSuccessful();
+            isWritten = true;
 
         } finally {
             db.endTransaction();
             SqlUtils.closeStatement(stmtPosts);
             SqlUtils.closeStatement(stmtTags);
+            SqlUtils.closeStatement(stmtMissingTags);
+            if (isWritten) {
+                ReaderDatabase.getWriter().afterTransaction(new Runnable() {
+                    @Override
+                    public void run() {
+                        ReaderPostContentStore.commit(textPseudoIds);
+                    }
+                }, new Runnable() {
+                    @Override
+                    public void run() {
+                        ReaderPostContentStore.discard(textPseudoIds);
+                    }
+                });
+            } else {
+                ReaderPostContentStore.discard(textPseudoIds);
+            }
         }
     }
 
@@ -846,7 +1119,7 @@ public class ReaderPostTable {
         // text column is skipped when retrieving multiple rows
         int idxText = c.getColumnIndex("text");
         if (idxText > -1) {
-            post.setText(c.getString(idxText));
+            post.setText(getTextFromCursor(c, idxText, c.getColumnIndex("pseudo_id")));
         }
 
         post.postId = c.getLong(c.getColumnIndex("post_id"));
@@ -897,6 +1170,17 @@ public class ReaderPostTable {
         return post;
     }
 
+    /*
+     * returns the text stored in the row, or if it's empty the text stored by ReaderPostContentStore
+     */
+    private static String getTextFromCursor(Cursor c, int idxText, int idxPseudoId) {
+        String text = c.getString(idxText);
+        if (TextUtils.isEmpty(text)) {
+            return ReaderPostContentStore.read(c.getString(idxPseudoId));
+        }
+        return text;
+    }
+
     private static ReaderPostList getPostListFromCursor(Cursor cursor) {
         ReaderPostList posts = new ReaderPostList();
         try {
@@ -84,6 +84,17 @@ public class Blog {
         this.isHidden = isHidden;
     }
 
+    public Blog(Blog blog) {
+        this(blog.localTableBlogId, blog.url, blog.homeURL, blog.blogName, blog.username, blog.password,
+                blog.imagePlacement, blog.featuredImageCapable, blog.fullSizeImage, blog.scaledImage,
+                blog.scaledImageWidth, blog.maxImageWidth, blog.maxImageWidthId, blog.remoteBlogId,
+                blog.dotcom_username, blog.dotcom_password, blog.api_key, blog.api_blogid, blog.dotcomFlag,
+                blog.wpVersion, blog.httpuser, blog.httppassword, blog.postFormats, blog.blogOptions,
+                blog.capabilities, blog.isAdmin, blog.isHidden);
+        this.planID = blog.planID;
+        this.planShortName = blog.planShortName;
+    }
+
     public Blog(String url, String username, String password) {
         this.url = url;
         this.username = username;
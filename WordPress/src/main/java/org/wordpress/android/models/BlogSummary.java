@@ -0,0 +1,106 @@
+package org.wordpress.android.models;
+
+import org.wordpress.android.util.StringUtils;
+import org.wordpress.android.util.UrlUtils;
+
+import java.util.Locale;
+
+/**
+ * Immutable summary of a row of the blogs table, holding what site lists show and filter on. The display name and
+ * url are resolved once, along with their lower case versions used to search the sites.
+ */
+public class BlogSummary {
+    private final int mLocalTableBlogId;
+    private final int mRemoteBlogId;
+    private final String mBlogName;
+    private final String mUsername;
+    private final String mUrl;
+    private final String mHomeURL;
+    private final boolean mIsHidden;
+    private final boolean mIsDotcom;
+
+    private final String mBlogNameOrHomeURL;
+    private final String mHomeURLOrHostName;
+    private final String mSearchableName;
+    private final String mSearchableURL;
+
+    public BlogSummary(int localTableBlogId, int remoteBlogId, String blogName, String username, String url,
+                       String homeURL, boolean isHidden, boolean isDotcom) {
+        mLocalTableBlogId = localTableBlogId;
+        mRemoteBlogId = remoteBlogId;
+        mBlogName = StringUtils.notNullStr(blogName);
+        mUsername = StringUtils.notNullStr(username);
+        mUrl = StringUtils.notNullStr(url);
+        mHomeURL = StringUtils.notNullStr(homeURL);
+        mIsHidden = isHidden;
+        mIsDotcom = isDotcom;
+
+        // same rules as BlogUtils.getHomeURLOrHostNameFromAccountMap and getBlogNameOrHomeURLFromAccountMap
+        String homeURLOrHostName = StringUtils.removeTrailingSlash(UrlUtils.removeScheme(mHomeURL));
+        if (homeURLOrHostName.length() == 0) {
+            homeURLOrHostName = UrlUtils.getHost(mUrl);
+        }
+        mHomeURLOrHostName = homeURLOrHostName;
+        String blogNameOrHomeURL = StringUtils.unescapeHTML(mBlogName);
+        if (blogNameOrHomeURL.trim().length() == 0) {
+            blogNameOrHomeURL = mHomeURLOrHostName;
+        }
+        mBlogNameOrHomeURL = blogNameOrHomeURL;
+
+        mSearchableName = mBlogNameOrHomeURL.toLowerCase(Locale.getDefault());
+        mSearchableURL = mHomeURLOrHostName.toLowerCase(Locale.getDefault());
+    }
+
+    public int getLocalTableBlogId() {
+        return mLocalTableBlogId;
+    }
+
+    public int getRemoteBlogId() {
+        return mRemoteBlogId;
+    }
+
+    public String getBlogName() {
+        return mBlogName;
+    }
+
+    public String getUsername() {
+        return mUsername;
+    }
+
+    public String getUrl() {
+        return mUrl;
+    }
+
+    public String getHomeURL() {
+        return mHomeURL;
+    }
+
+    public boolean isHidden() {
+        return mIsHidden;
+    }
+
+    public boolean isDotcom() {
+        return mIsDotcom;
+    }
+
+    /**
+     * Unescaped blog name, or the home url (or host name) if the name is blank
+     */
+    public String getBlogNameOrHomeURL() {
+        return mBlogNameOrHomeURL;
+    }
+
+    /**
+     * Home url without its scheme and trailing slash, or the host name of the url if there's no home url
+     */
+    public String getHomeURLOrHostName() {
+        return mHomeURLOrHostName;
+    }
+
+    /**
+     * Returns true if the lower case search term is part of the name or url shown for the blog
+     */
+    public boolean matches(String lowerCaseSearchTerm) {
+        return mSearchableName.contains(lowerCaseSearchTerm) || mSearchableURL.contains(lowerCaseSearchTerm);
+    }
+}
@@ -31,6 +31,14 @@ public class CategoryNode {
         this.name = name;
     }
 
+    /*
+     * copies the passed node without its children
+     */
+    public CategoryNode(CategoryNode node) {
+        this(node.categoryId, node.parentId, node.name);
+        this.level = node.level;
+    }
+
     public int getCategoryId() {
         return categoryId;
     }
@@ -60,20 +68,33 @@ public class CategoryNode {
     }
 
     public static CategoryNode createCategoryTreeFromDB(int blogId) {
-        CategoryNode rootCategory = new CategoryNode(-1, -1, "");
         if (WordPress.wpDB == null) {
-            return rootCategory;
+            return new CategoryNode(-1, -1, "");
+        }
+        return createCategoryTree(WordPress.wpDB.getSortedCategories(blogId));
+    }
+
+    /**
+     * Returns the categories of the blog in the order they're shown in the tree, each with its level set
+     */
+    public static ArrayList<CategoryNode> getSortedListOfCategories(int blogId) {
+        if (WordPress.wpDB == null) {
+            return new ArrayList<CategoryNode>();
         }
-        List<String> stringCategories = WordPress.wpDB.loadCategories(blogId);
+        return WordPress.wpDB.getSortedCategories(blogId);
+    }
+
+    /**
+     * Returns the root of the tree formed by the passed categories, which become its nodes
+     */
+    public static CategoryNode createCategoryTree(List<CategoryNode> categories) {
+        CategoryNode rootCategory = new CategoryNode(-1, -1, "");
 
-        // First pass instantiate CategoryNode objects
+        // First pass index CategoryNode objects by id
         SparseArray<CategoryNode> categoryMap = new SparseArray<CategoryNode>();
         CategoryNode currentRootNode;
-        for (String name : stringCategories) {
-            int categoryId = WordPress.wpDB.getCategoryId(blogId, name);
-            int parentId = WordPress.wpDB.getCategoryParentId(blogId, name);
-            CategoryNode node = new CategoryNode(categoryId, parentId, name);
-            categoryMap.put(categoryId, node);
+        for (CategoryNode node : categories) {
+            categoryMap.put(node.getCategoryId(), node);
         }
 
         // Second pass associate nodes to form a tree
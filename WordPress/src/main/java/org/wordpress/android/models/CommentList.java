@@ -3,10 +3,37 @@ package org.wordpress.android.models;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.wordpress.android.util.ListDiff;
 
 import java.util.ArrayList;
 
 public class CommentList extends ArrayList<Comment> {
+    /*
+     * used to diff two versions of a list of comments
+     */
+    public static final ListDiff.ItemCallback<Comment> DIFF_CALLBACK = new ListDiff.ItemCallback<Comment>() {
+        @Override
+        public Object getKey(Comment comment) {
+            return comment.commentID;
+        }
+
+        @Override
+        public boolean isSameContent(Comment thisComment, Comment comment) {
+            if (!thisComment.getStatus().equals(comment.getStatus()))
+                return false;
+            if (!thisComment.getCommentText().equals(comment.getCommentText()))
+                return false;
+            if (!thisComment.getAuthorName().equals(comment.getAuthorName()))
+                return false;
+            if (!thisComment.getAuthorEmail().equals(comment.getAuthorEmail()))
+                return false;
+            if (!thisComment.getAuthorUrl().equals(comment.getAuthorUrl()))
+                return false;
+
+            return true;
+        }
+    };
+
     public int indexOfCommentId(long commentId) {
         for (int i=0; i < this.size(); i++) {
             if (commentId==this.get(i).commentID)
@@ -63,34 +90,6 @@ public class CommentList extends ArrayList<Comment> {
         return false;
     }
 
-    /*
-     * does passed list contain the same comments as this list?
-     */
-    public boolean isSameList(CommentList comments) {
-        if (comments == null || comments.size() != this.size())
-            return false;
-
-        for (final Comment comment: comments) {
-            int index = this.indexOfCommentId(comment.commentID);
-            if (index == -1)
-                return false;
-            final Comment thisComment = this.get(index);
-            if (!thisComment.getStatus().equals(comment.getStatus()))
-                return false;
-            if (!thisComment.getCommentText().equals(comment.getCommentText()))
-                return false;
-            if (!thisComment.getAuthorName().equals(comment.getAuthorName()))
-                return false;
-            if (!thisComment.getAuthorEmail().equals(comment.getAuthorEmail()))
-                return false;
-            if (!thisComment.getAuthorUrl().equals(comment.getAuthorUrl()))
-                return false;
-
-        }
-
-        return true;
-    }
-
     public static CommentList fromJSONV1_1(JSONObject object) throws JSONException {
         CommentList commentList = new CommentList();
         if (object == null) {
@@ -24,8 +24,8 @@ public class PostsListPost {
     private final long featuredImageId;
 
     private final String title;
-    private String excerpt;
-    private final String description;
+    private final String excerpt;
+    private final String contentImageUrl;
     private final String status;
 
     private final boolean isLocalDraft;
@@ -35,26 +35,27 @@ public class PostsListPost {
     // featuredImageUrl is generated by the adapter on the fly
     private transient String featuredImageUrl;
 
-    public PostsListPost(Post post) {
-        postId = post.getLocalTablePostId();
-        blogId = post.getLocalTableBlogId();
-        featuredImageId = post.getFeaturedImageId();
-
-        title = post.getTitle();
-        description = post.getDescription();
-        excerpt = post.getPostExcerpt();
+    /**
+     * @param excerpt list excerpt, see {@link #makeListExcerpt(String, String)}
+     * @param contentImageUrl largest image in the post content, used when there's no featured image
+     */
+    public PostsListPost(long postId, long blogId, String title, String excerpt, String contentImageUrl,
+                         String status, long dateCreatedGmt, long featuredImageId, boolean isLocalDraft,
+                         boolean hasLocalChanges) {
+        this.postId = postId;
+        this.blogId = blogId;
+        this.featuredImageId = featuredImageId;
 
-        status = post.getPostStatus();
-        isLocalDraft = post.isLocalDraft();
-        hasLocalChanges = post.isLocalChange();
-        isUploading = PostUploadService.isPostUploading(postId);
+        this.title = title;
+        this.excerpt = excerpt;
+        this.contentImageUrl = contentImageUrl;
 
-        setDateCreatedGmt(post.getDate_created_gmt());
+        this.status = status;
+        this.isLocalDraft = isLocalDraft;
+        this.hasLocalChanges = hasLocalChanges;
+        this.isUploading = PostUploadService.isPostUploading(postId);
 
-        // if the post doesn't have an excerpt, generate one from the description
-        if (!hasExcerpt() && hasDescription()) {
-            excerpt = makeExcerpt(description);
-        }
+        setDateCreatedGmt(dateCreatedGmt);
     }
 
     public long getPostId() {
@@ -72,11 +73,11 @@ public class PostsListPost {
         return !TextUtils.isEmpty(title);
     }
 
-    public String getDescription() {
-        return StringUtils.notNullStr(description);
+    public String getContentImageUrl() {
+        return StringUtils.notNullStr(contentImageUrl);
     }
-    public boolean hasDescription() {
-        return !TextUtils.isEmpty(description);
+    public boolean hasContentImageUrl() {
+        return !TextUtils.isEmpty(contentImageUrl);
     }
 
     public String getExcerpt() {
@@ -95,6 +96,16 @@ public class PostsListPost {
         return s.replace(NBSP, " ").trim();
     }
 
+    /**
+     * Returns the excerpt shown in the list: the post excerpt if it has one, else the start of the content
+     */
+    public static String makeListExcerpt(String excerpt, String description) {
+        if (!TextUtils.isEmpty(excerpt)) {
+            return excerpt;
+        }
+        return StringUtils.notNullStr(makeExcerpt(description));
+    }
+
     private static String makeExcerpt(String description) {
         if (TextUtils.isEmpty(description)) {
             return null;
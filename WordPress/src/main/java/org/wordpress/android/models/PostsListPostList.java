@@ -1,20 +1,23 @@
 package org.wordpress.android.models;
 
+import org.wordpress.android.util.ListDiff;
+
 import java.util.ArrayList;
 
 public class PostsListPostList extends ArrayList<PostsListPost> {
 
-    public boolean isSameList(PostsListPostList newPostsList) {
-        if (newPostsList == null || this.size() != newPostsList.size()) {
-            return false;
+    /*
+     * used to diff two versions of a list of posts - posts are identified the same way as in indexOfPost()
+     */
+    public static final ListDiff.ItemCallback<PostsListPost> DIFF_CALLBACK =
+            new ListDiff.ItemCallback<PostsListPost>() {
+        @Override
+        public Object getKey(PostsListPost post) {
+            return post.getBlogId() + ":" + post.getPostId();
         }
 
-        for (int i = 0; i < newPostsList.size(); i++) {
-            PostsListPost newPost = newPostsList.get(i);
-            PostsListPost currentPost = this.get(i);
-
-            if (newPost.getPostId() != currentPost.getPostId())
-                return false;
+        @Override
+        public boolean isSameContent(PostsListPost currentPost, PostsListPost newPost) {
             if (!newPost.getTitle().equals(currentPost.getTitle()))
                 return false;
             if (newPost.getDateCreatedGmt() != currentPost.getDateCreatedGmt())
@@ -27,12 +30,14 @@ public class PostsListPostList extends ArrayList<PostsListPost> {
                 return false;
             if (newPost.hasLocalChanges() != currentPost.hasLocalChanges())
                 return false;
-            if (!newPost.getDescription().equals(currentPost.getDescription()))
+            if (!newPost.getExcerpt().equals(currentPost.getExcerpt()))
+                return false;
+            if (!newPost.getContentImageUrl().equals(currentPost.getContentImageUrl()))
                 return false;
-        }
 
-        return true;
-    }
+            return true;
+        }
+    };
 
     public int indexOfPost(PostsListPost post) {
         if (post == null) {
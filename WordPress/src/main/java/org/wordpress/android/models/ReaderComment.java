@@ -31,7 +31,8 @@ public class ReaderComment {
 
     public int pageNumber;
 
-    // not stored in db - denotes the indentation level when displaying this comment
+    // denotes the indentation level when displaying this comment - computed by ReaderCommentTable
+    // when the comment is stored
     public transient int level = 0;
 
     public static ReaderComment fromJson(JSONObject json, long blogId) {
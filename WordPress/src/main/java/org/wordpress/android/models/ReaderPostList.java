@@ -3,11 +3,27 @@ package org.wordpress.android.models;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
+import org.wordpress.android.util.ListDiff;
 
 import java.util.ArrayList;
 
 public class ReaderPostList extends ArrayList<ReaderPost> {
 
+    /*
+     * used to diff two versions of a list of posts - posts are identified the same way as in indexOfPost()
+     */
+    public static final ListDiff.ItemCallback<ReaderPost> DIFF_CALLBACK = new ListDiff.ItemCallback<ReaderPost>() {
+        @Override
+        public Object getKey(ReaderPost post) {
+            return (post.isExternal ? "feed-" + post.feedId : Long.toString(post.blogId)) + ":" + post.postId;
+        }
+
+        @Override
+        public boolean isSameContent(ReaderPost oldPost, ReaderPost newPost) {
+            return newPost.isSamePost(oldPost);
+        }
+    };
+
     public static ReaderPostList fromJson(JSONObject json) {
         if (json == null) {
             throw new IllegalArgumentException("null json post list");
@@ -57,24 +73,6 @@ public class ReaderPostList extends ArrayList<ReaderPost> {
         return -1;
     }
 
-    /*
-     * does passed list contain the same posts as this list?
-     */
-    public boolean isSameList(ReaderPostList posts) {
-        if (posts == null || posts.size() != this.size()) {
-            return false;
-        }
-
-        for (ReaderPost post: posts) {
-            int index = indexOfPost(post);
-            if (index == -1 || !post.isSamePost(this.get(index))) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     /*
      * returns posts in this list which are in the passed blog
      */
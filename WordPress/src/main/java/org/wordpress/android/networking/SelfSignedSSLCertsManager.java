@@ -13,6 +13,8 @@ import org.wordpress.android.ui.ActivityLauncher;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.GenericCallback;
+import org.xmlrpc.android.XMLRPCConnectionPool;
+import org.xmlrpc.android.XMLRPCDiscoveryCache;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -100,8 +102,9 @@ public class SelfSignedSSLCertsManager {
             mLocalKeyStore.setCertificateEntry(alias, cert);
         }
         saveTrustStore();
-        // reset the Volley queue Otherwise new certs are not used
+        // reset the Volley queue and the XML-RPC connections Otherwise new certs are not used
         WordPress.setupVolleyQueue();
+        XMLRPCConnectionPool.evictAll();
     }
 
     public void addCertificate(X509Certificate cert) throws IOException, GeneralSecurityException {
@@ -112,6 +115,7 @@ public class SelfSignedSSLCertsManager {
         String alias = hashName(cert.getSubjectX500Principal());
         mLocalKeyStore.setCertificateEntry(alias, cert);
         saveTrustStore();
+        XMLRPCConnectionPool.evictAll();
     }
 
     public KeyStore getLocalKeyStore() {
@@ -179,6 +183,8 @@ public class SelfSignedSSLCertsManager {
         } catch (IOException e) {
             AppLog.e(T.API, "Cannot create/initialize local Keystore", e);
         }
+        XMLRPCConnectionPool.evictAll();
+        XMLRPCDiscoveryCache.clearUserTrustedEndpoints();
     }
 
     private static String hashName(X500Principal principal) {
@@ -18,9 +18,12 @@ import android.widget.ListView;
 import android.widget.TextView;
 
 import org.wordpress.android.R;
+import org.wordpress.android.datasets.DatabaseWriter;
+import org.wordpress.android.datasets.QueryProfiler;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.ToastUtils;
+import org.xmlrpc.android.XMLRPCStats;
 
 import java.util.ArrayList;
 
@@ -30,6 +33,8 @@ import java.util.ArrayList;
 public class AppLogViewerActivity extends AppCompatActivity {
     private static final int ID_SHARE = 1;
     private static final int ID_COPY_TO_CLIPBOARD = 2;
+    private static final int ID_PERFORMANCE_STATS = 3;
+    private static final int ID_PROFILE_QUERIES = 4;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -142,6 +147,14 @@ public class AppLogViewerActivity extends AppCompatActivity {
         item = menu.add(Menu.NONE, ID_SHARE, Menu.NONE, R.string.reader_btn_share);
         item.setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM);
         item.setIcon(R.drawable.ic_share_white_24dp);
+        // Append the XML-RPC call, database writer and query stats to the log
+        item = menu.add(Menu.NONE, ID_PERFORMANCE_STATS, Menu.NONE, R.string.logs_performance_stats);
+        item.setShowAsAction(MenuItem.SHOW_AS_ACTION_NEVER);
+        // Toggle the database query profiler
+        item = menu.add(Menu.NONE, ID_PROFILE_QUERIES, Menu.NONE, R.string.logs_profile_queries);
+        item.setShowAsAction(MenuItem.SHOW_AS_ACTION_NEVER);
+        item.setCheckable(true);
+        item.setChecked(QueryProfiler.isEnabled());
         return true;
     }
 
@@ -157,6 +170,18 @@ public class AppLogViewerActivity extends AppCompatActivity {
             case ID_COPY_TO_CLIPBOARD:
                 copyAppLogToClipboard();
                 return true;
+            case ID_PERFORMANCE_STATS:
+                XMLRPCStats.logStats();
+                DatabaseWriter.logStats();
+                QueryProfiler.logReport();
+                ListView listView = (ListView) findViewById(android.R.id.list);
+                listView.setAdapter(new LogAdapter(this));
+                listView.setSelection(listView.getCount() - 1);
+                return true;
+            case ID_PROFILE_QUERIES:
+                QueryProfiler.setEnabled(!QueryProfiler.isEnabled());
+                item.setChecked(QueryProfiler.isEnabled());
+                return true;
             default:
                 return super.onOptionsItemSelected(item);
         }
@@ -3,6 +3,9 @@ package org.wordpress.android.ui.accounts.helpers;
 import org.wordpress.android.analytics.AnalyticsTracker;
 import org.wordpress.android.analytics.AnalyticsTracker.Stat;
 
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.xmlrpc.android.XMLRPCDiscoveryCache;
 import org.xmlrpc.android.XMLRPCUtils;
 import org.xmlrpc.android.XMLRPCUtils.XMLRPCUtilsException;
 
@@ -52,11 +55,24 @@ public class FetchBlogListWPOrg extends FetchBlogListAbstract {
         @Override
         protected List<Map<String, Object>> doInBackground(Void... notUsed) {
             try {
+                boolean isCachedEndpoint = XMLRPCDiscoveryCache.get(mSelfHostedUrl) != null;
                 String xmlrpcUrl = XMLRPCUtils.verifyOrDiscoverXmlRpcUrl(mSelfHostedUrl, mHttpUsername, mHttpPassword);
 
                 // The XML-RPC address is now available. Call wp.getUsersBlogs and load the sites.
-                return XMLRPCUtils.getUserBlogsList(URI.create(xmlrpcUrl), mUsername, mPassword, mHttpUsername,
-                        mHttpPassword);
+                try {
+                    return XMLRPCUtils.getUserBlogsList(URI.create(xmlrpcUrl), mUsername, mPassword, mHttpUsername,
+                            mHttpPassword);
+                } catch (XMLRPCUtilsException e) {
+                    if (!isCachedEndpoint || !XMLRPCUtils.isEndpointError(e)) {
+                        throw e;
+                    }
+                    // The site may have moved since the endpoint was cached, discover it again
+                    AppLog.w(T.NUX, "The cached XML-RPC endpoint failed, starting the discovery process");
+                    XMLRPCDiscoveryCache.invalidate(mSelfHostedUrl);
+                    xmlrpcUrl = XMLRPCUtils.verifyOrDiscoverXmlRpcUrl(mSelfHostedUrl, mHttpUsername, mHttpPassword);
+                    return XMLRPCUtils.getUserBlogsList(URI.create(xmlrpcUrl), mUsername, mPassword, mHttpUsername,
+                            mHttpPassword);
+                }
             } catch (XMLRPCUtilsException hce) {
                 mErrorMsgId = hce.errorMsgId;
                 mHttpAuthRequired = (hce.kind == XMLRPCUtilsException.Kind.HTTP_AUTH_REQUIRED);
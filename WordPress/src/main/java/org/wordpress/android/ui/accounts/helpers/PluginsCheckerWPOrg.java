@@ -7,6 +7,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wordpress.android.util.AppLog;
+import org.xmlrpc.android.XMLRPCDiscoveryCache;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -58,7 +59,7 @@ public class PluginsCheckerWPOrg {
         }
 
         // we have the list. Start the process of checking for plugins
-        String baseURL = getBaseURL(mOriginalURL);
+        String baseURL = getBaseURL(getSiteURL());
 
         if (!baseURL.contains("/plugins")) {
             baseURL = baseURL + "/wp-content/plugins/";
@@ -160,6 +161,18 @@ public class PluginsCheckerWPOrg {
         return 0;
     }
 
+    /**
+     * Returns the XML-RPC endpoint already discovered for the original URL if any, since it's where the site
+     * actually lives after redirects, or the original URL.
+     */
+    private String getSiteURL() {
+        XMLRPCDiscoveryCache.Endpoint endpoint = XMLRPCDiscoveryCache.get(mOriginalURL);
+        if (endpoint != null) {
+            return endpoint.getXmlrpcUrl();
+        }
+        return mOriginalURL;
+    }
+
     private String getBaseURL(String url) {
         String sanitizedURL = url;
         try {
@@ -24,6 +24,7 @@ import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCException;
 import org.xmlrpc.android.XMLRPCFactory;
 import org.xmlrpc.android.XMLRPCFault;
+import org.xmlrpc.android.XMLRPCMulticall;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -322,7 +323,6 @@ public class CommentActions {
 
     /**
      * change the status of multiple comments
-     * TODO: investigate using system.multiCall to perform a single call to moderate the list
      */
     static void moderateComments(final int accountId,
                                  final CommentList comments,
@@ -342,7 +342,6 @@ public class CommentActions {
             return;
         }
 
-        final CommentList moderatedComments = new CommentList();
         final String newStatusStr = CommentStatus.toString(newStatus);
         final int localBlogId = blog.getLocalTableBlogId();
 
@@ -350,11 +349,9 @@ public class CommentActions {
         new Thread() {
             @Override
             public void run() {
-                for (Comment comment: comments) {
-                    if (ApiHelper.editComment(blog, comment, newStatus)) {
-                        comment.setStatus(newStatusStr);
-                        moderatedComments.add(comment);
-                    }
+                final CommentList moderatedComments = ApiHelper.editComments(blog, comments, newStatus);
+                for (Comment comment: moderatedComments) {
+                    comment.setStatus(newStatusStr);
                 }
 
                 // update status in SQLite of successfully moderated comments
@@ -460,6 +457,8 @@ public class CommentActions {
                 XMLRPCClientInterface client = XMLRPCFactory.instantiate(blog.getUri(), blog.getHttpuser(),
                         blog.getHttppassword());
 
+                // delete all the comments in a single system.multicall request
+                XMLRPCMulticall multicall = new XMLRPCMulticall();
                 for (Comment comment: comments) {
                     Object[] params = {
                             remoteBlogId,
@@ -467,16 +466,23 @@ public class CommentActions {
                             blog.getPassword(),
                             comment.commentID,
                             deletePermanently};
+                    multicall.add(Method.DELETE_COMMENT, params);
+                }
 
-                    Object result;
-                    try {
-                        result = client.call(Method.DELETE_COMMENT, params);
-                        boolean success = (result != null && Boolean.parseBoolean(result.toString()));
-                        if (success)
-                            deletedComments.add(comment);
-                    } catch (XMLRPCException | XmlPullParserException | IOException e) {
-                        AppLog.e(T.COMMENTS, "Error while deleting comment", e);
+                try {
+                    Object[] results = client.callMulticall(multicall);
+                    for (int i = 0; i < comments.size(); i++) {
+                        try {
+                            Object result = XMLRPCMulticall.getResult(results, i);
+                            boolean success = (result != null && Boolean.parseBoolean(result.toString()));
+                            if (success)
+                                deletedComments.add(comments.get(i));
+                        } catch (XMLRPCFault e) {
+                            AppLog.e(T.COMMENTS, "Error while deleting comment", e);
+                        }
                     }
+                } catch (XMLRPCException | XmlPullParserException | IOException e) {
+                    AppLog.e(T.COMMENTS, "Error while deleting comments", e);
                 }
 
                 // remove successfully deleted comments from SQLite
@@ -6,6 +6,7 @@ import android.support.v4.content.ContextCompat;
 import android.support.v7.widget.RecyclerView;
 import android.text.Html;
 import android.text.Spanned;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -21,6 +22,7 @@ import org.wordpress.android.models.CommentStatus;
 import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DateTimeUtils;
+import org.wordpress.android.util.ListDiff;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.WPHtml;
 import org.wordpress.android.widgets.WPNetworkImageView;
@@ -70,6 +72,14 @@ class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
     private boolean mEnableSelection;
 
+    private boolean mCanLoadMoreLocalComments;
+    private CommentStatus mLoadedStatusFilter;
+    private String mSearchTerm;
+
+    // comments are read from the db a page at a time, the next page is read when the user nears the end of the list
+    private static final int LOCAL_COMMENTS_PAGE_SIZE = 50;
+    private static final int LOCAL_COMMENTS_PREFETCH_DISTANCE = 10;
+
     class CommentHolder extends RecyclerView.ViewHolder
             implements View.OnClickListener, View.OnLongClickListener {
         private final TextView txtTitle;
@@ -216,8 +226,13 @@ class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
             params.addRule(RelativeLayout.LEFT_OF, 0);
         }
 
-        // request to load more comments when we near the end
-        if (mOnLoadMoreListener != null && position >= getItemCount() - 1
+        // load more comments when we near the end, from the db first then from the server - search only covers
+        // the comments in the db
+        if (mCanLoadMoreLocalComments) {
+            if (position >= getItemCount() - LOCAL_COMMENTS_PREFETCH_DISTANCE) {
+                loadMoreLocalComments();
+            }
+        } else if (mOnLoadMoreListener != null && !isSearching() && position >= getItemCount() - 1
                 && position >= CommentsListFragment.COMMENTS_PER_PAGE - 1) {
             mOnLoadMoreListener.onLoadMore();
         }
@@ -382,14 +397,37 @@ class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
         }
     }
 
+    /*
+     * only show comments whose author or text match the passed term, pass null to show all comments
+     */
+    void setSearchTerm(String searchTerm) {
+        mSearchTerm = searchTerm;
+    }
+
+    boolean isSearching() {
+        return !TextUtils.isEmpty(mSearchTerm);
+    }
+
     /*
      * load comments using an AsyncTask
      */
     void loadComments(CommentStatus statusFilter) {
         if (mIsLoadTaskRunning) {
-            AppLog.w(AppLog.T.COMMENTS, "load comments task already active");
+            // reload once the running task is done, so the latest filter and search term are shown
+            AppLog.d(AppLog.T.COMMENTS, "load comments task already active, reload pending");
+            mIsReloadPending = true;
+            mPendingStatusFilter = statusFilter;
         } else {
-            new LoadCommentsTask(statusFilter).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            new LoadCommentsTask(statusFilter, false).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        }
+    }
+
+    /*
+     * reads the next page of comments from the db and appends it to the list
+     */
+    private void loadMoreLocalComments() {
+        if (!mIsLoadTaskRunning && !isEmpty()) {
+            new LoadCommentsTask(mLoadedStatusFilter, true).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
         }
     }
 
@@ -397,18 +435,38 @@ class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
      * AsyncTask to load comments from SQLite
      */
     private boolean mIsLoadTaskRunning = false;
+    private boolean mIsReloadPending;
+    private CommentStatus mPendingStatusFilter;
 
     private class LoadCommentsTask extends AsyncTask<Void, Void, Boolean> {
         CommentList tmpComments;
         final CommentStatus mStatusFilter;
-
-        public LoadCommentsTask(CommentStatus statusFilter) {
-            mStatusFilter = statusFilter;
+        final boolean mIsLoadingMore;
+        private final String mSearchTerm;
+        private Comment mAfterComment;
+        private int mLimit;
+        private boolean mCanLoadMore;
+        private CommentList mOldComments;
+        private ListDiff mDiff;
+
+        public LoadCommentsTask(CommentStatus statusFilter, boolean isLoadingMore) {
+            mStatusFilter = (statusFilter != null ? statusFilter : CommentStatus.UNKNOWN);
+            mIsLoadingMore = isLoadingMore;
+            mSearchTerm = CommentAdapter.this.mSearchTerm;
         }
 
         @Override
         protected void onPreExecute() {
             mIsLoadTaskRunning = true;
+            if (mIsLoadingMore) {
+                mAfterComment = mComments.get(mComments.size() - 1);
+                mLimit = LOCAL_COMMENTS_PAGE_SIZE;
+            } else {
+                // reload at least as many comments as are shown so the list doesn't shrink under the user
+                mLimit = Math.max(LOCAL_COMMENTS_PAGE_SIZE, mComments.size());
+                // the comments are diffed off the main thread, so diff a copy of the list
+                mOldComments = (CommentList) mComments.clone();
+            }
         }
 
         @Override
@@ -418,14 +476,15 @@ class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
         @Override
         protected Boolean doInBackground(Void... params) {
-            if (mStatusFilter == null) {
-                tmpComments = CommentTable.getCommentsForBlogWithFilter(mLocalBlogId, CommentStatus.UNKNOWN);
-            } else {
-                tmpComments = CommentTable.getCommentsForBlogWithFilter(mLocalBlogId, mStatusFilter);
-            }
-
-            if (mComments.isSameList(tmpComments)) {
-                return false;
+            tmpComments = CommentTable.getCommentsForBlogWithFilter(mLocalBlogId, mStatusFilter, mSearchTerm,
+                    mAfterComment, mLimit);
+            mCanLoadMore = tmpComments.size() == mLimit;
+
+            if (!mIsLoadingMore) {
+                mDiff = ListDiff.calculate(mOldComments, tmpComments, CommentList.DIFF_CALLBACK);
+                if (mDiff.isEmpty()) {
+                    return false;
+                }
             }
 
             // pre-calc transient values so they're cached prior to display
@@ -446,10 +505,24 @@ class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
         @Override
         protected void onPostExecute(Boolean result) {
+            mCanLoadMoreLocalComments = mCanLoadMore;
+            mLoadedStatusFilter = mStatusFilter;
+
             if (result) {
-                mComments.clear();
-                mComments.addAll(tmpComments);
-                notifyDataSetChanged();
+                if (mIsLoadingMore) {
+                    int positionStart = mComments.size();
+                    mComments.addAll(tmpComments);
+                    notifyItemRangeInserted(positionStart, tmpComments.size());
+                } else {
+                    boolean canDispatchDiff = canDispatchDiff();
+                    mComments.clear();
+                    mComments.addAll(tmpComments);
+                    if (canDispatchDiff) {
+                        mDiff.dispatchUpdatesTo(CommentAdapter.this, 0);
+                    } else {
+                        notifyDataSetChanged();
+                    }
+                }
             }
 
             if (mOnDataLoadedListener != null) {
@@ -457,6 +530,26 @@ class CommentAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
             }
 
             mIsLoadTaskRunning = false;
+
+            if (mIsReloadPending) {
+                mIsReloadPending = false;
+                loadComments(mPendingStatusFilter);
+            }
+        }
+
+        /*
+         * the diff only applies if the comments weren't changed while loading
+         */
+        private boolean canDispatchDiff() {
+            if (mComments.size() != mOldComments.size()) {
+                return false;
+            }
+            for (int i = 0; i < mComments.size(); i++) {
+                if (mComments.get(i) != mOldComments.get(i)) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 
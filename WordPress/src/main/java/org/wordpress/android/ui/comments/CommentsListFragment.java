@@ -7,6 +7,7 @@ import android.graphics.drawable.Drawable;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.v4.content.ContextCompat;
+import android.support.v4.view.MenuItemCompat;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.view.ActionMode;
 import android.view.LayoutInflater;
@@ -15,6 +16,7 @@ import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.SearchView;
 
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
@@ -30,6 +32,7 @@ import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.ToastUtils;
+import org.wordpress.android.util.WPActivityUtils;
 import org.xmlrpc.android.ApiHelper;
 import org.xmlrpc.android.ApiHelper.ErrorType;
 import org.xmlrpc.android.XMLRPCFault;
@@ -43,7 +46,8 @@ import java.util.Map;
 import de.greenrobot.event.EventBus;
 
 public class CommentsListFragment extends Fragment implements CommentAdapter.OnDataLoadedListener,
-        CommentAdapter.OnLoadMoreListener, CommentAdapter.OnSelectedItemsChangeListener, CommentAdapter.OnCommentPressedListener {
+        CommentAdapter.OnLoadMoreListener, CommentAdapter.OnSelectedItemsChangeListener, CommentAdapter.OnCommentPressedListener,
+        SearchView.OnQueryTextListener {
 
     interface OnCommentSelectedListener {
         void onCommentSelected(long commentId);
@@ -68,6 +72,7 @@ public class CommentsListFragment extends Fragment implements CommentAdapter.OnD
 
     private CommentAdapterState mCommentAdapterState;
 
+    private SearchView mSearchView;
 
     private boolean hasAdapter() {
         return (mAdapter != null);
@@ -86,6 +91,7 @@ public class CommentsListFragment extends Fragment implements CommentAdapter.OnD
     @Override
     public void onActivityCreated(Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
+        setHasOptionsMenu(true);
 
         Bundle extras = getActivity().getIntent().getExtras();
         if (extras != null) {
@@ -225,6 +231,53 @@ public class CommentsListFragment extends Fragment implements CommentAdapter.OnD
         }
     }
 
+    @Override
+    public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
+        super.onCreateOptionsMenu(menu, inflater);
+        inflater.inflate(R.menu.comments_list, menu);
+
+        MenuItem menuSearch = menu.findItem(R.id.menu_search);
+        mSearchView = (SearchView) menuSearch.getActionView();
+        mSearchView.setIconifiedByDefault(false);
+        mSearchView.setQueryHint(getString(R.string.search));
+        mSearchView.setOnQueryTextListener(this);
+
+        MenuItemCompat.setOnActionExpandListener(menuSearch, new MenuItemCompat.OnActionExpandListener() {
+            @Override
+            public boolean onMenuItemActionExpand(MenuItem item) {
+                return true;
+            }
+
+            @Override
+            public boolean onMenuItemActionCollapse(MenuItem item) {
+                WPActivityUtils.hideKeyboard(mSearchView);
+                searchComments(null);
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public boolean onQueryTextSubmit(String query) {
+        WPActivityUtils.hideKeyboard(mSearchView);
+        return true;
+    }
+
+    @Override
+    public boolean onQueryTextChange(String newText) {
+        searchComments(newText);
+        return true;
+    }
+
+    /*
+     * search the comments stored for the blog, pass null to show all of them again
+     */
+    private void searchComments(String searchTerm) {
+        if (!hasAdapter()) return;
+        getAdapter().setSearchTerm(searchTerm);
+        getAdapter().loadComments(mCommentStatusFilter);
+    }
+
     public void setCommentStatusFilter(CommentStatus statusFilter) {
         mCommentStatusFilter = statusFilter;
     }
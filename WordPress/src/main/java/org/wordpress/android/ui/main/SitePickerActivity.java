@@ -38,6 +38,9 @@ import org.wordpress.android.util.ToastUtils;
 import org.wordpress.android.util.WPActivityUtils;
 import org.xmlrpc.android.ApiHelper;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import de.greenrobot.event.EventBus;
 
 public class SitePickerActivity extends AppCompatActivity
@@ -234,36 +237,28 @@ public class SitePickerActivity extends AppCompatActivity
     }
 
     private void saveHiddenSites() {
-        WordPress.wpDB.getDatabase().beginTransaction();
-        try {
-            // make all sites visible...
-            WordPress.wpDB.setAllDotComBlogsVisibility(true);
-
-            // ...then update ones marked hidden in the adapter, but don't hide the current site
-            boolean skippedCurrentSite = false;
-            String currentSiteName = null;
-            SiteList hiddenSites = getAdapter().getHiddenSites();
-            for (SiteRecord site : hiddenSites) {
-                if (site.localId == mCurrentLocalId) {
-                    skippedCurrentSite = true;
-                    currentSiteName = site.getBlogNameOrHomeURL();
-                } else {
-                    WordPress.wpDB.setDotComBlogsVisibility(site.localId, false);
-                    StatsTable.deleteStatsForBlog(this, site.localId); // Remove stats data for hidden sites
-                }
-            }
-
-            // let user know the current site wasn't hidden
-            if (skippedCurrentSite) {
-                String cantHideCurrentSite = getString(R.string.site_picker_cant_hide_current_site);
-                ToastUtils.showToast(this,
-                        String.format(cantHideCurrentSite, currentSiteName),
-                        ToastUtils.Duration.LONG);
+        // make all sites visible except the ones marked hidden in the adapter, but don't hide the current site
+        boolean skippedCurrentSite = false;
+        String currentSiteName = null;
+        List<Integer> hiddenLocalIds = new ArrayList<>();
+        SiteList hiddenSites = getAdapter().getHiddenSites();
+        for (SiteRecord site : hiddenSites) {
+            if (site.localId == mCurrentLocalId) {
+                skippedCurrentSite = true;
+                currentSiteName = site.getBlogNameOrHomeURL();
+            } else {
+                hiddenLocalIds.add(site.localId);
+                StatsTable.deleteStatsForBlog(this, site.localId); // Remove stats data for hidden sites
             }
-
-            WordPress.wpDB.getDatabase().setTransactionSuccessful();
-        } finally {
-            WordPress.wpDB.getDatabase().endTransaction();
+        }
+        WordPress.wpDB.setHiddenDotComBlogs(hiddenLocalIds);
+
+        // let user know the current site wasn't hidden
+        if (skippedCurrentSite) {
+            String cantHideCurrentSite = getString(R.string.site_picker_cant_hide_current_site);
+            ToastUtils.showToast(this,
+                    String.format(cantHideCurrentSite, currentSiteName),
+                    ToastUtils.Duration.LONG);
         }
     }
 
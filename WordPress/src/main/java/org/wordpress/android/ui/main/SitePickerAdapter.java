@@ -15,19 +15,15 @@ import android.widget.TextView;
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.AccountHelper;
+import org.wordpress.android.models.BlogSummary;
 import org.wordpress.android.util.AppLog;
-import org.wordpress.android.util.BlogUtils;
 import org.wordpress.android.util.GravatarUtils;
-import org.wordpress.android.util.MapUtils;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.widgets.WPNetworkImageView;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 
 class SitePickerAdapter extends RecyclerView.Adapter<SitePickerAdapter.SiteViewHolder> {
 
@@ -181,8 +177,12 @@ class SitePickerAdapter extends RecyclerView.Adapter<SitePickerAdapter.SiteViewH
     }
 
     public void searchSites(String searchText) {
+        searchText = StringUtils.notNullStr(searchText);
+        // a search which narrows the previous one only needs to filter its results
+        boolean isNarrowing = mIsInSearchMode && mLastSearch.length() > 0
+                && searchText.toLowerCase(Locale.getDefault()).contains(mLastSearch.toLowerCase(Locale.getDefault()));
         mLastSearch = searchText;
-        mSites = filteredSitesByText(mAllSites);
+        mSites = filteredSitesByText(isNarrowing ? mSites : mAllSites);
 
         notifyDataSetChanged();
     }
@@ -340,13 +340,11 @@ class SitePickerAdapter extends RecyclerView.Adapter<SitePickerAdapter.SiteViewH
 
     private SiteList filteredSitesByText(SiteList sites) {
         SiteList filteredSiteList = new SiteList();
+        String searchLowerCase = mLastSearch.toLowerCase(Locale.getDefault());
 
         for (int i = 0; i < sites.size(); i++) {
             SiteRecord record = sites.get(i);
-            String siteNameLowerCase = record.blogName.toLowerCase();
-            String hostNameLowerCase = record.homeURL.toLowerCase();
-
-            if (siteNameLowerCase.contains(mLastSearch.toLowerCase()) || hostNameLowerCase.contains(mLastSearch.toLowerCase())) {
+            if (record.summary.matches(searchLowerCase)) {
                 filteredSiteList.add(record);
             }
         }
@@ -373,31 +371,24 @@ class SitePickerAdapter extends RecyclerView.Adapter<SitePickerAdapter.SiteViewH
 
         @Override
         protected Void doInBackground(Void... params) {
-            List<Map<String, Object>> blogs;
-            String[] extraFields = {"isHidden", "dotcomFlag", "homeURL"};
-
-            if (mIsInSearchMode) {
-                blogs = WordPress.wpDB.getBlogsBy(null, extraFields);
-            } else {
-                blogs = getBlogsForCurrentView(extraFields);
+            // the summaries are cached and already sorted by name
+            SiteList sites = new SiteList();
+            for (BlogSummary blogSummary : WordPress.wpDB.getBlogSummaries()) {
+                if (mIsInSearchMode || isInCurrentView(blogSummary)) {
+                    sites.add(new SiteRecord(blogSummary));
+                }
             }
 
-            SiteList sites = new SiteList(blogs);
-
-            // sort by blog/host
-            final long primaryBlogId = AccountHelper.getDefaultAccount().getPrimaryBlogId();
-            Collections.sort(sites, new Comparator<SiteRecord>() {
-                public int compare(SiteRecord site1, SiteRecord site2) {
-                    if (primaryBlogId > 0) {
-                        if (site1.blogId == primaryBlogId) {
-                            return -1;
-                        } else if (site2.blogId == primaryBlogId) {
-                            return 1;
-                        }
+            // show the primary blog first
+            long primaryBlogId = AccountHelper.getDefaultAccount().getPrimaryBlogId();
+            if (primaryBlogId > 0) {
+                for (int i = 0; i < sites.size(); i++) {
+                    if (sites.get(i).blogId == primaryBlogId) {
+                        sites.add(0, sites.remove(i));
+                        break;
                     }
-                    return site1.getBlogNameOrHomeURL().compareToIgnoreCase(site2.getBlogNameOrHomeURL());
                 }
-            });
+            }
 
             if (mSites == null || !mSites.isSameList(sites)) {
                 mAllSites = (SiteList) sites.clone();
@@ -413,23 +404,13 @@ class SitePickerAdapter extends RecyclerView.Adapter<SitePickerAdapter.SiteViewH
             mIsTaskRunning = false;
         }
 
-        private List<Map<String, Object>> getBlogsForCurrentView(String[] extraFields) {
+        private boolean isInCurrentView(BlogSummary blogSummary) {
             if (mShowHiddenSites) {
-                if (mShowSelfHostedSites) {
-                    // all self-hosted blogs and all wp.com blogs
-                    return WordPress.wpDB.getBlogsBy(null, extraFields);
-                } else {
-                    // only wp.com blogs
-                    return WordPress.wpDB.getBlogsBy("dotcomFlag=1", extraFields);
-                }
+                // all wp.com blogs, plus all self-hosted blogs if they're shown
+                return mShowSelfHostedSites || blogSummary.isDotcom();
             } else {
-                if (mShowSelfHostedSites) {
-                    // all self-hosted blogs plus visible wp.com blogs
-                    return WordPress.wpDB.getBlogsBy("dotcomFlag=0 OR (isHidden=0 AND dotcomFlag=1) ", extraFields);
-                } else {
-                    // only visible wp.com blogs
-                    return WordPress.wpDB.getBlogsBy("isHidden=0 AND dotcomFlag=1", extraFields);
-                }
+                // visible wp.com blogs, plus all self-hosted blogs if they're shown
+                return blogSummary.isDotcom() ? !blogSummary.isHidden() : mShowSelfHostedSites;
             }
         }
     }
@@ -445,17 +426,19 @@ class SitePickerAdapter extends RecyclerView.Adapter<SitePickerAdapter.SiteViewH
         final String url;
         final String blavatarUrl;
         final boolean isDotCom;
+        final BlogSummary summary;
         boolean isHidden;
 
-        SiteRecord(Map<String, Object> account) {
-            localId = MapUtils.getMapInt(account, "id");
-            blogId = MapUtils.getMapInt(account, "blogId");
-            blogName = BlogUtils.getBlogNameOrHomeURLFromAccountMap(account);
-            homeURL = BlogUtils.getHomeURLOrHostNameFromAccountMap(account);
-            url = MapUtils.getMapStr(account, "url");
+        SiteRecord(BlogSummary blogSummary) {
+            localId = blogSummary.getLocalTableBlogId();
+            blogId = blogSummary.getRemoteBlogId();
+            blogName = blogSummary.getBlogNameOrHomeURL();
+            homeURL = blogSummary.getHomeURLOrHostName();
+            url = blogSummary.getUrl();
             blavatarUrl = GravatarUtils.blavatarFromUrl(url, mBlavatarSz);
-            isDotCom = MapUtils.getMapBool(account, "dotcomFlag");
-            isHidden = MapUtils.getMapBool(account, "isHidden");
+            isDotCom = blogSummary.isDotcom();
+            isHidden = blogSummary.isHidden();
+            summary = blogSummary;
         }
 
         String getBlogNameOrHomeURL() {
@@ -468,22 +451,20 @@ class SitePickerAdapter extends RecyclerView.Adapter<SitePickerAdapter.SiteViewH
 
    static class SiteList extends ArrayList<SiteRecord> {
         SiteList() { }
-        SiteList(List<Map<String, Object>> accounts) {
-            if (accounts != null) {
-                for (Map<String, Object> account : accounts) {
-                    add(new SiteRecord(account));
-                }
-            }
-        }
 
+        /*
+         * both lists are sorted the same way, so they're compared site by site
+         */
         boolean isSameList(SiteList sites) {
             if (sites == null || sites.size() != this.size()) {
                 return false;
             }
-            int i;
-            for (SiteRecord site: sites) {
-                i = indexOfSite(site);
-                if (i == -1 || this.get(i).isHidden != site.isHidden) {
+            for (int i = 0; i < sites.size(); i++) {
+                SiteRecord site = sites.get(i);
+                SiteRecord thisSite = this.get(i);
+                if (site.localId != thisSite.localId
+                        || site.isHidden != thisSite.isHidden
+                        || !site.blogName.equals(thisSite.blogName)) {
                     return false;
                 }
             }
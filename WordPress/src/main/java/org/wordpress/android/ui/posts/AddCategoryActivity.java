@@ -97,8 +97,7 @@ public class AddCategoryActivity extends AppCompatActivity {
     }
 
     private void loadCategories() {
-        CategoryNode rootCategory = CategoryNode.createCategoryTreeFromDB(id);
-        ArrayList<CategoryNode> categoryLevels = CategoryNode.getSortedListOfCategoriesFromRoot(rootCategory);
+        ArrayList<CategoryNode> categoryLevels = CategoryNode.getSortedListOfCategories(id);
         categoryLevels.add(0, new CategoryNode(0, 0, getString(R.string.none)));
         if (categoryLevels.size() > 0) {
             ParentCategorySpinnerAdapter categoryAdapter = new ParentCategorySpinnerAdapter(this,
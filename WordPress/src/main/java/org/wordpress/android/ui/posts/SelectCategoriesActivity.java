@@ -38,6 +38,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 public class SelectCategoriesActivity extends AppCompatActivity {
@@ -48,7 +49,6 @@ public class SelectCategoriesActivity extends AppCompatActivity {
     private ListScrollPositionManager mListScrollPositionManager;
     private SwipeToRefreshHelper mSwipeToRefreshHelper;
     private HashSet<String> mSelectedCategories;
-    private CategoryNode mCategories;
     private ArrayList<CategoryNode> mCategoryLevels;
     private Map<String, Integer> mCategoryNames = new HashMap<String, Integer>();
     XMLRPCClientInterface mClient;
@@ -125,8 +125,7 @@ public class SelectCategoriesActivity extends AppCompatActivity {
     }
 
     private void populateCategoryList() {
-        mCategories = CategoryNode.createCategoryTreeFromDB(blog.getLocalTableBlogId());
-        mCategoryLevels = CategoryNode.getSortedListOfCategoriesFromRoot(mCategories);
+        mCategoryLevels = CategoryNode.getSortedListOfCategories(blog.getLocalTableBlogId());
         for (int i = 0; i < mCategoryLevels.size(); i++) {
             mCategoryNames.put(StringUtils.unescapeHTML(mCategoryLevels.get(i).getName()), i);
         }
@@ -187,9 +186,7 @@ public class SelectCategoriesActivity extends AppCompatActivity {
         }
 
         if (success) {
-            // wipe out the categories table
-            WordPress.wpDB.clearCategories(blog.getLocalTableBlogId());
-
+            List<CategoryNode> categories = new ArrayList<CategoryNode>();
             for (Object aResult : result) {
                 Map<?, ?> curHash = (Map<?, ?>) aResult;
                 String categoryName = curHash.get("categoryName").toString();
@@ -197,8 +194,11 @@ public class SelectCategoriesActivity extends AppCompatActivity {
                 String categoryParentID = curHash.get("parentId").toString();
                 int convertedCategoryID = Integer.parseInt(categoryID);
                 int convertedCategoryParentID = Integer.parseInt(categoryParentID);
-                WordPress.wpDB.insertCategory(blog.getLocalTableBlogId(), convertedCategoryID, convertedCategoryParentID, categoryName);
+                categories.add(new CategoryNode(convertedCategoryID, convertedCategoryParentID, categoryName));
             }
+
+            // replace the categories table
+            WordPress.wpDB.replaceCategories(blog.getLocalTableBlogId(), categories);
             returnMessage = "gotCategories";
         } else {
             returnMessage = "FAIL";
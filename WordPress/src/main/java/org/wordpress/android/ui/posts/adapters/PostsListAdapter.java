@@ -30,11 +30,11 @@ import org.wordpress.android.models.PostsListPostList;
 import org.wordpress.android.ui.posts.PostUtils;
 import org.wordpress.android.ui.posts.PostsListFragment;
 import org.wordpress.android.ui.posts.services.PostMediaService;
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.DisplayUtils;
+import org.wordpress.android.util.ListDiff;
 import org.wordpress.android.widgets.PostListButton;
 import org.wordpress.android.widgets.WPNetworkImageView;
 
@@ -68,6 +68,7 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
     private final boolean mAlwaysShowAllButtons;
 
     private boolean mIsLoadingPosts;
+    private boolean mCanLoadMoreLocalPosts;
 
     private final PostsListPostList mPosts = new PostsListPostList();
     private final LayoutInflater mLayoutInflater;
@@ -76,6 +77,10 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
 
     private static final long ROW_ANIM_DURATION = 150;
 
+    // posts are read from the db a page at a time, the next page is read when the user nears the end of the list
+    private static final int LOCAL_POSTS_PAGE_SIZE = 50;
+    private static final int LOCAL_POSTS_PREFETCH_DISTANCE = 10;
+
     private static final int VIEW_TYPE_POST_OR_PAGE = 0;
     private static final int VIEW_TYPE_ENDLIST_INDICATOR = 1;
 
@@ -263,8 +268,12 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
             }
         }
 
-        // load more posts when we near the end
-        if (mOnLoadMoreListener != null && position >= mPosts.size() - 1
+        // load more posts when we near the end, from the db first then from the server
+        if (mCanLoadMoreLocalPosts) {
+            if (position >= mPosts.size() - LOCAL_POSTS_PREFETCH_DISTANCE) {
+                loadMoreLocalPosts();
+            }
+        } else if (mOnLoadMoreListener != null && position >= mPosts.size() - 1
                 && position >= PostsListFragment.POSTS_REQUEST_COUNT - 1) {
             mOnLoadMoreListener.onLoadMore();
         }
@@ -502,7 +511,16 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
         if (mIsLoadingPosts) {
             AppLog.d(AppLog.T.POSTS, "post adapter > already loading posts");
         } else {
-            new LoadPostsTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            new LoadPostsTask(false).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        }
+    }
+
+    /*
+     * reads the next page of posts from the db and appends it to the list
+     */
+    private void loadMoreLocalPosts() {
+        if (!mIsLoadingPosts && mPosts.size() > 0) {
+            new LoadPostsTask(true).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
         }
     }
 
@@ -634,13 +652,32 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
     }
 
     private class LoadPostsTask extends AsyncTask<Void, Void, Boolean> {
+        private final boolean mIsLoadingMore;
         private PostsListPostList tmpPosts;
         private final ArrayList<Long> mediaIdsToUpdate = new ArrayList<>();
+        private PostsListPost mAfterPost;
+        private int mLimit;
+        private boolean mCanLoadMore;
+        private PostsListPostList mOldPosts;
+        private ListDiff mDiff;
+
+        LoadPostsTask(boolean isLoadingMore) {
+            mIsLoadingMore = isLoadingMore;
+        }
 
         @Override
         protected void onPreExecute() {
             super.onPreExecute();
             mIsLoadingPosts = true;
+            if (mIsLoadingMore) {
+                mAfterPost = mPosts.get(mPosts.size() - 1);
+                mLimit = LOCAL_POSTS_PAGE_SIZE;
+            } else {
+                // reload at least as many posts as are shown so the list doesn't shrink under the user
+                mLimit = Math.max(LOCAL_POSTS_PAGE_SIZE, mPosts.size() + mHiddenPosts.size());
+                // the posts are diffed off the main thread, so diff a copy of the list
+                mOldPosts = (PostsListPostList) mPosts.clone();
+            }
         }
 
         @Override
@@ -651,7 +688,8 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
 
         @Override
         protected Boolean doInBackground(Void... nada) {
-            tmpPosts = WordPress.wpDB.getPostsListPosts(mLocalTableBlogId, mIsPage);
+            tmpPosts = WordPress.wpDB.getPostsListPosts(mLocalTableBlogId, mIsPage, mAfterPost, mLimit);
+            mCanLoadMore = tmpPosts.size() == mLimit;
 
             // make sure we don't return any hidden posts
             for (PostsListPost hiddenPost : mHiddenPosts) {
@@ -659,8 +697,11 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
             }
 
             // go no further if existing post list is the same
-            if (mPosts.isSameList(tmpPosts)) {
-                return false;
+            if (!mIsLoadingMore) {
+                mDiff = ListDiff.calculate(mOldPosts, tmpPosts, PostsListPostList.DIFF_CALLBACK);
+                if (mDiff.isEmpty()) {
+                    return false;
+                }
             }
 
             // generate the featured image url for each post
@@ -675,9 +716,9 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
                     if (TextUtils.isEmpty(imageUrl)) {
                         mediaIdsToUpdate.add(post.getFeaturedImageId());
                     }
-                } else if (post.hasDescription()) {
-                    ReaderImageScanner scanner = new ReaderImageScanner(post.getDescription(), mIsPrivateBlog);
-                    imageUrl = scanner.getLargestImage();
+                } else if (post.hasContentImageUrl()) {
+                    // largest image in the content, found when the post was saved
+                    imageUrl = post.getContentImageUrl();
                 } else {
                     imageUrl = null;
                 }
@@ -697,10 +738,23 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
 
         @Override
         protected void onPostExecute(Boolean result) {
+            mCanLoadMoreLocalPosts = mCanLoadMore;
+
             if (result) {
-                mPosts.clear();
-                mPosts.addAll(tmpPosts);
-                notifyDataSetChanged();
+                if (mIsLoadingMore) {
+                    int positionStart = mPosts.size();
+                    mPosts.addAll(tmpPosts);
+                    notifyItemRangeInserted(positionStart, tmpPosts.size());
+                } else {
+                    boolean canDispatchDiff = canDispatchDiff();
+                    mPosts.clear();
+                    mPosts.addAll(tmpPosts);
+                    if (canDispatchDiff) {
+                        mDiff.dispatchUpdatesTo(PostsListAdapter.this, 0);
+                    } else {
+                        notifyDataSetChanged();
+                    }
+                }
 
                 if (mediaIdsToUpdate.size() > 0) {
                     PostMediaService.startService(WordPress.getContext(), mLocalTableBlogId, mediaIdsToUpdate);
@@ -713,6 +767,23 @@ public class PostsListAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
                 mOnPostsLoadedListener.onPostsLoaded(mPosts.size());
             }
         }
+
+        /*
+         * the diff only applies if the posts weren't changed while loading, and the list is shown both before
+         * and after (the endlist indicator is only shown with posts). Pages are always rebound since their date
+         * header depends on the previous page.
+         */
+        private boolean canDispatchDiff() {
+            if (mIsPage || mOldPosts.isEmpty() || tmpPosts.isEmpty() || mPosts.size() != mOldPosts.size()) {
+                return false;
+            }
+            for (int i = 0; i < mPosts.size(); i++) {
+                if (mPosts.get(i) != mOldPosts.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
 }
@@ -9,9 +9,11 @@ import android.support.annotation.Nullable;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Blog;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.MapUtils;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlrpc.android.ApiHelper;
 import org.xmlrpc.android.ApiHelper.Method;
+import org.xmlrpc.android.XMLRPCArrayVisitor;
 import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCException;
 import org.xmlrpc.android.XMLRPCFactory;
@@ -19,8 +21,10 @@ import org.xmlrpc.android.XMLRPCFault;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import de.greenrobot.event.EventBus;
 
@@ -35,6 +39,7 @@ public class PostUpdateService extends Service {
     private static final String ARG_IS_PAGE = "is_page";
 
     private static final int NUM_POSTS_TO_REQUEST = 20;
+    private static final int POSTS_SAVE_BATCH_SIZE = 10;
 
     /*
      * fetch posts/pages in a specific blog
@@ -82,7 +87,7 @@ public class PostUpdateService extends Service {
         return START_NOT_STICKY;
     }
 
-    private void fetchPostsInBlog(int blogId, boolean isPage, boolean loadMore) {
+    private void fetchPostsInBlog(final int blogId, final boolean isPage, boolean loadMore) {
         Blog blog = WordPress.getBlog(blogId);
         if (blog == null) {
             return;
@@ -94,46 +99,57 @@ public class PostUpdateService extends Service {
                 blog.getHttppassword());
 
         int numPostsToRequest;
+        // If we're loading more posts, only save the posts at the end of the array.
+        // NOTE: Switching to wp.getPosts wouldn't require janky solutions like this
+        // since it allows for an offset parameter.
+        final int numPostsToSkip;
         if (loadMore) {
-            int numExisting = WordPress.wpDB.getUploadedCountInBlog(blogId, isPage);
-            numPostsToRequest = numExisting + NUM_POSTS_TO_REQUEST;
+            numPostsToSkip = WordPress.wpDB.getUploadedCountInBlog(blogId, isPage);
+            numPostsToRequest = numPostsToSkip + NUM_POSTS_TO_REQUEST;
         } else {
+            numPostsToSkip = 0;
             numPostsToRequest = NUM_POSTS_TO_REQUEST;
         }
 
-        Object[] result;
         Object[] xmlrpcParams = {
                 blog.getRemoteBlogId(),
                 blog.getUsername(),
                 blog.getPassword(),
                 numPostsToRequest};
 
+        // posts are saved in small batches while the response is being parsed
+        final List<Map<?, ?>> postsBatch = new ArrayList<>(POSTS_SAVE_BATCH_SIZE);
+        final Set<String> receivedPostIds = new HashSet<>();
+        XMLRPCArrayVisitor visitor = new XMLRPCArrayVisitor() {
+            @Override
+            public void onArrayElement(int index, Object element) {
+                if (index < numPostsToSkip || !(element instanceof Map)) {
+                    return;
+                }
+                Map<?, ?> postMap = (Map<?, ?>) element;
+                receivedPostIds.add(MapUtils.getMapStr(postMap, isPage ? "page_id" : "postid"));
+                postsBatch.add(postMap);
+                if (postsBatch.size() >= POSTS_SAVE_BATCH_SIZE) {
+                    WordPress.wpDB.savePosts(postsBatch, blogId, isPage, false);
+                    postsBatch.clear();
+                }
+            }
+        };
+
         PostEvents.RequestPosts event = new PostEvents.RequestPosts(blogId, isPage);
         try {
             boolean canLoadMore;
 
-            result = (Object[]) client.call(isPage ? Method.GET_PAGES : "metaWeblog.getRecentPosts", xmlrpcParams);
-            if (result != null && result.length > 0) {
+            int count = client.callStreaming(isPage ? Method.GET_PAGES : "metaWeblog.getRecentPosts", xmlrpcParams,
+                    visitor);
+            if (count > 0) {
                 canLoadMore = true;
 
-                // If we're loading more posts, only save the posts at the end of the array.
-                // NOTE: Switching to wp.getPosts wouldn't require janky solutions like this
-                // since it allows for an offset parameter.
-                int startPosition = 0;
-                if (loadMore && result.length > NUM_POSTS_TO_REQUEST) {
-                    startPosition = result.length - NUM_POSTS_TO_REQUEST;
-                }
-
-                List<Map<?, ?>> postsList = new ArrayList<>();
-                for (int ctr = startPosition; ctr < result.length; ctr++) {
-                    Map<?, ?> postMap = (Map<?, ?>) result[ctr];
-                    postsList.add(postMap);
-                }
-
+                WordPress.wpDB.savePosts(postsBatch, blogId, isPage, false);
                 if (!loadMore) {
-                    WordPress.wpDB.deleteUploadedPosts(blogId, isPage);
+                    // remove the uploaded posts that aren't on the server anymore
+                    WordPress.wpDB.deleteUploadedPostsNotIn(blogId, isPage, receivedPostIds);
                 }
-                WordPress.wpDB.savePosts(postsList, blogId, isPage, false);
             } else {
                 canLoadMore = false;
             }
@@ -48,6 +48,7 @@ import org.wordpress.android.util.helpers.MediaFile;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlrpc.android.ApiHelper;
 import org.xmlrpc.android.ApiHelper.Method;
+import org.xmlrpc.android.XMLRPCChunkedUpload;
 import org.xmlrpc.android.XMLRPCClient;
 import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCException;
@@ -611,6 +612,8 @@ public class PostUploadService extends Service {
                     // upload resized picture
                     if (!TextUtils.isEmpty(tempFilePath)) {
                         resizedMediaFile.setFilePath(tempFilePath);
+                        // the temp file isn't tracked in the media table, its upload can't be resumed
+                        resizedMediaFile.setId(0);
                         Map<String, Object> parameters = new HashMap<String, Object>();
 
                         parameters.put("name", fileName);
@@ -681,7 +684,10 @@ public class PostUploadService extends Service {
                     int mimeTypeColumn = cur.getColumnIndex(Video.Media.MIME_TYPE);
                     int resolutionColumn = cur.getColumnIndex(Video.Media.RESOLUTION);
 
+                    // keep the media row id so an interrupted upload can be resumed
+                    int mediaRowId = mediaFile.getId();
                     mediaFile = new MediaFile();
+                    mediaFile.setId(mediaRowId);
 
                     String thumbData = cur.getString(dataColumn);
                     mimeType = cur.getString(mimeTypeColumn);
@@ -731,16 +737,7 @@ public class PostUploadService extends Service {
 
             Object[] params = {1, mBlog.getUsername(), mBlog.getPassword(), m};
 
-            File tempFile;
-            try {
-                String fileExtension = MimeTypeMap.getFileExtensionFromUrl(videoName);
-                tempFile = createTempUploadFile(fileExtension);
-            } catch (IOException e) {
-                mErrorMessage = getResources().getString(R.string.file_error_create);
-                return null;
-            }
-
-            Object result = uploadFileHelper(params, tempFile);
+            Object result = uploadFileHelper(params);
             Map<?, ?> resultMap = (HashMap<?, ?>) result;
             if (resultMap != null && resultMap.containsKey("url")) {
                 String resultURL = resultMap.get("url").toString();
@@ -769,19 +766,8 @@ public class PostUploadService extends Service {
         }
 
         private String uploadImageFile(Map<String, Object> pictureParams, MediaFile mf, Blog blog) {
-            // create temporary upload file
-            File tempFile;
-            try {
-                String fileExtension = MimeTypeMap.getFileExtensionFromUrl(mf.getFileName());
-                tempFile = createTempUploadFile(fileExtension);
-            } catch (IOException e) {
-                mIsMediaError = true;
-                mErrorMessage = mContext.getString(R.string.file_not_found);
-                return null;
-            }
-
             Object[] params = {1, blog.getUsername(), blog.getPassword(), pictureParams};
-            Object result = uploadFileHelper(params, tempFile);
+            Object result = uploadFileHelper(params);
             if (result == null) {
                 mIsMediaError = true;
                 return null;
@@ -805,24 +791,28 @@ public class PostUploadService extends Service {
             return pictureURL;
         }
 
-        private Object uploadFileHelper(Object[] params, final File tempFile) {
+        private Object uploadFileHelper(Object[] params) {
             // Create listener for tracking upload progress in the notification
             if (mClient instanceof XMLRPCClient) {
                 XMLRPCClient xmlrpcClient = (XMLRPCClient) mClient;
                 xmlrpcClient.setOnBytesUploadedListener(new XMLRPCClient.OnBytesUploadedListener() {
                     @Override
-                    public void onBytesUploaded(long uploadedBytes) {
-                        if (tempFile.length() == 0) {
+                    public void onBytesUploaded(long uploadedBytes, long totalBytes) {
+                        if (totalBytes == 0) {
                             return;
                         }
-                        float percentage = (uploadedBytes * 100) / tempFile.length();
+                        float percentage = (uploadedBytes * 100) / totalBytes;
                         mPostUploadNotifier.updateNotificationProgress(percentage);
                     }
                 });
             }
 
             try {
-                return mClient.call(Method.UPLOAD_FILE, params, tempFile);
+                Map<?, ?> chunkedUploadResult = uploadFileInChunks(params);
+                if (chunkedUploadResult != null) {
+                    return chunkedUploadResult;
+                }
+                return mClient.call(Method.UPLOAD_FILE, params);
             } catch (XMLRPCException e) {
                 // well formed XML-RPC response from the server, but it's an error. Ok to print the error message
                 AppLog.e(T.API, e);
@@ -838,17 +828,50 @@ public class PostUploadService extends Service {
                 AppLog.e(T.API, e);
                 mErrorMessage = mContext.getResources().getString(R.string.error_media_upload);
                 return null;
-            } finally {
-                // remove the temporary upload file now that we're done with it
-                if (tempFile != null && tempFile.exists()) {
-                    tempFile.delete();
-                }
             }
         }
-    }
 
-    private File createTempUploadFile(String fileExtension) throws IOException {
-        return File.createTempFile("wp-", fileExtension, mContext.getCacheDir());
+        /**
+         * Upload large files in chunks if the blog supports it. The progress is saved in the media table, so an
+         * upload interrupted by a network loss or by the app being killed resumes where it stopped next time.
+         *
+         * @return the wp.uploadFile result, or null if the file must be uploaded in a single call
+         */
+        private Map<?, ?> uploadFileInChunks(Object[] params)
+                throws XMLRPCException, IOException, XmlPullParserException {
+            Map<?, ?> data = (Map<?, ?>) params[3];
+            MediaFile mediaFile = (MediaFile) data.get("bits");
+            final File file = new File(mediaFile.getFilePath());
+            // wordpress.com doesn't offer wp.uploadFileChunk
+            if (mBlog.isDotcomFlag() || !XMLRPCChunkedUpload.shouldUploadInChunks(mBlog.getUrl(), file)) {
+                return null;
+            }
+
+            final int mediaRowId = mediaFile.getId();
+            XMLRPCChunkedUpload.Progress progress = null;
+            if (mediaRowId > 0) {
+                progress = WordPress.wpDB.getMediaChunkedUploadProgress(mediaRowId, file.getPath());
+            }
+            XMLRPCChunkedUpload upload = new XMLRPCChunkedUpload(mClient, mBlog.getUrl(), params[0],
+                    (String) params[1], (String) params[2], file, (String) data.get("name"),
+                    (String) data.get("type"));
+            Map<?, ?> result = upload.upload(progress, new XMLRPCChunkedUpload.Listener() {
+                @Override
+                public void onChunkUploaded(String uploadId, long uploadedBytes, long totalBytes) {
+                    if (mediaRowId > 0) {
+                        WordPress.wpDB.updateMediaChunkedUploadProgress(mediaRowId, file.getPath(), uploadId,
+                                uploadedBytes);
+                    }
+                    if (totalBytes > 0) {
+                        mPostUploadNotifier.updateNotificationProgress((uploadedBytes * 100) / totalBytes);
+                    }
+                }
+            });
+            if (result != null && mediaRowId > 0) {
+                WordPress.wpDB.clearMediaChunkedUploadProgress(mediaRowId);
+            }
+            return result;
+        }
     }
 
     private class PostUploadNotifier {
@@ -14,6 +14,7 @@ import org.wordpress.android.util.AnalyticsUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.MapUtils;
 import org.xmlrpc.android.ApiHelper.Method;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
 import org.xmlrpc.android.XMLRPCCallback;
 import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCException;
@@ -140,7 +141,8 @@ class SelfHostedSiteSettings extends SiteSettingsInterface {
 
                 // Need two interfaces or the first call gets aborted
                 instantiateInterface().callAsync(mOptionsCallback, Method.GET_OPTIONS, params);
-                instantiateInterface().callAsync(mCategoriesCallback, Method.GET_CATEGORIES, params);
+                instantiateInterface().callAsync(mCategoriesCallback, Method.GET_CATEGORIES, params,
+                        Priority.BACKGROUND);
             }
         }.start();
     }
@@ -18,6 +18,7 @@ import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.WPPrefUtils;
 import org.xmlrpc.android.ApiHelper.Method;
 import org.xmlrpc.android.ApiHelper.Param;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
 import org.xmlrpc.android.XMLRPCCallback;
 import org.xmlrpc.android.XMLRPCClientInterface;
 import org.xmlrpc.android.XMLRPCFactory;
@@ -824,7 +825,7 @@ public abstract class SiteSettingsInterface {
             @Override
             public void onFailure(long id, Exception error) {
             }
-        }, Method.GET_POST_FORMATS, params);
+        }, Method.GET_POST_FORMATS, params, Priority.BACKGROUND);
     }
 
     /**
@@ -215,6 +215,19 @@ public class ReaderPostDetailFragment extends Fragment
         return (mPost != null);
     }
 
+    /*
+     * reloads the post after its counts or like status have changed - the text isn't read again
+     * since it's stored compressed outside of the post table, instead it's kept from the post
+     * already shown (which is also the post whose text is changed by ReaderPostActions.updatePost)
+     */
+    private void reloadPost() {
+        ReaderPost post = ReaderPostTable.getPost(mBlogId, mPostId, true);
+        if (post != null && hasPost()) {
+            post.setText(mPost.getText());
+        }
+        mPost = post;
+    }
+
     @Override
     public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
         super.onCreateOptionsMenu(menu, inflater);
@@ -346,7 +359,7 @@ public class ReaderPostDetailFragment extends Fragment
         }
 
         // get the post again since it has changed, then refresh to show changes
-        mPost = ReaderPostTable.getPost(mBlogId, mPostId, false);
+        reloadPost();
         refreshLikes();
         refreshIconCounts();
 
@@ -437,6 +450,9 @@ public class ReaderPostDetailFragment extends Fragment
         mHasAlreadyRequestedPost = false;
         mHasAlreadyUpdatedPost = false;
 
+        // posts navigated to through the post history aren't tracked by the pager, so record the view here
+        ReaderPostTable.setPostViewed(blogId, postId);
+
         // hide views that would show info for the previous post - these will be re-displayed
         // with the correct info once the new post loads
         getView().findViewById(R.id.container_related_posts).setVisibility(View.GONE);
@@ -561,7 +577,7 @@ public class ReaderPostDetailFragment extends Fragment
                 }
                 // if the post has changed, reload it from the db and update the like/comment counts
                 if (result.isNewOrChanged()) {
-                    mPost = ReaderPostTable.getPost(mBlogId, mPostId, false);
+                    reloadPost();
                     refreshIconCounts();
                 }
                 // refresh likes if necessary - done regardless of whether the post has changed
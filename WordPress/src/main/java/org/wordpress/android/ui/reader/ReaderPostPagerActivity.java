@@ -259,6 +259,9 @@ public class ReaderPostPagerActivity extends AppCompatActivity
         // bump the page view
         ReaderPostActions.bumpPageViewForPost(idPair.getBlogId(), idPair.getPostId());
 
+        // record the view so the post is kept when the reader cache is purged
+        ReaderPostTable.setPostViewed(idPair.getBlogId(), idPair.getPostId());
+
         // analytics tracking
         AnalyticsUtils.trackWithReaderPostDetails(
                 AnalyticsTracker.Stat.READER_ARTICLE_OPENED,
@@ -472,8 +472,8 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
             mMoreCommentsExist = tmpMoreCommentsExist;
 
             if (result) {
-                // assign the comments with children sorted under their parents and indent levels applied
-                mComments = ReaderCommentList.getLevelList(tmpComments);
+                // comments are stored with children sorted under their parents and indent levels applied
+                mComments = tmpComments;
                 notifyDataSetChanged();
             }
             if (mDataLoadedListener != null) {
@@ -39,6 +39,7 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.GravatarUtils;
+import org.wordpress.android.util.ListDiff;
 import org.wordpress.android.util.NetworkUtils;
 import org.wordpress.android.util.ToastUtils;
 import org.wordpress.android.widgets.WPNetworkImageView;
@@ -439,7 +440,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         if (post.hasAttachments() || post.isGallery()) {
             holder.thumbnailStrip.loadThumbnails(post.blogId, post.postId, post.isPrivate);
         } else {
-            holder.thumbnailStrip.setVisibility(View.GONE);
+            holder.thumbnailStrip.hideThumbnails();
         }
 
         holder.cardView.setOnClickListener(new View.OnClickListener() {
@@ -808,10 +809,15 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
     private class LoadPostsTask extends AsyncTask<Void, Void, Boolean> {
         ReaderPostList allPosts;
+        private ReaderPostList mOldPosts;
+        private ListDiff mDiff;
+        private int mNewGapMarkerPosition = -1;
 
         @Override
         protected void onPreExecute() {
             mIsTaskRunning = true;
+            // the posts are diffed off the main thread, so diff a copy of the list
+            mOldPosts = (ReaderPostList) mPosts.clone();
         }
 
         @Override
@@ -842,7 +848,8 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
                     return false;
             }
 
-            if (mPosts.isSameList(allPosts)) {
+            mDiff = ListDiff.calculate(mOldPosts, allPosts, ReaderPostList.DIFF_CALLBACK);
+            if (mDiff.isEmpty()) {
                 return false;
             }
 
@@ -851,7 +858,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
             mCanRequestMorePosts = (numExisting < ReaderConstants.READER_MAX_POSTS_TO_DISPLAY);
 
             // determine whether a gap marker exists - only applies to tagged posts
-            mGapMarkerPosition = getGapMarkerPosition();
+            mNewGapMarkerPosition = getGapMarkerPosition();
 
             return true;
         }
@@ -891,9 +898,22 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
         @Override
         protected void onPostExecute(Boolean result) {
             if (result) {
+                // the diff only applies if the posts weren't changed while loading, and the gap marker (which
+                // shifts the positions of the posts after it) isn't shown
+                boolean canDispatchDiff = mGapMarkerPosition == -1 && mNewGapMarkerPosition == -1
+                        && mPosts.size() == mOldPosts.size();
+                for (int i = 0; canDispatchDiff && i < mPosts.size(); i++) {
+                    canDispatchDiff = (mPosts.get(i) == mOldPosts.get(i));
+                }
+
+                mGapMarkerPosition = mNewGapMarkerPosition;
                 mPosts.clear();
                 mPosts.addAll(allPosts);
-                notifyDataSetChanged();
+                if (canDispatchDiff) {
+                    mDiff.dispatchUpdatesTo(ReaderPostAdapter.this, hasCustomFirstItem() ? 1 : 0);
+                } else {
+                    notifyDataSetChanged();
+                }
             }
 
             if (mDataLoadedListener != null) {
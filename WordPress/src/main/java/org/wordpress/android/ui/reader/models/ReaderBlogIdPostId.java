@@ -20,4 +20,21 @@ public class ReaderBlogIdPostId implements Serializable {
     public long getPostId() {
         return postId;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof ReaderBlogIdPostId)) {
+            return false;
+        }
+        ReaderBlogIdPostId ids = (ReaderBlogIdPostId) other;
+        return ids.blogId == this.blogId && ids.postId == this.postId;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (blogId ^ (blogId >>> 32)) * 31 + (int) (postId ^ (postId >>> 32));
+    }
 }
@@ -0,0 +1,45 @@
+package org.wordpress.android.ui.reader.models;
+
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Result of comparing posts returned by the server with the ones stored in ReaderPostTable, tells whether they need
+ * to be written and whether they overlap the stored ones
+ */
+public class ReaderPostChanges {
+    private final UpdateResult mUpdateResult;
+    // compared posts which are already stored
+    private final Set<ReaderBlogIdPostId> mExistingPosts;
+    // compared posts which are new or differ from the stored ones
+    private final Set<ReaderBlogIdPostId> mChangedPosts;
+
+    public ReaderPostChanges(UpdateResult updateResult,
+                             Set<ReaderBlogIdPostId> existingPosts,
+                             Set<ReaderBlogIdPostId> changedPosts) {
+        mUpdateResult = updateResult;
+        mExistingPosts = Collections.unmodifiableSet(existingPosts);
+        mChangedPosts = Collections.unmodifiableSet(changedPosts);
+    }
+
+    public UpdateResult getUpdateResult() {
+        return mUpdateResult;
+    }
+
+    /*
+     * returns true if any of the compared posts is already stored
+     */
+    public boolean hasOverlap() {
+        return !mExistingPosts.isEmpty();
+    }
+
+    /*
+     * returns true if the passed post is new or differs from the stored one, so its row needs to be written
+     */
+    public boolean isChanged(ReaderPost post) {
+        return mChangedPosts.contains(new ReaderBlogIdPostId(post.blogId, post.postId));
+    }
+}
@@ -11,6 +11,7 @@ import com.wordpress.rest.RestRequest;
 
 import org.json.JSONObject;
 import org.wordpress.android.WordPress;
+import org.wordpress.android.datasets.ReaderDatabase;
 import org.wordpress.android.datasets.ReaderPostTable;
 import org.wordpress.android.datasets.ReaderTagTable;
 import org.wordpress.android.models.ReaderPost;
@@ -21,6 +22,7 @@ import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
 import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
 import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResultListener;
+import org.wordpress.android.ui.reader.models.ReaderPostChanges;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.StringUtils;
@@ -287,50 +289,61 @@ public class ReaderPostService extends Service {
         new Thread() {
             @Override
             public void run() {
-                ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
-                UpdateResult updateResult = ReaderPostTable.comparePosts(serverPosts);
-                if (updateResult.isNewOrChanged()) {
-                    // gap detection - only applies to posts with a specific tag
-                    ReaderPost postWithGap = null;
-                    if (tag != null) {
-                        switch (updateAction) {
-                            case REQUEST_NEWER:
-                                // if there's no overlap between server and local (ie: all server
-                                // posts are new), assume there's a gap between server and local
-                                // provided that local posts exist
-                                int numServerPosts = serverPosts.size();
-                                if (numServerPosts >= 2
-                                        && ReaderPostTable.getNumPostsWithTag(tag) > 0
-                                        && !ReaderPostTable.hasOverlap(serverPosts)) {
-                                    // treat the second to last server post as having a gap
-                                    postWithGap = serverPosts.get(numServerPosts - 2);
-                                    // remove the last server post to deal with the edge case of
-                                    // there actually not being a gap between local & server
-                                    serverPosts.remove(numServerPosts - 1);
-                                    AppLog.d(AppLog.T.READER, "added gap marker to tag " + tag.getTagNameForLog());
+                final ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
+                // a single query tells whether any posts are new or changed
+                final ReaderPostChanges postChanges = ReaderPostTable.getPostChanges(tag, serverPosts);
+                final UpdateResult updateResult = postChanges.getUpdateResult();
+                // the gap marker and the posts are written together so readers never see one without the other
+                ReaderDatabase.getWriter().executeAndWait(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (updateResult.isNewOrChanged()) {
+                            // works on a copy so running this again doesn't trim the server posts twice
+                            ReaderPostList postsToSave = (ReaderPostList) serverPosts.clone();
+                            // gap detection - only applies to posts with a specific tag
+                            ReaderPost postWithGap = null;
+                            if (tag != null) {
+                                switch (updateAction) {
+                                    case REQUEST_NEWER:
+                                        // if there's no overlap between server and local (ie: all server
+                                        // posts are new), assume there's a gap between server and local
+                                        // provided that local posts exist
+                                        int numServerPosts = postsToSave.size();
+                                        if (numServerPosts >= 2
+                                                && ReaderPostTable.getNumPostsWithTag(tag) > 0
+                                                && !postChanges.hasOverlap()) {
+                                            // treat the second to last server post as having a gap
+                                            postWithGap = postsToSave.get(numServerPosts - 2);
+                                            // remove the last server post to deal with the edge case of
+                                            // there actually not being a gap between local & server
+                                            postsToSave.remove(numServerPosts - 1);
+                                            AppLog.d(AppLog.T.READER, "added gap marker to tag " + tag.getTagNameForLog());
+                                        }
+                                        ReaderPostTable.removeGapMarkerForTag(tag);
+                                        break;
+                                    case REQUEST_OLDER_THAN_GAP:
+                                        // if service was started as a request to fill a gap, delete existing posts
+                                        // before the one with the gap marker, then remove the existing gap marker
+                                        ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
+                                        ReaderPostTable.removeGapMarkerForTag(tag);
+                                        break;
                                 }
-                                ReaderPostTable.removeGapMarkerForTag(tag);
-                                break;
-                            case REQUEST_OLDER_THAN_GAP:
-                                // if service was started as a request to fill a gap, delete existing posts
-                                // before the one with the gap marker, then remove the existing gap marker
-                                ReaderPostTable.deletePostsBeforeGapMarkerForTag(tag);
-                                ReaderPostTable.removeGapMarkerForTag(tag);
-                                break;
+                            }
+
+                            ReaderPostTable.addOrUpdatePosts(tag, postsToSave, postChanges);
+
+                            // gap marker must be set after saving server posts
+                            if (postWithGap != null) {
+                                ReaderPostTable.setGapMarkerForTag(postWithGap.blogId, postWithGap.postId, tag);
+                            }
+                        } else if (updateResult == UpdateResult.UNCHANGED && updateAction == UpdateAction.REQUEST_OLDER_THAN_GAP) {
+                            // edge case - request to fill gap returned nothing new, so remove the gap marker
+                            ReaderPostTable.removeGapMarkerForTag(tag);
+                            AppLog.w(AppLog.T.READER, "attempt to fill gap returned nothing new");
                         }
                     }
+                });
 
-                    ReaderPostTable.addOrUpdatePosts(tag, serverPosts);
-
-                    // gap marker must be set after saving server posts
-                    if (postWithGap != null) {
-                        ReaderPostTable.setGapMarkerForTag(postWithGap.blogId, postWithGap.postId, tag);
-                    }
-                } else if (updateResult == UpdateResult.UNCHANGED && updateAction == UpdateAction.REQUEST_OLDER_THAN_GAP) {
-                    // edge case - request to fill gap returned nothing new, so remove the gap marker
-                    ReaderPostTable.removeGapMarkerForTag(tag);
-                    AppLog.w(AppLog.T.READER, "attempt to fill gap returned nothing new");
-                }
                 AppLog.d(AppLog.T.READER, "requested posts response = " + updateResult.toString());
                 resultListener.onUpdateResult(updateResult);
             }
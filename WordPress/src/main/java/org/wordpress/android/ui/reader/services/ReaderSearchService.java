@@ -17,6 +17,7 @@ import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagType;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
+import org.wordpress.android.ui.reader.models.ReaderPostChanges;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.StringUtils;
@@ -112,8 +113,10 @@ public class ReaderSearchService extends Service {
             @Override
             public void run() {
                 ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
-                if (ReaderPostTable.comparePosts(serverPosts).isNewOrChanged()) {
-                    ReaderPostTable.addOrUpdatePosts(getTagForSearchQuery(query), serverPosts);
+                ReaderTag tag = getTagForSearchQuery(query);
+                ReaderPostChanges postChanges = ReaderPostTable.getPostChanges(tag, serverPosts);
+                if (postChanges.getUpdateResult().isNewOrChanged()) {
+                    ReaderPostTable.addOrUpdatePosts(tag, serverPosts, postChanges);
                 }
                 EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, true));
             }
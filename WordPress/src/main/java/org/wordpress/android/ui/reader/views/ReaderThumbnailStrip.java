@@ -3,6 +3,7 @@ package org.wordpress.android.ui.reader.views;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.os.Build;
+import android.os.Handler;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -36,6 +37,10 @@ public class ReaderThumbnailStrip extends LinearLayout {
     private int mMaxImageCount;
     private String mCountStr;
 
+    // post whose thumbnails are shown or being loaded, since the view is recycled while the text is read
+    private long mBlogId;
+    private long mPostId;
+
     public ReaderThumbnailStrip(Context context) {
         super(context);
         initView(context);
@@ -76,14 +81,50 @@ public class ReaderThumbnailStrip extends LinearLayout {
         }
     }
 
-    public void loadThumbnails(long blogId, long postId, final boolean isPrivate) {
+    public void loadThumbnails(final long blogId, final long postId, final boolean isPrivate) {
+        // hide the thumbnails of the post this view was previously bound to
+        if (blogId != mBlogId || postId != mPostId) {
+            mContainer.removeAllViews();
+            mView.setVisibility(View.GONE);
+            mBlogId = blogId;
+            mPostId = postId;
+        }
+
+        // the post's text is read from storage, so it's scanned for gallery images in the background
+        final Handler handler = new Handler();
+        new Thread() {
+            @Override
+            public void run() {
+                final String content = ReaderPostTable.getPostText(blogId, postId);
+                final ReaderImageList imageList =
+                        new ReaderImageScanner(content, isPrivate).getGalleryImageList();
+
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (blogId == mBlogId && postId == mPostId) {
+                            showThumbnails(content, imageList, isPrivate);
+                        }
+                    }
+                });
+            }
+        }.start();
+    }
+
+    /*
+     * hides the strip when the view is bound to a post without a gallery, and drops any pending load
+     */
+    public void hideThumbnails() {
+        mBlogId = 0;
+        mPostId = 0;
+        mContainer.removeAllViews();
+        mView.setVisibility(View.GONE);
+    }
+
+    private void showThumbnails(final String content, final ReaderImageList imageList, final boolean isPrivate) {
         // get rid of any views already added
         mContainer.removeAllViews();
 
-        // get this post's content and scan it for images suitable in a gallery
-        final String content = ReaderPostTable.getPostText(blogId, postId);
-        final ReaderImageList imageList =
-                new ReaderImageScanner(content, isPrivate).getGalleryImageList();
         if (imageList.size() < MIN_IMAGE_COUNT) {
             mView.setVisibility(View.GONE);
             return;
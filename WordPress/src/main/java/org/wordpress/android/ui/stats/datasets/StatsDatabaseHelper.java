@@ -4,6 +4,8 @@ import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
+import org.wordpress.android.datasets.DatabaseWriter;
+import org.wordpress.android.datasets.QueryProfiler;
 import org.wordpress.android.util.AppLog;
 
 import java.io.FileInputStream;
@@ -23,6 +25,7 @@ public class StatsDatabaseHelper extends SQLiteOpenHelper {
 	 *  database singleton
 	 */
     private static StatsDatabaseHelper mDatabaseHelper;
+    private static DatabaseWriter mWriter;
     private final static Object mDbLock = new Object();
     private final Context mContext;
 
@@ -39,9 +42,19 @@ public class StatsDatabaseHelper extends SQLiteOpenHelper {
         return mDatabaseHelper;
     }
 
+    public static DatabaseWriter getWriter(Context ctx) {
+        synchronized (mDbLock) {
+            if (mWriter == null) {
+                mWriter = new DatabaseWriter(DB_NAME, getWritableDb(ctx));
+            }
+            return mWriter;
+        }
+    }
+
     private StatsDatabaseHelper(Context context) {
-        super(context, DB_NAME, null, DB_VERSION);
+        super(context, DB_NAME, QueryProfiler.getCursorFactory(), DB_VERSION);
         mContext = context;
+        setWriteAheadLoggingEnabled(true);
     }
 
 
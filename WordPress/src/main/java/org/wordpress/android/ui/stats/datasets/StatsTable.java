@@ -123,6 +123,18 @@ public class StatsTable {
             return;
         }
 
+        StatsDatabaseHelper.getWriter(ctx).executeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                doInsertStats(ctx, blogId, timeframe, date, sectionToUpdate, maxResultsRequested, pageRequested,
+                        jsonResponse, responseTimestamp);
+            }
+        });
+    }
+
+    private static void doInsertStats(Context ctx, int blogId, StatsTimeframe timeframe, String date,
+                                      StatsEndpointsEnum sectionToUpdate, int maxResultsRequested, int pageRequested,
+                                      String jsonResponse, long responseTimestamp) {
         SQLiteDatabase db = StatsDatabaseHelper.getWritableDb(ctx);
         db.beginTransaction();
         SQLiteStatement stmt = db.compileStatement("INSERT INTO " + TABLE_NAME + " (blogID, type, timeframe, date, " +
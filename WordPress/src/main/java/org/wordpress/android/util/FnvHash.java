@@ -0,0 +1,43 @@
+package org.wordpress.android.util;
+
+/**
+ * 64-bit FNV-1a hash, used to store a fingerprint of the values of a row so a refresh can tell whether the row
+ * changed without reading its values back. It's fast and spreads short strings well, but isn't cryptographic.
+ */
+public class FnvHash {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    // added after each string, so moving characters from one string to the next changes the hash
+    private static final int SEPARATOR = 0xffff;
+
+    private long mHash = OFFSET_BASIS;
+
+    public FnvHash add(long value) {
+        mHash = (mHash ^ value) * PRIME;
+        return this;
+    }
+
+    public FnvHash add(boolean value) {
+        return add(value ? 1 : 0);
+    }
+
+    public FnvHash add(double value) {
+        return add(Double.doubleToLongBits(value));
+    }
+
+    /*
+     * adds the characters of the passed string followed by a separator, null is added as an empty string
+     */
+    public FnvHash add(String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                add(value.charAt(i));
+            }
+        }
+        return add(SEPARATOR);
+    }
+
+    public long getValue() {
+        return mHash;
+    }
+}
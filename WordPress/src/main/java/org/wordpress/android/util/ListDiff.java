@@ -0,0 +1,170 @@
+package org.wordpress.android.util;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Differences between two versions of a list whose items have unique keys, found with hash lookups so they can be
+ * computed off the main thread in about linear time, then dispatched to a RecyclerView adapter as fine-grained
+ * notifications instead of notifyDataSetChanged(), which rebinds every visible item.
+ *
+ * Removals are dispatched first, then insertions and moves in the order of the new list, then changes to the items
+ * kept, each notification applying to the list left by the previous ones. Each move costs a scan of the list, so
+ * lists with many moves, or with duplicate keys, are dispatched as a full change.
+ */
+public class ListDiff {
+    public interface ItemCallback<T> {
+        /*
+         * returns the key identifying the item in both lists, it must implement equals() and hashCode()
+         */
+        Object getKey(T item);
+
+        /*
+         * returns true if the item hasn't changed, so it needn't be rebound
+         */
+        boolean isSameContent(T oldItem, T newItem);
+    }
+
+    private static final int MAX_MOVES = 20;
+
+    private static final int TYPE_REMOVE = 0;
+    private static final int TYPE_INSERT = 1;
+    private static final int TYPE_MOVE   = 2;
+    private static final int TYPE_CHANGE = 3;
+
+    // type, position, then the count or (for moves) the position the item is moved to
+    private final List<int[]> mOperations = new ArrayList<>();
+    private boolean mIsFullChange;
+
+    private ListDiff() {
+    }
+
+    public static <T> ListDiff calculate(List<T> oldList, List<T> newList, ItemCallback<T> callback) {
+        ListDiff diff = new ListDiff();
+
+        Object[] oldKeys = new Object[oldList.size()];
+        Map<Object, Integer> oldIndexes = new HashMap<>(oldList.size() * 2);
+        for (int i = 0; i < oldList.size(); i++) {
+            oldKeys[i] = callback.getKey(oldList.get(i));
+            oldIndexes.put(oldKeys[i], i);
+        }
+        Object[] newKeys = new Object[newList.size()];
+        Map<Object, Integer> newIndexes = new HashMap<>(newList.size() * 2);
+        for (int i = 0; i < newList.size(); i++) {
+            newKeys[i] = callback.getKey(newList.get(i));
+            newIndexes.put(newKeys[i], i);
+        }
+        if (oldIndexes.size() != oldKeys.length || newIndexes.size() != newKeys.length) {
+            AppLog.w(AppLog.T.UTILS, "list diff > duplicate keys, dispatching a full change");
+            diff.mIsFullChange = true;
+            return diff;
+        }
+
+        // removals, from the end so each one leaves the positions of the previous items alone
+        List<Object> currentKeys = new ArrayList<>(Math.max(oldKeys.length, newKeys.length));
+        for (int i = oldKeys.length - 1; i >= 0; i--) {
+            if (newIndexes.containsKey(oldKeys[i])) {
+                currentKeys.add(oldKeys[i]);
+                continue;
+            }
+            int end = i;
+            while (i > 0 && !newIndexes.containsKey(oldKeys[i - 1])) {
+                i--;
+            }
+            diff.add(TYPE_REMOVE, i, end - i + 1);
+        }
+        Collections.reverse(currentKeys);
+
+        // insertions and moves, the items before position i are in their final place
+        int numMoves = 0;
+        for (int i = 0; i < newKeys.length; ) {
+            if (!oldIndexes.containsKey(newKeys[i])) {
+                int start = i;
+                while (i < newKeys.length && !oldIndexes.containsKey(newKeys[i])) {
+                    i++;
+                }
+                List<Object> inserted = new ArrayList<>(i - start);
+                for (int j = start; j < i; j++) {
+                    inserted.add(newKeys[j]);
+                }
+                currentKeys.addAll(start, inserted);
+                diff.add(TYPE_INSERT, start, i - start);
+                continue;
+            }
+            if (!currentKeys.get(i).equals(newKeys[i])) {
+                if (++numMoves > MAX_MOVES) {
+                    diff.mOperations.clear();
+                    diff.mIsFullChange = true;
+                    return diff;
+                }
+                int from = currentKeys.subList(i + 1, currentKeys.size()).indexOf(newKeys[i]) + i + 1;
+                currentKeys.add(i, currentKeys.remove(from));
+                diff.add(TYPE_MOVE, from, i);
+            }
+            i++;
+        }
+
+        // changes, at the final positions of the items
+        for (int i = 0; i < newKeys.length; i++) {
+            Integer oldIndex = oldIndexes.get(newKeys[i]);
+            if (oldIndex != null && !callback.isSameContent(oldList.get(oldIndex), newList.get(i))) {
+                diff.add(TYPE_CHANGE, i, 1);
+            }
+        }
+
+        return diff;
+    }
+
+    /*
+     * adds an operation, changes to adjacent items are merged into a single range
+     */
+    private void add(int type, int position, int countOrToPosition) {
+        if (type == TYPE_CHANGE && !mOperations.isEmpty()) {
+            int[] last = mOperations.get(mOperations.size() - 1);
+            if (last[0] == TYPE_CHANGE && last[1] + last[2] == position) {
+                last[2] += countOrToPosition;
+                return;
+            }
+        }
+        mOperations.add(new int[]{type, position, countOrToPosition});
+    }
+
+    /*
+     * returns true if the lists hold the same items with the same content in the same order
+     */
+    public boolean isEmpty() {
+        return !mIsFullChange && mOperations.isEmpty();
+    }
+
+    /*
+     * notifies the adapter of the differences, positionOffset is the number of adapter items shown before the list
+     */
+    public void dispatchUpdatesTo(RecyclerView.Adapter adapter, int positionOffset) {
+        if (mIsFullChange) {
+            adapter.notifyDataSetChanged();
+            return;
+        }
+        for (int[] operation : mOperations) {
+            int position = operation[1] + positionOffset;
+            switch (operation[0]) {
+                case TYPE_REMOVE:
+                    adapter.notifyItemRangeRemoved(position, operation[2]);
+                    break;
+                case TYPE_INSERT:
+                    adapter.notifyItemRangeInserted(position, operation[2]);
+                    break;
+                case TYPE_MOVE:
+                    adapter.notifyItemMoved(position, operation[2] + positionOffset);
+                    break;
+                case TYPE_CHANGE:
+                    adapter.notifyItemRangeChanged(position, operation[2]);
+                    break;
+            }
+        }
+    }
+}
@@ -38,8 +38,6 @@ import org.wordpress.android.util.MapUtils;
 import org.wordpress.android.util.helpers.MediaFile;
 import org.xmlpull.v1.XmlPullParserException;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -83,10 +81,12 @@ public class ApiHelper {
         public static final String SET_OPTIONS        = "wp.setOptions";
 
         public static final String UPLOAD_FILE        = "wp.uploadFile";
+        public static final String UPLOAD_FILE_CHUNK  = "wp.uploadFileChunk";
 
         public static final String WPCOM_GET_FEATURES = "wpcom.getFeatures";
 
         public static final String LIST_METHODS       = "system.listMethods";
+        public static final String MULTICALL          = "system.multicall";
     }
 
     public static final class Param {
@@ -152,10 +152,8 @@ public class ApiHelper {
             XMLRPCClientInterface client = XMLRPCFactory.instantiate(mBlog.getUri(), mBlog.getHttpuser(),
                     mBlog.getHttppassword());
             Object result = null;
-            Object[] params = { mBlog.getRemoteBlogId(), mBlog.getUsername(),
-                    mBlog.getPassword(), Param.SHOW_SUPPORTED_POST_FORMATS };
             try {
-                result = client.call(Method.GET_POST_FORMATS, params);
+                result = client.call(Method.GET_POST_FORMATS, getPostFormatsParams(mBlog));
             } catch (ClassCastException cce) {
                 setError(ErrorType.INVALID_RESULT, cce.getMessage(), cce);
             } catch (XMLRPCException e) {
@@ -169,14 +167,23 @@ public class ApiHelper {
         }
 
         protected void onPostExecute(Object result) {
+            updatePostFormats(mBlog, result);
+        }
+
+        static Object[] getPostFormatsParams(Blog blog) {
+            return new Object[]{ blog.getRemoteBlogId(), blog.getUsername(),
+                    blog.getPassword(), Param.SHOW_SUPPORTED_POST_FORMATS };
+        }
+
+        static void updatePostFormats(Blog blog, Object result) {
             if (result != null && result instanceof HashMap) {
                 Map<?, ?> postFormats = (HashMap<?, ?>) result;
                 if (postFormats.size() > 0) {
                     Gson gson = new Gson();
                     String postFormatsJson = gson.toJson(postFormats);
                     if (postFormatsJson != null) {
-                        if (mBlog.bsetPostFormats(postFormatsJson)) {
-                            WordPress.wpDB.saveBlog(mBlog);
+                        if (blog.bsetPostFormats(postFormatsJson)) {
+                            WordPress.wpDB.saveBlog(blog);
                         }
                     }
                 }
@@ -277,6 +284,10 @@ public class ApiHelper {
 
             boolean alreadyTrackedAsJetpackBlog = mBlog.isJetpackPowered();
 
+            // options, post formats, user profile and comments are requested in a single system.multicall
+            XMLRPCMulticall multicall = new XMLRPCMulticall();
+            int optionsIndex = -1;
+            int postFormatsIndex = -1;
             if (!commentsOnly) {
                 // check the WP number if self-hosted
                 Map<String, String> hPost = ApiHelper.blogOptionsXMLRPCParameters;
@@ -285,29 +296,55 @@ public class ApiHelper {
                                     mBlog.getUsername(),
                                     mBlog.getPassword(),
                                     hPost};
-                Object versionResult = null;
+                optionsIndex = multicall.add(Method.GET_OPTIONS, vParams);
+                postFormatsIndex = multicall.add(Method.GET_POST_FORMATS, GetPostFormatsTask.getPostFormatsParams(mBlog));
+            }
+
+            // Check if user is an admin
+            Object[] userParams = {mBlog.getRemoteBlogId(), mBlog.getUsername(), mBlog.getPassword()};
+            int profileIndex = multicall.add(Method.GET_PROFILE, userParams);
+
+            // refresh the comments
+            Map<String, Object> hPost = new HashMap<String, Object>();
+            hPost.put("number", 30);
+            Object[] commentParams = {mBlog.getRemoteBlogId(), mBlog.getUsername(),
+                    mBlog.getPassword(), hPost};
+            int commentsIndex = multicall.add(Method.GET_COMMENTS, commentParams);
+
+            Object[] results;
+            try {
+                results = client.callMulticall(multicall);
+            } catch (Exception e) {
+                setError(ErrorType.NETWORK_XMLRPC, e.getMessage(), e);
+                return false;
+            }
+
+            if (!commentsOnly) {
                 try {
-                    versionResult = client.call(Method.GET_OPTIONS, vParams);
+                    Object versionResult = XMLRPCMulticall.getResult(results, optionsIndex);
+                    if (versionResult != null) {
+                        Map<?, ?> blogOptions = (HashMap<?, ?>) versionResult;
+                        ApiHelper.updateBlogOptions(mBlog, blogOptions);
+                    }
                 } catch (ClassCastException cce) {
                     setError(ErrorType.INVALID_RESULT, cce.getMessage(), cce);
                     return false;
-                } catch (Exception e) {
+                } catch (XMLRPCFault e) {
                     setError(ErrorType.NETWORK_XMLRPC, e.getMessage(), e);
                     return false;
                 }
 
-                if (versionResult != null) {
-                    Map<?, ?> blogOptions = (HashMap<?, ?>) versionResult;
-                    ApiHelper.updateBlogOptions(mBlog, blogOptions);
-                }
-
                 if (mBlog.isJetpackPowered() && !alreadyTrackedAsJetpackBlog) {
                     // blog just added to the app, or the value of jetpack_client_id has just changed
                     AnalyticsUtils.trackWithBlogDetails(AnalyticsTracker.Stat.SIGNED_INTO_JETPACK, mBlog);
                 }
 
-                // get theme post formats
-                new GetPostFormatsTask().execute(mBlog);
+                // update theme post formats
+                try {
+                    GetPostFormatsTask.updatePostFormats(mBlog, XMLRPCMulticall.getResult(results, postFormatsIndex));
+                } catch (XMLRPCFault e) {
+                    AppLog.e(T.API, "Can't get the post formats", e);
+                }
 
                 //Update Stats widgets if necessary
                 String currentBlogID = String.valueOf(mBlog.getRemoteBlogId());
@@ -318,36 +355,25 @@ public class ApiHelper {
                 }
             }
 
-            // Check if user is an admin
-            Object[] userParams = {mBlog.getRemoteBlogId(), mBlog.getUsername(), mBlog.getPassword()};
             try {
-                Map<String, Object> userInfos = (HashMap<String, Object>) client.call(Method.GET_PROFILE, userParams);
+                Map<String, Object> userInfos = (HashMap<String, Object>) XMLRPCMulticall.getResult(results,
+                        profileIndex);
                 updateBlogAdmin(userInfos);
             } catch (ClassCastException cce) {
                 setError(ErrorType.INVALID_RESULT, cce.getMessage(), cce);
                 return false;
-            } catch (XMLRPCException e) {
-                setError(ErrorType.NETWORK_XMLRPC, e.getMessage(), e);
-            } catch (IOException e) {
-                setError(ErrorType.NETWORK_XMLRPC, e.getMessage(), e);
-            } catch (XmlPullParserException e) {
+            } catch (XMLRPCFault e) {
                 setError(ErrorType.NETWORK_XMLRPC, e.getMessage(), e);
             }
 
-            // refresh the comments
-            Map<String, Object> hPost = new HashMap<String, Object>();
-            hPost.put("number", 30);
-            Object[] commentParams = {mBlog.getRemoteBlogId(), mBlog.getUsername(),
-                    mBlog.getPassword(), hPost};
             try {
-                ApiHelper.refreshComments(mBlog, commentParams, new DatabasePersistCallback() {
-                    @Override
-                    public void onDataReadyToSave(List list) {
-                        int localBlogId = mBlog.getLocalTableBlogId();
-                        CommentTable.deleteCommentsForBlog(localBlogId);
-                        CommentTable.saveComments(localBlogId, (CommentList)list);
-                    }
-                });
+                CommentList comments = ApiHelper.parseComments(
+                        (Object[]) XMLRPCMulticall.getResult(results, commentsIndex));
+                if (comments != null) {
+                    int localBlogId = mBlog.getLocalTableBlogId();
+                    CommentTable.deleteCommentsForBlog(localBlogId);
+                    CommentTable.saveComments(localBlogId, comments);
+                }
             } catch (Exception e) {
                 setError(ErrorType.NETWORK_XMLRPC, e.getMessage(), e);
                 return false;
@@ -429,6 +455,24 @@ public class ApiHelper {
         Object[] result;
         result = (Object[]) client.call(Method.GET_COMMENTS, commentParams);
 
+        CommentList comments = parseComments(result);
+        if (comments == null) {
+            return null;
+        }
+
+        if (dbCallback != null){
+            dbCallback.onDataReadyToSave(comments);
+        }
+
+        return comments;
+    }
+
+    /**
+     * Build the comment list from a wp.getComments result
+     *
+     * @return null if there's no comment in the result
+     */
+    static CommentList parseComments(Object[] result) {
         if (result.length == 0) {
             return null;
         }
@@ -467,10 +511,6 @@ public class ApiHelper {
             comments.add(comment);
         }
 
-        if (dbCallback != null){
-            dbCallback.onDataReadyToSave(comments);
-        }
-
         return comments;
     }
 
@@ -526,7 +566,7 @@ public class ApiHelper {
                 return 0;
             }
 
-            String blogId = String.valueOf(blog.getLocalTableBlogId());
+            final String blogId = String.valueOf(blog.getLocalTableBlogId());
             XMLRPCClientInterface client = XMLRPCFactory.instantiate(blog.getUri(), blog.getHttpuser(),
                     blog.getHttppassword());
             Map<String, Object> filter = new HashMap<String, Object>();
@@ -542,47 +582,49 @@ public class ApiHelper {
             Object[] apiParams = {blog.getRemoteBlogId(), blog.getUsername(), blog.getPassword(),
                     filter};
 
-            Object[] results = null;
+            final boolean isDotCom = blog.isDotcomFlag();
+            // media items are saved one by one while the response is being parsed
+            XMLRPCArrayVisitor visitor = new XMLRPCArrayVisitor() {
+                @Override
+                public void onArrayElement(int index, Object result) {
+                    // results returned, so mark everything existing to deleted
+                    // since offset is 0, we are doing a full refresh
+                    if (index == 0 && mOffset == 0) {
+                        WordPress.wpDB.setMediaFilesMarkedForDeleted(blogId);
+                    }
+                    Map<?, ?> resultMap = (Map<?, ?>) result;
+                    MediaFile mediaFile = new MediaFile(blogId, resultMap, isDotCom);
+                    WordPress.wpDB.saveMediaFile(mediaFile);
+                }
+            };
+
+            int count;
             try {
-                results = (Object[]) client.call(Method.GET_MEDIA_LIBRARY, apiParams);
+                count = client.callStreaming(Method.GET_MEDIA_LIBRARY, apiParams, visitor);
             } catch (ClassCastException cce) {
+                WordPress.wpDB.clearMediaFilesMarkedForDeleted(blogId);
                 setError(ErrorType.INVALID_RESULT, cce.getMessage(), cce);
                 return 0;
             } catch (XMLRPCException e) {
+                WordPress.wpDB.clearMediaFilesMarkedForDeleted(blogId);
                 prepareErrorMessage(e);
                 return 0;
             } catch (IOException e) {
+                WordPress.wpDB.clearMediaFilesMarkedForDeleted(blogId);
                 prepareErrorMessage(e);
                 return 0;
             } catch (XmlPullParserException e) {
+                WordPress.wpDB.clearMediaFilesMarkedForDeleted(blogId);
                 prepareErrorMessage(e);
                 return 0;
             }
 
-            if (blogId == null) {
-                setError(ErrorType.INVALID_CURRENT_BLOG, "Invalid blogId");
-                return 0;
-            }
-
-            if (results == null) {
-                setError(ErrorType.INVALID_RESULT, "Invalid blogId");
-                return 0;
-            }
-
-            Map<?, ?> resultMap;
-            // results returned, so mark everything existing to deleted
-            // since offset is 0, we are doing a full refresh
-            if (mOffset == 0) {
+            if (count == 0 && mOffset == 0) {
+                // the media library is empty on the server
                 WordPress.wpDB.setMediaFilesMarkedForDeleted(blogId);
             }
-            for (Object result : results) {
-                resultMap = (Map<?, ?>) result;
-                boolean isDotCom = (WordPress.getCurrentBlog() != null && WordPress.getCurrentBlog().isDotcomFlag());
-                MediaFile mediaFile = new MediaFile(blogId, resultMap, isDotCom);
-                WordPress.wpDB.saveMediaFile(mediaFile);
-            }
             WordPress.wpDB.deleteFilesMarkedForDeleted(blogId);
-            return results.length;
+            return count;
         }
 
         private void prepareErrorMessage(Exception e) {
@@ -784,22 +826,20 @@ public class ApiHelper {
                     data
             };
 
-            final File tempFile = getTempFile(mContext);
-
             if (client instanceof XMLRPCClient) {
                 ((XMLRPCClient) client).setOnBytesUploadedListener(new XMLRPCClient.OnBytesUploadedListener() {
                     @Override
-                    public void onBytesUploaded(long uploadedBytes) {
+                    public void onBytesUploaded(long uploadedBytes, long totalBytes) {
                         if (isCancelled()) {
                             // Stop the upload if the task has been cancelled
                             ((XMLRPCClient) client).cancel();
                         }
 
-                        if (tempFile == null || tempFile.length() == 0) {
+                        if (totalBytes == 0) {
                             return;
                         }
 
-                        float fractionUploaded = uploadedBytes / (float) tempFile.length();
+                        float fractionUploaded = uploadedBytes / (float) totalBytes;
                         mCallback.onProgressUpdate(fractionUploaded);
                     }
                 });
@@ -811,7 +851,7 @@ public class ApiHelper {
 
             Map<?, ?> resultMap;
             try {
-                resultMap = (HashMap<?, ?>) client.call(Method.UPLOAD_FILE, apiParams, tempFile);
+                resultMap = (HashMap<?, ?>) client.call(Method.UPLOAD_FILE, apiParams);
             } catch (ClassCastException cce) {
                 setError(ErrorType.INVALID_RESULT, null, cce);
                 return null;
@@ -844,17 +884,6 @@ public class ApiHelper {
             return null;
         }
 
-        // Create a temp file for media upload
-        private File getTempFile(Context context) {
-            String tempFileName = "wp-" + System.currentTimeMillis();
-            try {
-                context.openFileOutput(tempFileName, Context.MODE_PRIVATE);
-            } catch (FileNotFoundException e) {
-                return null;
-            }
-            return context.getFileStreamPath(tempFileName);
-        }
-
         @Override
         protected void onPostExecute(Map<?, ?> result) {
             if (mCallback != null) {
@@ -995,7 +1024,15 @@ public class ApiHelper {
      * @return content of the resource, or null if URL was invalid or resource could not be retrieved.
      */
     public static String getResponse(final String stringUrl) throws SSLHandshakeException, TimeoutError, TimeoutException {
-        return getResponse(stringUrl, 0);
+        return getResponse(stringUrl, 0, null);
+    }
+
+    /**
+     * Same as {@link #getResponse(String)}, the URLs of the redirects followed are added to redirects
+     */
+    public static String getResponse(final String stringUrl, List<String> redirects)
+            throws SSLHandshakeException, TimeoutError, TimeoutException {
+        return getResponse(stringUrl, 0, redirects);
     }
 
     private static String getRedirectURL(String oldURL, NetworkResponse networkResponse) {
@@ -1015,7 +1052,8 @@ public class ApiHelper {
         return null;
     }
 
-    public static String getResponse(final String stringUrl, int numberOfRedirects) throws SSLHandshakeException, TimeoutError, TimeoutException {
+    private static String getResponse(final String stringUrl, int numberOfRedirects, List<String> redirects)
+            throws SSLHandshakeException, TimeoutError, TimeoutException {
         RequestFuture<String> future = RequestFuture.newFuture();
         StringRequest request = new StringRequest(stringUrl, future, future);
         request.setRetryPolicy(new DefaultRetryPolicy(XMLRPCClient.DEFAULT_SOCKET_TIMEOUT_MS, 0, 1));
@@ -1046,7 +1084,10 @@ public class ApiHelper {
                     }
                     // Retry getResponse
                     AppLog.i(T.API, "Follow redirect from " + stringUrl + " to " + newURL);
-                    return getResponse(newURL, numberOfRedirects + 1);
+                    if (redirects != null) {
+                        redirects.add(newURL);
+                    }
+                    return getResponse(newURL, numberOfRedirects + 1, redirects);
                 }
             } else if (e.getCause() != null && e.getCause() instanceof com.android.volley.TimeoutError) {
                 AppLog.e(T.API, e);
@@ -1116,6 +1157,67 @@ public class ApiHelper {
         XMLRPCClientInterface client = XMLRPCFactory.instantiate(blog.getUri(), blog.getHttpuser(),
                 blog.getHttppassword());
 
+        try {
+            Object result = client.call(Method.EDIT_COMMENT, getEditCommentParams(blog, comment, newStatus));
+            return (result != null && Boolean.parseBoolean(result.toString()));
+        } catch (XMLRPCFault xmlrpcFault) {
+            return isCommentAlreadyEdited(blog, comment, newStatus, xmlrpcFault);
+        } catch (XMLRPCException e) {
+            AppLog.e(T.COMMENTS, "Error while editing comment", e);
+        } catch (IOException e) {
+            AppLog.e(T.COMMENTS, "Error while editing comment", e);
+        } catch (XmlPullParserException e) {
+            AppLog.e(T.COMMENTS, "Error while editing comment", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Change the status of multiple comments using a single system.multicall request
+     *
+     * @return the comments successfully moderated
+     */
+    public static CommentList editComments(Blog blog, CommentList comments, CommentStatus newStatus) {
+        CommentList editedComments = new CommentList();
+        if (blog == null || comments == null || comments.size() == 0) {
+            return editedComments;
+        }
+
+        XMLRPCClientInterface client = XMLRPCFactory.instantiate(blog.getUri(), blog.getHttpuser(),
+                blog.getHttppassword());
+
+        XMLRPCMulticall multicall = new XMLRPCMulticall();
+        for (Comment comment : comments) {
+            multicall.add(Method.EDIT_COMMENT, getEditCommentParams(blog, comment, newStatus));
+        }
+
+        Object[] results;
+        try {
+            results = client.callMulticall(multicall);
+        } catch (XMLRPCException | IOException | XmlPullParserException e) {
+            AppLog.e(T.COMMENTS, "Error while editing comments", e);
+            return editedComments;
+        }
+
+        for (int i = 0; i < comments.size(); i++) {
+            Comment comment = comments.get(i);
+            try {
+                Object result = XMLRPCMulticall.getResult(results, i);
+                if (result != null && Boolean.parseBoolean(result.toString())) {
+                    editedComments.add(comment);
+                }
+            } catch (XMLRPCFault xmlrpcFault) {
+                if (isCommentAlreadyEdited(blog, comment, newStatus, xmlrpcFault)) {
+                    editedComments.add(comment);
+                }
+            }
+        }
+
+        return editedComments;
+    }
+
+    private static Object[] getEditCommentParams(Blog blog, Comment comment, CommentStatus newStatus) {
         Map<String, String> postHash = new HashMap<>();
         postHash.put("status", CommentStatus.toString(newStatus));
         postHash.put("content", comment.getCommentText());
@@ -1123,33 +1225,24 @@ public class ApiHelper {
         postHash.put("author_url", comment.getAuthorUrl());
         postHash.put("author_email", comment.getAuthorEmail());
 
-        Object[] params = { blog.getRemoteBlogId(),
+        return new Object[]{ blog.getRemoteBlogId(),
                 blog.getUsername(),
                 blog.getPassword(),
                 Long.toString(comment.commentID),
                 postHash};
+    }
 
-        try {
-            Object result = client.call(Method.EDIT_COMMENT, params);
-            return (result != null && Boolean.parseBoolean(result.toString()));
-        } catch (XMLRPCFault xmlrpcFault) {
-            if (xmlrpcFault.getFaultCode() == 500) {
-                // let's check whether the comment is already marked as _newStatus_
-                CommentStatus remoteStatus = getCommentStatus(blog, comment);
-                if (remoteStatus != null && remoteStatus.equals(newStatus)) {
-                    // Happy days! Remote is already marked as the desired status
-                    return true;
-                }
+    private static boolean isCommentAlreadyEdited(Blog blog, Comment comment, CommentStatus newStatus,
+                                                  XMLRPCFault xmlrpcFault) {
+        if (xmlrpcFault.getFaultCode() == 500) {
+            // let's check whether the comment is already marked as _newStatus_
+            CommentStatus remoteStatus = getCommentStatus(blog, comment);
+            if (remoteStatus != null && remoteStatus.equals(newStatus)) {
+                // Happy days! Remote is already marked as the desired status
+                return true;
             }
-            AppLog.e(T.COMMENTS, "Error while editing comment", xmlrpcFault);
-        } catch (XMLRPCException e) {
-            AppLog.e(T.COMMENTS, "Error while editing comment", e);
-        } catch (IOException e) {
-            AppLog.e(T.COMMENTS, "Error while editing comment", e);
-        } catch (XmlPullParserException e) {
-            AppLog.e(T.COMMENTS, "Error while editing comment", e);
         }
-
+        AppLog.e(T.COMMENTS, "Error while editing comment", xmlrpcFault);
         return false;
     }
 
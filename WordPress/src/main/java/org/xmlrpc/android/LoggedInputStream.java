@@ -27,6 +27,7 @@ public final class LoggedInputStream extends InputStream {
     private final static int MAX_LOG_SIZE = 1000;
     private final byte[] loggedString = new byte[MAX_LOG_SIZE];
     private int loggedStringSize = 0;
+    private long totalBytesRead = 0;
 
     public LoggedInputStream(InputStream input) {
         this.inputStream = input;
@@ -56,6 +57,7 @@ public final class LoggedInputStream extends InputStream {
     public int read(byte[] buffer, int byteOffset, int byteCount) throws IOException {
         int bytesRead = inputStream.read(buffer, byteOffset, byteCount);
         if (bytesRead != -1) {
+            totalBytesRead += bytesRead;
             log(buffer, byteOffset, bytesRead);
         }
         return bytesRead;
@@ -70,6 +72,7 @@ public final class LoggedInputStream extends InputStream {
     public int read() throws IOException {
         int characterRead = inputStream.read();
         if (characterRead != -1) {
+            totalBytesRead++;
             log(characterRead);
         }
         return characterRead;
@@ -101,6 +104,13 @@ public final class LoggedInputStream extends InputStream {
         log(logThis, 0, 1);
     }
 
+    /**
+     * Returns the number of bytes read so far, the logged document is capped but this count isn't
+     */
+    public long getBytesRead() {
+        return totalBytesRead;
+    }
+
     public String getResponseDocument() {
         if (loggedStringSize == 0) {
             return "";
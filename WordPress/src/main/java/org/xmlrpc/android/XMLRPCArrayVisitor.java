@@ -0,0 +1,16 @@
+package org.xmlrpc.android;
+
+/**
+ * Receives the elements of an XML-RPC array response one at a time, as soon as each one is parsed.
+ * Used with {@link XMLRPCClientInterface#callStreaming} so large responses (posts, media library) are never
+ * fully materialized in memory.
+ */
+public interface XMLRPCArrayVisitor {
+    /**
+     * Called on the calling thread for every element of the response array, in order.
+     *
+     * @param index position of the element in the array
+     * @param element the deserialized element, usually a Map
+     */
+    void onArrayElement(int index, Object element);
+}
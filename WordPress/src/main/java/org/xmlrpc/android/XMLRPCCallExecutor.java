@@ -0,0 +1,180 @@
+package org.xmlrpc.android;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared, bounded thread pool running the asynchronous XML-RPC calls of all {@link XMLRPCClient} instances.
+ *
+ * At most {@link #MAX_THREADS} calls run at the same time, the others wait in a queue ordered by {@link Priority}
+ * then by submission order. Queued calls can be canceled before they start.
+ */
+public class XMLRPCCallExecutor {
+    public enum Priority {
+        // calls the user is waiting for
+        USER,
+        // sync and prefetch calls
+        BACKGROUND
+    }
+
+    private static final int MAX_THREADS = 4;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+
+    private static final AtomicLong sSequence = new AtomicLong();
+    private static final AtomicLong sExecutedCount = new AtomicLong();
+    private static final AtomicLong sCanceledCount = new AtomicLong();
+    private static final AtomicLong sTotalWaitTimeMs = new AtomicLong();
+    private static final AtomicLong sMaxWaitTimeMs = new AtomicLong();
+    private static final AtomicInteger sMaxQueueDepth = new AtomicInteger();
+
+    private static final ThreadPoolExecutor sExecutor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+            IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(),
+            new CallThreadFactory());
+
+    static {
+        sExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    private XMLRPCCallExecutor() {
+        throw new AssertionError();
+    }
+
+    static void submit(Call call) {
+        sExecutor.execute(call);
+        updateMax(sMaxQueueDepth, sExecutor.getQueue().size());
+    }
+
+    /**
+     * Number of calls waiting for a thread
+     */
+    public static int getQueueDepth() {
+        return sExecutor.getQueue().size();
+    }
+
+    public static int getMaxQueueDepth() {
+        return sMaxQueueDepth.get();
+    }
+
+    public static long getExecutedCount() {
+        return sExecutedCount.get();
+    }
+
+    public static long getCanceledCount() {
+        return sCanceledCount.get();
+    }
+
+    /**
+     * Average time spent in the queue by the calls that were executed, in milliseconds
+     */
+    public static long getAverageWaitTimeMs() {
+        long executed = sExecutedCount.get();
+        return executed == 0 ? 0 : sTotalWaitTimeMs.get() / executed;
+    }
+
+    public static long getMaxWaitTimeMs() {
+        return sMaxWaitTimeMs.get();
+    }
+
+    public static void logStats() {
+        AppLog.i(T.API, "XML-RPC async calls: " + getExecutedCount() + " executed, " + getCanceledCount()
+                + " canceled, queue depth " + getQueueDepth() + " (max " + getMaxQueueDepth() + "), wait time avg "
+                + getAverageWaitTimeMs() + "ms (max " + getMaxWaitTimeMs() + "ms)");
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    /**
+     * A call waiting in the queue or running. {@link #execute()} is never invoked if the call is canceled while it's
+     * still queued.
+     */
+    abstract static class Call implements Runnable, Comparable<Call> {
+        private final Priority mPriority;
+        private final long mSequence;
+        private final long mSubmittedAt;
+        private volatile boolean mIsCanceled;
+
+        Call(Priority priority) {
+            mPriority = priority == null ? Priority.USER : priority;
+            mSequence = sSequence.getAndIncrement();
+            mSubmittedAt = SystemClock.elapsedRealtime();
+        }
+
+        abstract void execute();
+
+        @Override
+        public final void run() {
+            if (mIsCanceled) {
+                return;
+            }
+            long waitTimeMs = SystemClock.elapsedRealtime() - mSubmittedAt;
+            sExecutedCount.incrementAndGet();
+            sTotalWaitTimeMs.addAndGet(waitTimeMs);
+            updateMax(sMaxWaitTimeMs, waitTimeMs);
+            execute();
+        }
+
+        /**
+         * Mark this call as canceled and remove it from the queue if it didn't start yet
+         *
+         * @return true if the call was still queued
+         */
+        boolean cancel() {
+            mIsCanceled = true;
+            if (sExecutor.remove(this)) {
+                sCanceledCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        boolean isCanceled() {
+            return mIsCanceled;
+        }
+
+        @Override
+        public int compareTo(@NonNull Call other) {
+            if (mPriority != other.mPriority) {
+                return mPriority.compareTo(other.mPriority);
+            }
+            return mSequence < other.mSequence ? -1 : (mSequence == other.mSequence ? 0 : 1);
+        }
+    }
+
+    private static class CallThreadFactory implements ThreadFactory {
+        private final AtomicInteger mThreadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "XMLRPC call #" + mThreadCount.incrementAndGet());
+        }
+    }
+}
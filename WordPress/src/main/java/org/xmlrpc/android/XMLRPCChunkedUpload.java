@@ -0,0 +1,279 @@
+package org.xmlrpc.android;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlrpc.android.ApiHelper.Method;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable upload of a media file in chunks, using wp.uploadFileChunk.
+ *
+ * The first chunk starts an upload on the server, which returns an upload id and the number of bytes received so far.
+ * Each following chunk is sent at the offset returned by the server, so a chunk whose response was lost is not sent
+ * twice. The last chunk returns the same struct as wp.uploadFile. Progress is reported to a {@link Listener} after each
+ * chunk so it can be persisted, and an interrupted upload can be resumed later with the saved {@link Progress}.
+ *
+ * Support is decided from system.listMethods before any data is sent, using the methods found when the endpoint was
+ * discovered if they're known. Servers without wp.uploadFileChunk are remembered, and {@link #upload} returns null so
+ * the caller can fall back to a single wp.uploadFile call.
+ */
+public class XMLRPCChunkedUpload {
+    public static final int CHUNK_SIZE = 512 * 1024;
+    // smaller files are uploaded in a single wp.uploadFile call
+    public static final long MIN_CHUNKED_FILE_SIZE = 2 * CHUNK_SIZE;
+
+    private static final int FAULT_CODE_METHOD_NOT_FOUND = -32601;
+    private static final int MAX_CHUNK_RETRIES = 3;
+    private static final long DEFAULT_RETRY_DELAY_MS = 2000;
+
+    private static final String KEY_NAME = "name";
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_BITS = "bits";
+    private static final String KEY_OVERWRITE = "overwrite";
+    private static final String KEY_UPLOAD_ID = "upload_id";
+    private static final String KEY_OFFSET = "offset";
+    private static final String KEY_TOTAL_SIZE = "total_size";
+    private static final String KEY_URL = "url";
+
+    // wp.uploadFileChunk support for each endpoint, filled using system.listMethods
+    private static final Map<String, Boolean> sChunkedUploadSupport = new ConcurrentHashMap<String, Boolean>();
+
+    private final XMLRPCClientInterface mClient;
+    private final String mEndpoint;
+    private final Object mBlogId;
+    private final String mUsername;
+    private final String mPassword;
+    private final File mFile;
+    private final String mName;
+    private final String mMimeType;
+    private long mRetryDelayMs = DEFAULT_RETRY_DELAY_MS;
+
+    public interface Listener {
+        /**
+         * Called after each chunk received by the server, uploadId is null if the server dropped the upload and it
+         * starts over.
+         */
+        void onChunkUploaded(String uploadId, long uploadedBytes, long totalBytes);
+    }
+
+    /**
+     * State of an interrupted upload
+     */
+    public static class Progress {
+        private final String mUploadId;
+        private final long mUploadedBytes;
+
+        public Progress(String uploadId, long uploadedBytes) {
+            mUploadId = uploadId;
+            mUploadedBytes = uploadedBytes;
+        }
+
+        public String getUploadId() {
+            return mUploadId;
+        }
+
+        public long getUploadedBytes() {
+            return mUploadedBytes;
+        }
+    }
+
+    /**
+     * @param endpoint XML-RPC URL, used to remember whether the server supports chunked uploads
+     * @param blogId first wp.uploadFile parameters: blog id, username and password
+     */
+    public XMLRPCChunkedUpload(XMLRPCClientInterface client, String endpoint, Object blogId, String username,
+                               String password, File file, String name, String mimeType) {
+        mClient = client;
+        mEndpoint = endpoint;
+        mBlogId = blogId;
+        mUsername = username;
+        mPassword = password;
+        mFile = file;
+        mName = name;
+        mMimeType = mimeType;
+    }
+
+    /**
+     * Returns false if the endpoint is known not to support chunked uploads
+     */
+    public static boolean isSupported(String endpoint) {
+        Boolean supported = sChunkedUploadSupport.get(endpoint);
+        return supported == null || supported;
+    }
+
+    public static boolean shouldUploadInChunks(String endpoint, File file) {
+        return file != null && file.length() >= MIN_CHUNKED_FILE_SIZE && isSupported(endpoint);
+    }
+
+    /**
+     * Remember whether the endpoint supports chunked uploads from the methods returned by system.listMethods
+     */
+    static void setAvailableMethods(String endpoint, Collection<?> availableMethods) {
+        boolean supported = availableMethods != null && availableMethods.contains(Method.UPLOAD_FILE_CHUNK);
+        if (!supported) {
+            AppLog.i(T.API, endpoint + " doesn't support chunked uploads");
+        }
+        sChunkedUploadSupport.put(endpoint, supported);
+    }
+
+    /*
+     * checks system.listMethods if the endpoint's support isn't known yet, so no data is sent to a server
+     * without wp.uploadFileChunk
+     */
+    private boolean checkSupported() {
+        Boolean supported = sChunkedUploadSupport.get(mEndpoint);
+        if (supported == null) {
+            try {
+                Object availableMethods = mClient.call(Method.LIST_METHODS);
+                setAvailableMethods(mEndpoint, availableMethods instanceof Object[]
+                        ? Arrays.asList((Object[]) availableMethods) : null);
+                supported = sChunkedUploadSupport.get(mEndpoint);
+            } catch (XMLRPCException | IOException | XmlPullParserException e) {
+                // don't remember anything, we'll try again on the next upload
+                AppLog.w(T.API, "Can't detect chunked upload support: " + e.getMessage());
+                return false;
+            }
+        }
+        return supported;
+    }
+
+    void setRetryDelayMs(long retryDelayMs) {
+        mRetryDelayMs = retryDelayMs;
+    }
+
+    /**
+     * Upload the file, resuming the given upload if not null
+     *
+     * @return the wp.uploadFile result struct, or null if the server doesn't support chunked uploads
+     */
+    public Map<?, ?> upload(Progress resumeFrom, Listener listener)
+            throws XMLRPCException, IOException, XmlPullParserException {
+        if (!checkSupported()) {
+            return null;
+        }
+
+        long totalBytes = mFile.length();
+        String uploadId = null;
+        long offset = 0;
+        if (resumeFrom != null && resumeFrom.getUploadId() != null && resumeFrom.getUploadedBytes() <= totalBytes) {
+            uploadId = resumeFrom.getUploadId();
+            offset = resumeFrom.getUploadedBytes();
+            AppLog.i(T.API, "Resuming chunked upload of " + mName + " at " + offset + "/" + totalBytes);
+        }
+
+        RandomAccessFile file = new RandomAccessFile(mFile, "r");
+        try {
+            byte[] buffer = new byte[(int) Math.min(CHUNK_SIZE, Math.max(totalBytes, 1))];
+            while (true) {
+                int length = (int) Math.min(buffer.length, totalBytes - offset);
+                file.seek(offset);
+                file.readFully(buffer, 0, length);
+                byte[] chunk = length == buffer.length ? buffer : copyOf(buffer, length);
+
+                Map<?, ?> result;
+                try {
+                    result = uploadChunk(uploadId, offset, totalBytes, chunk);
+                } catch (XMLRPCFault e) {
+                    if (e.getFaultCode() == FAULT_CODE_METHOD_NOT_FOUND) {
+                        // listed but disabled, by a plugin or a security rule
+                        AppLog.i(T.API, mEndpoint + " rejected wp.uploadFileChunk");
+                        sChunkedUploadSupport.put(mEndpoint, false);
+                        return null;
+                    }
+                    if (uploadId == null) {
+                        throw e;
+                    }
+                    // the server doesn't know this upload anymore (expired, or the file changed), start over
+                    AppLog.w(T.API, "Chunked upload " + uploadId + " rejected, restarting: " + e.getMessage());
+                    uploadId = null;
+                    offset = 0;
+                    if (listener != null) {
+                        listener.onChunkUploaded(null, 0, totalBytes);
+                    }
+                    continue;
+                }
+
+                if (result.containsKey(KEY_URL)) {
+                    return result;
+                }
+                if (result.get(KEY_UPLOAD_ID) == null || result.get(KEY_OFFSET) == null) {
+                    throw new XMLRPCException("Invalid chunked upload response");
+                }
+                uploadId = result.get(KEY_UPLOAD_ID).toString();
+                long receivedBytes = parseOffset(result.get(KEY_OFFSET));
+                if (receivedBytes < 0 || receivedBytes > totalBytes || receivedBytes == offset) {
+                    // out of range, or the server didn't store anything from this chunk
+                    throw new XMLRPCException("Invalid chunked upload offset: " + receivedBytes);
+                }
+                offset = receivedBytes;
+                if (listener != null) {
+                    listener.onChunkUploaded(uploadId, offset, totalBytes);
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Send a chunk, retrying a few times on network errors since the upload can resume where it stopped
+     */
+    private Map<?, ?> uploadChunk(String uploadId, long offset, long totalBytes, byte[] chunk)
+            throws XMLRPCException, IOException, XmlPullParserException {
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(KEY_NAME, mName);
+        data.put(KEY_TYPE, mMimeType);
+        data.put(KEY_OVERWRITE, true);
+        data.put(KEY_TOTAL_SIZE, String.valueOf(totalBytes));
+        data.put(KEY_OFFSET, String.valueOf(offset));
+        data.put(KEY_BITS, chunk);
+        if (uploadId != null) {
+            data.put(KEY_UPLOAD_ID, uploadId);
+        }
+        Object[] params = {mBlogId, mUsername, mPassword, data};
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Object result = mClient.call(Method.UPLOAD_FILE_CHUNK, params);
+                if (!(result instanceof Map)) {
+                    throw new XMLRPCException("Invalid chunked upload response");
+                }
+                return (Map<?, ?>) result;
+            } catch (IOException e) {
+                if (attempt >= MAX_CHUNK_RETRIES) {
+                    throw e;
+                }
+                AppLog.w(T.API, "Chunk upload failed, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(mRetryDelayMs << attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static long parseOffset(Object offset) throws XMLRPCException {
+        try {
+            return Long.parseLong(offset.toString());
+        } catch (NumberFormatException e) {
+            throw new XMLRPCException("Invalid chunked upload offset: " + offset);
+        }
+    }
+
+    private static byte[] copyOf(byte[] buffer, int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(buffer, 0, copy, 0, length);
+        return copy;
+    }
+}
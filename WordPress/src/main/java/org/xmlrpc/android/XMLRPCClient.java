@@ -1,21 +1,18 @@
 package org.xmlrpc.android;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Xml;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CookieStore;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.conn.scheme.Scheme;
-import org.apache.http.entity.FileEntity;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.params.HttpProtocolParams;
 import org.apache.http.util.EntityUtils;
@@ -31,10 +28,9 @@ import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlPullParserFactory;
 import org.xmlpull.v1.XmlSerializer;
 import org.xmlrpc.android.ApiHelper.Method;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
 
 import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -43,12 +39,12 @@ import java.io.SequenceInputStream;
 import java.io.StringWriter;
 import java.net.URI;
 import java.net.URL;
-import java.security.GeneralSecurityException;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.SSLHandshakeException;
 import javax.net.ssl.SSLPeerUnverifiedException;
@@ -66,7 +62,11 @@ public class XMLRPCClient implements XMLRPCClientInterface {
     public static final int DEFAULT_SOCKET_TIMEOUT_MS = 60000;
 
     public interface OnBytesUploadedListener {
-        public void onBytesUploaded(long uploadedBytes);
+        /**
+         * @param uploadedBytes number of bytes of the request body written so far
+         * @param totalBytes estimated size of the request body, never smaller than uploadedBytes
+         */
+        public void onBytesUploaded(long uploadedBytes, long totalBytes);
     }
 
     private static final String TAG_METHOD_CALL = "methodCall";
@@ -78,9 +78,12 @@ public class XMLRPCClient implements XMLRPCClientInterface {
     private static final String TAG_FAULT_CODE = "faultCode";
     private static final String TAG_FAULT_STRING = "faultString";
 
-    private Map<Long,Caller> backgroundCalls = new HashMap<Long, Caller>();
+    private static final AtomicLong sAsyncCallId = new AtomicLong();
+
+    private final Map<Long, AsyncCaller> mAsyncCalls = new ConcurrentHashMap<Long, AsyncCaller>();
 
     private DefaultHttpClient mClient;
+    private UsernamePasswordCredentials mCredentials;
     private OnBytesUploadedListener mOnBytesUploadedListener;
     private HttpPost mPostMethod;
     private XmlSerializer mSerializer;
@@ -98,17 +101,17 @@ public class XMLRPCClient implements XMLRPCClientInterface {
         mPostMethod.addHeader("Content-Type", "text/xml");
         mPostMethod.addHeader("charset", "UTF-8");
         mPostMethod.addHeader("User-Agent", WordPress.getUserAgent());
+        mPostMethod.addHeader("Accept-Encoding", XMLRPCCompression.ENCODING_GZIP);
         addWPComAuthorizationHeaderIfNeeded();
 
         mHttpParams = mPostMethod.getParams();
         HttpProtocolParams.setUseExpectContinue(mHttpParams, false);
 
-        UsernamePasswordCredentials credentials = null;
         if (!TextUtils.isEmpty(httpuser) && !TextUtils.isEmpty(httppasswd)) {
-            credentials = new UsernamePasswordCredentials(httpuser, httppasswd);
+            mCredentials = new UsernamePasswordCredentials(httpuser, httppasswd);
         }
 
-        mClient = instantiateClientForUri(uri, credentials);
+        mClient = instantiateClientForUri(uri, mCredentials);
         mSerializer = Xml.newSerializer();
     }
 
@@ -119,55 +122,24 @@ public class XMLRPCClient implements XMLRPCClientInterface {
         return mLoggedInputStream.getResponseDocument();
     }
 
-    private class ConnectionClient extends DefaultHttpClient {
-        public ConnectionClient(int port) throws IOException, GeneralSecurityException {
-            super();
-            TrustUserSSLCertsSocketFactory tasslf = new TrustUserSSLCertsSocketFactory();
-            Scheme scheme = new Scheme("https", tasslf, port);
-            getConnectionManager().getSchemeRegistry().register(scheme);
-        }
-    }
-
     private DefaultHttpClient instantiateClientForUri(URI uri, UsernamePasswordCredentials usernamePasswordCredentials) {
-        DefaultHttpClient client = null;
         if (WPUrlUtils.isWordPressCom(uri)) {
             mIsWpcom = true;
         }
-        if (mIsWpcom) {
-            //wpcom blog or self-hosted blog on plain HTTP
-            client = new DefaultHttpClient();
-        } else {
-            int port = uri.getPort();
-            if (port == -1) {
-                port = 443;
-            }
-
-            try {
-                client = new ConnectionClient(port);
-            } catch (GeneralSecurityException e) {
-                AppLog.e(T.API, "Cannot create the DefaultHttpClient object with our TrustUserSSLCertsSocketFactory", e);
-                client = null;
-            } catch (IOException e) {
-                AppLog.e(T.API, "Cannot create the DefaultHttpClient object with our TrustUserSSLCertsSocketFactory", e);
-                client = null;
-            }
-
-            if (client == null) {
-                client = new DefaultHttpClient();
-            }
-        }
-
-        HttpConnectionParams.setConnectionTimeout(client.getParams(), DEFAULT_CONNECTION_TIMEOUT_MS);
-        HttpConnectionParams.setSoTimeout(client.getParams(), DEFAULT_SOCKET_TIMEOUT_MS);
+        // wpcom blogs use the default socket factory, self-hosted blogs also trust user accepted certificates
+        return XMLRPCConnectionPool.getClient(uri, usernamePasswordCredentials, !mIsWpcom);
+    }
 
-        // Setup HTTP Basic Auth if necessary
-        if (usernamePasswordCredentials != null) {
-            BasicCredentialsProvider cP = new BasicCredentialsProvider();
-            cP.setCredentials(AuthScope.ANY, usernamePasswordCredentials);
-            client.setCredentialsProvider(cP);
+    /**
+     * The pool shuts down the connections of the hosts it evicts, this client then needs a new HTTP client on top
+     * of new connections. Cookies received so far are kept.
+     */
+    private synchronized void renewClientIfShutDown() {
+        if (XMLRPCConnectionPool.isShutDown(mClient)) {
+            CookieStore cookieStore = mClient.getCookieStore();
+            mClient = instantiateClientForUri(mPostMethod.getURI(), mCredentials);
+            mClient.setCookieStore(cookieStore);
         }
-
-        return client;
     }
 
     public void addQuickPostHeader(String type) {
@@ -212,7 +184,7 @@ public class XMLRPCClient implements XMLRPCClientInterface {
      * @throws XMLRPCException
      */
     public Object call(String method, Object[] params) throws XMLRPCException, IOException, XmlPullParserException {
-        return call(method, params, null);
+        return new Caller().callXMLRPC(method, params, null);
     }
 
     /**
@@ -223,48 +195,129 @@ public class XMLRPCClient implements XMLRPCClientInterface {
      * @throws XMLRPCException
      */
     public Object call(String method) throws XMLRPCException, IOException, XmlPullParserException {
-        return call(method, null, null);
+        return call(method, null);
     }
 
+    /**
+     * Call a method returning an array, and pass each element of the array to the visitor as soon as it's parsed
+     * instead of building the whole response in memory.
+     *
+     * @param method name of method to call
+     * @param params parameters to pass to method (may be null if method has no parameters)
+     * @param visitor receives the array elements, on the calling thread
+     * @return number of elements in the response array
+     * @throws XMLRPCException
+     */
+    public int callStreaming(String method, Object[] params, XMLRPCArrayVisitor visitor) throws XMLRPCException,
+            IOException, XmlPullParserException {
+        return (Integer) new Caller().callXMLRPC(method, params, visitor);
+    }
 
-    public Object call(String method, Object[] params, File tempFile) throws XMLRPCException, IOException, XmlPullParserException {
-        return new Caller().callXMLRPC(method, params, tempFile);
+    /**
+     * Send a batch of calls in a single system.multicall request. Falls back to one request per call if the server
+     * doesn't support system.multicall.
+     *
+     * @param multicall calls to send
+     * @return results in the order of the calls, a call that failed on the server has its {@link XMLRPCFault} instead
+     * @throws XMLRPCException
+     */
+    public Object[] callMulticall(XMLRPCMulticall multicall) throws XMLRPCException, IOException,
+            XmlPullParserException {
+        if (multicall.size() == 0) {
+            return new Object[0];
+        }
+        if (multicall.size() > 1 && isMulticallSupported()) {
+            try {
+                Object response = call(Method.MULTICALL, multicall.toMulticallParams());
+                Object[] results = multicall.demultiplex(response);
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] instanceof XMLRPCFault) {
+                        checkXMLRPCFault(multicall.getMethod(i), (XMLRPCFault) results[i]);
+                    }
+                }
+                return results;
+            } catch (XMLRPCFault e) {
+                // system.multicall itself has been rejected (disabled by a plugin or a security rule)
+                AppLog.w(T.API, "system.multicall failed: " + e.getMessage());
+                XMLRPCMulticall.setMulticallSupported(getEndpoint(), false);
+            }
+        }
+        return multicall.callSequentially(this);
+    }
+
+    private boolean isMulticallSupported() {
+        Boolean supported = XMLRPCMulticall.isMulticallSupported(getEndpoint());
+        if (supported == null) {
+            try {
+                Object availableMethods = call(Method.LIST_METHODS);
+                supported = availableMethods instanceof Object[]
+                        && XMLRPCMulticall.containsMulticall((Object[]) availableMethods);
+                XMLRPCMulticall.setMulticallSupported(getEndpoint(), supported);
+            } catch (XMLRPCException | IOException | XmlPullParserException e) {
+                // don't remember anything, we'll try again on the next batch
+                AppLog.w(T.API, "Can't detect system.multicall support: " + e.getMessage());
+                return false;
+            }
+        }
+        return supported;
+    }
+
+    private String getEndpoint() {
+        return mPostMethod.getURI().toString();
+    }
+
+    private String getHost() {
+        return StringUtils.notNullStr(mPostMethod.getURI().getHost()).toLowerCase();
     }
 
     /**
-     * Convenience call for callAsync with two paramaters
+     * Asynchronous XMLRPC call, with {@link Priority#USER} priority
      *
-     * @param listener, methodName, parameters
+     * @param listener, XMLRPC methodName, XMLRPC parameters
      * @return unique id of this async call
-     * @throws XMLRPCException
      */
     public long callAsync(XMLRPCCallback listener, String methodName, Object[] params) {
-        return callAsync(listener, methodName, params, null);
+        return callAsync(listener, methodName, params, Priority.USER);
     }
 
     /**
-     * Asynchronous XMLRPC call
+     * Asynchronous XMLRPC call, queued on the shared {@link XMLRPCCallExecutor}
      *
-     * @param listener, XMLRPC methodName, XMLRPC parameters, File for large uploads
+     * @param listener, XMLRPC methodName, XMLRPC parameters, priority of the call in the queue
      * @return unique id of this async call
-     * @throws XMLRPCException
      */
-    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, File tempFile) {
-        long id = System.currentTimeMillis();
-        new Caller(listener, id, methodName, params, tempFile).start();
+    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, Priority priority) {
+        long id = sAsyncCallId.incrementAndGet();
+        AsyncCaller caller = new AsyncCaller(listener, id, methodName, params, priority);
+        mAsyncCalls.put(id, caller);
+        XMLRPCCallExecutor.submit(caller);
         return id;
     }
 
     /**
-     * Cancel the current call
+     * Cancel the current call and the queued asynchronous calls of this client. Listeners of canceled calls
+     * aren't notified.
      */
     public void cancel() {
+        for (AsyncCaller caller : mAsyncCalls.values()) {
+            caller.cancel();
+        }
+        mAsyncCalls.clear();
         mPostMethod.abort();
     }
 
-    @SuppressWarnings("unchecked")
     public static Object parseXMLRPCResponse(InputStream is, HttpEntity entity)
             throws XMLRPCException, IOException, XmlPullParserException, NumberFormatException {
+        return parseXMLRPCResponse(is, entity, null);
+    }
+
+    /**
+     * Parse a response document. If a visitor is given the response must be an array: its elements are passed to
+     * the visitor while they're parsed, and the number of elements is returned instead of the array.
+     */
+    @SuppressWarnings("unchecked")
+    public static Object parseXMLRPCResponse(InputStream is, HttpEntity entity, XMLRPCArrayVisitor visitor)
+            throws XMLRPCException, IOException, XmlPullParserException, NumberFormatException {
         // setup pull parser
         XmlPullParser pullParser = XmlPullParserFactory.newInstance().newPullParser();
 
@@ -310,7 +363,12 @@ public class XMLRPCClient implements XMLRPCClientInterface {
             pullParser.nextTag(); // TAG_VALUE (<value>)
             // no parser.require() here since its called in XMLRPCSerializer.deserialize() below
             // deserialize result
-            Object obj = XMLRPCSerializer.deserialize(pullParser);
+            Object obj;
+            if (visitor != null) {
+                obj = XMLRPCSerializer.deserializeArray(pullParser, visitor);
+            } else {
+                obj = XMLRPCSerializer.deserialize(pullParser);
+            }
             consumeHttpEntity(entity);
             return obj;
         } else if (tag.equals(TAG_FAULT)) {
@@ -353,70 +411,22 @@ public class XMLRPCClient implements XMLRPCClientInterface {
         }
     }
 
-    public void preparePostMethod(String method, Object[] params, File tempFile) throws IOException, XMLRPCException, IllegalArgumentException, IllegalStateException {
+    public void preparePostMethod(String method, Object[] params) throws IOException, XMLRPCException, IllegalArgumentException, IllegalStateException {
         // prepare POST body
         if (method.equals(Method.UPLOAD_FILE)) {
-            if (!tempFile.exists() && !tempFile.mkdirs()) {
-                throw new XMLRPCException("Path to file could not be created.");
-            }
-
-            FileWriter fileWriter = new FileWriter(tempFile);
-            mSerializer.setOutput(fileWriter);
-
-            mSerializer.startDocument(null, null);
-            mSerializer.startTag(null, TAG_METHOD_CALL);
-            // set method name
-            mSerializer.startTag(null, TAG_METHOD_NAME).text(method).endTag(null, TAG_METHOD_NAME);
-            if (params != null && params.length != 0) {
-                // set method params
-                mSerializer.startTag(null, TAG_PARAMS);
-                for (int i = 0; i < params.length; i++) {
-                    mSerializer.startTag(null, TAG_PARAM).startTag(null, XMLRPCSerializer.TAG_VALUE);
-                    XMLRPCSerializer.serialize(mSerializer, params[i]);
-                    mSerializer.endTag(null, XMLRPCSerializer.TAG_VALUE).endTag(null, TAG_PARAM);
-                }
-                mSerializer.endTag(null, TAG_PARAMS);
-            }
-            mSerializer.endTag(null, TAG_METHOD_CALL);
-            mSerializer.endDocument();
-
-            fileWriter.flush();
-            fileWriter.close();
-
-            FileEntity fEntity = new FileEntity(tempFile, "text/xml; charset=\"UTF-8\"") {
+            // Media files are base64 encoded straight into the request stream, no temp file needed
+            final XMLRPCStreamingEntity streamingEntity = new XMLRPCStreamingEntity(method, params) {
                 // Hook in a CountingOutputStream to keep track of bytes uploaded
                 @Override
                 public void writeTo(final OutputStream outstream) throws IOException {
-                    super.writeTo(new CountingOutputStream(outstream));
+                    super.writeTo(new CountingOutputStream(outstream, getEstimatedLength()));
                 }
             };
-
-            fEntity.setContentType("text/xml");
-            mPostMethod.setEntity(fEntity);
+            mPostMethod.setEntity(streamingEntity);
         } else {
             StringWriter bodyWriter = new StringWriter();
             mSerializer.setOutput(bodyWriter);
-
-            mSerializer.startDocument(null, null);
-            mSerializer.startTag(null, TAG_METHOD_CALL);
-            // set method name
-            mSerializer.startTag(null, TAG_METHOD_NAME).text(method).endTag(null, TAG_METHOD_NAME);
-            if (params != null && params.length != 0) {
-                // set method params
-                mSerializer.startTag(null, TAG_PARAMS);
-                for (int i = 0; i < params.length; i++) {
-                    mSerializer.startTag(null, TAG_PARAM).startTag(null, XMLRPCSerializer.TAG_VALUE);
-                    if (method.equals("metaWeblog.editPost") || method.equals("metaWeblog.newPost")) {
-                        XMLRPCSerializer.serialize(mSerializer, params[i]);
-                    } else {
-                        XMLRPCSerializer.serialize(mSerializer, params[i]);
-                    }
-                    mSerializer.endTag(null, XMLRPCSerializer.TAG_VALUE).endTag(null, TAG_PARAM);
-                }
-                mSerializer.endTag(null, TAG_PARAMS);
-            }
-            mSerializer.endTag(null, TAG_METHOD_CALL);
-            mSerializer.endDocument();
+            serializeMethodCall(mSerializer, method, params);
 
             HttpEntity entity = new StringEntity(bodyWriter.toString());
             mPostMethod.setEntity(entity);
@@ -424,86 +434,100 @@ public class XMLRPCClient implements XMLRPCClientInterface {
     }
 
     /**
-     * The Caller class is used to make asynchronous calls to the server.
-     * For synchronous calls the Thread function of this class isn't used.
+     * Write a complete XML-RPC methodCall document to the serializer, its output must be set by the caller.
      */
-    private class Caller extends Thread {
-        private XMLRPCCallback listener;
-        private long threadId;
-        private String methodName;
-        private Object[] params;
-        private File tempFile;
-
-        /**
-         * Create a new Caller for asynchronous use.
-         *
-         * @param listener The listener to notice about the response or an error.
-         * @param threadId An id that will be send to the listener.
-         * @param methodName The method name to call.
-         * @param params The parameters of the call or null.
-         */
-        public Caller(XMLRPCCallback listener, long threadId, String methodName, Object[] params, File tempFile) {
-            this.listener = listener;
-            this.threadId = threadId;
-            this.methodName = methodName;
-            this.params = params;
-            this.tempFile = tempFile;
+    static void serializeMethodCall(XmlSerializer serializer, String method, Object[] params) throws IOException {
+        serializer.startDocument(null, null);
+        serializer.startTag(null, TAG_METHOD_CALL);
+        // set method name
+        serializer.startTag(null, TAG_METHOD_NAME).text(method).endTag(null, TAG_METHOD_NAME);
+        if (params != null && params.length != 0) {
+            // set method params
+            serializer.startTag(null, TAG_PARAMS);
+            for (int i = 0; i < params.length; i++) {
+                serializer.startTag(null, TAG_PARAM).startTag(null, XMLRPCSerializer.TAG_VALUE);
+                XMLRPCSerializer.serialize(serializer, params[i]);
+                serializer.endTag(null, XMLRPCSerializer.TAG_VALUE).endTag(null, TAG_PARAM);
+            }
+            serializer.endTag(null, TAG_PARAMS);
         }
+        serializer.endTag(null, TAG_METHOD_CALL);
+        serializer.endDocument();
+    }
 
-        /**
-         * Create a new Caller for synchronous use.
-         * If the caller has been created with this constructor you cannot use the
-         * start method to start it as a thread. But you can call the call method
-         * on it for synchronous use.
-         */
-        public Caller() { }
+    /**
+     * An asynchronous call waiting in the {@link XMLRPCCallExecutor} queue, it notifies the listener about the
+     * response or the error unless it has been canceled.
+     */
+    private class AsyncCaller extends XMLRPCCallExecutor.Call {
+        private final XMLRPCCallback mListener;
+        private final long mId;
+        private final String mMethodName;
+        private final Object[] mParams;
+
+        AsyncCaller(XMLRPCCallback listener, long id, String methodName, Object[] params, Priority priority) {
+            super(priority);
+            mListener = listener;
+            mId = id;
+            mMethodName = methodName;
+            mParams = params;
+        }
 
-        /**
-         * The run method is invoked when the thread gets started.
-         * This will only work, if the Caller has been created with parameters.
-         * It execute the call method and notify the listener about the result.
-         */
         @Override
-        public void run() {
-            if(listener == null)
-                return;
-
+        void execute() {
             try {
-                backgroundCalls.put(threadId, this);
-                Object o = this.callXMLRPC(methodName, params, tempFile);
-                listener.onSuccess(threadId, o);
-            } catch(CancelException ex) {
-                // Don't notify the listener, if the call has been canceled.
+                Object o = new Caller().callXMLRPC(mMethodName, mParams, null);
+                if (mListener != null && !isCanceled()) {
+                    mListener.onSuccess(mId, o);
+                }
             } catch (Exception ex) {
-                listener.onFailure(threadId, ex);
+                if (mListener != null && !isCanceled()) {
+                    mListener.onFailure(mId, ex);
+                }
             } finally {
-                backgroundCalls.remove(threadId);
+                mAsyncCalls.remove(mId);
             }
-
         }
+    }
+
+    /**
+     * The Caller class is used to make calls to the server, synchronous calls use it directly and asynchronous
+     * calls from the {@link XMLRPCCallExecutor} threads.
+     */
+    private class Caller {
 
         /**
          * Call method with optional parameters
          *
          * @param method name of method to call
          * @param params parameters to pass to method (may be null if method has no parameters)
-         * @return deserialized method return value
+         * @param visitor if not null, receives the elements of the response array while it's parsed
+         * @return deserialized method return value, or the number of array elements if a visitor is set
          * @throws XMLRPCException
          */
-        private Object callXMLRPC(String method, Object[] params, File tempFile)
+        private Object callXMLRPC(String method, Object[] params, XMLRPCArrayVisitor visitor)
                 throws XMLRPCException, IOException, XmlPullParserException {
             mLoggedInputStream = null;
+            XMLRPCStats.MethodStats stats = XMLRPCStats.get(getHost(), method);
             try {
-                preparePostMethod(method, params, tempFile);
+                preparePostMethod(method, params);
+                stats.recordRequest(getRequestLength(mPostMethod.getEntity()));
 
                 // execute HTTP POST request
+                long requestStart = SystemClock.elapsedRealtime();
+                renewClientIfShutDown();
                 HttpResponse response = mClient.execute(mPostMethod);
+                XMLRPCConnectionPool.onRequestExecuted();
+                stats.recordTimeToFirstByte(SystemClock.elapsedRealtime() - requestStart);
 
-                if (response.getStatusLine() == null) // StatusLine is null. We can't read the response code.
+                if (response.getStatusLine() == null) { // StatusLine is null. We can't read the response code.
+                    // release the connection so it can go back to the pool
+                    consumeHttpEntity(response.getEntity());
                     throw new XMLRPCException( "HTTP Status code is missing!" );
+                }
 
                 int statusCode = response.getStatusLine().getStatusCode();
-                HttpEntity entity = response.getEntity();
+                HttpEntity entity = XMLRPCCompression.decompressIfNeeded(response.getEntity());
 
                 if (entity == null) {
                     //This is an error since the parser will fail here.
@@ -511,8 +535,13 @@ public class XMLRPCClient implements XMLRPCClientInterface {
                 }
 
                 if (statusCode == HttpStatus.SC_OK) {
+                    // the response is logged after decompression
                     mLoggedInputStream = new LoggedInputStream(entity.getContent());
-                    return XMLRPCClient.parseXMLRPCResponse(mLoggedInputStream, entity);
+                    long parseStart = SystemClock.elapsedRealtime();
+                    Object result = XMLRPCClient.parseXMLRPCResponse(mLoggedInputStream, entity, visitor);
+                    stats.recordResponse(XMLRPCCompression.getReceivedBytes(entity, mLoggedInputStream.getBytesRead()),
+                            SystemClock.elapsedRealtime() - parseStart);
+                    return result;
                 }
 
                 String statusLineReasonPhrase = StringUtils.notNullStr(response.getStatusLine().getReasonPhrase());
@@ -546,29 +575,14 @@ public class XMLRPCClient implements XMLRPCClientInterface {
                 }
                 throw new XMLRPCException( "HTTP status code: " + statusCode + " was returned. " + statusLineReasonPhrase);
             } catch (XMLRPCFault e) {
+                stats.recordFault();
                 if (mLoggedInputStream!=null) {
                     AppLog.w(T.API, "Response document received from the server: " + mLoggedInputStream.getResponseDocument());
                 }
-                // Detect login issues and broadcast a message if the error is known
-                switch (e.getFaultCode()) {
-                    case 403:
-                        // Ignore 403 error from certain methods known for replying with incorrect error code on
-                        // lacking permissions
-                        if ("wp.getPostFormats".equals(method) || "wp.getCommentStatusList".equals(method)
-                            || "wp.getPostStatusList".equals(method) || "wp.getPageStatusList".equals(method)) {
-                            break;
-                        }
-                        EventBus.getDefault().post(new CoreEvents.InvalidCredentialsDetected());
-                        break;
-                    case 425:
-                        EventBus.getDefault().post(new CoreEvents.TwoFactorAuthenticationDetected());
-                        break;
-                    //TODO: Check the login limit here
-                    default:
-                        break;
-                }
+                checkXMLRPCFault(method, e);
                 throw e;
             } catch (XmlPullParserException e) {
+                stats.recordOtherError();
                 AppLog.e(T.API, "Error while parsing the XML-RPC response document received from the server.", e);
                 if (mLoggedInputStream!=null) {
                     AppLog.e(T.API, "Response document received from the server: " + mLoggedInputStream.getResponseDocument());
@@ -578,18 +592,21 @@ public class XMLRPCClient implements XMLRPCClientInterface {
             } catch (NumberFormatException e) {
                 //we can catch NumberFormatException here and re-throw an XMLRPCException.
                 //The response document is not a valid XML-RPC document after all.
+                stats.recordOtherError();
                 AppLog.e(T.API, "Error while parsing the XML-RPC response document received from the server.", e);
                 if (mLoggedInputStream!=null) {
                     AppLog.e(T.API, "Response document received from the server: " + mLoggedInputStream.getResponseDocument());
                 }
                 throw new XMLRPCException("The response received contains an invalid number. " + e.getMessage());
             } catch (XMLRPCException e) {
+                stats.recordOtherError();
                 if (mLoggedInputStream!=null) {
                     AppLog.e(T.API, "Response document received from the server: " + mLoggedInputStream.getResponseDocument());
                 }
                 checkXMLRPCErrorMessage(e);
                 throw e;
             } catch (SSLHandshakeException e) {
+                stats.recordIOError();
                 if (mIsWpcom) {
                     AppLog.e(T.NUX, "SSLHandshakeException failed. Erroneous SSL certificate detected on wordpress.com");
                 } else {
@@ -598,6 +615,7 @@ public class XMLRPCClient implements XMLRPCClientInterface {
                 }
                 throw e;
             } catch (SSLPeerUnverifiedException e) {
+                stats.recordIOError();
                 if (mIsWpcom) {
                     AppLog.e(T.NUX, "SSLPeerUnverifiedException failed. Erroneous SSL certificate detected on wordpress.com");
                 } else {
@@ -606,9 +624,9 @@ public class XMLRPCClient implements XMLRPCClientInterface {
                 }
                 throw e;
             } catch (IOException e) {
+                stats.recordIOError();
                 throw e;
             } finally {
-                deleteTempFile(method, tempFile);
                 try {
                     if (mLoggedInputStream != null) {
                         mLoggedInputStream.close();
@@ -619,6 +637,29 @@ public class XMLRPCClient implements XMLRPCClientInterface {
         }
     }
 
+    /**
+     * Detect login issues from a fault and broadcast a message if the error is known
+     */
+    private void checkXMLRPCFault(String method, XMLRPCFault e) {
+        switch (e.getFaultCode()) {
+            case 403:
+                // Ignore 403 error from certain methods known for replying with incorrect error code on
+                // lacking permissions
+                if ("wp.getPostFormats".equals(method) || "wp.getCommentStatusList".equals(method)
+                    || "wp.getPostStatusList".equals(method) || "wp.getPageStatusList".equals(method)) {
+                    break;
+                }
+                EventBus.getDefault().post(new CoreEvents.InvalidCredentialsDetected());
+                break;
+            case 425:
+                EventBus.getDefault().post(new CoreEvents.TwoFactorAuthenticationDetected());
+                break;
+            //TODO: Check the login limit here
+            default:
+                break;
+        }
+    }
+
     /**
      * Detect login issues and broadcast a message if the error is known, App Activities should listen to these
      * broadcasted events and present user action to take
@@ -635,14 +676,6 @@ public class XMLRPCClient implements XMLRPCClientInterface {
         return false;
     }
 
-    private void deleteTempFile(String method, File tempFile) {
-        if (tempFile != null) {
-            if ((method.equals(Method.UPLOAD_FILE))){ //get rid of the temp file
-                tempFile.delete();
-            }
-        }
-    }
-
     private void addWPComAuthorizationHeaderIfNeeded() {
         Context ctx = WordPress.getContext();
         if (ctx == null) return;
@@ -669,40 +702,49 @@ public class XMLRPCClient implements XMLRPCClientInterface {
         return path.equals("/xmlrpc.php") && WPUrlUtils.safeToAddWordPressComAuthToken(clientUri) && protocol.equals("https");
     }
 
-    private class CancelException extends RuntimeException {
-        private static final long serialVersionUID = 1L;
+    /*
+     * returns the number of bytes sent for the passed request entity, estimated for streamed requests
+     */
+    private static long getRequestLength(HttpEntity entity) {
+        if (entity instanceof XMLRPCStreamingEntity) {
+            return ((XMLRPCStreamingEntity) entity).getEstimatedLength();
+        }
+        return entity.getContentLength();
     }
 
     private class CountingOutputStream extends FilterOutputStream {
 
         private long mTotalBytes;
+        private final long mEstimatedLength;
 
-        CountingOutputStream(final OutputStream out) {
+        CountingOutputStream(final OutputStream out, long estimatedLength) {
             super(out);
+            mEstimatedLength = estimatedLength;
         }
 
         @Override
         public void write(int b) throws IOException {
             out.write(b);
+            onBytesWritten(1);
         }
 
         @Override
         public void write(byte[] b) throws IOException {
-            out.write(b);
-            mTotalBytes += b.length;
-
-            if (mOnBytesUploadedListener != null) {
-                mOnBytesUploadedListener.onBytesUploaded(mTotalBytes);
-            }
+            write(b, 0, b.length);
         }
 
         @Override
         public void write(byte[] b, int off, int len) throws IOException {
             out.write(b, off, len);
+            onBytesWritten(len);
+        }
+
+        private void onBytesWritten(int len) {
             mTotalBytes += len;
 
             if (mOnBytesUploadedListener != null) {
-                mOnBytesUploadedListener.onBytesUploaded(mTotalBytes);
+                // the estimate doesn't include the XML envelope
+                mOnBytesUploadedListener.onBytesUploaded(mTotalBytes, Math.max(mTotalBytes, mEstimatedLength));
             }
         }
     }
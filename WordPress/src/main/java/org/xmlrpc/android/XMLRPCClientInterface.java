@@ -1,8 +1,8 @@
 package org.xmlrpc.android;
 
 import org.xmlpull.v1.XmlPullParserException;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
 
-import java.io.File;
 import java.io.IOException;
 
 public interface XMLRPCClientInterface {
@@ -10,8 +10,9 @@ public interface XMLRPCClientInterface {
     public void setAuthorizationHeader(String authToken);
     public Object call(String method, Object[] params) throws XMLRPCException, IOException, XmlPullParserException;
     public Object call(String method) throws XMLRPCException, IOException, XmlPullParserException;
-    public Object call(String method, Object[] params, File tempFile) throws XMLRPCException, IOException, XmlPullParserException;
+    public int callStreaming(String method, Object[] params, XMLRPCArrayVisitor visitor) throws XMLRPCException, IOException, XmlPullParserException;
+    public Object[] callMulticall(XMLRPCMulticall multicall) throws XMLRPCException, IOException, XmlPullParserException;
     public long callAsync(XMLRPCCallback listener, String methodName, Object[] params);
-    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, File tempFile);
+    public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, Priority priority);
     public String getResponse();
 }
@@ -0,0 +1,94 @@
+package org.xmlrpc.android;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * gzip support for XML-RPC responses.
+ *
+ * Responses are requested with "Accept-Encoding: gzip" and decompressed on the fly. Request bodies are never
+ * compressed: a server compressing its responses doesn't mean PHP will inflate a gzip encoded request body, and
+ * WordPress doesn't advertise it.
+ */
+class XMLRPCCompression {
+    static final String ENCODING_GZIP = "gzip";
+
+    private XMLRPCCompression() {
+        throw new AssertionError();
+    }
+
+    static boolean isGzipEncoded(HttpEntity entity) {
+        Header contentEncoding = entity.getContentEncoding();
+        return contentEncoding != null && contentEncoding.getValue() != null
+                && contentEncoding.getValue().toLowerCase().contains(ENCODING_GZIP);
+    }
+
+    /**
+     * Returns an entity whose content is decompressed if the server sent it gzip encoded
+     */
+    static HttpEntity decompressIfNeeded(HttpEntity entity) {
+        if (entity == null || !isGzipEncoded(entity)) {
+            return entity;
+        }
+        return new GzipDecompressingEntity(entity);
+    }
+
+    /**
+     * Returns the number of bytes received for an entity returned by {@link #decompressIfNeeded}, given the number
+     * of bytes read from its content
+     */
+    static long getReceivedBytes(HttpEntity entity, long bytesRead) {
+        if (entity instanceof GzipDecompressingEntity) {
+            return ((GzipDecompressingEntity) entity).mCompressedBytesRead;
+        }
+        return bytesRead;
+    }
+
+    private static class GzipDecompressingEntity extends HttpEntityWrapper {
+        private long mCompressedBytesRead;
+
+        GzipDecompressingEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new GZIPInputStream(new FilterInputStream(wrappedEntity.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        mCompressedBytesRead++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int count) throws IOException {
+                    int length = super.read(buffer, offset, count);
+                    if (length > 0) {
+                        mCompressedBytesRead += length;
+                    }
+                    return length;
+                }
+            });
+        }
+
+        @Override
+        public long getContentLength() {
+            // the decompressed length isn't known
+            return -1;
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return null;
+        }
+    }
+}
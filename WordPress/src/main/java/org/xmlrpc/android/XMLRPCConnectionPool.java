@@ -0,0 +1,288 @@
+package org.xmlrpc.android;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HttpContext;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one keep-alive connection manager per XML-RPC endpoint so consecutive calls to the same host reuse their
+ * TCP/TLS connections instead of paying a new handshake every time an {@link XMLRPCClient} is instantiated.
+ *
+ * Connection managers are keyed on scheme, host, port and on whether user trusted certificates are accepted. Each
+ * XMLRPCClient gets its own HTTP client on top of the shared manager, so cookies and HTTP auth credentials are never
+ * shared between them. Idle connections are evicted lazily every time a client is requested. Managers are shut down
+ * when their host is evicted from the pool, and all of them are when the local trust store changes.
+ */
+public class XMLRPCConnectionPool {
+    private static final int MAX_POOLED_HOSTS = 8;
+    private static final int MAX_CONNECTIONS_PER_HOST = 4;
+    private static final int MAX_CONNECTIONS_TOTAL = 8;
+    private static final long IDLE_TIMEOUT_MS = 30000;
+    private static final long CONNECTION_REQUEST_TIMEOUT_MS = 30000;
+
+    private static final AtomicLong sRequestCount = new AtomicLong();
+    private static final AtomicLong sConnectionCount = new AtomicLong();
+
+    // access ordered so the least recently used host is evicted first
+    private static final Map<PoolKey, CountingConnManager> sConnManagers =
+            new LinkedHashMap<PoolKey, CountingConnManager>(MAX_POOLED_HOSTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PoolKey, CountingConnManager> eldest) {
+                    if (size() > MAX_POOLED_HOSTS) {
+                        eldest.getValue().shutdown();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    private XMLRPCConnectionPool() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns a new client for this endpoint on top of its shared connection manager, creating the manager if
+     * needed. The returned client is thread safe.
+     */
+    static DefaultHttpClient getClient(URI uri, UsernamePasswordCredentials credentials, boolean trustUserCerts) {
+        PoolKey key = new PoolKey(uri, trustUserCerts);
+        List<CountingConnManager> connManagers;
+        CountingConnManager connManager;
+        synchronized (sConnManagers) {
+            connManager = sConnManagers.get(key);
+            if (connManager == null) {
+                connManager = newConnManager(key.mPort, trustUserCerts);
+                sConnManagers.put(key, connManager);
+            }
+            connManagers = new ArrayList<CountingConnManager>(sConnManagers.values());
+        }
+        evictIdleConnections(connManagers);
+        return newClient(connManager, credentials);
+    }
+
+    /**
+     * Returns true if the connection manager of the passed client was shut down, in which case a new client must
+     * be requested before it's used again.
+     */
+    static boolean isShutDown(DefaultHttpClient client) {
+        return client.getConnectionManager() instanceof CountingConnManager
+                && ((CountingConnManager) client.getConnectionManager()).isShutDown();
+    }
+
+    /**
+     * Shut down all pooled connections, must be called when the trusted certificates change.
+     */
+    public static void evictAll() {
+        List<CountingConnManager> connManagers;
+        synchronized (sConnManagers) {
+            connManagers = new ArrayList<CountingConnManager>(sConnManagers.values());
+            sConnManagers.clear();
+        }
+        for (CountingConnManager connManager : connManagers) {
+            connManager.shutdown();
+        }
+    }
+
+    static void onRequestExecuted() {
+        sRequestCount.incrementAndGet();
+    }
+
+    public static long getRequestCount() {
+        return sRequestCount.get();
+    }
+
+    public static long getConnectionCount() {
+        return sConnectionCount.get();
+    }
+
+    /**
+     * Number of requests that were sent over an already open connection, i.e. connect/TLS handshakes avoided.
+     */
+    public static long getHandshakesAvoidedCount() {
+        return Math.max(0, sRequestCount.get() - sConnectionCount.get());
+    }
+
+    public static void logStats() {
+        AppLog.i(T.API, "XML-RPC connection pool: " + getRequestCount() + " requests, " + getConnectionCount()
+                + " connections opened, " + getHandshakesAvoidedCount() + " handshakes avoided");
+    }
+
+    private static void evictIdleConnections(List<CountingConnManager> connManagers) {
+        for (CountingConnManager connManager : connManagers) {
+            connManager.closeExpiredConnections();
+            connManager.closeIdleConnections(IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static CountingConnManager newConnManager(int port, boolean trustUserCerts) {
+        SchemeRegistry schemeRegistry = new SchemeRegistry();
+        schemeRegistry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
+        schemeRegistry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(), 443));
+        if (trustUserCerts) {
+            try {
+                TrustUserSSLCertsSocketFactory tasslf = new TrustUserSSLCertsSocketFactory();
+                schemeRegistry.register(new Scheme("https", tasslf, port));
+            } catch (GeneralSecurityException e) {
+                AppLog.e(T.API, "Cannot create the DefaultHttpClient object with our TrustUserSSLCertsSocketFactory", e);
+            } catch (IOException e) {
+                AppLog.e(T.API, "Cannot create the DefaultHttpClient object with our TrustUserSSLCertsSocketFactory", e);
+            }
+        }
+
+        HttpParams params = new BasicHttpParams();
+        HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
+        HttpProtocolParams.setContentCharset(params, "UTF-8");
+        ConnManagerParams.setMaxTotalConnections(params, MAX_CONNECTIONS_TOTAL);
+        ConnManagerParams.setMaxConnectionsPerRoute(params, new ConnPerRouteBean(MAX_CONNECTIONS_PER_HOST));
+        ConnManagerParams.setTimeout(params, CONNECTION_REQUEST_TIMEOUT_MS);
+        HttpConnectionParams.setConnectionTimeout(params, XMLRPCClient.DEFAULT_CONNECTION_TIMEOUT_MS);
+        HttpConnectionParams.setSoTimeout(params, XMLRPCClient.DEFAULT_SOCKET_TIMEOUT_MS);
+        HttpConnectionParams.setStaleCheckingEnabled(params, true);
+
+        return new CountingConnManager(params, schemeRegistry);
+    }
+
+    private static DefaultHttpClient newClient(CountingConnManager connManager,
+                                               UsernamePasswordCredentials credentials) {
+        DefaultHttpClient client = new DefaultHttpClient(connManager, connManager.getHttpParams());
+        client.setKeepAliveStrategy(new CappedKeepAliveStrategy());
+
+        // Setup HTTP Basic Auth if necessary
+        if (credentials != null) {
+            BasicCredentialsProvider cP = new BasicCredentialsProvider();
+            cP.setCredentials(AuthScope.ANY, credentials);
+            client.setCredentialsProvider(cP);
+        }
+        return client;
+    }
+
+    /**
+     * Never keep a connection longer than the idle timeout, even if the server allows it: shared hosts often
+     * drop connections silently, and a stale connection costs a failed request.
+     */
+    private static class CappedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final ConnectionKeepAliveStrategy mDefaultStrategy = new DefaultConnectionKeepAliveStrategy();
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = mDefaultStrategy.getKeepAliveDuration(response, context);
+            if (duration <= 0 || duration > IDLE_TIMEOUT_MS) {
+                return IDLE_TIMEOUT_MS;
+            }
+            return duration;
+        }
+    }
+
+    private static class CountingConnManager extends ThreadSafeClientConnManager {
+        private final HttpParams mParams;
+        private volatile boolean mIsShutDown;
+
+        CountingConnManager(HttpParams params, SchemeRegistry schemeRegistry) {
+            super(params, schemeRegistry);
+            mParams = params;
+        }
+
+        HttpParams getHttpParams() {
+            return mParams;
+        }
+
+        boolean isShutDown() {
+            return mIsShutDown;
+        }
+
+        @Override
+        public void shutdown() {
+            mIsShutDown = true;
+            super.shutdown();
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+            return new DefaultClientConnectionOperator(schemeRegistry) {
+                @Override
+                public void openConnection(OperatedClientConnection conn, HttpHost target,
+                                           InetAddress local, HttpContext context, HttpParams params)
+                        throws IOException {
+                    sConnectionCount.incrementAndGet();
+                    super.openConnection(conn, target, local, context, params);
+                }
+            };
+        }
+    }
+
+    private static class PoolKey {
+        private final String mScheme;
+        private final String mHost;
+        private final int mPort;
+        private final boolean mTrustUserCerts;
+
+        PoolKey(URI uri, boolean trustUserCerts) {
+            mScheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+            mHost = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+            int port = uri.getPort();
+            if (port == -1) {
+                port = "http".equals(mScheme) ? 80 : 443;
+            }
+            mPort = port;
+            mTrustUserCerts = trustUserCerts;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey) o;
+            return mPort == other.mPort
+                    && mTrustUserCerts == other.mTrustUserCerts
+                    && mScheme.equals(other.mScheme)
+                    && mHost.equals(other.mHost);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mScheme.hashCode();
+            result = 31 * result + mHost.hashCode();
+            result = 31 * result + mPort;
+            result = 31 * result + (mTrustUserCerts ? 1 : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package org.xmlrpc.android;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+import android.webkit.URLUtil;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.WordPress;
+import org.wordpress.android.networking.SelfSignedSSLCertsManager;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent cache of the XML-RPC endpoints discovered for self-hosted sites, keyed by the site URL entered by the
+ * user, so signing in again doesn't go through the whole guessing and RSD discovery process.
+ *
+ * Entries expire after {@link #TTL_MS}, and must be invalidated when the cached endpoint stops working. Entries
+ * resolved while the user trusted some certificates are dropped when the local trust store is emptied.
+ */
+public class XMLRPCDiscoveryCache {
+    private static final String PREFS_NAME = "xmlrpc_discovery_cache";
+    private static final long TTL_MS = 7 * 24 * 60 * 60 * 1000L;
+
+    private static final String KEY_XMLRPC_URL = "xmlrpc_url";
+    private static final String KEY_REDIRECTS = "redirects";
+    private static final String KEY_METHODS = "methods";
+    private static final String KEY_USER_TRUSTED_CERTS = "user_trusted_certs";
+    private static final String KEY_TIMESTAMP = "timestamp";
+
+    public static class Endpoint {
+        private final String mXmlrpcUrl;
+        private final List<String> mRedirects;
+        private final Set<String> mMethods;
+        private final boolean mUsesUserTrustedCerts;
+        private final long mTimestamp;
+
+        private Endpoint(String xmlrpcUrl, List<String> redirects, Set<String> methods, boolean usesUserTrustedCerts,
+                         long timestamp) {
+            mXmlrpcUrl = xmlrpcUrl;
+            mRedirects = Collections.unmodifiableList(redirects);
+            mMethods = Collections.unmodifiableSet(methods);
+            mUsesUserTrustedCerts = usesUserTrustedCerts;
+            mTimestamp = timestamp;
+        }
+
+        public String getXmlrpcUrl() {
+            return mXmlrpcUrl;
+        }
+
+        /**
+         * URLs the site redirected to while the endpoint was discovered, empty if it was found without discovery
+         */
+        public List<String> getRedirects() {
+            return mRedirects;
+        }
+
+        /**
+         * Methods returned by system.listMethods
+         */
+        public Set<String> getMethods() {
+            return mMethods;
+        }
+
+        /**
+         * True if the endpoint was reached while the user trusted certificates not trusted by the system
+         */
+        public boolean usesUserTrustedCerts() {
+            return mUsesUserTrustedCerts;
+        }
+
+        private boolean isExpired() {
+            long age = System.currentTimeMillis() - mTimestamp;
+            return age < 0 || age > TTL_MS;
+        }
+
+        private String toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put(KEY_XMLRPC_URL, mXmlrpcUrl);
+            json.put(KEY_REDIRECTS, new JSONArray(mRedirects));
+            json.put(KEY_METHODS, new JSONArray(mMethods));
+            json.put(KEY_USER_TRUSTED_CERTS, mUsesUserTrustedCerts);
+            json.put(KEY_TIMESTAMP, mTimestamp);
+            return json.toString();
+        }
+
+        private static Endpoint fromJson(String jsonString) throws JSONException {
+            JSONObject json = new JSONObject(jsonString);
+            List<String> redirects = new ArrayList<>();
+            JSONArray jsonRedirects = json.getJSONArray(KEY_REDIRECTS);
+            for (int i = 0; i < jsonRedirects.length(); i++) {
+                redirects.add(jsonRedirects.getString(i));
+            }
+            Set<String> methods = new HashSet<>();
+            JSONArray jsonMethods = json.getJSONArray(KEY_METHODS);
+            for (int i = 0; i < jsonMethods.length(); i++) {
+                methods.add(jsonMethods.getString(i));
+            }
+            return new Endpoint(json.getString(KEY_XMLRPC_URL), redirects, methods,
+                    json.getBoolean(KEY_USER_TRUSTED_CERTS), json.getLong(KEY_TIMESTAMP));
+        }
+    }
+
+    private XMLRPCDiscoveryCache() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the endpoint discovered for this site URL, or null if there's none or it has expired
+     */
+    public static Endpoint get(String siteUrl) {
+        SharedPreferences prefs = getPrefs();
+        if (prefs == null || TextUtils.isEmpty(siteUrl)) {
+            return null;
+        }
+        String key = getKey(siteUrl);
+        String jsonString = prefs.getString(key, null);
+        if (jsonString == null) {
+            return null;
+        }
+        try {
+            Endpoint endpoint = Endpoint.fromJson(jsonString);
+            if (!endpoint.isExpired() && URLUtil.isValidUrl(endpoint.getXmlrpcUrl())) {
+                return endpoint;
+            }
+        } catch (JSONException e) {
+            AppLog.e(T.NUX, "Invalid cached XML-RPC endpoint for " + siteUrl, e);
+        }
+        prefs.edit().remove(key).apply();
+        return null;
+    }
+
+    static void put(String siteUrl, String xmlrpcUrl, List<String> redirects, Object[] methods) {
+        SharedPreferences prefs = getPrefs();
+        if (prefs == null || TextUtils.isEmpty(siteUrl)) {
+            return;
+        }
+        Set<String> methodNames = new HashSet<>();
+        if (methods != null) {
+            for (Object method : methods) {
+                methodNames.add(String.valueOf(method));
+            }
+        }
+        boolean usesUserTrustedCerts = URLUtil.isHttpsUrl(xmlrpcUrl) && hasUserTrustedCerts();
+        Endpoint endpoint = new Endpoint(xmlrpcUrl, redirects != null ? redirects : new ArrayList<String>(),
+                methodNames, usesUserTrustedCerts, System.currentTimeMillis());
+        try {
+            prefs.edit().putString(getKey(siteUrl), endpoint.toJson()).apply();
+        } catch (JSONException e) {
+            AppLog.e(T.NUX, "Can't cache the XML-RPC endpoint for " + siteUrl, e);
+        }
+    }
+
+    /**
+     * Forget the endpoint discovered for this site URL
+     *
+     * @return true if there was one
+     */
+    public static boolean invalidate(String siteUrl) {
+        SharedPreferences prefs = getPrefs();
+        if (prefs == null || TextUtils.isEmpty(siteUrl) || !prefs.contains(getKey(siteUrl))) {
+            return false;
+        }
+        AppLog.i(T.NUX, "Invalidating the cached XML-RPC endpoint for " + siteUrl);
+        prefs.edit().remove(getKey(siteUrl)).apply();
+        return true;
+    }
+
+    /**
+     * Forget the endpoints that may depend on certificates trusted by the user, must be called when these
+     * certificates are removed.
+     */
+    public static void clearUserTrustedEndpoints() {
+        SharedPreferences prefs = getPrefs();
+        if (prefs == null) {
+            return;
+        }
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet()) {
+            try {
+                if (Endpoint.fromJson(String.valueOf(entry.getValue())).usesUserTrustedCerts()) {
+                    editor.remove(entry.getKey());
+                }
+            } catch (JSONException e) {
+                editor.remove(entry.getKey());
+            }
+        }
+        editor.apply();
+    }
+
+    public static void clear() {
+        SharedPreferences prefs = getPrefs();
+        if (prefs != null) {
+            prefs.edit().clear().apply();
+        }
+    }
+
+    private static String getKey(String siteUrl) {
+        return siteUrl.trim();
+    }
+
+    private static boolean hasUserTrustedCerts() {
+        try {
+            return SelfSignedSSLCertsManager.getInstance(WordPress.getContext()).getLocalKeyStore().size() > 0;
+        } catch (IOException | GeneralSecurityException e) {
+            // can't tell, assume the endpoint depends on them
+            return true;
+        }
+    }
+
+    private static SharedPreferences getPrefs() {
+        Context context = WordPress.getContext();
+        if (context == null) {
+            return null;
+        }
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
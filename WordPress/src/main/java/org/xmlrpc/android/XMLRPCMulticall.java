@@ -0,0 +1,175 @@
+package org.xmlrpc.android;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlrpc.android.ApiHelper.Method;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A list of XML-RPC calls sent to the server in a single system.multicall request.
+ *
+ * Results are returned in the order calls were added. A call that failed on the server doesn't fail the whole batch,
+ * its slot in the result array contains the {@link XMLRPCFault} instead, use {@link #getResult(Object[], int)} to
+ * unwrap it.
+ */
+public class XMLRPCMulticall {
+    private static final String KEY_METHOD_NAME = "methodName";
+    private static final String KEY_PARAMS = "params";
+    private static final String KEY_FAULT_CODE = "faultCode";
+    private static final String KEY_FAULT_STRING = "faultString";
+
+    // fault code used for calls that failed without a response when calls are made one by one, from the
+    // "specification for fault code interoperability"
+    public static final int FAULT_CODE_TRANSPORT_ERROR = -32300;
+
+    // system.multicall support for each endpoint, filled using system.listMethods
+    private static final Map<String, Boolean> sMulticallSupport = new ConcurrentHashMap<String, Boolean>();
+
+    private final List<String> mMethods = new ArrayList<String>();
+    private final List<Object[]> mParams = new ArrayList<Object[]>();
+
+    /**
+     * Add a call to the batch
+     *
+     * @return index of the result of this call
+     */
+    public int add(String method, Object[] params) {
+        mMethods.add(method);
+        mParams.add(params);
+        return mMethods.size() - 1;
+    }
+
+    public int size() {
+        return mMethods.size();
+    }
+
+    public String getMethod(int index) {
+        return mMethods.get(index);
+    }
+
+    public Object[] getParams(int index) {
+        return mParams.get(index);
+    }
+
+    /**
+     * Returns the result at the given index, or throws the fault the server returned for that call.
+     */
+    public static Object getResult(Object[] results, int index) throws XMLRPCFault {
+        Object result = results[index];
+        if (result instanceof XMLRPCFault) {
+            throw (XMLRPCFault) result;
+        }
+        return result;
+    }
+
+    /**
+     * Parameters of the system.multicall request: an array of {methodName, params} structs
+     */
+    Object[] toMulticallParams() {
+        Object[] calls = new Object[mMethods.size()];
+        for (int i = 0; i < mMethods.size(); i++) {
+            Map<String, Object> call = new HashMap<String, Object>();
+            call.put(KEY_METHOD_NAME, mMethods.get(i));
+            Object[] params = mParams.get(i);
+            call.put(KEY_PARAMS, params == null ? new Object[0] : params);
+            calls[i] = call;
+        }
+        return new Object[]{calls};
+    }
+
+    /**
+     * Split a system.multicall response: each item is either a one element array holding the result,
+     * or a fault struct.
+     */
+    Object[] demultiplex(Object response) throws XMLRPCException {
+        if (!(response instanceof Object[])) {
+            throw new XMLRPCException("Bad system.multicall response received - not an array");
+        }
+        Object[] responses = (Object[]) response;
+        if (responses.length != size()) {
+            throw new XMLRPCException("Bad system.multicall response received - expected " + size()
+                    + " results, got " + responses.length);
+        }
+        Object[] results = new Object[responses.length];
+        for (int i = 0; i < responses.length; i++) {
+            Object item = responses[i];
+            if (item instanceof Object[] && ((Object[]) item).length == 1) {
+                results[i] = ((Object[]) item)[0];
+            } else if (item instanceof Map) {
+                Map<?, ?> fault = (Map<?, ?>) item;
+                int faultCode = fault.get(KEY_FAULT_CODE) instanceof Integer ? (Integer) fault.get(KEY_FAULT_CODE) : 0;
+                results[i] = new XMLRPCFault(String.valueOf(fault.get(KEY_FAULT_STRING)), faultCode);
+            } else {
+                throw new XMLRPCException("Bad system.multicall response received for " + getMethod(i));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Run the calls one by one, used when the server doesn't support system.multicall. Faults are stored in the
+     * result array like in a multicall response. A call that fails for any other reason gets a transport error
+     * fault, so the results of the calls already made aren't lost - the error is only thrown if every call failed.
+     */
+    public Object[] callSequentially(XMLRPCClientInterface client)
+            throws XMLRPCException, IOException, XmlPullParserException {
+        Object[] results = new Object[size()];
+        Exception firstError = null;
+        boolean hasSucceeded = false;
+        for (int i = 0; i < size(); i++) {
+            try {
+                results[i] = client.call(getMethod(i), getParams(i));
+                hasSucceeded = true;
+            } catch (XMLRPCFault fault) {
+                results[i] = fault;
+                hasSucceeded = true;
+            } catch (XMLRPCException | IOException | XmlPullParserException e) {
+                AppLog.w(T.API, "sequential call to " + getMethod(i) + " failed: " + e.getMessage());
+                results[i] = new XMLRPCFault(String.valueOf(e.getMessage()), FAULT_CODE_TRANSPORT_ERROR);
+                if (firstError == null) {
+                    firstError = e;
+                }
+            }
+        }
+
+        if (!hasSucceeded && firstError != null) {
+            if (firstError instanceof IOException) {
+                throw (IOException) firstError;
+            } else if (firstError instanceof XmlPullParserException) {
+                throw (XmlPullParserException) firstError;
+            }
+            throw (XMLRPCException) firstError;
+        }
+        return results;
+    }
+
+    static Boolean isMulticallSupported(String endpoint) {
+        return sMulticallSupport.get(endpoint);
+    }
+
+    static void setMulticallSupported(String endpoint, boolean supported) {
+        if (!supported) {
+            AppLog.i(T.API, "system.multicall isn't available on " + endpoint + ", falling back to single calls");
+        }
+        sMulticallSupport.put(endpoint, supported);
+    }
+
+    static boolean containsMulticall(Object[] availableMethods) {
+        if (availableMethods == null) {
+            return false;
+        }
+        for (Object method : availableMethods) {
+            if (Method.MULTICALL.equals(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,23 +1,19 @@
 package org.xmlrpc.android;
 
-import android.text.TextUtils;
 import android.util.Base64;
-import android.util.Xml;
 
-import org.wordpress.android.util.helpers.MediaFile;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
-import org.wordpress.android.util.StringUtils;
+import org.wordpress.android.util.EmoticonsUtils;
+import org.wordpress.android.util.helpers.MediaFile;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlSerializer;
 
-import java.io.BufferedReader;
 import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -26,6 +22,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SimpleTimeZone;
@@ -47,23 +44,22 @@ class XMLRPCSerializer {
     static final String TYPE_ARRAY = "array";
     static final String TYPE_STRUCT = "struct";
 
-    static SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd'T'HH:mm:ss");
-    static Calendar cal = Calendar.getInstance(new SimpleTimeZone(0, "GMT"));
+    // must be a multiple of 3 bytes (24 bits) so chunks can be concatenated without padding
+    private static final int BASE64_CHUNK_SIZE = 3600;
+    // android.util.Base64.DEFAULT adds a line break every 76 characters
+    private static final int BASE64_LINE_LENGTH = 76;
 
-    private static final XmlSerializer serializeTester;
+    private static final String DATE_FORMAT = "yyyyMMdd'T'HH:mm:ss";
 
-    static {
-        serializeTester = Xml.newSerializer();
-        try {
-            serializeTester.setOutput(new NullOutputStream(), "UTF-8");
-        } catch (IllegalArgumentException e) {
-            AppLog.e(AppLog.T.EDITOR, "IllegalArgumentException setting test serializer output stream", e );
-        } catch (IllegalStateException e) {
-            AppLog.e(AppLog.T.EDITOR, "IllegalStateException setting test serializer output stream", e );
-        } catch (IOException e) {
-            AppLog.e(AppLog.T.EDITOR, "IOException setting test serializer output stream", e );
+    // SimpleDateFormat isn't thread safe, and calls are serialized and parsed from several threads
+    private static final ThreadLocal<SimpleDateFormat> sDateFormat = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT, Locale.US);
+            dateFormat.setCalendar(Calendar.getInstance(new SimpleTimeZone(0, "GMT")));
+            return dateFormat;
         }
-    }
+    };
 
     @SuppressWarnings("unchecked")
     static void serialize(XmlSerializer serializer, Object object) throws IOException {
@@ -75,7 +71,6 @@ class XMLRPCSerializer {
             // Note Long should be represented by a TYPE_I8 but the WordPress end point doesn't support <i8> tag
             // Long usually represents IDs, so we convert them to string
             serializer.startTag(null, TYPE_STRING).text(object.toString()).endTag(null, TYPE_STRING);
-            AppLog.w(T.API, "long type could be misinterpreted when sent to the WordPress XMLRPC end point");
         } else
         if (object instanceof Double || object instanceof Float) {
             serializer.startTag(null, TYPE_DOUBLE).text(object.toString()).endTag(null, TYPE_DOUBLE);
@@ -89,10 +84,8 @@ class XMLRPCSerializer {
             serializer.startTag(null, TYPE_STRING).text(makeValidInputString((String) object)).endTag(null, TYPE_STRING);
         } else
         if (object instanceof Date || object instanceof Calendar) {
-            Date date = (Date) object;
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd'T'HH:mm:ss");
-            dateFormat.setCalendar(cal);
-            String sDate = dateFormat.format(date);
+            Date date = object instanceof Calendar ? ((Calendar) object).getTime() : (Date) object;
+            String sDate = sDateFormat.get().format(date);
             serializer.startTag(null, TYPE_DATE_TIME_ISO8601).text(sDate).endTag(null, TYPE_DATE_TIME_ISO8601);
         } else
         if (object instanceof byte[] ){
@@ -109,14 +102,18 @@ class XMLRPCSerializer {
             serializer.startTag( null, "base64" );
             MediaFile mediaFile = (MediaFile) object;
             InputStream inStream = new DataInputStream(new FileInputStream(mediaFile.getFilePath()));
-            byte[] buffer = new byte[3600];//you must use a 24bit multiple
-            int length = -1;
-            String chunk = null;
-            while ((length = inStream.read(buffer)) > 0) {
-                chunk = Base64.encodeToString(buffer, 0, length, Base64.DEFAULT);
-                serializer.text(chunk);
+            byte[] buffer = new byte[BASE64_CHUNK_SIZE];
+            int length;
+            String chunk;
+            try {
+                // fill the whole buffer before encoding, a short read would add padding in the middle of the data
+                while ((length = readFully(inStream, buffer)) > 0) {
+                    chunk = Base64.encodeToString(buffer, 0, length, Base64.DEFAULT);
+                    serializer.text(chunk);
+                }
+            } finally {
+                inStream.close();
             }
-            inStream.close();
             serializer.endTag(null, "base64");
         }else
         if (object instanceof List<?>) {
@@ -164,36 +161,114 @@ class XMLRPCSerializer {
         }
     }
 
-    private static final String makeValidInputString(final String input) throws IOException {
-        if (TextUtils.isEmpty(input))
+    private static int readFully(InputStream inStream, byte[] buffer) throws IOException {
+        int total = 0;
+        int length;
+        while (total < buffer.length && (length = inStream.read(buffer, total, buffer.length - total)) > 0) {
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of characters written by {@link #serialize} for the base64 encoding of a file
+     * of the given size (encoded in {@link #BASE64_CHUNK_SIZE} chunks, each one followed by line breaks).
+     */
+    static long getBase64EncodedLength(long fileSize) {
+        long fullChunks = fileSize / BASE64_CHUNK_SIZE;
+        int remainder = (int) (fileSize % BASE64_CHUNK_SIZE);
+        return fullChunks * getBase64ChunkLength(BASE64_CHUNK_SIZE) + getBase64ChunkLength(remainder);
+    }
+
+    private static long getBase64ChunkLength(int chunkSize) {
+        if (chunkSize == 0) {
+            return 0;
+        }
+        long chars = 4 * ((chunkSize + 2) / 3);
+        long lineBreaks = (chars + BASE64_LINE_LENGTH - 1) / BASE64_LINE_LENGTH;
+        return chars + lineBreaks;
+    }
+
+    /**
+     * Returns a string the XmlSerializer accepts, in a single pass over the input: characters outside the BMP
+     * (emoji) are replaced with their WordPress smiley or an HTML entity, other characters not allowed by XML 1.0
+     * (see http://www.w3.org/TR/2000/REC-xml-20001006#NT-Char) are stripped. Surrogate pairs must not reach the
+     * platform serializer, which rejects them on older Android versions. The input is returned as is if it doesn't
+     * contain any of these, which is almost always the case.
+     */
+    static String makeValidInputString(final String input) {
+        if (input == null) {
             return "";
+        }
 
-        if (serializeTester == null)
+        final int length = input.length();
+        int i = 0;
+        while (i < length && isValidXMLChar(input.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
             return input;
+        }
 
-        try {
-            // try to encode the string as-is, 99.9% of the time it's OK
-            serializeTester.text(input);
-            return input;
-        } catch (IllegalArgumentException e) {
-            // There are characters outside the XML unicode charset as specified by the XML 1.0 standard
-            // See http://www.w3.org/TR/2000/REC-xml-20001006#NT-Char
-            AppLog.e(AppLog.T.EDITOR, "There are characters outside the XML unicode charset as specified by the XML 1.0 standard", e );
+        StringBuilder out = new StringBuilder(length + 16);
+        out.append(input, 0, i);
+        while (i < length) {
+            char current = input.charAt(i);
+            if (Character.isHighSurrogate(current) && i + 1 < length
+                    && Character.isLowSurrogate(input.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(current, input.charAt(i + 1));
+                String smiley = EmoticonsUtils.wpSmiliesCodePointToText.get(codePoint);
+                if (smiley != null) {
+                    out.append(smiley);
+                } else {
+                    out.append("&#x").append(Integer.toHexString(codePoint)).append(';');
+                }
+                i += 2;
+            } else {
+                // unpaired surrogates are dropped with the other invalid characters
+                if (isValidXMLChar(current)) {
+                    out.append(current);
+                }
+                i++;
+            }
         }
+        return out.toString();
+    }
+
+    /**
+     * XML 1.0 characters the serializer can write, surrogates excluded
+     */
+    private static boolean isValidXMLChar(char c) {
+        return (c >= 0x20 && c <= 0xD7FF) || c == 0x9 || c == 0xA || c == 0xD || (c >= 0xE000 && c <= 0xFFFD);
+    }
+
+    /**
+     * Deserialize an array value element by element: each element is handed to the visitor as soon as it's parsed
+     * and isn't kept, so memory use is bounded by the size of a single element.
+     *
+     * @return number of elements in the array
+     */
+    static int deserializeArray(XmlPullParser parser, XMLRPCArrayVisitor visitor)
+            throws XmlPullParserException, IOException, NumberFormatException {
+        parser.require(XmlPullParser.START_TAG, null, TAG_VALUE);
 
-        // We need to do the following things:
-        // 1. Replace surrogates with HTML Entity.
-        // 2. Replace emoji with their textual versions (if available on WP)
-        // 3. Try to serialize the resulting string.
-        // 4. If it fails again, strip characters that are not allowed in XML 1.0
-        final String noEmojiString = StringUtils.replaceUnicodeSurrogateBlocksWithHTMLEntities(input);
-        try {
-            serializeTester.text(noEmojiString);
-            return noEmojiString;
-        } catch (IllegalArgumentException e) {
-            AppLog.e(AppLog.T.EDITOR, "noEmojiString still contains characters outside the XML unicode charset as specified by the XML 1.0 standard", e );
-            return StringUtils.stripNonValidXMLCharacters(noEmojiString);
+        parser.nextTag();
+        parser.require(XmlPullParser.START_TAG, null, TYPE_ARRAY);
+        parser.nextTag(); // TAG_DATA (<data>)
+        parser.require(XmlPullParser.START_TAG, null, TAG_DATA);
+
+        parser.nextTag();
+        int count = 0;
+        while (parser.getName().equals(TAG_VALUE)) {
+            visitor.onArrayElement(count++, deserialize(parser));
+            parser.nextTag();
         }
+        parser.require(XmlPullParser.END_TAG, null, TAG_DATA);
+        parser.nextTag(); // TAG_ARRAY (</array>)
+        parser.require(XmlPullParser.END_TAG, null, TYPE_ARRAY);
+        parser.nextTag(); // TAG_VALUE (</value>)
+        parser.require(XmlPullParser.END_TAG, null, TAG_VALUE);
+        return count;
     }
 
     static Object deserialize(XmlPullParser parser) throws XmlPullParserException, IOException, NumberFormatException {
@@ -228,24 +303,17 @@ class XMLRPCSerializer {
             obj = parser.nextText();
         } else
         if (typeNodeName.equals(TYPE_DATE_TIME_ISO8601)) {
-            dateFormat.setCalendar(cal);
             String value = parser.nextText();
             try {
-                obj = dateFormat.parseObject(value);
+                obj = sDateFormat.get().parse(value);
             } catch (ParseException e) {
                 AppLog.e(T.API, e);
                 obj = value;
             }
         } else
         if (typeNodeName.equals(TYPE_BASE64)) {
-            String value = parser.nextText();
-            BufferedReader reader = new BufferedReader(new StringReader(value));
-            String line;
-            StringBuffer sb = new StringBuffer();
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
-            obj = Base64.decode(sb.toString(), Base64.DEFAULT);
+            // the decoder skips line breaks and other whitespace
+            obj = Base64.decode(parser.nextText(), Base64.DEFAULT);
         } else
         if (typeNodeName.equals(TYPE_ARRAY)) {
             parser.nextTag(); // TAG_DATA (<data>)
@@ -0,0 +1,239 @@
+package org.xmlrpc.android;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per host and per method XML-RPC call statistics: request and response sizes, time to first byte, parse time, and
+ * error counts. Recording is lock-free so it can be done on every call.
+ *
+ * Use {@link #logStats()} to add a summary to the AppLog, calls are sorted by total time so the ones dominating
+ * sync time come first.
+ */
+public class XMLRPCStats {
+    private static final ConcurrentMap<String, MethodStats> sStats = new ConcurrentHashMap<String, MethodStats>();
+
+    private XMLRPCStats() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the statistics of a method on a host, creating them if needed
+     */
+    static MethodStats get(String host, String method) {
+        String key = host + " " + method;
+        MethodStats stats = sStats.get(key);
+        if (stats == null) {
+            MethodStats newStats = new MethodStats(host, method);
+            stats = sStats.putIfAbsent(key, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns a snapshot of the recorded statistics, sorted by total time spent in the calls
+     */
+    public static List<MethodStats> getAll() {
+        List<MethodStats> allStats = new ArrayList<MethodStats>(sStats.values());
+        Collections.sort(allStats, new Comparator<MethodStats>() {
+            @Override
+            public int compare(MethodStats lhs, MethodStats rhs) {
+                long lhsTime = lhs.getTotalTimeMs();
+                long rhsTime = rhs.getTotalTimeMs();
+                return lhsTime > rhsTime ? -1 : (lhsTime == rhsTime ? 0 : 1);
+            }
+        });
+        return allStats;
+    }
+
+    public static void reset() {
+        sStats.clear();
+    }
+
+    public static void logStats() {
+        List<MethodStats> allStats = getAll();
+        if (allStats.isEmpty()) {
+            AppLog.i(T.API, "XML-RPC stats: no calls recorded");
+            return;
+        }
+        AppLog.i(T.API, "XML-RPC stats: calls, errors (fault/io/other), ttfb p50/p90/max ms, "
+                + "parse p50/p90/max ms, request avg bytes, response avg bytes");
+        for (MethodStats stats : allStats) {
+            AppLog.i(T.API, stats.toString());
+        }
+    }
+
+    public static class MethodStats {
+        private final String mHost;
+        private final String mMethod;
+        private final Histogram mRequestBytes = new Histogram();
+        private final Histogram mResponseBytes = new Histogram();
+        private final Histogram mTimeToFirstByteMs = new Histogram();
+        private final Histogram mParseTimeMs = new Histogram();
+        private final AtomicLong mFaultCount = new AtomicLong();
+        private final AtomicLong mIOErrorCount = new AtomicLong();
+        private final AtomicLong mOtherErrorCount = new AtomicLong();
+
+        private MethodStats(String host, String method) {
+            mHost = host;
+            mMethod = method;
+        }
+
+        void recordRequest(long bytes) {
+            mRequestBytes.record(bytes);
+        }
+
+        void recordTimeToFirstByte(long timeMs) {
+            mTimeToFirstByteMs.record(timeMs);
+        }
+
+        /**
+         * @param bytes number of bytes received, before decompression
+         * @param parseTimeMs time spent reading and parsing the response body
+         */
+        void recordResponse(long bytes, long parseTimeMs) {
+            mResponseBytes.record(bytes);
+            mParseTimeMs.record(parseTimeMs);
+        }
+
+        void recordFault() {
+            mFaultCount.incrementAndGet();
+        }
+
+        void recordIOError() {
+            mIOErrorCount.incrementAndGet();
+        }
+
+        void recordOtherError() {
+            mOtherErrorCount.incrementAndGet();
+        }
+
+        public String getHost() {
+            return mHost;
+        }
+
+        public String getMethod() {
+            return mMethod;
+        }
+
+        public Histogram getRequestBytes() {
+            return mRequestBytes;
+        }
+
+        public Histogram getResponseBytes() {
+            return mResponseBytes;
+        }
+
+        public Histogram getTimeToFirstByteMs() {
+            return mTimeToFirstByteMs;
+        }
+
+        public Histogram getParseTimeMs() {
+            return mParseTimeMs;
+        }
+
+        public long getFaultCount() {
+            return mFaultCount.get();
+        }
+
+        public long getIOErrorCount() {
+            return mIOErrorCount.get();
+        }
+
+        public long getOtherErrorCount() {
+            return mOtherErrorCount.get();
+        }
+
+        public long getTotalTimeMs() {
+            return mTimeToFirstByteMs.getSum() + mParseTimeMs.getSum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s %s: %d calls, errors %d/%d/%d, ttfb %d/%d/%d ms, "
+                            + "parse %d/%d/%d ms, request %d B, response %d B",
+                    mHost, mMethod, mRequestBytes.getCount(), getFaultCount(), getIOErrorCount(),
+                    getOtherErrorCount(), mTimeToFirstByteMs.getPercentile(0.5),
+                    mTimeToFirstByteMs.getPercentile(0.9), mTimeToFirstByteMs.getMax(),
+                    mParseTimeMs.getPercentile(0.5), mParseTimeMs.getPercentile(0.9), mParseTimeMs.getMax(),
+                    mRequestBytes.getMean(), mResponseBytes.getMean());
+        }
+    }
+
+    /**
+     * Lock-free histogram with power of two buckets: bucket 0 counts zeros, bucket i counts values in
+     * [2^(i-1), 2^i). Percentiles are approximated by the upper bound of their bucket.
+     */
+    public static class Histogram {
+        private static final int BUCKET_COUNT = 40;
+
+        private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mSum = new AtomicLong();
+        private final AtomicLong mMax = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            int bucket = Math.min(64 - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+            mBuckets.incrementAndGet(bucket);
+            mCount.incrementAndGet();
+            mSum.addAndGet(value);
+            long max;
+            while (value > (max = mMax.get()) && !mMax.compareAndSet(max, value)) {
+                // retry
+            }
+        }
+
+        public long getCount() {
+            return mCount.get();
+        }
+
+        public long getSum() {
+            return mSum.get();
+        }
+
+        public long getMax() {
+            return mMax.get();
+        }
+
+        public long getMean() {
+            long count = mCount.get();
+            return count == 0 ? 0 : mSum.get() / count;
+        }
+
+        /**
+         * @param percentile between 0 and 1
+         */
+        public long getPercentile(double percentile) {
+            long count = mCount.get();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * count);
+            long cumulativeCount = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                cumulativeCount += mBuckets.get(i);
+                if (cumulativeCount >= rank) {
+                    long upperBound = i == 0 ? 0 : (1L << i) - 1;
+                    return Math.min(upperBound, mMax.get());
+                }
+            }
+            return mMax.get();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.xmlrpc.android;
+
+import android.util.Xml;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.wordpress.android.util.helpers.MediaFile;
+import org.xmlpull.v1.XmlSerializer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HttpEntity that serializes an XML-RPC method call directly into the request output stream.
+ *
+ * Used for large calls (like wp.uploadFile) where the {@link MediaFile} parameters are base64 encoded on the fly,
+ * instead of being written to a temporary file first. The entity is sent using chunked transfer encoding since its
+ * exact length isn't known before serialization, but {@link #getEstimatedLength()} can be used to report progress.
+ */
+class XMLRPCStreamingEntity extends AbstractHttpEntity {
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    private final String mMethod;
+    private final Object[] mParams;
+    private final long mEstimatedLength;
+
+    XMLRPCStreamingEntity(String method, Object[] params) {
+        mMethod = method;
+        mParams = params;
+        mEstimatedLength = estimateBase64Length(params);
+        setContentType("text/xml; charset=\"UTF-8\"");
+        setChunked(true);
+    }
+
+    /**
+     * Returns the size of the base64 encoded media files contained in the parameters. The XML envelope isn't counted,
+     * so the actual number of bytes written is slightly larger.
+     */
+    long getEstimatedLength() {
+        return mEstimatedLength;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        // the body is serialized again from the source files on every call to writeTo()
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * The body is normally only written with {@link #writeTo(OutputStream)}, but HttpClient may also read it (when
+     * retrying, logging or wrapping the entity), so it's serialized to a temporary file which is deleted once the
+     * returned stream is closed.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        final File tempFile = File.createTempFile("xmlrpc", ".xml");
+        try {
+            OutputStream output = new FileOutputStream(tempFile);
+            try {
+                writeTo(output);
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw e;
+        }
+        return new FileInputStream(tempFile) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    //noinspection ResultOfMethodCallIgnored
+                    tempFile.delete();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        if (outstream == null) {
+            throw new IllegalArgumentException("Output stream may not be null");
+        }
+        BufferedOutputStream bufferedStream = new BufferedOutputStream(outstream, OUTPUT_BUFFER_SIZE);
+        XmlSerializer serializer = Xml.newSerializer();
+        serializer.setOutput(bufferedStream, "UTF-8");
+        XMLRPCClient.serializeMethodCall(serializer, mMethod, mParams);
+        bufferedStream.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long estimateBase64Length(Object object) {
+        long length = 0;
+        if (object instanceof MediaFile) {
+            String filePath = ((MediaFile) object).getFilePath();
+            if (filePath != null) {
+                length += XMLRPCSerializer.getBase64EncodedLength(new File(filePath).length());
+            }
+        } else if (object instanceof Object[]) {
+            for (Object o : (Object[]) object) {
+                length += estimateBase64Length(o);
+            }
+        } else if (object instanceof List<?>) {
+            for (Object o : (List<Object>) object) {
+                length += estimateBase64Length(o);
+            }
+        } else if (object instanceof Map) {
+            for (Object o : ((Map<String, Object>) object).values()) {
+                length += estimateBase64Length(o);
+            }
+        }
+        return length;
+    }
+}
@@ -197,13 +197,16 @@ public class XMLRPCUtils {
         return sanitizedURL;
     }
 
-    private static boolean checkXMLRPCEndpointValidity(String url, String httpUsername, String httpPassword) throws
+    /**
+     * @return the methods returned by system.listMethods if the endpoint is valid, null otherwise
+     */
+    private static Object[] checkXMLRPCEndpointValidity(String url, String httpUsername, String httpPassword) throws
             XMLRPCUtilsException {
         try {
             Object[] methods = (Object[]) doSystemListMethodsXMLRPC(url, httpUsername, httpPassword);
             if (methods == null) {
                 AppLog.e(AppLog.T.NUX, "The response of system.listMethods was empty!");
-                return false;
+                return null;
             }
             // Exit the loop on the first URL that replies with a XML-RPC doc.
             AppLog.i(AppLog.T.NUX, "system.listMethods replied with XML-RPC objects on the URL: " + url);
@@ -211,7 +214,7 @@ public class XMLRPCUtils {
             if (validateListMethodsResponse(methods)) {
                 // Endpoint address found and works fine.
                 AppLog.i(AppLog.T.NUX, "Validation ended with success!!! Endpoint found!!!");
-                return true;
+                return methods;
             } else {
                 // Endpoint found, but it has problem.
                 AppLog.w(AppLog.T.NUX, "Validation ended with errors!!! Endpoint found but doesn't contain all the " +
@@ -242,11 +245,26 @@ public class XMLRPCUtils {
                     .invalid_site_url_message, url, null);
         }
 
-        return false;
+        return null;
     }
 
+    /**
+     * Returns the XML-RPC endpoint of a self-hosted site, from the {@link XMLRPCDiscoveryCache} if it has already
+     * been discovered. If the returned endpoint doesn't work, call {@link XMLRPCDiscoveryCache#invalidate(String)}
+     * and try again.
+     */
     public static String verifyOrDiscoverXmlRpcUrl(final String siteUrl, final String httpUsername, final String
             httpPassword) throws XMLRPCUtilsException {
+        XMLRPCDiscoveryCache.Endpoint cachedEndpoint = XMLRPCDiscoveryCache.get(siteUrl);
+        if (cachedEndpoint != null) {
+            AppLog.i(AppLog.T.NUX, "Using the cached XML-RPC endpoint: " + cachedEndpoint.getXmlrpcUrl());
+            XMLRPCMulticall.setMulticallSupported(cachedEndpoint.getXmlrpcUrl(),
+                    cachedEndpoint.getMethods().contains(ApiHelper.Method.MULTICALL));
+            XMLRPCChunkedUpload.setAvailableMethods(cachedEndpoint.getXmlrpcUrl(), cachedEndpoint.getMethods());
+            return cachedEndpoint.getXmlrpcUrl();
+        }
+
+        List<String> redirects = new ArrayList<>();
         String xmlrpcUrl = XMLRPCUtils.verifyXmlrpcUrl(siteUrl, httpUsername, httpPassword);
 
         if (xmlrpcUrl == null) {
@@ -254,7 +272,7 @@ public class XMLRPCUtils {
                     ". Time to start the Endpoint discovery process");
 
             // Try to discover the XML-RPC Endpoint address
-            xmlrpcUrl = XMLRPCUtils.discoverSelfHostedXmlrpcUrl(siteUrl, httpUsername, httpPassword);
+            xmlrpcUrl = XMLRPCUtils.discoverSelfHostedXmlrpcUrl(siteUrl, httpUsername, httpPassword, redirects);
         }
 
         // Validate the XML-RPC URL we've found before. This check prevents a crash that can occur
@@ -266,6 +284,25 @@ public class XMLRPCUtils {
         return xmlrpcUrl;
     }
 
+    /**
+     * Returns true if the error means the XML-RPC endpoint doesn't work, as opposed to wrong credentials
+     */
+    public static boolean isEndpointError(XMLRPCUtilsException e) {
+        return e.errorMsgId != R.string.username_or_password_incorrect
+                && e.errorMsgId != R.string.account_two_step_auth_enabled;
+    }
+
+    /**
+     * Remember a working endpoint and the methods it supports
+     */
+    private static void onEndpointFound(String siteUrl, String xmlrpcUrl, List<String> redirects, Object[] methods) {
+        XMLRPCDiscoveryCache.put(siteUrl, xmlrpcUrl, redirects, methods);
+        XMLRPCMulticall.setMulticallSupported(xmlrpcUrl, XMLRPCMulticall.containsMulticall(methods));
+        if (methods != null) {
+            XMLRPCChunkedUpload.setAvailableMethods(xmlrpcUrl, Arrays.asList(methods));
+        }
+    }
+
     private static String verifyXmlrpcUrl(final String siteUrl, final String httpUsername, final String httpPassword)
             throws XMLRPCUtilsException {
         // Ordered set of Strings that contains the URLs we want to try. No discovery ;)
@@ -288,8 +325,10 @@ public class XMLRPCUtils {
         AppLog.i(AppLog.T.NUX, "The app will call system.listMethods on the following URLs: " + urlsToTry);
         for (String url : urlsToTry) {
             try {
-                if (XMLRPCUtils.checkXMLRPCEndpointValidity(url, httpUsername, httpPassword)) {
+                Object[] methods = XMLRPCUtils.checkXMLRPCEndpointValidity(url, httpUsername, httpPassword);
+                if (methods != null) {
                     // Endpoint found and works fine.
+                    onEndpointFound(siteUrl, url, null, methods);
                     return url;
                 }
             } catch (XMLRPCUtilsException e) {
@@ -314,8 +353,8 @@ public class XMLRPCUtils {
     // Attempts to retrieve the xmlrpc url for a self-hosted site.
     // See diagrams here https://github.com/wordpress-mobile/WordPress-Android/issues/3805 for details about the
     // whole process.
-    private static String discoverSelfHostedXmlrpcUrl(String siteUrl, String httpUsername, String httpPassword) throws
-            XMLRPCUtilsException {
+    private static String discoverSelfHostedXmlrpcUrl(String siteUrl, String httpUsername, String httpPassword,
+                                                      List<String> redirects) throws XMLRPCUtilsException {
         // Ordered set of Strings that contains the URLs we want to try
         final Set<String> urlsToTry = new LinkedHashSet<>();
 
@@ -335,7 +374,8 @@ public class XMLRPCUtils {
             try {
                 // Download the HTML content
                 AppLog.i(AppLog.T.NUX, "Downloading the HTML content at the following URL: " + currentURL);
-                String responseHTML = ApiHelper.getResponse(currentURL);
+                redirects.clear();
+                String responseHTML = ApiHelper.getResponse(currentURL, redirects);
                 if (TextUtils.isEmpty(responseHTML)) {
                     AppLog.w(AppLog.T.NUX, "Content downloaded but it's empty or null. Skipping this URL");
                     continue;
@@ -361,7 +401,7 @@ public class XMLRPCUtils {
                 } else {
                     AppLog.i(AppLog.T.NUX, "RSD endpoint found at the following address: " + rsdUrl);
                     AppLog.i(AppLog.T.NUX, "Downloading the RSD document...");
-                    String rsdEndpointDocument = ApiHelper.getResponse(rsdUrl);
+                    String rsdEndpointDocument = ApiHelper.getResponse(rsdUrl, redirects);
                     if (TextUtils.isEmpty(rsdEndpointDocument)) {
                         AppLog.w(AppLog.T.NUX, "Content downloaded but it's empty or null. Skipping this RSD document" +
                                 " URL.");
@@ -390,8 +430,10 @@ public class XMLRPCUtils {
         }
 
         if (URLUtil.isValidUrl(xmlrpcUrl)) {
-            if (checkXMLRPCEndpointValidity(xmlrpcUrl, httpUsername, httpPassword)) {
+            Object[] methods = checkXMLRPCEndpointValidity(xmlrpcUrl, httpUsername, httpPassword);
+            if (methods != null) {
                 // Endpoint found and works fine.
+                onEndpointFound(siteUrl, xmlrpcUrl, redirects, methods);
                 return xmlrpcUrl;
             }
         }
@@ -0,0 +1,48 @@
+package org.wordpress.android;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class WordPressDBPrefixMatchQueryTest {
+    @Test
+    public void testEveryWordIsAPrefix() {
+        assertEquals("sunset*", WordPressDB.getPrefixMatchQuery("sunset", null));
+        assertEquals("sunset* beach*", WordPressDB.getPrefixMatchQuery("  Sunset   BEACH ", null));
+    }
+
+    @Test
+    public void testWordsAreRestrictedToTheColumn() {
+        assertEquals("title:sunset* title:beach*", WordPressDB.getPrefixMatchQuery("sunset beach", "title"));
+    }
+
+    @Test
+    public void testQuotesAreDropped() {
+        assertEquals("sunset* beach*", WordPressDB.getPrefixMatchQuery("\"sunset beach\"", null));
+        assertEquals("it* s*", WordPressDB.getPrefixMatchQuery("it's", null));
+    }
+
+    @Test
+    public void testOperatorsAreSearchedAsWords() {
+        assertEquals("sunset* or* beach*", WordPressDB.getPrefixMatchQuery("sunset OR beach", null));
+        assertEquals("sunset* and* not* beach*", WordPressDB.getPrefixMatchQuery("sunset AND NOT beach", null));
+        assertEquals("sunset* near* 3* beach*", WordPressDB.getPrefixMatchQuery("sunset NEAR/3 beach", null));
+        assertEquals("sunset* beach*", WordPressDB.getPrefixMatchQuery("-sunset (beach*)", null));
+        assertEquals("caption* sunset*", WordPressDB.getPrefixMatchQuery("caption:sunset", null));
+    }
+
+    @Test
+    public void testLettersAndDigitsOfAnyScriptAreKept() {
+        assertEquals("caf\u00e9* 2015*", WordPressDB.getPrefixMatchQuery("Caf\u00e9 2015", null));
+        assertEquals("\u00e9cole*", WordPressDB.getPrefixMatchQuery("\u00c9COLE", null));
+        assertEquals("\u65e5\u672c*", WordPressDB.getPrefixMatchQuery("\u65e5\u672c", null));
+    }
+
+    @Test
+    public void testTermWithoutWords() {
+        assertNull(WordPressDB.getPrefixMatchQuery("", null));
+        assertNull(WordPressDB.getPrefixMatchQuery("   ", null));
+        assertNull(WordPressDB.getPrefixMatchQuery("\"*-()", "title"));
+    }
+}
@@ -0,0 +1,261 @@
+package org.xmlrpc.android;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xmlrpc.android.ApiHelper.Method;
+import org.xmlrpc.android.XMLRPCCallExecutor.Priority;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class XMLRPCChunkedUploadTest {
+    private static final String FILE_URL = "http://example.com/wp-content/uploads/video.mp4";
+
+    private File mFile;
+    private byte[] mContent;
+
+    @Before
+    public void setUp() throws IOException {
+        mContent = new byte[XMLRPCChunkedUpload.CHUNK_SIZE * 3 + 1234];
+        new Random(42).nextBytes(mContent);
+        mFile = File.createTempFile("chunked-upload", ".mp4");
+        FileOutputStream out = new FileOutputStream(mFile);
+        try {
+            out.write(mContent);
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        mFile.delete();
+    }
+
+    @Test
+    public void testUploadInChunks() throws Exception {
+        StandInServer server = new StandInServer();
+        RecordingListener listener = new RecordingListener();
+
+        Map<?, ?> result = newUpload(server, "http://chunks.example.com/xmlrpc.php").upload(null, listener);
+
+        assertNotNull(result);
+        assertEquals(FILE_URL, result.get("url"));
+        assertArrayEquals(mContent, server.getReceived());
+        assertEquals(4, server.mChunkCalls);
+        assertEquals(Arrays.asList((long) XMLRPCChunkedUpload.CHUNK_SIZE, 2L * XMLRPCChunkedUpload.CHUNK_SIZE,
+                3L * XMLRPCChunkedUpload.CHUNK_SIZE), listener.mUploadedBytes);
+    }
+
+    @Test
+    public void testResumeFromSavedProgress() throws Exception {
+        StandInServer server = new StandInServer();
+        server.mFailAfterChunks = 2;
+        RecordingListener listener = new RecordingListener();
+        XMLRPCChunkedUpload upload = newUpload(server, "http://resume.example.com/xmlrpc.php");
+        try {
+            upload.upload(null, listener);
+            fail("the upload should have been interrupted");
+        } catch (IOException e) {
+            // network lost
+        }
+
+        // resume later, as after the app was killed
+        server.mFailAfterChunks = -1;
+        server.mChunkCalls = 0;
+        Map<?, ?> result = newUpload(server, "http://resume.example.com/xmlrpc.php").upload(
+                new XMLRPCChunkedUpload.Progress(listener.mUploadId, listener.getLastUploadedBytes()), listener);
+
+        assertNotNull(result);
+        assertArrayEquals(mContent, server.getReceived());
+        // only the two remaining chunks are sent again
+        assertEquals(2, server.mChunkCalls);
+    }
+
+    @Test
+    public void testRestartWhenServerDroppedTheUpload() throws Exception {
+        StandInServer server = new StandInServer();
+        RecordingListener listener = new RecordingListener();
+
+        Map<?, ?> result = newUpload(server, "http://expired.example.com/xmlrpc.php").upload(
+                new XMLRPCChunkedUpload.Progress("unknown", XMLRPCChunkedUpload.CHUNK_SIZE), listener);
+
+        assertNotNull(result);
+        assertArrayEquals(mContent, server.getReceived());
+        assertNull(listener.mResetUploadId);
+        assertTrue(listener.mWasReset);
+    }
+
+    @Test
+    public void testFallbackWhenServerDoesNotSupportChunks() throws Exception {
+        String endpoint = "http://legacy.example.com/xmlrpc.php";
+        StandInServer server = new StandInServer();
+        server.mSupportsChunks = false;
+
+        assertTrue(XMLRPCChunkedUpload.shouldUploadInChunks(endpoint, mFile));
+        assertNull(newUpload(server, endpoint).upload(null, null));
+        assertFalse(XMLRPCChunkedUpload.isSupported(endpoint));
+        assertFalse(XMLRPCChunkedUpload.shouldUploadInChunks(endpoint, mFile));
+        // support is decided from system.listMethods, no chunk has been sent
+        assertEquals(1, server.mListMethodsCalls);
+        assertEquals(0, server.mChunkCalls);
+    }
+
+    @Test
+    public void testKnownMethodsSkipListMethods() throws Exception {
+        String endpoint = "http://discovered.example.com/xmlrpc.php";
+        StandInServer server = new StandInServer();
+        XMLRPCChunkedUpload.setAvailableMethods(endpoint, Arrays.asList(Method.UPLOAD_FILE, Method.UPLOAD_FILE_CHUNK));
+
+        assertNotNull(newUpload(server, endpoint).upload(null, null));
+        assertEquals(0, server.mListMethodsCalls);
+    }
+
+    private XMLRPCChunkedUpload newUpload(StandInServer server, String endpoint) {
+        XMLRPCChunkedUpload upload = new XMLRPCChunkedUpload(server, endpoint, 1, "user", "pass", mFile,
+                "video.mp4", "video/mp4");
+        upload.setRetryDelayMs(0);
+        return upload;
+    }
+
+    private static class RecordingListener implements XMLRPCChunkedUpload.Listener {
+        private final List<Long> mUploadedBytes = new ArrayList<Long>();
+        private String mUploadId;
+        private String mResetUploadId = "not reset";
+        private boolean mWasReset;
+
+        @Override
+        public void onChunkUploaded(String uploadId, long uploadedBytes, long totalBytes) {
+            if (uploadedBytes == 0) {
+                mWasReset = true;
+                mResetUploadId = uploadId;
+                return;
+            }
+            mUploadId = uploadId;
+            mUploadedBytes.add(uploadedBytes);
+        }
+
+        long getLastUploadedBytes() {
+            return mUploadedBytes.get(mUploadedBytes.size() - 1);
+        }
+    }
+
+    /**
+     * Stand-in for a server implementing wp.uploadFileChunk, it keeps the received bytes of a single upload
+     */
+    private static class StandInServer implements XMLRPCClientInterface {
+        private static final String UPLOAD_ID = "upload-1";
+
+        private final ByteArrayOutputStream mReceived = new ByteArrayOutputStream();
+        private boolean mSupportsChunks = true;
+        private int mFailAfterChunks = -1;
+        private int mChunkCalls;
+        private int mListMethodsCalls;
+        private boolean mStarted;
+
+        byte[] getReceived() {
+            return mReceived.toByteArray();
+        }
+
+        @Override
+        public Object call(String method, Object[] params) throws XMLRPCException, IOException {
+            if (Method.LIST_METHODS.equals(method)) {
+                mListMethodsCalls++;
+                return mSupportsChunks ? new Object[]{Method.UPLOAD_FILE, Method.UPLOAD_FILE_CHUNK}
+                        : new Object[]{Method.UPLOAD_FILE};
+            }
+            if (!mSupportsChunks || !Method.UPLOAD_FILE_CHUNK.equals(method)) {
+                throw new XMLRPCFault("server error. requested method " + method + " does not exist.", -32601);
+            }
+            if (mFailAfterChunks >= 0 && mChunkCalls >= mFailAfterChunks) {
+                throw new IOException("Network unreachable");
+            }
+            mChunkCalls++;
+
+            Map<?, ?> data = (Map<?, ?>) params[3];
+            Object uploadId = data.get("upload_id");
+            long offset = Long.parseLong(data.get("offset").toString());
+            long totalSize = Long.parseLong(data.get("total_size").toString());
+            if (uploadId == null) {
+                if (offset != 0) {
+                    throw new XMLRPCFault("A new upload must start at 0", 400);
+                }
+                mReceived.reset();
+                mStarted = true;
+            } else if (!mStarted || !UPLOAD_ID.equals(uploadId)) {
+                throw new XMLRPCFault("Unknown upload", 404);
+            } else if (offset != mReceived.size()) {
+                throw new XMLRPCFault("Unexpected offset", 400);
+            }
+
+            byte[] bits = (byte[]) data.get("bits");
+            mReceived.write(bits, 0, bits.length);
+
+            Map<String, Object> result = new HashMap<String, Object>();
+            if (mReceived.size() == totalSize) {
+                result.put("id", "12");
+                result.put("url", FILE_URL);
+                result.put("type", data.get("type"));
+            } else {
+                result.put("upload_id", UPLOAD_ID);
+                result.put("offset", String.valueOf(mReceived.size()));
+            }
+            return result;
+        }
+
+        @Override
+        public void addQuickPostHeader(String type) {
+        }
+
+        @Override
+        public void setAuthorizationHeader(String authToken) {
+        }
+
+        @Override
+        public Object call(String method) throws XMLRPCException, IOException {
+            return call(method, null);
+        }
+
+        @Override
+        public int callStreaming(String method, Object[] params, XMLRPCArrayVisitor visitor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object[] callMulticall(XMLRPCMulticall multicall) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long callAsync(XMLRPCCallback listener, String methodName, Object[] params) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long callAsync(XMLRPCCallback listener, String methodName, Object[] params, Priority priority) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getResponse() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.xmlrpc.android;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.kxml2.io.KXmlSerializer;
+import org.xmlpull.v1.XmlSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Throughput and allocation benchmarks for the XML-RPC serializer and parser, run on the JVM against the
+ * instrumentation test fixtures. Skipped unless the "benchmark" system property is set:
+ *
+ * ./gradlew testVanillaDebugUnitTest -Pbenchmark --tests org.xmlrpc.android.XMLRPCSerializerBenchmark
+ *
+ * Each benchmark is warmed up then measured over a fixed number of iterations, results are logged as operations
+ * per second and bytes allocated per operation (when the JVM supports allocation counting).
+ */
+public class XMLRPCSerializerBenchmark {
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    private static final Logger LOGGER = Logger.getLogger(XMLRPCSerializerBenchmark.class.getName());
+
+    private static final String[] RESPONSE_FIXTURES = {
+            XMLRPCSerializerTest.RECENT_POSTS_FIXTURE,
+            "default-wp.getComments.xml",
+            "default-wp.getMediaLibrary.xml"
+    };
+
+    // results are accumulated here so the JIT can't discard the benchmarked work
+    private static volatile int sBlackhole;
+
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        // the whole class is skipped in regular unit test runs
+        assumeTrue(Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void benchmarkParse() throws Exception {
+        for (String fixture : RESPONSE_FIXTURES) {
+            final byte[] document = readFixture(fixture);
+            measure("parse " + fixture, new Operation() {
+                @Override
+                public Object run() throws Exception {
+                    return XMLRPCClient.parseXMLRPCResponse(new ByteArrayInputStream(document), null);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void benchmarkStreamingParse() throws Exception {
+        final byte[] document = readFixture(XMLRPCSerializerTest.RECENT_POSTS_FIXTURE);
+        measure("parse streaming " + XMLRPCSerializerTest.RECENT_POSTS_FIXTURE, new Operation() {
+            @Override
+            public Object run() throws Exception {
+                return XMLRPCClient.parseXMLRPCResponse(new ByteArrayInputStream(document), null,
+                        new XMLRPCArrayVisitor() {
+                            @Override
+                            public void onArrayElement(int index, Object element) {
+                                sBlackhole += element.hashCode();
+                            }
+                        });
+            }
+        });
+    }
+
+    @Test
+    public void benchmarkSerialize() throws Exception {
+        final Object[] posts =
+                (Object[]) XMLRPCSerializerTest.parseFixture(XMLRPCSerializerTest.RECENT_POSTS_FIXTURE);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(512 * 1024);
+        measure("serialize metaWeblog.editPost x" + posts.length, new Operation() {
+            @Override
+            public Object run() throws Exception {
+                out.reset();
+                XmlSerializer serializer = new KXmlSerializer();
+                for (Object post : posts) {
+                    serializer.setOutput(out, "UTF-8");
+                    XMLRPCClient.serializeMethodCall(serializer, "metaWeblog.editPost",
+                            new Object[]{"1", "username", "password", post, true});
+                }
+                return out.size();
+            }
+        });
+    }
+
+    @Test
+    public void benchmarkMakeValidInputString() throws Exception {
+        Object[] posts = (Object[]) XMLRPCSerializerTest.parseFixture(XMLRPCSerializerTest.RECENT_POSTS_FIXTURE);
+        final String[] contents = new String[posts.length];
+        for (int i = 0; i < posts.length; i++) {
+            contents[i] = String.valueOf(((Map<?, ?>) posts[i]).get("description"));
+        }
+        measure("makeValidInputString x" + contents.length, new Operation() {
+            @Override
+            public Object run() throws Exception {
+                int length = 0;
+                for (String content : contents) {
+                    length += XMLRPCSerializer.makeValidInputString(content).length();
+                }
+                return length;
+            }
+        });
+    }
+
+    private static void measure(String name, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sBlackhole += operation.run().hashCode();
+        }
+
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sBlackhole += operation.run().hashCode();
+        }
+        long elapsedNs = System.nanoTime() - start;
+        long allocatedAfter = getAllocatedBytes();
+
+        double opsPerSecond = MEASURED_ITERATIONS * 1e9 / elapsedNs;
+        String allocation = allocatedBefore < 0 ? "n/a"
+                : String.valueOf((allocatedAfter - allocatedBefore) / MEASURED_ITERATIONS);
+        LOGGER.info(String.format(Locale.US, "%-60s %10.1f ops/s %14s B/op", name, opsPerSecond,
+                allocation));
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static byte[] readFixture(String name) throws Exception {
+        InputStream is = XMLRPCSerializerBenchmark.class.getClassLoader().getResourceAsStream(name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+}
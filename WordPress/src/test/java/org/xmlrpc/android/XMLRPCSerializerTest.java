@@ -0,0 +1,120 @@
+package org.xmlrpc.android;
+
+import org.junit.Test;
+import org.kxml2.io.KXmlSerializer;
+import org.xmlpull.v1.XmlSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Map;
+import java.util.SimpleTimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class XMLRPCSerializerTest {
+    static final String RECENT_POSTS_FIXTURE = "default-metaWeblog.getRecentPosts.xml";
+
+    @Test
+    public void testValidStringIsReturnedAsIs() {
+        String input = "Hello <b>World</b> \u00e9\u4e2d\t\n";
+        assertSame(input, XMLRPCSerializer.makeValidInputString(input));
+    }
+
+    @Test
+    public void testNullStringBecomesEmpty() {
+        assertEquals("", XMLRPCSerializer.makeValidInputString(null));
+    }
+
+    @Test
+    public void testSupplementaryCharactersAreReplacedWithEntities() {
+        assertEquals("smile &#x1f604; done", XMLRPCSerializer.makeValidInputString("smile \ud83d\ude04 done"));
+        // unpaired surrogates are stripped
+        assertEquals("smile  done", XMLRPCSerializer.makeValidInputString("smile \ud83d done"));
+        assertEquals("smile  done", XMLRPCSerializer.makeValidInputString("smile \ude04 done"));
+    }
+
+    @Test
+    public void testInvalidCharactersAreStripped() {
+        assertEquals("abcd", XMLRPCSerializer.makeValidInputString("a\u0000b\u0008c\ufffed"));
+    }
+
+    @Test
+    public void testUnpairedSurrogatesAreStripped() {
+        assertEquals("ab", XMLRPCSerializer.makeValidInputString("a\ud83db\ude04"));
+    }
+
+    @Test
+    public void testDateRoundTrip() throws Exception {
+        Calendar calendar = Calendar.getInstance(new SimpleTimeZone(0, "GMT"));
+        calendar.clear();
+        calendar.set(2014, Calendar.FEBRUARY, 11, 16, 4, 0);
+        Date date = calendar.getTime();
+
+        assertEquals(date, roundTrip(date));
+        assertEquals(date, roundTrip(calendar));
+    }
+
+    @Test
+    public void testLongIsSerializedAsString() throws Exception {
+        assertEquals("1234567890123", roundTrip(1234567890123L));
+    }
+
+    @Test
+    public void testRecentPostsRoundTrip() throws Exception {
+        Object[] posts = (Object[]) parseFixture(RECENT_POSTS_FIXTURE);
+        assertTrue(posts.length > 0);
+
+        assertValueEquals(posts, roundTrip(posts));
+    }
+
+    private static void assertValueEquals(Object expected, Object actual) {
+        if (expected instanceof Object[]) {
+            Object[] expectedArray = (Object[]) expected;
+            Object[] actualArray = (Object[]) actual;
+            assertEquals(expectedArray.length, actualArray.length);
+            for (int i = 0; i < expectedArray.length; i++) {
+                assertValueEquals(expectedArray[i], actualArray[i]);
+            }
+        } else if (expected instanceof Map) {
+            Map<?, ?> expectedMap = (Map<?, ?>) expected;
+            Map<?, ?> actualMap = (Map<?, ?>) actual;
+            assertEquals(expectedMap.keySet(), actualMap.keySet());
+            for (Object key : expectedMap.keySet()) {
+                assertValueEquals(expectedMap.get(key), actualMap.get(key));
+            }
+        } else {
+            assertEquals(expected, actual);
+        }
+    }
+
+    static Object parseFixture(String name) throws Exception {
+        InputStream is = XMLRPCSerializerTest.class.getClassLoader().getResourceAsStream(name);
+        try {
+            return XMLRPCClient.parseXMLRPCResponse(is, null);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Serialize the value as the result of a method response, and parse it back
+     */
+    private static Object roundTrip(Object value) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlSerializer serializer = new KXmlSerializer();
+        serializer.setOutput(out, "UTF-8");
+        serializer.startDocument("UTF-8", null);
+        serializer.startTag(null, "methodResponse").startTag(null, "params").startTag(null, "param");
+        serializer.startTag(null, XMLRPCSerializer.TAG_VALUE);
+        XMLRPCSerializer.serialize(serializer, value);
+        serializer.endTag(null, XMLRPCSerializer.TAG_VALUE);
+        serializer.endTag(null, "param").endTag(null, "params").endTag(null, "methodResponse");
+        serializer.endDocument();
+        return XMLRPCClient.parseXMLRPCResponse(new ByteArrayInputStream(out.toByteArray()), null);
+    }
+}